@@ -0,0 +1,46 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.codec.StockTickSerializer;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Publishing cost of {@link StockPriceProducer#send}: template, send window, completion
+ * callback, metrics and value serialization, against a producer that acknowledges at once.
+ */
+@State(Scope.Benchmark)
+public class KafkaSendBenchmark {
+
+    /** Value encoding of the topic. */
+    @Param({"BINARY", "JSON"})
+    public KafkaProducerProperties.PayloadFormat format;
+
+    private StockPriceProducer producer;
+
+    private StockTick tick;
+
+    @Setup
+    public void setUp() {
+        Serializer<StockTick> serializer = format == KafkaProducerProperties.PayloadFormat.BINARY
+                ? new StockTickSerializer()
+                : new JsonSerializer<StockTick>().noTypeInfo();
+        producer = new StockPriceProducer(RecyclingMockProducer.template(serializer),
+                new KafkaProducerProperties(), new SimpleMeterRegistry());
+        tick = new StockTick(0, "AAPL", 187.42, System.currentTimeMillis() * 1_000_000L, 1L);
+    }
+
+    @Benchmark
+    public boolean send() {
+        return producer.send(tick);
+    }
+
+}
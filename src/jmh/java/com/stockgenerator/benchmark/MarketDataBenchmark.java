@@ -0,0 +1,66 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.config.MarketDataProperties;
+import com.stockgenerator.marketdata.MarketDataSink;
+import com.stockgenerator.marketdata.OrderBookSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Order book simulation cost per symbol step, encoding included and Kafka excluded: one
+ * invocation steps {@value #SYMBOLS} books whose prices random-walk by up to two ticks.
+ * With the default settings a step emits the four random updates, the levels of the price move and 0.2 trades.
+ */
+@State(Scope.Thread)
+public class MarketDataBenchmark {
+
+    /** Symbols stepped per invocation. */
+    private static final int SYMBOLS = 10_000;
+
+    private OrderBookSimulator simulator;
+
+    private final double[] prices = new double[SYMBOLS];
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private ByteBuffer scratch;
+
+    private MarketDataSink sink;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        simulator = new OrderBookSimulator(SYMBOLS, new MarketDataProperties(), 0.01);
+        scratch = ByteBuffer.allocate(simulator.scratchSize());
+        for (int i = 0; i < SYMBOLS; i++) {
+            prices[i] = 10.0 + i % 500;
+        }
+        sink = new MarketDataSink() {
+            @Override
+            public void bookUpdate(int symbolId, ByteBuffer payload) {
+                blackhole.consume(payload.remaining());
+            }
+
+            @Override
+            public void trade(int symbolId, ByteBuffer payload) {
+                blackhole.consume(payload.remaining());
+            }
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SYMBOLS)
+    public long step() {
+        for (int i = 0; i < SYMBOLS; i++) {
+            prices[i] += (random.nextInt(5) - 2) * 0.01;
+        }
+        return simulator.step(0, SYMBOLS, id -> prices[id], System.nanoTime(), random, scratch, sink);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.engine.PriceKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * Geometric Brownian motion step of the scalar and the Vector API {@link PriceKernel}:
+ * one invocation advances {@value #SYMBOLS} prices with pre-drawn shocks, so scores are
+ * reported per price. The shocks alternate in sign so prices stay in range.
+ */
+@State(Scope.Thread)
+public class PriceKernelBenchmark {
+
+    /** Prices advanced per invocation. */
+    private static final int SYMBOLS = 10_000;
+
+    /** Kernel under test. */
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private PriceKernel priceKernel;
+
+    private final double[] prices = new double[SYMBOLS];
+
+    private final double[] shocks = new double[SYMBOLS];
+
+    private double sign = 1;
+
+    @Setup
+    public void setUp() {
+        priceKernel = kernel.equals("vector") ? PriceKernel.best() : PriceKernel.scalar();
+        if (kernel.equals("vector") && priceKernel == PriceKernel.scalar()) {
+            throw new IllegalStateException("Vector API unavailable; run with --add-modules jdk.incubator.vector");
+        }
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int i = 0; i < SYMBOLS; i++) {
+            prices[i] = 100 + random.nextDouble() * 200;
+            shocks[i] = random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SYMBOLS)
+    public double advance() {
+        sign = -sign;
+        // 5 s steps at 30% volatility
+        priceKernel.advance(prices, shocks, 0, SYMBOLS, 0, sign * 2.8e-4, 0.01);
+        return prices[SYMBOLS - 1];
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.config.PriceEngineProperties;
+import com.stockgenerator.engine.FactorModel;
+import com.stockgenerator.engine.PriceModelType;
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.engine.SymbolRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Price generation cost per tick for each {@link PriceModelType}, with independent or
+ * factor-correlated shocks: one invocation advances {@value #SYMBOLS} symbols by one step,
+ * so scores are reported per symbol tick. GBM uses the Vector API kernel, as
+ * {@link PriceKernelBenchmark} compares it with the scalar one.
+ */
+@State(Scope.Thread)
+public class PriceModelBenchmark {
+
+    /** Symbols advanced per invocation. */
+    private static final int SYMBOLS = 10_000;
+
+    /** Model under test. */
+    @Param({"GBM", "MEAN_REVERTING", "JUMP_DIFFUSION"})
+    public PriceModelType model;
+
+    /** Whether shocks are correlated by a market and 11-sector factor model. */
+    @Param({"false", "true"})
+    public boolean correlated;
+
+    private PricePathEngine engine;
+
+    private SymbolRandom random;
+
+    @Setup
+    public void setUp() {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        properties.setModel(model);
+        properties.setVectorize(true);
+        FactorModel factorModel = null;
+        if (correlated) {
+            int[] sectors = new int[SYMBOLS];
+            for (int i = 0; i < SYMBOLS; i++) {
+                sectors[i] = i % 11;
+            }
+            factorModel = new FactorModel(sectors, 11, 0.3, 0.6, properties.getSeed());
+        }
+        engine = new PricePathEngine(SYMBOLS, properties, factorModel);
+        random = engine.newRandom();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SYMBOLS)
+    public double advance() {
+        engine.advance(0, SYMBOLS, random);
+        return engine.price(SYMBOLS - 1);
+    }
+
+}
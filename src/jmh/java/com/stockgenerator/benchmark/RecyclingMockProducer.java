@@ -0,0 +1,61 @@
+package com.stockgenerator.benchmark;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link MockProducer} that serializes and acknowledges every record immediately and
+ * forgets its send history regularly, so long benchmark runs do not measure a growing list.
+ * Closing is ignored because {@link KafkaTemplate} closes its producer after each send.
+ *
+ * @param <V> the value type.
+ */
+final class RecyclingMockProducer<V> extends MockProducer<String, V> {
+
+    /** Sends between two history resets. */
+    private static final int HISTORY_LIMIT = 8192;
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    RecyclingMockProducer(Serializer<V> valueSerializer) {
+        super(true, new StringSerializer(), valueSerializer);
+    }
+
+    /**
+     * Creates a template sending through a recycling mock producer.
+     *
+     * @param valueSerializer the value serializer.
+     * @return the template.
+     */
+    static <V> KafkaTemplate<String, V> template(Serializer<V> valueSerializer) {
+        RecyclingMockProducer<V> producer = new RecyclingMockProducer<>(valueSerializer);
+        return new KafkaTemplate<>(() -> producer);
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<String, V> record, Callback callback) {
+        Future<RecordMetadata> result = super.send(record, callback);
+        if (sends.incrementAndGet() % HISTORY_LIMIT == 0) {
+            clear();
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void close(Duration timeout) {
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.codec.StockTickSerializer;
+import com.stockgenerator.config.BarProperties;
+import com.stockgenerator.config.HistoryProperties;
+import com.stockgenerator.config.JournalProperties;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.config.PersistenceProperties;
+import com.stockgenerator.journal.TickJournal;
+import com.stockgenerator.producer.MarketDataProducer;
+import com.stockgenerator.producer.StockPriceProducer;
+import com.stockgenerator.repository.PriceBarRepository;
+import com.stockgenerator.repository.PriceHistoryRepository;
+import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.repository.StockPriceUpsertRepository;
+import com.stockgenerator.service.BarService;
+import com.stockgenerator.service.DatabaseConcurrencyLimiter;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.service.PriceHistoryService;
+import com.stockgenerator.service.StockPriceService;
+import com.stockgenerator.service.StockPriceWriteBehind;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-tick cost of {@link StockPriceService} wired as in production against an in-memory H2
+ * database: last-value cache, write-behind upserts, tick history appends, bar aggregation,
+ * journaling to a temporary directory and Kafka publishing through a producer that
+ * acknowledges at once. The database writers run on their own threads, so this measures
+ * what the generation path pays while they keep up.
+ */
+@State(Scope.Benchmark)
+public class StockPriceServiceBenchmark {
+
+    /** Symbols in the universe. */
+    private static final int SYMBOLS = 10_000;
+
+    private StockPriceService service;
+
+    private StockPriceWriteBehind writeBehind;
+
+    private PriceHistoryService historyService;
+
+    private BarService barService;
+
+    private TickJournal tickJournal;
+
+    private SymbolUniverse universe;
+
+    /**
+     * Position of one benchmark thread in the universe.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int symbolId;
+        long sequence;
+
+        int next() {
+            symbolId = symbolId + 1 == SYMBOLS ? 0 : symbolId + 1;
+            return symbolId;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        // The benchmark jar merges driver service files, so register H2 explicitly
+        dataSource.setDriverClassName("org.h2.Driver");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_prices (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL UNIQUE, price DOUBLE NOT NULL, timestamp TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_price_ticks (symbol VARCHAR(32) NOT NULL, "
+                + "ts TIMESTAMP WITH TIME ZONE NOT NULL, seq BIGINT NOT NULL, price DOUBLE PRECISION NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_price_bars (symbol VARCHAR(32) NOT NULL, "
+                + "interval_seconds INTEGER NOT NULL, bucket_start TIMESTAMP WITH TIME ZONE NOT NULL, "
+                + "open DOUBLE PRECISION NOT NULL, high DOUBLE PRECISION NOT NULL, low DOUBLE PRECISION NOT NULL, "
+                + "close DOUBLE PRECISION NOT NULL, volume BIGINT NOT NULL, "
+                + "PRIMARY KEY (symbol, interval_seconds, bucket_start))");
+
+        List<String> symbols = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols.add(String.format("SYM%06d", i));
+        }
+        universe = new SymbolUniverse(symbols);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        DatabaseConcurrencyLimiter databaseLimiter = new DatabaseConcurrencyLimiter(8, Duration.ofSeconds(5),
+                meterRegistry);
+        writeBehind = new StockPriceWriteBehind(universe, new StockPriceUpsertRepository(jdbcTemplate),
+                new PersistenceProperties(), meterRegistry);
+        historyService = new PriceHistoryService(universe,
+                new PriceHistoryRepository(jdbcTemplate, new DataSourceTransactionManager(dataSource)),
+                new HistoryProperties(), databaseLimiter, meterRegistry);
+        StockPriceRepository stockPriceRepository = Mockito.mock(StockPriceRepository.class);
+        StockPriceProducer producer = new StockPriceProducer(RecyclingMockProducer.template(new StockTickSerializer()),
+                new KafkaProducerProperties(), meterRegistry);
+        MarketDataProducer marketDataProducer = new MarketDataProducer(
+                RecyclingMockProducer.template(new ByteArraySerializer()), universe,
+                new KafkaProducerProperties(), meterRegistry);
+        barService = new BarService(universe, new PriceBarRepository(jdbcTemplate), marketDataProducer,
+                new BarProperties(), databaseLimiter, meterRegistry);
+        JournalProperties journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(Files.createTempDirectory("tick-journal").toString());
+        journalProperties.setSegmentSize(DataSize.ofMegabytes(64));
+        journalProperties.setMaxSegments(2);
+        tickJournal = new TickJournal(journalProperties, meterRegistry);
+        service = new StockPriceService(stockPriceRepository, producer, writeBehind,
+                new LatestPriceCache(universe, stockPriceRepository), historyService, barService, tickJournal, universe,
+                Mockito.mock(EntityManager.class),
+                databaseLimiter,
+                new DataSourceTransactionManager(dataSource));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+        historyService.shutdown();
+        barService.shutdown();
+        tickJournal.shutdown();
+    }
+
+    /**
+     * The generation hot path: primitives in, one {@code StockTick} out.
+     */
+    @Benchmark
+    public void recordTick(Cursor cursor) {
+        service.recordTick(cursor.next(), 100.0 + (cursor.sequence & 1023) * 0.01,
+                System.currentTimeMillis(), ++cursor.sequence);
+    }
+
+    /**
+     * The symbol-based entry point, which also builds the returned {@code StockPrice}.
+     */
+    @Benchmark
+    public Object updateStockPriceAndPublish(Cursor cursor) {
+        return service.updateStockPriceAndPublish(universe.symbol(cursor.next()), 100.0 + (cursor.sequence++ & 1023) * 0.01);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.stockgenerator.benchmark;
+
+import com.stockgenerator.codec.StockTickDeserializer;
+import com.stockgenerator.codec.StockTickSerializer;
+import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kafka value encoding cost: the {@link StockPrice} JSON payload the producer used to send
+ * against the binary {@link StockTick} format and its JSON fallback.
+ */
+@State(Scope.Thread)
+public class TickSerializationBenchmark {
+
+    private static final String TOPIC = "stock-price-topic";
+
+    private final JsonSerializer<StockPrice> stockPriceJson = new JsonSerializer<>();
+
+    private final JsonSerializer<StockTick> tickJson = new JsonSerializer<StockTick>().noTypeInfo();
+
+    private final StockTickSerializer tickBinary = new StockTickSerializer();
+
+    private final JsonDeserializer<StockPrice> stockPriceJsonReader = new JsonDeserializer<>(StockPrice.class, false);
+
+    private final StockTickDeserializer tickBinaryReader = new StockTickDeserializer();
+
+    private final StockPrice stockPrice = new StockPrice(null, "AAPL", 187.42, LocalDateTime.now());
+
+    private final StockTick tick = new StockTick(0, "AAPL", 187.42, System.currentTimeMillis() * 1_000_000L, 1L);
+
+    private byte[] stockPricePayload;
+
+    private byte[] tickPayload;
+
+    @Setup
+    public void setUp() {
+        stockPricePayload = stockPriceJson.serialize(TOPIC, stockPrice);
+        tickPayload = tickBinary.serialize(TOPIC, tick);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stockPriceJson.close();
+        tickJson.close();
+    }
+
+    @Benchmark
+    public byte[] serializeStockPriceJson() {
+        return stockPriceJson.serialize(TOPIC, stockPrice);
+    }
+
+    @Benchmark
+    public byte[] serializeTickJson() {
+        return tickJson.serialize(TOPIC, tick);
+    }
+
+    @Benchmark
+    public byte[] serializeTickBinary() {
+        return tickBinary.serialize(TOPIC, tick);
+    }
+
+    @Benchmark
+    public StockPrice deserializeStockPriceJson() {
+        return stockPriceJsonReader.deserialize(TOPIC, stockPricePayload);
+    }
+
+    @Benchmark
+    public StockTick deserializeTickBinary() {
+        return tickBinaryReader.deserialize(TOPIC, tickPayload);
+    }
+
+}
@@ -3,6 +3,8 @@ package com.stockgenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Stock Price Generator microservice.
@@ -33,6 +35,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2025-02-17
  */
 @SpringBootApplication
+@EnableScheduling
+@ConfigurationPropertiesScan
 @Slf4j
 public class StockPriceGeneratorApplication {
 
@@ -0,0 +1,18 @@
+package com.stockgenerator.clock;
+
+/**
+ * What a {@link TickClock} does when a tick starts one or more whole periods after its deadline,
+ * selected with {@code stock.scheduler.overrun-policy}.
+ */
+public enum OverrunPolicy {
+
+    /** Drop the missed ticks and resume on the next deadline of the original grid. */
+    SKIP,
+
+    /** Run the missed ticks back to back, at most {@code stock.scheduler.max-catch-up} of them. */
+    CATCH_UP,
+
+    /** Run a single tick covering all missed periods, then resume on the original grid. */
+    COALESCE
+
+}
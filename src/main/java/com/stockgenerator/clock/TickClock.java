@@ -0,0 +1,240 @@
+package com.stockgenerator.clock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a task on a fixed grid of deadlines on its own platform thread, with periods down to microseconds.
+ * <p>
+ * The thread parks until {@code spinThreshold} before each deadline and busy-spins for the rest,
+ * so wake-up jitter of the OS timer does not delay the tick. Deadlines are derived from the start
+ * time rather than from the end of the previous tick, so the rate does not drift; a tick that
+ * starts one or more whole periods late is handled according to the {@link OverrunPolicy}.
+ * </p>
+ */
+@Slf4j
+public final class TickClock implements AutoCloseable {
+
+    /** Minimum pause between two logged task failures, in nanoseconds. */
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Clock name, used for the thread name and the meter tag. */
+    private final String name;
+
+    /** Interval between deadlines, in nanoseconds. */
+    private final long periodNanos;
+
+    /** Handling of late ticks. */
+    private final OverrunPolicy policy;
+
+    /** Time before a deadline from which the thread spins instead of parking, in nanoseconds. */
+    private final long spinNanos;
+
+    /** Maximum number of missed ticks run back to back under {@link OverrunPolicy#CATCH_UP}. */
+    private final int maxCatchUp;
+
+    /** The task run on every tick. */
+    private final Task task;
+
+    /** The clock thread. */
+    private final Thread thread;
+
+    /** Delay between each deadline and the actual start of its tick. */
+    private final Timer lateness;
+
+    /** Ticks run, each counted once however many periods it covers. */
+    private final Counter ticks;
+
+    /** Deadlines dropped without running a tick. */
+    private final Counter skipped;
+
+    /** Deadlines folded into a later tick. */
+    private final Counter coalesced;
+
+    /** Lateness of the last tick, in nanoseconds. */
+    private final AtomicLong lastLatenessNanos = new AtomicLong();
+
+    /** {@link System#nanoTime()} of the last logged task failure. */
+    private long lastFailureLog = System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS;
+
+    /** Cleared by {@link #close()} to stop the thread. */
+    private volatile boolean running = true;
+
+    /**
+     * Creates a clock; call {@link #start()} to begin ticking.
+     *
+     * @param name          the clock name.
+     * @param period        the interval between deadlines; at least one microsecond.
+     * @param policy        the handling of late ticks.
+     * @param spinThreshold the time before a deadline from which the thread spins instead of parking.
+     * @param maxCatchUp    the maximum number of missed ticks run back to back under {@link OverrunPolicy#CATCH_UP}.
+     * @param task          the task run on every tick.
+     * @param meterRegistry registry for lateness and overrun metrics.
+     */
+    public TickClock(String name, Duration period, OverrunPolicy policy, Duration spinThreshold, int maxCatchUp,
+                     Task task, MeterRegistry meterRegistry) {
+        if (period.toNanos() < 1_000) {
+            throw new IllegalArgumentException("Tick clock " + name + " period must be at least 1us, was " + period);
+        }
+        this.name = name;
+        this.periodNanos = period.toNanos();
+        this.policy = policy;
+        this.spinNanos = Math.max(0, spinThreshold.toNanos());
+        this.maxCatchUp = Math.max(0, maxCatchUp);
+        this.task = task;
+        this.thread = Thread.ofPlatform().name("tick-clock-" + name).daemon(true).unstarted(this::run);
+        this.thread.setPriority(Thread.MAX_PRIORITY);
+
+        this.lateness = Timer.builder("stock.clock.lateness")
+                .description("Delay between a tick deadline and the start of the tick")
+                .tag("clock", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("stock.clock.drift", lastLatenessNanos, late -> late.get() / (double) TimeUnit.MILLISECONDS.toNanos(1))
+                .description("Lateness of the last tick in milliseconds")
+                .tag("clock", name)
+                .register(meterRegistry);
+        this.ticks = Counter.builder("stock.clock.ticks")
+                .description("Ticks run")
+                .tag("clock", name)
+                .register(meterRegistry);
+        this.skipped = Counter.builder("stock.clock.skipped")
+                .description("Deadlines dropped because a tick overran")
+                .tag("clock", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("stock.clock.coalesced")
+                .description("Deadlines folded into a later tick because a tick overran")
+                .tag("clock", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the clock thread; the first deadline is one period from now.
+     */
+    public void start() {
+        thread.start();
+        log.info("Started tick clock {} every {} us ({})", name, periodNanos / 1_000.0, policy);
+    }
+
+    /**
+     * Stops the clock and waits for the running tick to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the clock name.
+     *
+     * @return the name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Ticks until closed.
+     */
+    private void run() {
+        long deadline = System.nanoTime() + periodNanos;
+        while (running) {
+            awaitDeadline(deadline);
+            if (!running) {
+                return;
+            }
+            long start = System.nanoTime();
+            long late = Math.max(0, start - deadline);
+            lateness.record(late, TimeUnit.NANOSECONDS);
+            lastLatenessNanos.set(late);
+
+            long missed = late / periodNanos;
+            int periods = 1;
+            if (missed > 0) {
+                switch (policy) {
+                    case SKIP -> {
+                        skipped.increment(missed);
+                        deadline += missed * periodNanos;
+                    }
+                    case COALESCE -> {
+                        coalesced.increment(missed);
+                        deadline += missed * periodNanos;
+                        periods = (int) Math.min(Integer.MAX_VALUE, missed + 1);
+                    }
+                    case CATCH_UP -> {
+                        // The deadline stays behind, so the following ticks run without waiting
+                        if (missed > maxCatchUp) {
+                            skipped.increment(missed - maxCatchUp);
+                            deadline += (missed - maxCatchUp) * periodNanos;
+                        }
+                    }
+                }
+            }
+            runTask(periods);
+            deadline += periodNanos;
+        }
+    }
+
+    /**
+     * Parks until {@code spinNanos} before the deadline, then spins until it passes.
+     */
+    private void awaitDeadline(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > spinNanos) {
+            LockSupport.parkNanos(remaining - spinNanos);
+            if (!running) {
+                return;
+            }
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Runs the task, logging failures at most once per second so one bad tick cannot stop the clock.
+     */
+    private void runTask(int periods) {
+        try {
+            task.tick(periods);
+        } catch (RuntimeException e) {
+            long now = System.nanoTime();
+            if (now - lastFailureLog >= FAILURE_LOG_INTERVAL_NANOS) {
+                lastFailureLog = now;
+                log.error("Tick of clock {} failed: {}", name, e.getMessage(), e);
+            }
+        } finally {
+            ticks.increment();
+        }
+    }
+
+    /**
+     * Work run on every tick of a {@link TickClock}.
+     */
+    @FunctionalInterface
+    public interface Task {
+
+        /**
+         * Runs one tick.
+         *
+         * @param periods the number of clock periods the tick covers: 1, or more when
+         *                {@link OverrunPolicy#COALESCE} folded missed deadlines into it.
+         */
+        void tick(int periods);
+    }
+
+}
@@ -0,0 +1,293 @@
+package com.stockgenerator.codec;
+
+import com.stockgenerator.model.BookDelta;
+import com.stockgenerator.model.BookUpdate;
+import com.stockgenerator.model.PriceBar;
+import com.stockgenerator.model.TradePrint;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Binary encoding of order book updates and trades, written straight from primitives.
+ * <p>
+ * Like {@link TickCodec}, every payload starts with a format version byte, followed by a
+ * record type byte. Prices are fixed point with {@link TickCodec#PRICE_SCALE}. All
+ * numbers are big-endian. A version 1 book update is a 24 byte header followed by
+ * 13 bytes per delta:
+ * </p>
+ * <pre>
+ * offset size field
+ *      0    1 version (1)
+ *      1    1 type ('B')
+ *      2    4 symbol id (int)
+ *      6    8 epoch nanos (long)
+ *     14    8 sequence (long)
+ *     22    2 delta count (unsigned short)
+ *     24   13 per delta: side (0 bid, 1 ask), price (long), size (int, 0 removes the level)
+ * </pre>
+ * <p>
+ * A version 1 trade is 35 bytes:
+ * </p>
+ * <pre>
+ * offset size field
+ *      0    1 version (1)
+ *      1    1 type ('T')
+ *      2    4 symbol id (int)
+ *      6    8 epoch nanos (long)
+ *     14    8 sequence (long)
+ *     22    8 price (long)
+ *     30    4 size (int)
+ *     34    1 aggressor (0 buyer, 1 seller)
+ * </pre>
+ * <p>
+ * A version 1 OHLCV bar is 58 bytes:
+ * </p>
+ * <pre>
+ * offset size field
+ *      0    1 version (1)
+ *      1    1 type ('O')
+ *      2    4 symbol id (int)
+ *      6    4 interval seconds (int)
+ *     10    8 interval start epoch millis (long)
+ *     18   32 open, high, low, close (longs)
+ *     50    8 volume in ticks (long)
+ * </pre>
+ */
+public final class MarketDataCodec {
+
+    /** Current format version. */
+    public static final byte VERSION_1 = 1;
+
+    /** Record type of book updates. */
+    public static final byte TYPE_BOOK = 'B';
+
+    /** Record type of trades. */
+    public static final byte TYPE_TRADE = 'T';
+
+    /** Record type of OHLCV bars. */
+    public static final byte TYPE_BAR = 'O';
+
+    /** Size of a version 1 book update header in bytes. */
+    public static final int BOOK_HEADER_SIZE = 2 + Integer.BYTES + Long.BYTES * 2 + Short.BYTES;
+
+    /** Size of one version 1 book delta in bytes. */
+    public static final int DELTA_SIZE = 1 + Long.BYTES + Integer.BYTES;
+
+    /** Size of a version 1 trade in bytes. */
+    public static final int TRADE_SIZE = 2 + Integer.BYTES + Long.BYTES * 3 + Integer.BYTES + 1;
+
+    /** Size of a version 1 bar in bytes. */
+    public static final int BAR_SIZE = 2 + Integer.BYTES * 2 + Long.BYTES * 6;
+
+    /** Maximum number of deltas in one book update. */
+    public static final int MAX_DELTAS = 0xFFFF;
+
+    /** Offset of the delta count in a book update. */
+    private static final int DELTA_COUNT_OFFSET = BOOK_HEADER_SIZE - Short.BYTES;
+
+    private MarketDataCodec() {
+    }
+
+    /**
+     * Returns the size of a book update with the given number of deltas.
+     *
+     * @param deltas the number of deltas.
+     * @return the payload size in bytes.
+     */
+    public static int bookUpdateSize(int deltas) {
+        return BOOK_HEADER_SIZE + deltas * DELTA_SIZE;
+    }
+
+    /**
+     * Clears the buffer and writes a book update header with no deltas yet.
+     *
+     * @param buffer     the target, large enough for the header and every delta to come.
+     * @param symbolId   the symbol id.
+     * @param epochNanos the update time in epoch nanoseconds.
+     * @param sequence   the symbol's market data sequence number.
+     */
+    public static void beginBookUpdate(ByteBuffer buffer, int symbolId, long epochNanos, long sequence) {
+        buffer.clear();
+        buffer.put(VERSION_1)
+                .put(TYPE_BOOK)
+                .putInt(symbolId)
+                .putLong(epochNanos)
+                .putLong(sequence)
+                .putShort((short) 0);
+    }
+
+    /**
+     * Appends a delta to the book update being written.
+     *
+     * @param buffer the buffer passed to {@link #beginBookUpdate}.
+     * @param bid    {@code true} for the bid side.
+     * @param price  the level price.
+     * @param size   the new level size; 0 removes the level.
+     */
+    public static void putDelta(ByteBuffer buffer, boolean bid, double price, int size) {
+        buffer.put(bid ? (byte) 0 : (byte) 1)
+                .putLong(Math.round(price * TickCodec.PRICE_SCALE))
+                .putInt(size);
+    }
+
+    /**
+     * Completes the book update being written and flips the buffer for reading.
+     *
+     * @param buffer the buffer passed to {@link #beginBookUpdate}.
+     * @return the number of deltas written.
+     * @throws SerializationException if more than {@link #MAX_DELTAS} deltas were written.
+     */
+    public static int endBookUpdate(ByteBuffer buffer) {
+        int deltas = (buffer.position() - BOOK_HEADER_SIZE) / DELTA_SIZE;
+        if (deltas > MAX_DELTAS) {
+            throw new SerializationException("Too many book deltas: " + deltas);
+        }
+        buffer.putShort(DELTA_COUNT_OFFSET, (short) deltas);
+        buffer.flip();
+        return deltas;
+    }
+
+    /**
+     * Clears the buffer, writes a trade and flips the buffer for reading.
+     *
+     * @param buffer         the target, with room for {@link #TRADE_SIZE} bytes.
+     * @param symbolId       the symbol id.
+     * @param epochNanos     the trade time in epoch nanoseconds.
+     * @param sequence       the symbol's market data sequence number.
+     * @param price          the execution price.
+     * @param size           the executed size.
+     * @param buyerInitiated {@code true} if a buyer lifted the ask.
+     */
+    public static void encodeTrade(ByteBuffer buffer, int symbolId, long epochNanos, long sequence,
+                                   double price, int size, boolean buyerInitiated) {
+        buffer.clear();
+        buffer.put(VERSION_1)
+                .put(TYPE_TRADE)
+                .putInt(symbolId)
+                .putLong(epochNanos)
+                .putLong(sequence)
+                .putLong(Math.round(price * TickCodec.PRICE_SCALE))
+                .putInt(size)
+                .put(buyerInitiated ? (byte) 0 : (byte) 1);
+        buffer.flip();
+    }
+
+    /**
+     * Clears the buffer, writes an OHLCV bar and flips the buffer for reading.
+     *
+     * @param buffer          the target, with room for {@link #BAR_SIZE} bytes.
+     * @param symbolId        the symbol id.
+     * @param intervalSeconds the bar interval in seconds.
+     * @param startMillis     the interval start in epoch milliseconds.
+     * @param open            the first price.
+     * @param high            the highest price.
+     * @param low             the lowest price.
+     * @param close           the last price.
+     * @param volume          the number of ticks.
+     */
+    public static void encodeBar(ByteBuffer buffer, int symbolId, int intervalSeconds, long startMillis,
+                                 double open, double high, double low, double close, long volume) {
+        buffer.clear();
+        buffer.put(VERSION_1)
+                .put(TYPE_BAR)
+                .putInt(symbolId)
+                .putInt(intervalSeconds)
+                .putLong(startMillis)
+                .putLong(Math.round(open * TickCodec.PRICE_SCALE))
+                .putLong(Math.round(high * TickCodec.PRICE_SCALE))
+                .putLong(Math.round(low * TickCodec.PRICE_SCALE))
+                .putLong(Math.round(close * TickCodec.PRICE_SCALE))
+                .putLong(volume);
+        buffer.flip();
+    }
+
+    /**
+     * Reads a book update of any supported version at the buffer's position.
+     *
+     * @param buffer the source.
+     * @return the book update.
+     * @throws SerializationException if the version or type is unexpected or the payload is truncated.
+     */
+    public static BookUpdate decodeBookUpdate(ByteBuffer buffer) {
+        readHeader(buffer, TYPE_BOOK, BOOK_HEADER_SIZE);
+        int symbolId = buffer.getInt();
+        long epochNanos = buffer.getLong();
+        long sequence = buffer.getLong();
+        int count = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() < count * DELTA_SIZE) {
+            throw new SerializationException("Truncated book update: " + count + " deltas, "
+                    + buffer.remaining() + " bytes");
+        }
+        List<BookDelta> deltas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean bid = buffer.get() == 0;
+            double price = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+            deltas.add(new BookDelta(bid, price, buffer.getInt()));
+        }
+        return new BookUpdate(symbolId, epochNanos, sequence, deltas);
+    }
+
+    /**
+     * Reads a trade of any supported version at the buffer's position.
+     *
+     * @param buffer the source.
+     * @return the trade.
+     * @throws SerializationException if the version or type is unexpected or the payload is truncated.
+     */
+    public static TradePrint decodeTrade(ByteBuffer buffer) {
+        readHeader(buffer, TYPE_TRADE, TRADE_SIZE);
+        int symbolId = buffer.getInt();
+        long epochNanos = buffer.getLong();
+        long sequence = buffer.getLong();
+        double price = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+        int size = buffer.getInt();
+        boolean buyerInitiated = buffer.get() == 0;
+        return new TradePrint(symbolId, epochNanos, sequence, price, size, buyerInitiated);
+    }
+
+    /**
+     * Reads an OHLCV bar of any supported version at the buffer's position.
+     *
+     * @param buffer  the source.
+     * @param symbols resolves symbol ids to symbols.
+     * @return the bar.
+     * @throws SerializationException if the version or type is unexpected or the payload is truncated.
+     */
+    public static PriceBar decodeBar(ByteBuffer buffer, IntFunction<String> symbols) {
+        readHeader(buffer, TYPE_BAR, BAR_SIZE);
+        int symbolId = buffer.getInt();
+        int intervalSeconds = buffer.getInt();
+        Instant start = Instant.ofEpochMilli(buffer.getLong());
+        double open = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+        double high = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+        double low = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+        double close = (double) buffer.getLong() / TickCodec.PRICE_SCALE;
+        return new PriceBar(symbols.apply(symbolId), intervalSeconds, start, open, high, low, close, buffer.getLong());
+    }
+
+    /**
+     * Checks the version, type and minimum size, leaving the buffer after the type byte.
+     */
+    private static void readHeader(ByteBuffer buffer, byte expectedType, int minSize) {
+        if (buffer.remaining() < 2) {
+            throw new SerializationException("Empty market data payload");
+        }
+        byte version = buffer.get();
+        if (version != VERSION_1) {
+            throw new SerializationException("Unsupported market data format version " + version);
+        }
+        byte type = buffer.get();
+        if (type != expectedType) {
+            throw new SerializationException("Expected market data type " + (char) expectedType + ", got " + (char) type);
+        }
+        if (buffer.remaining() < minSize - 2) {
+            throw new SerializationException("Truncated market data payload: " + (buffer.remaining() + 2) + " bytes");
+        }
+    }
+
+}
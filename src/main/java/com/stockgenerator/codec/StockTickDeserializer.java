@@ -0,0 +1,41 @@
+package com.stockgenerator.codec;
+
+import com.stockgenerator.model.StockTick;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.function.IntFunction;
+
+/**
+ * Kafka {@link Deserializer} reading ticks in the {@link TickCodec} binary format.
+ * <p>
+ * The payload carries only the symbol id; pass a resolver, such as
+ * {@code SymbolUniverse::symbol}, to fill in the symbol, or read it from the record key.
+ * </p>
+ */
+public class StockTickDeserializer implements Deserializer<StockTick> {
+
+    /** Resolves symbol ids to symbols; {@code null} leaves the symbol unset. */
+    private final IntFunction<String> symbols;
+
+    /**
+     * Creates a deserializer that leaves the symbol unset, for use by class name in consumer configs.
+     */
+    public StockTickDeserializer() {
+        this(null);
+    }
+
+    /**
+     * Creates a deserializer resolving symbols from their ids.
+     *
+     * @param symbols the symbol resolver.
+     */
+    public StockTickDeserializer(IntFunction<String> symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public StockTick deserialize(String topic, byte[] data) {
+        return data == null ? null : TickCodec.decode(data, symbols);
+    }
+
+}
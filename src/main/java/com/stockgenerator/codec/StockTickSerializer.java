@@ -0,0 +1,16 @@
+package com.stockgenerator.codec;
+
+import com.stockgenerator.model.StockTick;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka {@link Serializer} writing ticks in the {@link TickCodec} binary format.
+ */
+public class StockTickSerializer implements Serializer<StockTick> {
+
+    @Override
+    public byte[] serialize(String topic, StockTick tick) {
+        return tick == null ? null : TickCodec.encode(tick);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.stockgenerator.codec;
+
+import com.stockgenerator.model.StockTick;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * Fixed-layout binary encoding of {@link StockTick}.
+ * <p>
+ * Every payload starts with a format version byte so the layout can evolve while old
+ * records remain readable. Version 1 is 29 big-endian bytes:
+ * </p>
+ * <pre>
+ * offset size field
+ *      0    1 version (1)
+ *      1    4 symbol id (int, -1 outside the universe)
+ *      5    8 price * {@value #PRICE_SCALE} (long)
+ *     13    8 epoch nanos (long)
+ *     21    8 sequence (long)
+ * </pre>
+ * <p>
+ * The symbol itself is not encoded; it is the record key, and readers sharing the
+ * symbol universe can resolve it from the id.
+ * </p>
+ */
+public final class TickCodec {
+
+    /** Current format version. */
+    public static final byte VERSION_1 = 1;
+
+    /** Size of a version 1 payload in bytes. */
+    public static final int V1_SIZE = 1 + Integer.BYTES + Long.BYTES * 3;
+
+    /** Fixed-point scale of encoded prices: four decimal places. */
+    public static final long PRICE_SCALE = 10_000L;
+
+    private TickCodec() {
+    }
+
+    /**
+     * Encodes a tick in the current format.
+     *
+     * @param tick the tick.
+     * @return the payload.
+     */
+    public static byte[] encode(StockTick tick) {
+        byte[] payload = new byte[V1_SIZE];
+        encode(tick, ByteBuffer.wrap(payload));
+        return payload;
+    }
+
+    /**
+     * Writes a tick in the current format at the buffer's position.
+     *
+     * @param tick   the tick.
+     * @param buffer the target, with at least {@link #V1_SIZE} bytes remaining.
+     */
+    public static void encode(StockTick tick, ByteBuffer buffer) {
+        buffer.put(VERSION_1)
+                .putInt(tick.symbolId())
+                .putLong(Math.round(tick.price() * PRICE_SCALE))
+                .putLong(tick.epochNanos())
+                .putLong(tick.sequence());
+    }
+
+    /**
+     * Writes a tick in the current format at an absolute offset, leaving the buffer's
+     * position unchanged. The version byte is written last, so a reader that sees it
+     * non-zero after a crash sees a complete record unless the pages were torn.
+     *
+     * @param buffer     the target.
+     * @param offset     the offset of the record, with {@link #V1_SIZE} bytes available.
+     * @param symbolId   the symbol id.
+     * @param price      the price.
+     * @param epochNanos the tick time in epoch nanoseconds.
+     * @param sequence   the tick sequence number.
+     */
+    public static void put(ByteBuffer buffer, int offset, int symbolId, double price, long epochNanos,
+                           long sequence) {
+        buffer.putInt(offset + 1, symbolId)
+                .putLong(offset + 5, Math.round(price * PRICE_SCALE))
+                .putLong(offset + 13, epochNanos)
+                .putLong(offset + 21, sequence)
+                .put(offset, VERSION_1);
+    }
+
+    /**
+     * Decodes a payload of any supported version.
+     *
+     * @param payload  the payload.
+     * @param symbols  resolves symbol ids to symbols; the decoded symbol is {@code null} when
+     *                 this is {@code null} or returns {@code null}.
+     * @return the tick.
+     * @throws SerializationException if the version is unknown or the payload is truncated.
+     */
+    public static StockTick decode(byte[] payload, IntFunction<String> symbols) {
+        return decode(ByteBuffer.wrap(payload), symbols);
+    }
+
+    /**
+     * Reads a tick of any supported version at the buffer's position.
+     *
+     * @param buffer  the source.
+     * @param symbols resolves symbol ids to symbols; may be {@code null}.
+     * @return the tick.
+     * @throws SerializationException if the version is unknown or the payload is truncated.
+     */
+    public static StockTick decode(ByteBuffer buffer, IntFunction<String> symbols) {
+        if (!buffer.hasRemaining()) {
+            throw new SerializationException("Empty tick payload");
+        }
+        byte version = buffer.get();
+        if (version != VERSION_1) {
+            throw new SerializationException("Unsupported tick format version " + version);
+        }
+        if (buffer.remaining() < V1_SIZE - 1) {
+            throw new SerializationException("Truncated tick payload: " + (buffer.remaining() + 1) + " bytes");
+        }
+        int symbolId = buffer.getInt();
+        double price = (double) buffer.getLong() / PRICE_SCALE;
+        long epochNanos = buffer.getLong();
+        long sequence = buffer.getLong();
+        String symbol = symbols != null && symbolId >= 0 ? symbols.apply(symbolId) : null;
+        return new StockTick(symbolId, symbol, price, epochNanos, sequence);
+    }
+
+}
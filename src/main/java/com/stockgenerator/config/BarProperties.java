@@ -0,0 +1,45 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the OHLCV bar aggregation, bound from {@code stock.bars.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.bars")
+public class BarProperties {
+
+    /** Whether generated ticks are aggregated into bars. */
+    private boolean enabled = true;
+
+    /** Bar intervals; each must be a whole number of seconds. */
+    private List<Duration> intervals = new ArrayList<>(List.of(
+            Duration.ofSeconds(1), Duration.ofMinutes(1), Duration.ofMinutes(5)));
+
+    /** Completed bars kept in memory per symbol and interval; costs 48 bytes each. */
+    private int retention = 60;
+
+    /** Capacity of the buffer of completed bars awaiting the writer (rounded up to a power of two). */
+    private int bufferSize = 1 << 14;
+
+    /** Maximum number of rows per JDBC batch. */
+    private int batchSize = 1000;
+
+    /** Pause between drains of an empty buffer. */
+    private Duration drainInterval = Duration.ofMillis(200);
+
+    /** Whether completed bars are written to {@code stock_price_bars}. */
+    private boolean persist = true;
+
+    /** Whether completed bars are published to the bars topic. */
+    private boolean publish = true;
+
+    /** Maximum number of bars per request. */
+    private int maxPageSize = 10_000;
+
+}
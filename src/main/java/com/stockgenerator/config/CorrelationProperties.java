@@ -0,0 +1,37 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the market and sector factor model correlating generated prices,
+ * bound from {@code stock.correlation.*}.
+ * <p>
+ * Symbols listed under {@link #sectors} belong to that sector; the others are spread
+ * over {@link #syntheticSectors} sectors by symbol id, or belong to no sector when it is 0.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.correlation")
+public class CorrelationProperties {
+
+    /** Whether the shocks of the symbols are correlated; otherwise every symbol moves independently. */
+    private boolean enabled = false;
+
+    /** Correlation of the shocks of any two symbols. */
+    private double market = 0.3;
+
+    /** Correlation of the shocks of two symbols in the same sector; at least {@link #market}. */
+    private double sector = 0.6;
+
+    /** Symbols per named sector. */
+    private Map<String, List<String>> sectors = new LinkedHashMap<>();
+
+    /** Sectors the unlisted symbols are spread over. */
+    private int syntheticSectors = 11;
+
+}
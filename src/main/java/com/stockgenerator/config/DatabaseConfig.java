@@ -0,0 +1,69 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.service.DatabaseConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the bound on blocking database calls made by request threads.
+ */
+@Configuration
+@Slf4j
+public class DatabaseConfig {
+
+    /** Pool size assumed when the datasource is not a Hikari pool. */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Creates the limiter, sized by {@code stock.database.max-concurrency} or else by the
+     * datasource pool, leaving the connections of the enabled background writers free.
+     *
+     * @param properties        the database limits.
+     * @param historyProperties the tick history configuration, for its writer.
+     * @param barProperties     the bar configuration, for its writer.
+     * @param dataSource        the application datasource.
+     * @param meterRegistry     registry for limiter metrics.
+     * @return the {@link DatabaseConcurrencyLimiter}.
+     */
+    @Bean
+    public DatabaseConcurrencyLimiter databaseConcurrencyLimiter(DatabaseProperties properties,
+                                                                 HistoryProperties historyProperties,
+                                                                 BarProperties barProperties,
+                                                                 DataSource dataSource,
+                                                                 MeterRegistry meterRegistry) {
+        int maxConcurrency = properties.getMaxConcurrency();
+        if (maxConcurrency <= 0) {
+            int poolSize = dataSource instanceof HikariDataSource hikari
+                    ? hikari.getMaximumPoolSize()
+                    : DEFAULT_POOL_SIZE;
+            maxConcurrency = Math.max(1, poolSize - backgroundConnections(historyProperties, barProperties));
+        }
+        log.info("Limiting blocking database calls to {} concurrent", maxConcurrency);
+        return new DatabaseConcurrencyLimiter(maxConcurrency, properties.getAcquireTimeout(), meterRegistry);
+    }
+
+    /**
+     * Counts the connections held by background writer threads: the write-behind flusher,
+     * plus the history writer and the bar writer when they are enabled.
+     *
+     * @param historyProperties the tick history configuration.
+     * @param barProperties     the bar configuration.
+     * @return the number of background connections.
+     */
+    static int backgroundConnections(HistoryProperties historyProperties, BarProperties barProperties) {
+        int connections = 1;
+        if (historyProperties.isEnabled()) {
+            connections++;
+        }
+        if (barProperties.isEnabled() && barProperties.isPersist()) {
+            connections++;
+        }
+        return connections;
+    }
+
+}
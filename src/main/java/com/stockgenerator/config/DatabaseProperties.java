@@ -0,0 +1,24 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits of blocking database work on request threads, bound from {@code stock.database.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.database")
+public class DatabaseProperties {
+
+    /**
+     * Maximum number of concurrent blocking database calls; 0 means the datasource pool size
+     * minus the connections held by the write-behind, history and bar writer threads.
+     */
+    private int maxConcurrency = 0;
+
+    /** Maximum time a call waits for a free slot before it fails. */
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,29 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the real-time price feed served over SSE and WebSocket, bound from {@code stock.feed.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.feed")
+public class FeedProperties {
+
+    /** Pause between dispatches of changed prices to subscribers; changes within it are conflated. */
+    private Duration dispatchInterval = Duration.ofMillis(100);
+
+    /** Maximum number of concurrent subscribers across SSE and WebSocket. */
+    private int maxSubscribers = 10_000;
+
+    /** Lifetime of an SSE connection; zero keeps it open until the client disconnects. */
+    private Duration sseTimeout = Duration.ZERO;
+
+    /** Origins allowed to open the WebSocket; empty allows same-origin only. */
+    private List<String> allowedOrigins = new ArrayList<>();
+
+}
@@ -0,0 +1,200 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.engine.FactorModel;
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.state.StateSnapshot;
+import com.stockgenerator.state.SymbolStateStore;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Configuration of the price generation pipeline: the symbol universe, its off-heap
+ * state and its snapshot, the price engine and the executor running the generation shards.
+ */
+@Configuration
+@Slf4j
+public class GenerationConfig {
+
+    /**
+     * Loads the symbol universe from {@code stock.universe.*}.
+     *
+     * @param properties     the universe configuration.
+     * @param resourceLoader loader resolving {@code stock.universe.file}.
+     * @return the {@link SymbolUniverse}.
+     */
+    @Bean
+    public SymbolUniverse symbolUniverse(SymbolUniverseProperties properties, ResourceLoader resourceLoader) {
+        List<String> symbols = new ArrayList<>(properties.getSymbols());
+        if (properties.getFile() != null && !properties.getFile().isBlank()) {
+            symbols.addAll(readSymbols(resourceLoader.getResource(properties.getFile())));
+        }
+        for (int i = 1; i <= properties.getSyntheticCount(); i++) {
+            symbols.add(String.format("SYM%06d", i));
+        }
+        SymbolUniverse universe = new SymbolUniverse(symbols);
+        log.info("Loaded symbol universe of {} symbols", universe.size());
+        return universe;
+    }
+
+    /**
+     * Creates the handle of the universe's state snapshot at {@code stock.snapshot.file}.
+     *
+     * @param universe   the symbol universe.
+     * @param properties the snapshot configuration.
+     * @return the {@link StateSnapshot}.
+     */
+    @Bean
+    public StateSnapshot stateSnapshot(SymbolUniverse universe, SnapshotProperties properties) {
+        return new StateSnapshot(Path.of(properties.getFile()), universe.fingerprint());
+    }
+
+    /**
+     * Creates the off-heap store of the universe's per-symbol state, mapped to
+     * {@code stock.state.file} when it is set, and restores it from the state snapshot
+     * when {@code stock.snapshot.enabled} is set and a snapshot of this universe exists.
+     *
+     * @param universe           the symbol universe.
+     * @param properties         the state store configuration.
+     * @param snapshot           the state snapshot.
+     * @param snapshotProperties the snapshot configuration.
+     * @param meterRegistry      registry for the store size gauge.
+     * @return the {@link SymbolStateStore}.
+     */
+    @Bean
+    public SymbolStateStore symbolStateStore(SymbolUniverse universe, StateProperties properties,
+                                             StateSnapshot snapshot, SnapshotProperties snapshotProperties,
+                                             MeterRegistry meterRegistry) {
+        SymbolStateStore store;
+        if (properties.getFile() != null && !properties.getFile().isBlank()) {
+            Path file = Path.of(properties.getFile());
+            try {
+                store = SymbolStateStore.map(file, universe.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map symbol state store " + file + ": " + e.getMessage(), e);
+            }
+        } else {
+            store = SymbolStateStore.allocate(universe.size());
+        }
+        if (snapshotProperties.isEnabled()) {
+            snapshot.restore(store);
+        }
+        Gauge.builder("stock.state.bytes", store, SymbolStateStore::bytes)
+                .description("Off-heap bytes of per-symbol state")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("Keeping state of {} symbols off-heap in {} MB{}", universe.size(), store.bytes() >> 20,
+                store.file() != null ? " mapped to " + store.file() : "");
+        return store;
+    }
+
+    /**
+     * Creates the price engine covering the whole universe, with correlated shocks when
+     * {@code stock.correlation.enabled} is set.
+     *
+     * @param store       the symbol state store.
+     * @param universe    the symbol universe.
+     * @param properties  the engine configuration.
+     * @param correlation the factor model configuration.
+     * @return the {@link PricePathEngine}.
+     */
+    @Bean
+    public PricePathEngine pricePathEngine(SymbolStateStore store, SymbolUniverse universe,
+                                           PriceEngineProperties properties, CorrelationProperties correlation) {
+        FactorModel factorModel = correlation.isEnabled() ? factorModel(universe, properties, correlation) : null;
+        PricePathEngine engine = new PricePathEngine(store, properties, factorModel);
+        log.info("Advancing {} prices with the {} model, batch kernel {}", universe.size(), properties.getModel(),
+                engine.kernel());
+        return engine;
+    }
+
+    /**
+     * Creates the executor running generation shards, backed by platform or virtual
+     * threads according to {@code stock.scheduler.pool-type}.
+     *
+     * @param properties the scheduler configuration.
+     * @return the generation {@link ExecutorService}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService generationExecutor(SchedulerProperties properties) {
+        if (properties.getPoolType() == SchedulerProperties.PoolType.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("generation-", 0).factory());
+        }
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        ThreadFactory factory = Thread.ofPlatform().name("generation-", 0).daemon(true).factory();
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Assigns every symbol of the universe to a sector and builds the factor model.
+     */
+    private static FactorModel factorModel(SymbolUniverse universe, PriceEngineProperties properties,
+                                           CorrelationProperties correlation) {
+        int[] sectors = new int[universe.size()];
+        Arrays.fill(sectors, -1);
+        int named = 0;
+        for (Map.Entry<String, List<String>> sector : correlation.getSectors().entrySet()) {
+            for (String symbol : sector.getValue()) {
+                int id = universe.id(symbol);
+                if (id < 0) {
+                    log.warn("Sector {} lists {}, which is not in the universe", sector.getKey(), symbol);
+                } else {
+                    sectors[id] = named;
+                }
+            }
+            named++;
+        }
+        int synthetic = Math.max(0, correlation.getSyntheticSectors());
+        for (int id = 0; id < sectors.length; id++) {
+            if (sectors[id] < 0 && synthetic > 0) {
+                sectors[id] = named + id % synthetic;
+            }
+        }
+        log.info("Correlating {} symbols over {} sectors, market {} and sector {}", universe.size(),
+                named + synthetic, correlation.getMarket(), correlation.getSector());
+        return new FactorModel(sectors, named + synthetic, correlation.getMarket(), correlation.getSector(),
+                properties.getSeed());
+    }
+
+    /**
+     * Reads one symbol per line, skipping blank lines and {@code #} comments.
+     */
+    private static List<String> readSymbols(Resource resource) {
+        List<String> symbols = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    symbols.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read symbol universe from " + resource, e);
+        }
+        return symbols;
+    }
+
+}
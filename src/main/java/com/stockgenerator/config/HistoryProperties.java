@@ -0,0 +1,36 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the append-only tick history, bound from {@code stock.history.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.history")
+public class HistoryProperties {
+
+    /** Whether generated ticks are appended to {@code stock_price_ticks}. */
+    private boolean enabled = true;
+
+    /** Capacity of the in-memory tick buffer (rounded up to a power of two); ticks are dropped when full. */
+    private int bufferSize = 1 << 16;
+
+    /** Maximum number of rows per JDBC insert batch. */
+    private int batchSize = 1000;
+
+    /** Pause between drains of an empty buffer. */
+    private Duration drainInterval = Duration.ofMillis(200);
+
+    /** Number of daily partitions created ahead of the current day. */
+    private int partitionDaysAhead = 3;
+
+    /** Upper bound of the {@code limit} parameter of history queries. */
+    private int maxPageSize = 10_000;
+
+    /** JDBC fetch size used when streaming history rows. */
+    private int fetchSize = 1000;
+
+}
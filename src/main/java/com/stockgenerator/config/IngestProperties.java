@@ -0,0 +1,21 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the bulk publish endpoint, bound from {@code stock.ingest.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.ingest")
+public class IngestProperties {
+
+    /** Ticks parsed before they are handed to the producer together. */
+    private int batchSize = 512;
+
+    /** Delay suggested to clients in the {@code Retry-After} header of a 429 response. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,38 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.journal.JournalSyncPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the tick journal, bound from {@code stock.journal.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.journal")
+public class JournalProperties {
+
+    /** Whether every generated tick is appended to the journal. */
+    private boolean enabled = false;
+
+    /** Directory of the segment files. */
+    private String directory = "journal";
+
+    /** Size at which a segment rolls; at most 2 GB. */
+    private DataSize segmentSize = DataSize.ofMegabytes(256);
+
+    /** Age at which a segment rolls even if it is not full. */
+    private Duration segmentDuration = Duration.ofHours(1);
+
+    /** When segments are forced to disk. */
+    private JournalSyncPolicy sync = JournalSyncPolicy.INTERVAL;
+
+    /** Period of the {@link JournalSyncPolicy#INTERVAL} sync and of the segment age check. */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    /** Sealed segments kept; older ones are deleted. 0 keeps all. */
+    private int maxSegments = 16;
+
+}
@@ -1,18 +1,26 @@
 package com.stockgenerator.config;
 
-import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.codec.StockTickSerializer;
+import com.stockgenerator.model.StockTick;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Configuration class for setting up Kafka producer properties and topics.
@@ -25,45 +33,121 @@ import java.util.Map;
 public class KafkaConfig {
 
     /**
-     * The address of the Kafka broker.
-     * Default Kafka port 9092 on localhost.
+     * The topic name for publishing stock price updates.
      */
-    private static final String KAFKA_BROKER = "localhost:9092";
+    private static final String STOCK_TOPIC = "stock-price-topic";
 
     /**
-     * The topic name for publishing stock price updates.
+     * The topic name for publishing incremental L2 order book updates.
      */
-    private static final String STOCK_TOPIC = "stock-price-topic";
+    public static final String BOOK_TOPIC = "stock-book-topic";
+
+    /**
+     * The topic name for publishing trade prints.
+     */
+    public static final String TRADE_TOPIC = "stock-trade-topic";
+
+    /**
+     * The topic name for publishing completed OHLCV bars.
+     */
+    public static final String BAR_TOPIC = "stock-bar-topic";
+
+    /**
+     * The compacted topic holding the latest price of every symbol, keyed by symbol.
+     */
+    public static final String LATEST_TOPIC = "stock-price-latest-topic";
+
+    /**
+     * Largest {@code max.in.flight.requests.per.connection} that keeps ordering with idempotence.
+     */
+    private static final int MAX_IDEMPOTENT_IN_FLIGHT = 5;
+
+    /**
+     * Producer settings from {@code stock.kafka.*}.
+     */
+    private final KafkaProducerProperties properties;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param properties the producer settings.
+     */
+    public KafkaConfig(KafkaProducerProperties properties) {
+        this.properties = properties;
+    }
 
     /**
      * Defines the configuration properties for the Kafka producer.
+     * <p>
+     * Pass-through settings from {@code stock.kafka.properties} are merged last, and the
+     * idempotence check applies to the merged result.
+     * </p>
      *
      * @return a map containing Kafka producer configurations.
+     * @throws IllegalStateException if idempotence is enabled with more than 5 in-flight requests.
      */
     @Bean
     public Map<String, Object> producerConfigs() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_BROKER);
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        props.put(ProducerConfig.ACKS_CONFIG, "all"); // Ensures all replicas acknowledge
-        props.put(ProducerConfig.RETRIES_CONFIG, 3);  // Number of retries for sending
-        props.put(ProducerConfig.LINGER_MS_CONFIG, 1); // Adds a small delay for batching
-        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Prevents duplicates
+        props.put(ProducerConfig.ACKS_CONFIG, properties.getAcks());
+        props.put(ProducerConfig.RETRIES_CONFIG, properties.getRetries());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, properties.isIdempotence());
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, properties.getMaxInFlightRequestsPerConnection());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, properties.effectiveLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, properties.effectiveBatchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.effectiveCompressionType());
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, properties.getBufferMemory());
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, properties.getMaxBlock().toMillis());
+        props.putAll(properties.getProperties());
+
+        boolean idempotence = Boolean.parseBoolean(String.valueOf(props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG)));
+        int inFlight = Integer.parseInt(String.valueOf(props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION)));
+        if (idempotence && inFlight > MAX_IDEMPOTENT_IN_FLIGHT) {
+            throw new IllegalStateException("max.in.flight.requests.per.connection must be at most "
+                    + MAX_IDEMPOTENT_IN_FLIGHT + " while idempotence is enabled");
+        }
         return props;
     }
 
     /**
      * Creates a producer factory using the configured producer properties.
      * <p>
-     * The producer factory is responsible for creating Kafka producers.
+     * The producer factory is responsible for creating Kafka producers. Values are encoded
+     * per topic as configured by {@code stock.kafka.topic-payload-formats}, falling back to
+     * {@code stock.kafka.payload-format}.
      * </p>
      *
      * @return the {@link ProducerFactory} for Kafka.
      */
     @Bean
-    public ProducerFactory<String, StockPrice> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfigs());
+    public ProducerFactory<String, StockTick> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(), new StringSerializer(), valueSerializer());
+    }
+
+    /**
+     * Builds the value serializer choosing the payload format by topic.
+     *
+     * @return the value serializer.
+     */
+    @SuppressWarnings("unchecked")
+    Serializer<StockTick> valueSerializer() {
+        Map<Pattern, Serializer<?>> delegates = new LinkedHashMap<>();
+        properties.getTopicPayloadFormats().forEach((topic, format) ->
+                delegates.put(Pattern.compile(Pattern.quote(topic)), serializer(format)));
+        Serializer<?> serializer = new DelegatingByTopicSerializer(delegates, serializer(properties.getPayloadFormat()));
+        return (Serializer<StockTick>) serializer;
+    }
+
+    /**
+     * Returns a serializer of the given payload format.
+     */
+    private static Serializer<StockTick> serializer(KafkaProducerProperties.PayloadFormat format) {
+        return switch (format) {
+            case BINARY -> new StockTickSerializer();
+            case JSON -> new JsonSerializer<StockTick>().noTypeInfo();
+        };
     }
 
     /**
@@ -75,10 +159,30 @@ public class KafkaConfig {
      * @return a {@link KafkaTemplate} for sending messages.
      */
     @Bean
-    public KafkaTemplate<String, StockPrice> stockPriceKafkaTemplate() {
+    public KafkaTemplate<String, StockTick> stockPriceKafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Creates a producer factory for market data payloads that are already encoded.
+     *
+     * @return the {@link ProducerFactory} for book updates and trades.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> marketDataProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(), new StringSerializer(), new ByteArraySerializer());
+    }
+
+    /**
+     * Creates the Kafka template sending order book updates and trades.
+     *
+     * @return a {@link KafkaTemplate} for encoded market data.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> marketDataKafkaTemplate() {
+        return new KafkaTemplate<>(marketDataProducerFactory());
+    }
+
     /**
      * Ensures that the "stock-prices" topic is created if it does not exist.
      * <p>
@@ -92,4 +196,52 @@ public class KafkaConfig {
         return new NewTopic(STOCK_TOPIC, 3, (short) 1);
     }
 
-}
\ No newline at end of file
+    /**
+     * Ensures that the order book topic is created if it does not exist.
+     *
+     * @return a {@link NewTopic} representing the "stock-book-topic" topic.
+     */
+    @Bean
+    public NewTopic orderBookTopic() {
+        return new NewTopic(BOOK_TOPIC, 3, (short) 1);
+    }
+
+    /**
+     * Ensures that the trade topic is created if it does not exist.
+     *
+     * @return a {@link NewTopic} representing the "stock-trade-topic" topic.
+     */
+    @Bean
+    public NewTopic tradeTopic() {
+        return new NewTopic(TRADE_TOPIC, 3, (short) 1);
+    }
+
+    /**
+     * Ensures that the bar topic is created if it does not exist.
+     *
+     * @return a {@link NewTopic} representing the "stock-bar-topic" topic.
+     */
+    @Bean
+    public NewTopic barTopic() {
+        return new NewTopic(BAR_TOPIC, 3, (short) 1);
+    }
+
+    /**
+     * Ensures that the compacted latest-price topic is created if it does not exist.
+     * <p>
+     * Compaction keeps at least the last record of every key, so a consumer reading the
+     * topic from the beginning ends up with the latest price of every symbol. Segments
+     * roll every 10 minutes so compaction keeps up with a topic of constant key count.
+     * </p>
+     *
+     * @return a {@link NewTopic} representing the "stock-price-latest-topic" topic.
+     */
+    @Bean
+    public NewTopic latestPricesTopic() {
+        return new NewTopic(LATEST_TOPIC, 3, (short) 1).configs(Map.of(
+                TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT,
+                TopicConfig.SEGMENT_MS_CONFIG, String.valueOf(TimeUnit.MINUTES.toMillis(10)),
+                TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1"));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the Kafka producer publishing generated prices, bound from {@code stock.kafka.*}.
+ * <p>
+ * A {@link Profile} supplies batching and compression defaults; {@code linger-ms},
+ * {@code batch-size} and {@code compression-type} override it individually, and
+ * {@code properties} passes any other producer setting through unchanged.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.kafka")
+public class KafkaProducerProperties {
+
+    /** Batching presets trading latency for throughput. */
+    public enum Profile {
+        /** Large, compressed batches filled for a few milliseconds; for high tick rates. */
+        THROUGHPUT(10, 256 * 1024, "lz4"),
+        /** Records sent as soon as possible, uncompressed. */
+        LATENCY(0, 16 * 1024, "none");
+
+        private final int lingerMs;
+        private final int batchSize;
+        private final String compressionType;
+
+        Profile(int lingerMs, int batchSize, String compressionType) {
+            this.lingerMs = lingerMs;
+            this.batchSize = batchSize;
+            this.compressionType = compressionType;
+        }
+
+        public int getLingerMs() {
+            return lingerMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public String getCompressionType() {
+            return compressionType;
+        }
+    }
+
+    /** Encodings of record values. */
+    public enum PayloadFormat {
+        /** Fixed-layout, versioned binary ticks (see {@code TickCodec}). */
+        BINARY,
+        /** JSON objects, for consumers that cannot read the binary format. */
+        JSON
+    }
+
+    /** Comma-separated list of Kafka brokers. */
+    private String bootstrapServers = "localhost:9092";
+
+    /** Batching preset. */
+    private Profile profile = Profile.THROUGHPUT;
+
+    /** Time a batch waits for more records; overrides the profile when set. */
+    private Integer lingerMs;
+
+    /** Maximum batch size in bytes per partition; overrides the profile when set. */
+    private Integer batchSize;
+
+    /** {@code none}, {@code gzip}, {@code snappy}, {@code lz4} or {@code zstd}; overrides the profile when set. */
+    private String compressionType;
+
+    /** Unacknowledged requests per connection; at most 5 while idempotence is enabled. */
+    private int maxInFlightRequestsPerConnection = 5;
+
+    /** Whether the producer de-duplicates retried batches. */
+    private boolean idempotence = true;
+
+    /** Acknowledgements required from the brokers. */
+    private String acks = "all";
+
+    /** Number of retries for sending. */
+    private int retries = 3;
+
+    /** Memory the producer may use to buffer records not yet sent, in bytes. */
+    private long bufferMemory = 64L * 1024 * 1024;
+
+    /**
+     * Longest time a send may block the calling thread, waiting for topic metadata or buffer
+     * memory; past it the record is rejected. Keeps generation running while the brokers are down.
+     */
+    private Duration maxBlock = Duration.ofMillis(100);
+
+    /** Maximum number of sends awaiting acknowledgement before publishing blocks. */
+    private int maxPendingSends = 100_000;
+
+    /** How long publishing waits for a free slot in the send window before the record is rejected. */
+    private Duration pendingSendTimeout = Duration.ofSeconds(5);
+
+    /** Value encoding of topics without an entry in {@code topic-payload-formats}. */
+    private PayloadFormat payloadFormat = PayloadFormat.BINARY;
+
+    /** Value encoding per topic name. */
+    private Map<String, PayloadFormat> topicPayloadFormats = new HashMap<>();
+
+    /** Additional producer settings passed to the client as-is. */
+    private Map<String, String> properties = new HashMap<>();
+
+    /** @return the effective {@code linger.ms}. */
+    public int effectiveLingerMs() {
+        return lingerMs != null ? lingerMs : profile.getLingerMs();
+    }
+
+    /** @return the effective {@code batch.size}. */
+    public int effectiveBatchSize() {
+        return batchSize != null ? batchSize : profile.getBatchSize();
+    }
+
+    /** @return the effective {@code compression.type}. */
+    public String effectiveCompressionType() {
+        return compressionType != null ? compressionType : profile.getCompressionType();
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the compacted latest-price topic, bound from {@code stock.latest-topic.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.latest-topic")
+public class LatestTopicProperties {
+
+    /** Whether latest prices are published to the topic and the cache is rebuilt from it on startup. */
+    private boolean enabled = false;
+
+    /** Interval between publications of the symbols changed since the previous one. */
+    private Duration publishInterval = Duration.ofSeconds(1);
+
+    /** How long startup may spend reading the topic before falling back to the database. */
+    private Duration bootstrapTimeout = Duration.ofSeconds(10);
+
+}
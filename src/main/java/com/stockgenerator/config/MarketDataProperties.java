@@ -0,0 +1,52 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.clock.OverrunPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the order book and trade generator, bound from {@code stock.market-data.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.market-data")
+public class MarketDataProperties {
+
+    /** Whether book updates and trades are generated. */
+    private boolean enabled = false;
+
+    /** Interval between generation steps of each shard, down to {@code 1us}. */
+    private Duration interval = Duration.ofMillis(100);
+
+    /** Number of shards, each with its own tick clock; 0 means one per available processor. */
+    private int shards = 0;
+
+    /** Handling of steps that start one or more whole intervals late. */
+    private OverrunPolicy overrunPolicy = OverrunPolicy.SKIP;
+
+    /** Time before each deadline from which a clock thread spins instead of parking. */
+    private Duration spinThreshold = Duration.ofNanos(50_000);
+
+    /** Price levels kept per side of each book. */
+    private int levels = 10;
+
+    /** Distance between best bid and best ask, in price ticks. */
+    private int spreadTicks = 1;
+
+    /** Random level size changes per symbol and step, besides those caused by price moves and trades. */
+    private int updatesPerStep = 4;
+
+    /** Probability that a symbol trades in a step. */
+    private double tradeProbability = 0.2;
+
+    /** Size unit of resting orders and trades. */
+    private int lotSize = 100;
+
+    /** Mean size of a level, in lots. */
+    private int meanLots = 5;
+
+    /** Seed of the book random streams; the same seed and prices produce the same events. */
+    private long seed = 42;
+
+}
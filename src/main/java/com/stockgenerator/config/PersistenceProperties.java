@@ -0,0 +1,27 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the write-behind price persister, bound from {@code stock.persistence.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.persistence")
+public class PersistenceProperties {
+
+    /** Maximum number of rows per JDBC batch. */
+    private int batchSize = 500;
+
+    /** Number of pending symbols that triggers a flush before the interval elapses. */
+    private int flushThreshold = 5000;
+
+    /** Maximum time a price stays pending before it is flushed. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Number of pending symbols above which the persister reports backpressure. */
+    private int highWatermark = 50_000;
+
+}
@@ -0,0 +1,61 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.engine.PriceModelType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the price path engine, bound from {@code stock.engine.*}.
+ * <p>
+ * Drift, volatility and jump intensity are annualized; the engine scales them by
+ * {@link #timeStepSeconds} on every tick.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.engine")
+public class PriceEngineProperties {
+
+    /** Price model used to advance every symbol. */
+    private PriceModelType model = PriceModelType.GBM;
+
+    /** Root seed; the same seed always produces the same price paths. */
+    private long seed = 42L;
+
+    /** Simulated time covered by one tick, in seconds. */
+    private double timeStepSeconds = 5.0;
+
+    /** Lower bound of the uniformly drawn initial price. */
+    private double initialPriceMin = 100.0;
+
+    /** Upper bound of the uniformly drawn initial price. */
+    private double initialPriceMax = 300.0;
+
+    /** Minimum price increment; generated prices are rounded to it. */
+    private double tickSize = 0.01;
+
+    /**
+     * Whether geometric Brownian motion uses the Vector API kernel when the JVM runs with
+     * {@code --add-modules jdk.incubator.vector}; otherwise, or without the module, the
+     * scalar kernel. Off by default, as the Vector API is still incubating.
+     */
+    private boolean vectorize = false;
+
+    /** Annualized drift. */
+    private double drift = 0.05;
+
+    /** Annualized volatility. */
+    private double volatility = 0.3;
+
+    /** Mean reversion speed per year, for {@link PriceModelType#MEAN_REVERTING}. */
+    private double reversionSpeed = 5.0;
+
+    /** Expected jumps per year, for {@link PriceModelType#JUMP_DIFFUSION}. */
+    private double jumpIntensity = 10.0;
+
+    /** Mean log jump size, for {@link PriceModelType#JUMP_DIFFUSION}. */
+    private double jumpMean = 0.0;
+
+    /** Standard deviation of the log jump size, for {@link PriceModelType#JUMP_DIFFUSION}. */
+    private double jumpVolatility = 0.05;
+
+}
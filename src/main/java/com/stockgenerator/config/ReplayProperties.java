@@ -0,0 +1,19 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the tick replay, bound from {@code stock.replay.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.replay")
+public class ReplayProperties {
+
+    /** Directory holding the recorded tick files; replays can only read files inside it. */
+    private String directory = "replay";
+
+    /** Speed multiplier used when a replay is started without one; 0 replays as fast as possible. */
+    private double speed = 1.0;
+
+}
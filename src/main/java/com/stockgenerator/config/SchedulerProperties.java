@@ -0,0 +1,78 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.clock.OverrunPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the generation scheduler, bound from {@code stock.scheduler.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.scheduler")
+public class SchedulerProperties {
+
+    /** Kind of threads running the generation shards. */
+    public enum PoolType {
+        /** A fixed pool of platform threads. */
+        PLATFORM,
+        /** A virtual thread per shard task. */
+        VIRTUAL
+    }
+
+    /** What drives the generation cycles. */
+    public enum Mode {
+        /** Spring's task scheduler, every {@code fixed-rate} milliseconds, all shards per cycle. */
+        SCHEDULED,
+        /** A dedicated {@link com.stockgenerator.clock.TickClock} per shard, every {@code tick-interval}. */
+        CLOCK
+    }
+
+    /** What drives the generation cycles. */
+    private Mode mode = Mode.SCHEDULED;
+
+    /** Interval between generation cycles in milliseconds. */
+    private long fixedRate = 5000;
+
+    /** Number of shards the universe is split into; 0 means one per available processor. */
+    private int shards = 0;
+
+    /** Kind of threads running the shards. */
+    private PoolType poolType = PoolType.PLATFORM;
+
+    /** Size of the platform thread pool; 0 means one per available processor. */
+    private int threads = 0;
+
+    /** Interval between ticks of each shard in clock mode, down to {@code 1us}; unset means {@code fixed-rate}. */
+    private Duration tickInterval;
+
+    /** Per-shard overrides of {@code tick-interval}, keyed by shard index. */
+    private Map<Integer, Duration> shardIntervals = new HashMap<>();
+
+    /** Handling of ticks that start one or more whole intervals late in clock mode. */
+    private OverrunPolicy overrunPolicy = OverrunPolicy.COALESCE;
+
+    /** Time before each deadline from which a clock thread spins instead of parking. */
+    private Duration spinThreshold = Duration.ofNanos(50_000);
+
+    /** Maximum number of missed ticks run back to back under {@code catch-up}; the rest are skipped. */
+    private int maxCatchUp = 100;
+
+    /**
+     * Returns the tick interval of a shard in clock mode.
+     *
+     * @param shard the shard index.
+     * @return the shard's override, else {@code tick-interval}, else {@code fixed-rate}.
+     */
+    public Duration intervalOf(int shard) {
+        Duration interval = shardIntervals.get(shard);
+        if (interval != null) {
+            return interval;
+        }
+        return tickInterval != null ? tickInterval : Duration.ofMillis(fixedRate);
+    }
+
+}
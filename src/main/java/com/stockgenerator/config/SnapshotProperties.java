@@ -0,0 +1,34 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the generator state snapshots, bound from {@code stock.snapshot.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.snapshot")
+public class SnapshotProperties {
+
+    /** Whether generator state is restored from the snapshot on startup and snapshotted periodically. */
+    private boolean enabled = false;
+
+    /** The snapshot file. */
+    private String file = "snapshot/state.snap";
+
+    /** Interval between snapshots; a final one is taken on shutdown. */
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * Tick sequence numbers reserved above each periodic snapshot's next sequence number. After
+     * a crash, sequences resume past the reservation, so it must exceed the ticks generated
+     * between two snapshots. The final snapshot on shutdown reserves none.
+     */
+    private long sequenceGap = 1_000_000_000L;
+
+    /** Whether every snapshot is forced to disk before it replaces the previous one. */
+    private boolean sync = true;
+
+}
@@ -0,0 +1,18 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the off-heap symbol state store, bound from {@code stock.state.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.state")
+public class StateProperties {
+
+    /**
+     * File the store is memory-mapped to, recreated on startup; anonymous direct memory when empty.
+     */
+    private String file;
+
+}
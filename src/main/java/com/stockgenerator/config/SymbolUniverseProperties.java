@@ -0,0 +1,32 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the simulated symbol universe, bound from {@code stock.universe.*}.
+ * <p>
+ * The universe is the union, in order, of {@link #symbols}, the symbols listed in
+ * {@link #file} and {@link #syntheticCount} generated symbols.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.universe")
+public class SymbolUniverseProperties {
+
+    /** Explicitly listed symbols. */
+    private List<String> symbols = new ArrayList<>(List.of("AAPL", "GOOG", "MSFT", "AMZN", "TSLA"));
+
+    /**
+     * Optional resource location (e.g. {@code file:/data/symbols.txt}) with one symbol per line;
+     * blank lines and lines starting with {@code #} are ignored.
+     */
+    private String file;
+
+    /** Number of synthetic symbols ({@code SYM000001}, ...) to add, for load testing at market breadth. */
+    private int syntheticCount = 0;
+
+}
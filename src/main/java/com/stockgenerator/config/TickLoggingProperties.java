@@ -0,0 +1,27 @@
+package com.stockgenerator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of tick logging, bound from {@code stock.logging.*}.
+ * <p>
+ * Ticks are not logged one by one at INFO; a summary is logged per interval together
+ * with a few sampled ticks. Every tick can still be logged by setting the
+ * {@code com.stockgenerator.service} logger to DEBUG.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "stock.logging")
+public class TickLoggingProperties {
+
+    /** Interval between tick summaries in milliseconds. */
+    private long summaryInterval = 10_000;
+
+    /** Maximum number of sampled ticks logged per interval. */
+    private int samplesPerInterval = 5;
+
+    /** Maximum number of tick failures logged with their stack trace per interval; the rest are only counted. */
+    private int errorsPerInterval = 5;
+
+}
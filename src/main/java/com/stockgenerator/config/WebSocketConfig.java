@@ -0,0 +1,39 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.feed.PriceFeedWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the WebSocket endpoint of the price feed at {@code /ws/stocks}.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    /** Handler of the price feed sessions. */
+    private final PriceFeedWebSocketHandler priceFeedHandler;
+
+    /** Feed configuration. */
+    private final FeedProperties feedProperties;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param priceFeedHandler the price feed handler.
+     * @param feedProperties   the feed configuration.
+     */
+    public WebSocketConfig(PriceFeedWebSocketHandler priceFeedHandler, FeedProperties feedProperties) {
+        this.priceFeedHandler = priceFeedHandler;
+        this.feedProperties = feedProperties;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(priceFeedHandler, "/ws/stocks")
+                .setAllowedOrigins(feedProperties.getAllowedOrigins().toArray(String[]::new));
+    }
+
+}
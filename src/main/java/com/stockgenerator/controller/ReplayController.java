@@ -0,0 +1,130 @@
+package com.stockgenerator.controller;
+
+import com.stockgenerator.model.ReplayStatus;
+import com.stockgenerator.replay.TickReplayer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * REST Controller driving the replay of recorded tick files to Kafka.
+ * <p>
+ * Every endpoint returns the resulting {@link ReplayStatus}. Speeds are multipliers of
+ * the recorded timing; 0 replays as fast as possible.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/replay")
+public class ReplayController {
+
+    /**
+     * The replay engine.
+     */
+    private final TickReplayer replayer;
+
+    /**
+     * Constructs the {@code ReplayController}.
+     *
+     * @param replayer the replay engine
+     */
+    public ReplayController(TickReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    /**
+     * Returns the progress of the replay.
+     *
+     * @return the replay status
+     */
+    @GetMapping
+    public ResponseEntity<ReplayStatus> getStatus() {
+        return ResponseEntity.ok(replayer.status());
+    }
+
+    /**
+     * Starts replaying a tick file from its beginning, replacing any running replay.
+     *
+     * @param file  the file name inside {@code stock.replay.directory}
+     * @param speed the speed multiplier; defaults to {@code stock.replay.speed}
+     * @return the replay status, 400 Bad Request for an invalid speed or a file outside the
+     *         replay directory, or 404 Not Found if the file cannot be read
+     */
+    @PostMapping("/start")
+    public ResponseEntity<ReplayStatus> start(@RequestParam String file,
+                                              @RequestParam(required = false) Double speed) {
+        return control(() -> replayer.start(file, speed));
+    }
+
+    /**
+     * Pauses the replay at the current tick.
+     *
+     * @return the replay status
+     */
+    @PostMapping("/pause")
+    public ResponseEntity<ReplayStatus> pause() {
+        return control(replayer::pause);
+    }
+
+    /**
+     * Resumes a paused replay.
+     *
+     * @param speed the new speed multiplier; keeps the current one when absent
+     * @return the replay status, or 400 Bad Request for an invalid speed
+     */
+    @PostMapping("/resume")
+    public ResponseEntity<ReplayStatus> resume(@RequestParam(required = false) Double speed) {
+        return control(() -> replayer.resume(speed));
+    }
+
+    /**
+     * Moves the replay to a tick index or to the first tick recorded at or after a time.
+     *
+     * @param position the index of the next tick to publish
+     * @param time     the recorded time (ISO-8601 instant); used when {@code position} is absent
+     * @return the replay status, 400 Bad Request if neither is given, or 409 Conflict if no
+     *         replay is loaded
+     */
+    @PostMapping("/seek")
+    public ResponseEntity<ReplayStatus> seek(@RequestParam(required = false) Long position,
+                                             @RequestParam(required = false) Instant time) {
+        if (position == null && time == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either position or time is required");
+        }
+        return control(() -> position != null ? replayer.seek(position) : replayer.seek(time));
+    }
+
+    /**
+     * Stops the replay and unloads its file.
+     *
+     * @return the replay status
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<ReplayStatus> stop() {
+        return control(replayer::stop);
+    }
+
+    /**
+     * Runs a control call, mapping its failures to HTTP statuses.
+     */
+    private ResponseEntity<ReplayStatus> control(Supplier<ReplayStatus> call) {
+        try {
+            return ResponseEntity.ok(call.get());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+}
@@ -1,16 +1,44 @@
 package com.stockgenerator.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockgenerator.config.FeedProperties;
+import com.stockgenerator.config.IngestProperties;
+import com.stockgenerator.feed.PriceFeedDispatcher;
+import com.stockgenerator.feed.PriceSink;
+import com.stockgenerator.feed.PriceSubscription;
+import com.stockgenerator.feed.SsePriceSink;
+import com.stockgenerator.model.PriceBar;
+import com.stockgenerator.model.PriceHistoryEntry;
+import com.stockgenerator.model.PublishBatchResult;
 import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockPricePage;
+import com.stockgenerator.service.BarService;
+import com.stockgenerator.service.DatabaseBusyException;
+import com.stockgenerator.service.PriceHistoryService;
 import com.stockgenerator.service.StockPriceService;
+import com.stockgenerator.service.TickIngestService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.KafkaException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * REST Controller for managing stock price operations.
@@ -23,36 +51,172 @@ import java.util.List;
 @RequestMapping("/api/stocks")
 public class StockPriceController {
 
+    /**
+     * Largest page size served by {@link #getAllStockPrices(int, int)}.
+     */
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    /**
+     * Response header carrying the cursor of the next page.
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Service for handling stock price business logic and Kafka publishing.
      */
     private final StockPriceService stockPriceService;
 
     /**
-     * Constructs the {@code StockPriceController} with the required service.
+     * Service serving the append-only tick history.
+     */
+    private final PriceHistoryService priceHistoryService;
+
+    /**
+     * Service serving the OHLCV bars.
+     */
+    private final BarService barService;
+
+    /**
+     * Service publishing externally fed prices in bulk.
+     */
+    private final TickIngestService tickIngestService;
+
+    /**
+     * Configuration of the bulk publish endpoint.
+     */
+    private final IngestProperties ingestProperties;
+
+    /**
+     * Dispatcher of the real-time price feed.
+     */
+    private final PriceFeedDispatcher priceFeedDispatcher;
+
+    /**
+     * Configuration of the real-time price feed.
+     */
+    private final FeedProperties feedProperties;
+
+    /**
+     * Mapper whose factory writes streamed JSON responses.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the {@code StockPriceController} with the required services.
      *
-     * @param stockPriceService the service handling stock price operations
+     * @param stockPriceService   the service handling stock price operations
+     * @param priceHistoryService the service serving the tick history
+     * @param barService          the service serving the OHLCV bars
+     * @param tickIngestService   the service publishing prices in bulk
+     * @param ingestProperties    the configuration of the bulk publish endpoint
+     * @param priceFeedDispatcher the dispatcher of the real-time price feed
+     * @param feedProperties      the configuration of the real-time price feed
+     * @param objectMapper        the JSON mapper
      */
     @Autowired
-    public StockPriceController(StockPriceService stockPriceService) {
+    public StockPriceController(StockPriceService stockPriceService,
+                                PriceHistoryService priceHistoryService,
+                                BarService barService,
+                                TickIngestService tickIngestService,
+                                IngestProperties ingestProperties,
+                                PriceFeedDispatcher priceFeedDispatcher,
+                                FeedProperties feedProperties,
+                                ObjectMapper objectMapper) {
         this.stockPriceService = stockPriceService;
+        this.priceHistoryService = priceHistoryService;
+        this.barService = barService;
+        this.tickIngestService = tickIngestService;
+        this.ingestProperties = ingestProperties;
+        this.priceFeedDispatcher = priceFeedDispatcher;
+        this.feedProperties = feedProperties;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Retrieves all stock prices.
+     * Retrieves one page of latest stock prices.
      * <p>
-     * This endpoint returns a list of all available stock prices.
+     * Pages are ordered by symbol id; when more prices follow, the response carries an
+     * {@code X-Next-Cursor} header whose value is passed as {@code cursor} for the next page.
      * </p>
      *
+     * @param cursor the cursor of the page, 0 for the first page
+     * @param limit  the maximum number of prices, capped at {@value #MAX_PAGE_SIZE}
      * @return a {@link ResponseEntity} containing a list of {@link StockPrice} objects
      */
-    @GetMapping
-    public ResponseEntity<List<StockPrice>> getAllStockPrices() {
-        List<StockPrice> stockPrices = stockPriceService.getAllStockPrices();
-        if (stockPrices.isEmpty()) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<StockPrice>> getAllStockPrices(
+            @RequestParam(defaultValue = "0") int cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        StockPricePage page = stockPriceService.getStockPricePage(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (page.prices().isEmpty() && page.nextCursor() == null) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(stockPrices);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.prices());
+    }
+
+    /**
+     * Streams the latest price of every symbol as newline-delimited JSON.
+     * <p>
+     * Prices are written one at a time from the last-value cache, so the response never
+     * materializes the universe in memory.
+     * </p>
+     *
+     * @return a {@link ResponseEntity} streaming one {@link StockPrice} per line
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStockPrices() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamingBody(true, stockPriceService::forEachStockPrice, JsonGenerator::writeObject));
+    }
+
+    /**
+     * Exports every persisted stock price record as newline-delimited JSON.
+     * <p>
+     * Rows are streamed from the database with a JDBC fetch size and written as they
+     * arrive, so exports of any size run in constant memory.
+     * </p>
+     *
+     * @return a {@link ResponseEntity} streaming one {@link StockPrice} per line
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStockPrices() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamingBody(true, stockPriceService::exportStockPrices, JsonGenerator::writeObject));
+    }
+
+    /**
+     * Subscribes to generated prices as Server-Sent Events.
+     * <p>
+     * The current price of each symbol is sent first, then every change as it is generated.
+     * Each {@code prices} event carries a JSON array of the latest prices; a client that reads
+     * slowly receives only the newest price of each symbol instead of every tick.
+     * </p>
+     *
+     * @param symbols the symbols to subscribe to; all symbols when omitted
+     * @return the event stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockPriceUpdates(@RequestParam(required = false) List<String> symbols) {
+        SseEmitter emitter = new SseEmitter(feedProperties.getSseTimeout().toMillis());
+        PriceSink sink = new SsePriceSink(emitter);
+        PriceSubscription subscription;
+        try {
+            subscription = symbols == null || symbols.isEmpty()
+                    ? priceFeedDispatcher.subscribeAll(sink)
+                    : priceFeedDispatcher.subscribe(symbols, sink);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        emitter.onCompletion(() -> priceFeedDispatcher.unsubscribe(subscription));
+        emitter.onTimeout(() -> priceFeedDispatcher.unsubscribe(subscription));
+        emitter.onError(e -> priceFeedDispatcher.unsubscribe(subscription));
+        return emitter;
     }
 
     /**
@@ -63,7 +227,8 @@ public class StockPriceController {
      * </p>
      *
      * @param stock the stock price to publish
-     * @return a {@link ResponseEntity} indicating the result of the operation
+     * @return a {@link ResponseEntity} indicating the result of the operation; 400 if the
+     *         symbol is missing or the price is not a positive number
      */
     @PostMapping("/publish")
     public ResponseEntity<String> publishStockPrice(@RequestBody final StockPrice stock) {
@@ -71,6 +236,8 @@ public class StockPriceController {
             stockPriceService.publishStockPrice(stock);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body("Stock price published successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (KafkaException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to publish stock price due to Kafka error: " + e.getMessage());
@@ -80,6 +247,41 @@ public class StockPriceController {
         }
     }
 
+    /**
+     * Publishes a batch of stock prices to Kafka.
+     * <p>
+     * The body is a JSON array of price objects, newline-delimited price objects, or
+     * consecutive binary tick records, and is parsed as it arrives. Ticks are handed to
+     * Kafka in batches without waiting for the send window: when it is full, the response
+     * is 429 with a {@code Retry-After} header, and {@code resumeAt} tells which record to
+     * resend from. Invalid records are skipped and counted.
+     * </p>
+     *
+     * @param contentType the body format
+     * @param body        the request body
+     * @return a {@link ResponseEntity} with the accepted and rejected counts
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/publish/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                    MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PublishBatchResult> publishStockPriceBatch(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        if (tickIngestService.isBackpressured()) {
+            return tooManyRequests(new PublishBatchResult(0, 0, 0, null));
+        }
+        boolean binary = MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(MediaType.parseMediaType(contentType));
+        PublishBatchResult result = binary
+                ? tickIngestService.publishBinary(body)
+                : tickIngestService.publishJson(body);
+        if (result.throttled()) {
+            return tooManyRequests(result);
+        }
+        return ResponseEntity.status(result.error() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+    }
+
     /**
      * Retrieves a stock price by its symbol.
      *
@@ -93,4 +295,173 @@ public class StockPriceController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Streams the tick history of a symbol ordered by timestamp and sequence, as a JSON
+     * array or, when {@code application/x-ndjson} is requested, one row per line.
+     * <p>
+     * Rows are written as they are read from the database, so large pages are never held in memory.
+     * To fetch the next page, repeat the request with {@code from} set to the last row's
+     * {@code timestamp} and {@code afterSeq} set to its {@code sequence}.
+     * </p>
+     *
+     * @param symbol   the stock symbol (e.g., "AAPL")
+     * @param from     the start of the range (ISO-8601 instant), inclusive
+     * @param to       the end of the range (ISO-8601 instant), exclusive; defaults to now
+     * @param limit    the maximum number of rows
+     * @param afterSeq skip rows at {@code from} with a sequence up to this value
+     * @param accept   the requested media types
+     * @return a {@link ResponseEntity} streaming the history rows
+     */
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<StreamingResponseBody> getStockPriceHistory(
+            @PathVariable String symbol,
+            @RequestParam Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "-1") long afterSeq,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Instant end = to != null ? to : Instant.now();
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        StreamingResponseBody body = this.<PriceHistoryEntry>streamingBody(ndjson,
+                consumer -> priceHistoryService.streamHistory(symbol, from, end, afterSeq, limit, consumer),
+                (json, entry) -> {
+                    json.writeStartObject();
+                    json.writeStringField("symbol", entry.symbol());
+                    json.writeStringField("timestamp", entry.timestamp().toString());
+                    json.writeNumberField("sequence", entry.sequence());
+                    json.writeNumberField("price", entry.price());
+                    json.writeEndObject();
+                });
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Retrieves the OHLCV bars of a symbol in start order.
+     * <p>
+     * Without {@code from}, the most recent bars are served from memory and the last one is
+     * the bar still being built. With {@code from}, completed bars are read from the
+     * database. The volume of a bar is its number of ticks.
+     * </p>
+     *
+     * @param symbol   the stock symbol (e.g., "AAPL")
+     * @param interval the bar interval, such as {@code 1s}, {@code 1m} or {@code 5m}
+     * @param from     the first bar start (ISO-8601 instant), inclusive
+     * @param to       the last bar start (ISO-8601 instant), exclusive; defaults to now
+     * @param limit    the maximum number of bars
+     * @return a {@link ResponseEntity} containing the bars, or 400 Bad Request for an interval
+     *         that is not aggregated
+     */
+    @GetMapping(value = "/{symbol}/bars", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PriceBar>> getStockPriceBars(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "100") int limit) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(interval);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid interval " + interval);
+        }
+        if (!barService.supports(duration)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bars of " + interval + " are not aggregated");
+        }
+        List<PriceBar> bars = from == null
+                ? barService.recentBars(symbol, duration, limit)
+                : barService.storedBars(symbol, duration, from, to != null ? to : Instant.now(), limit);
+        return ResponseEntity.ok(bars);
+    }
+
+    /**
+     * Builds a response body that writes rows as the source produces them, either as one
+     * JSON array or as newline-delimited JSON.
+     *
+     * @param ndjson    {@code true} for one row per line, {@code false} for a JSON array
+     * @param source    pushes every row to the consumer it is given
+     * @param rowWriter writes one row
+     * @return the streaming body
+     */
+    private <T> StreamingResponseBody streamingBody(boolean ndjson, Consumer<Consumer<T>> source,
+                                                    RowWriter<T> rowWriter) {
+        return outputStream -> {
+            JsonGenerator json = objectMapper.createGenerator(outputStream);
+            json.setRootValueSeparator(null);
+            // Nothing is written before the first row, so a source that fails to start, such
+            // as one finding the database busy, still gets an error status
+            boolean[] started = {false};
+            try {
+                source.accept(row -> {
+                    try {
+                        if (!started[0]) {
+                            startRows(json, ndjson);
+                            started[0] = true;
+                        }
+                        rowWriter.write(json, row);
+                        if (ndjson) {
+                            json.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!started[0]) {
+                    startRows(json, ndjson);
+                    started[0] = true;
+                }
+                if (!ndjson) {
+                    json.writeEndArray();
+                }
+            } finally {
+                if (started[0]) {
+                    json.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Opens the JSON array of a streamed response; newline-delimited responses need no opening.
+     */
+    private static void startRows(JsonGenerator json, boolean ndjson) throws IOException {
+        if (!ndjson) {
+            json.writeStartArray();
+        }
+    }
+
+    /**
+     * Answers a request whose database call found no free slot with 503 Service Unavailable
+     * and a {@code Retry-After} header, on the JSON, newline-delimited JSON and export paths alike.
+     *
+     * @param e the limiter's rejection
+     * @return the 503 response
+     */
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<Void> databaseBusy(DatabaseBusyException e) {
+        long seconds = Math.max(1, (e.retryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .build();
+    }
+
+    /**
+     * Builds a 429 response asking the client to retry after {@code stock.ingest.retry-after}.
+     */
+    private ResponseEntity<PublishBatchResult> tooManyRequests(PublishBatchResult result) {
+        long seconds = Math.max(1, (ingestProperties.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(result);
+    }
+
+    /**
+     * Writes one row of a streamed response.
+     */
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator json, T row) throws IOException;
+    }
+
 }
@@ -0,0 +1,168 @@
+package com.stockgenerator.engine;
+
+import java.util.Arrays;
+
+/**
+ * Market and sector factor model correlating the shocks of a universe of symbols.
+ * <p>
+ * The shock of symbol {@code i} is {@code a * M + b * S[sector(i)] + c * e(i)}, where
+ * {@code M} is the market factor, {@code S} the factor of the symbol's sector and
+ * {@code e(i)} the symbol's own draw, all independent standard normals. The loadings are
+ * derived from target correlations, so two symbols of one sector are correlated by
+ * {@code sectorCorrelation}, any two other symbols by {@code marketCorrelation}, and
+ * every shock keeps unit variance: the configured volatility is unchanged.
+ * </p>
+ * <p>
+ * Factor draws are a pure function of the seed and the step number, so every shard
+ * derives the same factors for the same step without sharing state, and a symbol's path
+ * still depends only on the seed and its id. Applying the factors to a range of symbols
+ * is one pass over primitive loading arrays: the loading matrix has a single market and
+ * a single sector entry per row, so the matrix-vector product reduces to a gather and a
+ * fused multiply-add per symbol.
+ * </p>
+ */
+public final class FactorModel {
+
+    /** SplitMix64 increment (the golden gamma). */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Scale of a 53-bit integer to a double in {@code [0, 1)}. */
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /** Root of the factor streams. */
+    private final long seed;
+
+    /** Number of factors: the market and every sector. */
+    private final int factorCount;
+
+    /** Factor index per symbol: 0 for the market alone, {@code 1 + sector} otherwise. */
+    private final int[] factorIndexes;
+
+    /** Market loading per symbol. */
+    private final double[] marketLoadings;
+
+    /** Sector loading per symbol; 0 for symbols outside every sector. */
+    private final double[] sectorLoadings;
+
+    /** Loading of the symbol's own draw. */
+    private final double[] idiosyncraticLoadings;
+
+    /**
+     * Creates the model.
+     *
+     * @param sectors           the sector index per symbol id, or -1 for none.
+     * @param sectorCount       the number of sectors.
+     * @param marketCorrelation the correlation of any two symbols.
+     * @param sectorCorrelation the correlation of two symbols of one sector.
+     * @param seed              the root seed of the factor draws.
+     * @throws IllegalArgumentException unless {@code 0 <= marketCorrelation <= sectorCorrelation < 1}
+     *                                  and every sector index is below {@code sectorCount}.
+     */
+    public FactorModel(int[] sectors, int sectorCount, double marketCorrelation, double sectorCorrelation,
+                       long seed) {
+        if (!(marketCorrelation >= 0 && marketCorrelation <= sectorCorrelation && sectorCorrelation < 1)) {
+            throw new IllegalArgumentException("Correlations must satisfy 0 <= market <= sector < 1: "
+                    + marketCorrelation + ", " + sectorCorrelation);
+        }
+        this.seed = seed;
+        this.factorCount = 1 + sectorCount;
+        int symbolCount = sectors.length;
+        this.factorIndexes = new int[symbolCount];
+        this.marketLoadings = new double[symbolCount];
+        this.sectorLoadings = new double[symbolCount];
+        this.idiosyncraticLoadings = new double[symbolCount];
+
+        double market = Math.sqrt(marketCorrelation);
+        double sector = Math.sqrt(sectorCorrelation - marketCorrelation);
+        Arrays.fill(marketLoadings, market);
+        for (int i = 0; i < symbolCount; i++) {
+            int s = sectors[i];
+            if (s >= sectorCount) {
+                throw new IllegalArgumentException("Sector " + s + " of symbol " + i + " exceeds " + sectorCount);
+            }
+            if (s >= 0) {
+                factorIndexes[i] = 1 + s;
+                sectorLoadings[i] = sector;
+                idiosyncraticLoadings[i] = Math.sqrt(1 - sectorCorrelation);
+            } else {
+                idiosyncraticLoadings[i] = Math.sqrt(1 - marketCorrelation);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of factors.
+     *
+     * @return the market factor plus one per sector.
+     */
+    public int factorCount() {
+        return factorCount;
+    }
+
+    /**
+     * Returns the number of symbols the model covers.
+     *
+     * @return the symbol count.
+     */
+    public int size() {
+        return factorIndexes.length;
+    }
+
+    /**
+     * Draws the factors of a step.
+     *
+     * @param step    the step number; the same step always yields the same factors.
+     * @param factors receives {@link #factorCount()} standard normal draws.
+     */
+    public void draw(long step, double[] factors) {
+        long state = mix(seed + step * GOLDEN_GAMMA);
+        for (int k = 0; k < factorCount; k += 2) {
+            // Box-Muller: two independent normals per pair of uniforms
+            double u1 = ((mix(state += GOLDEN_GAMMA) >>> 11) + 1) * DOUBLE_UNIT;
+            double u2 = (mix(state += GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+            double radius = Math.sqrt(-2 * Math.log(u1));
+            double angle = 2 * Math.PI * u2;
+            factors[k] = radius * Math.cos(angle);
+            if (k + 1 < factorCount) {
+                factors[k + 1] = radius * Math.sin(angle);
+            }
+        }
+    }
+
+    /**
+     * Computes the common, factor-driven part of the shocks of a range of symbols.
+     *
+     * @param from    the first symbol id.
+     * @param to      the end of the id range, exclusive.
+     * @param factors the step's factors, from {@link #draw(long, double[])}.
+     * @param common  receives the common shock of symbol {@code from + j} at index {@code j}.
+     */
+    public void common(int from, int to, double[] factors, double[] common) {
+        double market = factors[0];
+        for (int i = from, j = 0; i < to; i++, j++) {
+            common[j] = marketLoadings[i] * market + sectorLoadings[i] * factors[factorIndexes[i]];
+        }
+    }
+
+    /**
+     * Completes a symbol's shock with its own draw.
+     *
+     * @param symbolId the symbol id.
+     * @param common   the symbol's common shock.
+     * @param own      the symbol's standard normal draw.
+     * @return the correlated standard normal shock.
+     */
+    public double shock(int symbolId, double common, double own) {
+        return common + idiosyncraticLoadings[symbolId] * own;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
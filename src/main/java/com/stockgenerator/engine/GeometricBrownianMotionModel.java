@@ -0,0 +1,32 @@
+package com.stockgenerator.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Geometric Brownian motion: {@code S' = S * exp((mu - sigma^2 / 2) dt + sigma sqrt(dt) Z)}.
+ */
+public class GeometricBrownianMotionModel implements PriceModel {
+
+    /** Annualized drift. */
+    private final double drift;
+
+    /** Annualized volatility. */
+    private final double volatility;
+
+    /**
+     * Creates the model.
+     *
+     * @param drift      annualized drift (e.g. 0.05 for 5%).
+     * @param volatility annualized volatility (e.g. 0.3 for 30%).
+     */
+    public GeometricBrownianMotionModel(double drift, double volatility) {
+        this.drift = drift;
+        this.volatility = volatility;
+    }
+
+    @Override
+    public double next(double price, double anchor, double shock, double dt, RandomGenerator random) {
+        return price * Math.exp((drift - 0.5 * volatility * volatility) * dt + volatility * Math.sqrt(dt) * shock);
+    }
+
+}
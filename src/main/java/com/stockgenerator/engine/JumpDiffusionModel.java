@@ -0,0 +1,50 @@
+package com.stockgenerator.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Merton jump-diffusion: geometric Brownian motion plus Poisson-arriving jumps with
+ * normally distributed log size.
+ */
+public class JumpDiffusionModel implements PriceModel {
+
+    /** Diffusion part of the process. */
+    private final GeometricBrownianMotionModel diffusion;
+
+    /** Expected number of jumps per year. */
+    private final double jumpIntensity;
+
+    /** Mean of the log jump size. */
+    private final double jumpMean;
+
+    /** Standard deviation of the log jump size. */
+    private final double jumpVolatility;
+
+    /**
+     * Creates the model.
+     *
+     * @param drift          annualized drift.
+     * @param volatility     annualized diffusion volatility.
+     * @param jumpIntensity  expected number of jumps per year.
+     * @param jumpMean       mean of the log jump size.
+     * @param jumpVolatility standard deviation of the log jump size.
+     */
+    public JumpDiffusionModel(double drift, double volatility,
+                              double jumpIntensity, double jumpMean, double jumpVolatility) {
+        this.diffusion = new GeometricBrownianMotionModel(drift, volatility);
+        this.jumpIntensity = jumpIntensity;
+        this.jumpMean = jumpMean;
+        this.jumpVolatility = jumpVolatility;
+    }
+
+    @Override
+    public double next(double price, double anchor, double shock, double dt, RandomGenerator random) {
+        double next = diffusion.next(price, anchor, shock, dt, random);
+        // For small steps the probability of more than one jump is negligible.
+        if (random.nextDouble() < jumpIntensity * dt) {
+            next *= Math.exp(jumpMean + jumpVolatility * random.nextGaussian());
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.stockgenerator.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Exponential Ornstein-Uhlenbeck process: the log price reverts towards the log of the
+ * symbol's anchor price with speed {@code kappa}.
+ */
+public class MeanRevertingModel implements PriceModel {
+
+    /** Mean reversion speed per year. */
+    private final double reversionSpeed;
+
+    /** Annualized volatility. */
+    private final double volatility;
+
+    /**
+     * Creates the model.
+     *
+     * @param reversionSpeed mean reversion speed per year.
+     * @param volatility     annualized volatility.
+     */
+    public MeanRevertingModel(double reversionSpeed, double volatility) {
+        this.reversionSpeed = reversionSpeed;
+        this.volatility = volatility;
+    }
+
+    @Override
+    public double next(double price, double anchor, double shock, double dt, RandomGenerator random) {
+        double logPrice = Math.log(price);
+        logPrice += reversionSpeed * (Math.log(anchor) - logPrice) * dt + volatility * Math.sqrt(dt) * shock;
+        return Math.exp(logPrice);
+    }
+
+}
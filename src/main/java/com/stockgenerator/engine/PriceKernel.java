@@ -0,0 +1,76 @@
+package com.stockgenerator.engine;
+
+/**
+ * Batch step of geometric Brownian motion over a contiguous range of prices.
+ * <p>
+ * Applies {@code S' = S * exp(drift + diffusion * Z)} and rounds to the tick size for a
+ * whole range in place, with the shocks drawn beforehand, so the arithmetic runs as one
+ * tight loop over {@code double[]} arrays. {@link #best()} returns the Vector API
+ * implementation when the {@code jdk.incubator.vector} module is present (start the JVM
+ * with {@code --add-modules jdk.incubator.vector}) and the scalar one otherwise.
+ * </p>
+ */
+public interface PriceKernel {
+
+    /** Name of the incubating Vector API module. */
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Advances a range of prices by one step.
+     *
+     * @param prices    the prices, updated in place.
+     * @param shocks    the standard normal shock of price {@code from + j} at index {@code j}.
+     * @param from      the first price index.
+     * @param to        the end of the index range, exclusive.
+     * @param drift     the log drift of the step, {@code (mu - sigma^2 / 2) dt}.
+     * @param diffusion the shock scale of the step, {@code sigma sqrt(dt)}.
+     * @param tickSize  the minimum price increment; results are rounded to it and never below it.
+     */
+    void advance(double[] prices, double[] shocks, int from, int to, double drift, double diffusion,
+                 double tickSize);
+
+    /**
+     * Returns a short description of the kernel, for logs.
+     *
+     * @return the kernel name.
+     */
+    String name();
+
+    /**
+     * Returns the scalar kernel.
+     *
+     * @return the kernel available on every JVM.
+     */
+    static PriceKernel scalar() {
+        return ScalarPriceKernel.INSTANCE;
+    }
+
+    /**
+     * Returns whether the Vector API module is present in the boot layer.
+     *
+     * @return {@code true} if the vector kernel can be loaded.
+     */
+    static boolean vectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * Returns the vector kernel when the Vector API is available, the scalar one otherwise.
+     *
+     * @return the fastest available kernel.
+     */
+    static PriceKernel best() {
+        if (!vectorAvailable()) {
+            return scalar();
+        }
+        try {
+            // Loaded reflectively so nothing links against the module when it is absent
+            return (PriceKernel) Class.forName("com.stockgenerator.engine.VectorPriceKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar();
+        }
+    }
+
+}
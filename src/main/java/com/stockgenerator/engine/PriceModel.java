@@ -0,0 +1,32 @@
+package com.stockgenerator.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Stochastic process that advances a single symbol's price by one time step.
+ * <p>
+ * Implementations are stateless and shared by all symbols: every per-symbol value
+ * is passed in as a primitive and the new price is returned, so a step never allocates.
+ * </p>
+ */
+public interface PriceModel {
+
+    /**
+     * Number of trading seconds in a year (252 sessions of 6.5 hours), used to turn
+     * annualized drift and volatility into per-step values.
+     */
+    double TRADING_SECONDS_PER_YEAR = 252 * 6.5 * 3600;
+
+    /**
+     * Computes the next price of a symbol.
+     *
+     * @param price  the current price.
+     * @param anchor the symbol's reference price (initial or long-run mean).
+     * @param shock  a standard normal shock for this step.
+     * @param dt     the step length in years.
+     * @param random the symbol's random stream, for models that need extra draws.
+     * @return the next price, before rounding to tick size.
+     */
+    double next(double price, double anchor, double shock, double dt, RandomGenerator random);
+
+}
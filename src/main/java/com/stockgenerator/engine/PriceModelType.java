@@ -0,0 +1,43 @@
+package com.stockgenerator.engine;
+
+import com.stockgenerator.config.PriceEngineProperties;
+
+/**
+ * Available price path models, selected with {@code stock.engine.model}.
+ */
+public enum PriceModelType {
+
+    /** Geometric Brownian motion. */
+    GBM {
+        @Override
+        public PriceModel create(PriceEngineProperties properties) {
+            return new GeometricBrownianMotionModel(properties.getDrift(), properties.getVolatility());
+        }
+    },
+
+    /** Exponential Ornstein-Uhlenbeck process reverting to the initial price. */
+    MEAN_REVERTING {
+        @Override
+        public PriceModel create(PriceEngineProperties properties) {
+            return new MeanRevertingModel(properties.getReversionSpeed(), properties.getVolatility());
+        }
+    },
+
+    /** Merton jump-diffusion. */
+    JUMP_DIFFUSION {
+        @Override
+        public PriceModel create(PriceEngineProperties properties) {
+            return new JumpDiffusionModel(properties.getDrift(), properties.getVolatility(),
+                    properties.getJumpIntensity(), properties.getJumpMean(), properties.getJumpVolatility());
+        }
+    };
+
+    /**
+     * Creates the model configured by the given properties.
+     *
+     * @param properties the engine properties.
+     * @return a new {@link PriceModel}.
+     */
+    public abstract PriceModel create(PriceEngineProperties properties);
+
+}
@@ -0,0 +1,274 @@
+package com.stockgenerator.engine;
+
+import com.stockgenerator.config.PriceEngineProperties;
+import com.stockgenerator.state.SymbolStateStore;
+
+import java.util.SplittableRandom;
+
+/**
+ * Advances the price paths of a fixed universe of symbols.
+ * <p>
+ * All per-symbol state lives off-heap in a {@link SymbolStateStore} indexed by symbol id,
+ * and the model is a shared stateless {@link PriceModel}, so the heap does not grow with
+ * the universe and advancing a range of symbols performs no allocation. Disjoint id
+ * ranges may be advanced concurrently, each with its own {@link SymbolRandom} cursor
+ * obtained from {@link #newRandom()}. With a {@link FactorModel}, the shocks of a range
+ * are correlated through factors drawn once per step and applied to the whole range
+ * before the symbols are advanced. Geometric Brownian motion is advanced by a
+ * {@link PriceKernel}: the shocks of a range are drawn first, then the kernel updates the
+ * range's prices in one pass, with the Vector API when it is available; ranges are
+ * processed in blocks of {@value #BLOCK} symbols copied into the cursor's buffers.
+ * </p>
+ */
+public class PricePathEngine {
+
+    /** Symbols whose shocks and prices are staged on the heap at a time. */
+    static final int BLOCK = 1024;
+
+    /** Model used to advance every symbol. */
+    private final PriceModel model;
+
+    /** Default step length in years. */
+    private final double dt;
+
+    /** Minimum price increment. */
+    private final double tickSize;
+
+    /** Number of ticks per currency unit, so rounding ends in an exact division. */
+    private final double ticksPerUnit;
+
+    /**
+     * Price, reference price (initial price, mean for mean-reverting models), step count
+     * and random state per symbol.
+     */
+    private final SymbolStateStore store;
+
+    /** Correlates the shocks; {@code null} for independent symbols. */
+    private final FactorModel factorModel;
+
+    /** Batch step of geometric Brownian motion; {@code null} for other models. */
+    private final PriceKernel kernel;
+
+    /** Annualized drift, for the kernel. */
+    private final double drift;
+
+    /** Annualized volatility, for the kernel. */
+    private final double volatility;
+
+    /**
+     * Creates an engine for {@code symbolCount} symbols with deterministic initial prices.
+     *
+     * @param symbolCount the number of symbols, addressed by ids {@code 0..symbolCount-1}.
+     * @param properties  the engine configuration.
+     */
+    public PricePathEngine(int symbolCount, PriceEngineProperties properties) {
+        this(symbolCount, properties, null);
+    }
+
+    /**
+     * Creates an engine for {@code symbolCount} symbols whose shocks are correlated by a factor model.
+     *
+     * @param symbolCount the number of symbols, addressed by ids {@code 0..symbolCount-1}.
+     * @param properties  the engine configuration.
+     * @param factorModel the factor model covering the symbols, or {@code null} for independent symbols.
+     * @throws IllegalArgumentException if the factor model covers a different number of symbols.
+     */
+    public PricePathEngine(int symbolCount, PriceEngineProperties properties, FactorModel factorModel) {
+        this(SymbolStateStore.allocate(symbolCount), properties, factorModel);
+    }
+
+    /**
+     * Creates an engine over the symbols of a state store, initializing their records
+     * unless the store was restored from a snapshot, in which case every path resumes
+     * where the snapshot left it.
+     *
+     * @param store       the store holding the symbols' state; its records are overwritten unless restored.
+     * @param properties  the engine configuration.
+     * @param factorModel the factor model covering the symbols, or {@code null} for independent symbols.
+     * @throws IllegalArgumentException if the factor model covers a different number of symbols.
+     */
+    public PricePathEngine(SymbolStateStore store, PriceEngineProperties properties, FactorModel factorModel) {
+        int symbolCount = store.size();
+        if (factorModel != null && factorModel.size() != symbolCount) {
+            throw new IllegalArgumentException("Factor model covers " + factorModel.size() + " symbols, not "
+                    + symbolCount);
+        }
+        this.store = store;
+        this.factorModel = factorModel;
+        this.model = properties.getModel().create(properties);
+        this.kernel = properties.getModel() != PriceModelType.GBM ? null
+                : properties.isVectorize() ? PriceKernel.best() : PriceKernel.scalar();
+        this.drift = properties.getDrift();
+        this.volatility = properties.getVolatility();
+        this.dt = properties.getTimeStepSeconds() / PriceModel.TRADING_SECONDS_PER_YEAR;
+        this.tickSize = properties.getTickSize();
+        this.ticksPerUnit = 1.0 / tickSize;
+        if (store.restored()) {
+            return;
+        }
+
+        // One independent stream per symbol, derived from the root seed
+        SplittableRandom root = new SplittableRandom(properties.getSeed());
+        for (int i = 0; i < symbolCount; i++) {
+            store.setRandomState(i, root.nextLong());
+            store.setSequence(i, 0);
+        }
+        SymbolRandom random = newRandom();
+        double range = properties.getInitialPriceMax() - properties.getInitialPriceMin();
+        for (int i = 0; i < symbolCount; i++) {
+            double initial = round(properties.getInitialPriceMin() + random.select(i).nextDouble() * range);
+            store.setPrice(i, initial);
+            store.setAnchor(i, initial);
+        }
+    }
+
+    /**
+     * Creates a random cursor over this engine's per-symbol streams.
+     * Each thread advancing symbols must use its own cursor.
+     *
+     * @return a new {@link SymbolRandom}.
+     */
+    public SymbolRandom newRandom() {
+        return new SymbolRandom(store);
+    }
+
+    /**
+     * Advances symbols {@code from} (inclusive) to {@code to} (exclusive) by one default step.
+     *
+     * @param from   the first symbol id.
+     * @param to     the end of the id range, exclusive.
+     * @param random the calling thread's random cursor.
+     */
+    public void advance(int from, int to, SymbolRandom random) {
+        advance(from, to, random, dt);
+    }
+
+    /**
+     * Advances symbols {@code from} (inclusive) to {@code to} (exclusive) by a step of {@code dt} years.
+     *
+     * @param from   the first symbol id.
+     * @param to     the end of the id range, exclusive.
+     * @param random the calling thread's random cursor.
+     * @param dt     the step length in years.
+     */
+    public void advance(int from, int to, SymbolRandom random, double dt) {
+        if (factorModel == null && kernel == null) {
+            for (int i = from; i < to; i++) {
+                random.select(i);
+                store.setPrice(i, round(model.next(store.price(i), store.anchor(i), random.nextGaussian(), dt,
+                        random)));
+                store.setSequence(i, store.sequence(i) + 1);
+            }
+            return;
+        }
+        double[] shocks = random.shocks(BLOCK);
+        int start = from;
+        while (start < to) {
+            // Correlated factors are keyed by the step number: each block shares one step
+            int end = Math.min(to, start + BLOCK);
+            if (factorModel != null) {
+                long step = store.sequence(start);
+                for (int i = start + 1; i < end; i++) {
+                    if (store.sequence(i) != step) {
+                        end = i;
+                        break;
+                    }
+                }
+            }
+            drawShocks(start, end, random, shocks);
+            if (kernel != null) {
+                double[] prices = random.prices(BLOCK);
+                for (int i = start, j = 0; i < end; i++, j++) {
+                    prices[j] = store.price(i);
+                }
+                kernel.advance(prices, shocks, 0, end - start, (drift - 0.5 * volatility * volatility) * dt,
+                        volatility * Math.sqrt(dt), tickSize);
+                for (int i = start, j = 0; i < end; i++, j++) {
+                    store.setPrice(i, prices[j]);
+                }
+            } else {
+                for (int i = start, j = 0; i < end; i++, j++) {
+                    random.select(i);
+                    store.setPrice(i, round(model.next(store.price(i), store.anchor(i), shocks[j], dt, random)));
+                }
+            }
+            for (int i = start; i < end; i++) {
+                store.setSequence(i, store.sequence(i) + 1);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Draws the shocks of a range of symbols at the same step, correlated by the factor model if any.
+     */
+    private void drawShocks(int from, int to, SymbolRandom random, double[] shocks) {
+        if (factorModel == null) {
+            for (int i = from, j = 0; i < to; i++, j++) {
+                shocks[j] = random.select(i).nextGaussian();
+            }
+            return;
+        }
+        double[] factors = random.factors(factorModel.factorCount());
+        factorModel.draw(store.sequence(from), factors);
+        factorModel.common(from, to, factors, shocks);
+        for (int i = from, j = 0; i < to; i++, j++) {
+            shocks[j] = factorModel.shock(i, shocks[j], random.select(i).nextGaussian());
+        }
+    }
+
+    /**
+     * Returns the name of the batch kernel advancing geometric Brownian motion.
+     *
+     * @return the kernel name, or {@code "none"} for other models.
+     */
+    public String kernel() {
+        return kernel != null ? kernel.name() : "none";
+    }
+
+    /**
+     * Returns the default step length.
+     *
+     * @return the step length in years.
+     */
+    public double timeStep() {
+        return dt;
+    }
+
+    /**
+     * Returns the current price of a symbol.
+     *
+     * @param symbolId the symbol id.
+     * @return the price, rounded to tick size.
+     */
+    public double price(int symbolId) {
+        return store.price(symbolId);
+    }
+
+    /**
+     * Returns the number of steps a symbol has taken.
+     *
+     * @param symbolId the symbol id.
+     * @return the symbol's sequence number.
+     */
+    public long sequence(int symbolId) {
+        return store.sequence(symbolId);
+    }
+
+    /**
+     * Returns the number of symbols in the engine.
+     *
+     * @return the symbol count.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Rounds a price to the nearest tick, never going below one tick.
+     */
+    private double round(double price) {
+        return Math.max(tickSize, Math.round(price * ticksPerUnit) / ticksPerUnit);
+    }
+
+}
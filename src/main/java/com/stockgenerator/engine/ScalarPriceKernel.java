@@ -0,0 +1,38 @@
+package com.stockgenerator.engine;
+
+/**
+ * {@link PriceKernel} computing one price at a time, on any JVM.
+ */
+final class ScalarPriceKernel implements PriceKernel {
+
+    /** Shared instance; the kernel is stateless. */
+    static final ScalarPriceKernel INSTANCE = new ScalarPriceKernel();
+
+    private ScalarPriceKernel() {
+    }
+
+    @Override
+    public void advance(double[] prices, double[] shocks, int from, int to, double drift, double diffusion,
+                        double tickSize) {
+        double ticksPerUnit = 1.0 / tickSize;
+        for (int i = from, j = 0; i < to; i++, j++) {
+            prices[i] = step(prices[i], shocks[j], drift, diffusion, tickSize, ticksPerUnit);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * Advances one price, with the same operations as {@link GeometricBrownianMotionModel}
+     * followed by the engine's rounding.
+     */
+    private static double step(double price, double shock, double drift, double diffusion, double tickSize,
+                       double ticksPerUnit) {
+        double next = price * Math.exp(drift + diffusion * shock);
+        return Math.max(tickSize, Math.round(next * ticksPerUnit) / ticksPerUnit);
+    }
+
+}
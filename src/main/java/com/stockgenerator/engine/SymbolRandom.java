@@ -0,0 +1,110 @@
+package com.stockgenerator.engine;
+
+import com.stockgenerator.state.SymbolStateStore;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Per-symbol random streams whose SplitMix64 states live in the random state field of a
+ * {@link SymbolStateStore}.
+ * <p>
+ * Each symbol owns an independent stream seeded from a root {@link SplittableRandom},
+ * so a symbol's price path depends only on the seed and its id, not on how the universe
+ * is sharded or in which order shards run. An instance is a cursor: {@link #select(int)}
+ * points it at a symbol and the {@link RandomGenerator} methods then draw from that
+ * symbol's stream without allocating. Cursors are not thread-safe; each generating
+ * thread uses its own cursor over the shared store, and symbols are never
+ * advanced by two threads at once. A cursor also carries the fixed-size working arrays
+ * of its thread's batched steps.
+ * </p>
+ */
+public final class SymbolRandom implements RandomGenerator {
+
+    /** SplitMix64 increment (the golden gamma). */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Off-heap stream states. */
+    private final SymbolStateStore store;
+
+    /** Currently selected symbol id. */
+    private int symbolId;
+
+    /** Factor draws of the step being applied. */
+    private double[] factors = new double[0];
+
+    /** Shocks of the block being advanced. */
+    private double[] shocks = new double[0];
+
+    /** Prices of the block being advanced. */
+    private double[] prices = new double[0];
+
+    /**
+     * Creates a cursor over the stream states of an off-heap store.
+     *
+     * @param store the store holding the per-symbol stream states.
+     */
+    public SymbolRandom(SymbolStateStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Points this cursor at a symbol's stream.
+     *
+     * @param symbolId the symbol id.
+     * @return this cursor.
+     */
+    public SymbolRandom select(int symbolId) {
+        this.symbolId = symbolId;
+        return this;
+    }
+
+    /**
+     * Returns this cursor's factor buffer.
+     *
+     * @param length the minimum length.
+     * @return a buffer of at least {@code length} doubles, reused by later calls.
+     */
+    double[] factors(int length) {
+        if (factors.length < length) {
+            factors = new double[length];
+        }
+        return factors;
+    }
+
+    /**
+     * Returns this cursor's shock buffer.
+     *
+     * @param length the minimum length.
+     * @return a buffer of at least {@code length} doubles, reused by later calls.
+     */
+    double[] shocks(int length) {
+        if (shocks.length < length) {
+            shocks = new double[length];
+        }
+        return shocks;
+    }
+
+    /**
+     * Returns this cursor's price buffer.
+     *
+     * @param length the minimum length.
+     * @return a buffer of at least {@code length} doubles, reused by later calls.
+     */
+    double[] prices(int length) {
+        if (prices.length < length) {
+            prices = new double[length];
+        }
+        return prices;
+    }
+
+    @Override
+    public long nextLong() {
+        long z = store.randomState(symbolId) + GOLDEN_GAMMA;
+        store.setRandomState(symbolId, z);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
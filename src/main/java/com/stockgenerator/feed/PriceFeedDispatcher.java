@@ -0,0 +1,270 @@
+package com.stockgenerator.feed;
+
+import com.stockgenerator.config.FeedProperties;
+import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans generated prices out to SSE and WebSocket subscribers.
+ * <p>
+ * A single dispatcher thread periodically takes the set of symbols updated in the
+ * {@link LatestPriceCache} and marks them pending on every interested subscription.
+ * A subscription with pending changes gets one send on a virtual thread, which reads
+ * the current prices from the cache when it runs; changes arriving meanwhile are
+ * conflated into the next send. Idle subscribers therefore hold no thread and no copy
+ * of the ticks, and a slow subscriber only ever lags by one value per symbol.
+ * </p>
+ */
+@Component
+@Slf4j
+public class PriceFeedDispatcher {
+
+    /** Table of the simulated symbols. */
+    private final SymbolUniverse universe;
+
+    /** Source of the latest prices and of the changed-symbol set. */
+    private final LatestPriceCache latestPriceCache;
+
+    /** Feed configuration. */
+    private final FeedProperties properties;
+
+    /** Active subscriptions. */
+    private final Set<PriceSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /** Subscriber slots taken, reserved before a subscription is added and released when it is removed. */
+    private final AtomicInteger reservedSlots = new AtomicInteger();
+
+    /** Changed symbols of the current dispatch; owned by the dispatcher thread. */
+    private final long[] changed;
+
+    /** Dispatcher thread. */
+    private final ScheduledExecutorService dispatcher;
+
+    /** Runs the sends, one virtual thread per subscriber with pending changes. */
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Prices delivered to subscribers. */
+    private final Counter sentPrices;
+
+    /** Changes replaced by a newer value before they were sent. */
+    private final Counter conflatedPrices;
+
+    /**
+     * Creates the dispatcher and starts its thread.
+     *
+     * @param universe         the symbol universe.
+     * @param latestPriceCache the last-value cache.
+     * @param properties       the feed configuration.
+     * @param meterRegistry    registry for feed metrics.
+     */
+    public PriceFeedDispatcher(SymbolUniverse universe,
+                               LatestPriceCache latestPriceCache,
+                               FeedProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.universe = universe;
+        this.latestPriceCache = latestPriceCache;
+        this.properties = properties;
+        this.changed = new long[latestPriceCache.changedWords()];
+
+        Gauge.builder("stock.feed.subscribers", subscriptions, Set::size)
+                .description("Active SSE and WebSocket subscribers")
+                .register(meterRegistry);
+        this.sentPrices = meterRegistry.counter("stock.feed.sent");
+        this.conflatedPrices = meterRegistry.counter("stock.feed.conflated");
+
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("price-feed-dispatcher").daemon(true).factory());
+        long intervalMs = properties.getDispatchInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatch, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a subscriber and sends it the current price of its symbols.
+     *
+     * @param symbols the symbols to subscribe to; unknown symbols are ignored.
+     * @param sink    the transport of the subscriber.
+     * @return the subscription.
+     * @throws IllegalStateException if {@code stock.feed.max-subscribers} is reached.
+     */
+    public PriceSubscription subscribe(Collection<String> symbols, PriceSink sink) {
+        if (reservedSlots.incrementAndGet() > properties.getMaxSubscribers()) {
+            reservedSlots.decrementAndGet();
+            throw new IllegalStateException("Price feed subscriber limit reached");
+        }
+        PriceSubscription subscription = new PriceSubscription(sink, changed.length);
+        subscriptions.add(subscription);
+        addSymbols(subscription, symbols);
+        return subscription;
+    }
+
+    /**
+     * Registers a subscriber to every symbol of the universe.
+     *
+     * @param sink the transport of the subscriber.
+     * @return the subscription.
+     * @throws IllegalStateException if {@code stock.feed.max-subscribers} is reached.
+     */
+    public PriceSubscription subscribeAll(PriceSink sink) {
+        List<String> symbols = new ArrayList<>(universe.size());
+        for (int id = 0; id < universe.size(); id++) {
+            symbols.add(universe.symbol(id));
+        }
+        return subscribe(symbols, sink);
+    }
+
+    /**
+     * Adds symbols to a subscription and sends their current price.
+     *
+     * @param subscription the subscription.
+     * @param symbols      the symbols; unknown symbols are ignored.
+     */
+    public void addSymbols(PriceSubscription subscription, Collection<String> symbols) {
+        subscription.add(mask(symbols));
+        schedule(subscription);
+    }
+
+    /**
+     * Removes symbols from a subscription.
+     *
+     * @param subscription the subscription.
+     * @param symbols      the symbols.
+     */
+    public void removeSymbols(PriceSubscription subscription, Collection<String> symbols) {
+        subscription.remove(mask(symbols));
+    }
+
+    /**
+     * Removes a subscription; pending changes are discarded.
+     *
+     * @param subscription the subscription.
+     */
+    public void unsubscribe(PriceSubscription subscription) {
+        subscription.closed = true;
+        if (subscriptions.remove(subscription)) {
+            reservedSlots.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of active subscriptions.
+     *
+     * @return the subscriber count.
+     */
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Marks the symbols changed since the previous dispatch on every interested subscription
+     * and schedules their sends. Runs on the dispatcher thread only.
+     */
+    void dispatch() {
+        try {
+            if (!latestPriceCache.drainChanged(changed)) {
+                return;
+            }
+            for (PriceSubscription subscription : subscriptions) {
+                int conflated = subscription.offer(changed);
+                if (conflated > 0) {
+                    conflatedPrices.increment(conflated);
+                }
+                schedule(subscription);
+            }
+        } catch (Exception e) {
+            log.error("Price feed dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts a send for the subscription unless one is already running or nothing is pending.
+     */
+    private void schedule(PriceSubscription subscription) {
+        if (!subscription.closed && subscription.hasPending() && subscription.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscription));
+        }
+    }
+
+    /**
+     * Sends pending changes until none are left, then releases the subscription's send slot.
+     */
+    private void send(PriceSubscription subscription) {
+        try {
+            while (!subscription.closed) {
+                List<StockPrice> prices = latestPrices(subscription.takePending());
+                if (prices.isEmpty()) {
+                    break;
+                }
+                subscription.sink().send(prices);
+                sentPrices.increment(prices.size());
+            }
+        } catch (Exception e) {
+            log.debug("Dropping price feed subscriber: {}", e.getMessage());
+            unsubscribe(subscription);
+            subscription.sink().close();
+        } finally {
+            subscription.sending.set(false);
+        }
+        // A change marked after the last take but before the slot was released would be stranded.
+        schedule(subscription);
+    }
+
+    /**
+     * Reads the current price of every listed symbol.
+     */
+    private List<StockPrice> latestPrices(int[] symbolIds) {
+        List<StockPrice> prices = new ArrayList<>(symbolIds.length);
+        for (int symbolId : symbolIds) {
+            StockPrice stockPrice = latestPriceCache.read(symbolId);
+            if (stockPrice != null) {
+                prices.add(stockPrice);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Converts symbols to a bitset of their ids, skipping unknown symbols.
+     */
+    private long[] mask(Collection<String> symbols) {
+        long[] mask = new long[changed.length];
+        for (String symbol : symbols) {
+            int symbolId = universe.id(symbol.trim());
+            if (symbolId >= 0) {
+                mask[symbolId >>> 6] |= 1L << symbolId;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Stops dispatching and closes every subscriber on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (PriceSubscription subscription : subscriptions) {
+            unsubscribe(subscription);
+            subscription.sink().close();
+        }
+        senders.shutdownNow();
+    }
+
+}
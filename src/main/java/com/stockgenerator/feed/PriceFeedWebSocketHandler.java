@@ -0,0 +1,125 @@
+package com.stockgenerator.feed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockgenerator.model.StockPrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * WebSocket endpoint of the price feed.
+ * <p>
+ * Clients may pass an initial symbol list as {@code ?symbols=AAPL,GOOG} and change it
+ * at any time with {@code {"action":"subscribe","symbols":["MSFT"]}} or
+ * {@code {"action":"unsubscribe","symbols":["AAPL"]}}. Prices are pushed as text
+ * messages holding a JSON array of the latest prices that changed.
+ * </p>
+ */
+@Component
+@Slf4j
+public class PriceFeedWebSocketHandler extends TextWebSocketHandler {
+
+    /** Session attribute holding the session's subscription. */
+    private static final String SUBSCRIPTION = PriceSubscription.class.getName();
+
+    /** Dispatcher managing the subscriptions. */
+    private final PriceFeedDispatcher dispatcher;
+
+    /** Mapper for control messages and price batches. */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates the handler.
+     *
+     * @param dispatcher   the feed dispatcher.
+     * @param objectMapper the JSON mapper.
+     */
+    public PriceFeedWebSocketHandler(PriceFeedDispatcher dispatcher, ObjectMapper objectMapper) {
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        List<String> symbols = new ArrayList<>();
+        if (session.getUri() != null) {
+            String query = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("symbols");
+            if (query != null) {
+                symbols.addAll(Arrays.asList(query.split(",")));
+            }
+        }
+        try {
+            PriceSubscription subscription = dispatcher.subscribe(symbols, new SessionSink(session));
+            session.getAttributes().put(SUBSCRIPTION, subscription);
+        } catch (IllegalStateException e) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason(e.getMessage()));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        PriceSubscription subscription = (PriceSubscription) session.getAttributes().get(SUBSCRIPTION);
+        if (subscription == null) {
+            return;
+        }
+        JsonNode command = objectMapper.readTree(message.getPayload());
+        List<String> symbols = new ArrayList<>();
+        command.path("symbols").forEach(symbol -> symbols.add(symbol.asText()));
+        switch (command.path("action").asText()) {
+            case "subscribe" -> dispatcher.addSymbols(subscription, symbols);
+            case "unsubscribe" -> dispatcher.removeSymbols(subscription, symbols);
+            default -> session.close(CloseStatus.BAD_DATA.withReason("Unknown action"));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        log.debug("Price feed WebSocket error: {}", exception.getMessage());
+        session.close(CloseStatus.SERVER_ERROR);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        PriceSubscription subscription = (PriceSubscription) session.getAttributes().remove(SUBSCRIPTION);
+        if (subscription != null) {
+            dispatcher.unsubscribe(subscription);
+        }
+    }
+
+    /**
+     * Sink writing each batch as one text message.
+     */
+    private final class SessionSink implements PriceSink {
+
+        private final WebSocketSession session;
+
+        SessionSink(WebSocketSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void send(List<StockPrice> prices) throws IOException {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(prices)));
+        }
+
+        @Override
+        public void close() {
+            try {
+                session.close(CloseStatus.GOING_AWAY);
+            } catch (IOException e) {
+                log.debug("Failed to close price feed WebSocket: {}", e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.stockgenerator.feed;
+
+import com.stockgenerator.model.StockPrice;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Transport of one feed subscriber, such as an SSE emitter or a WebSocket session.
+ * <p>
+ * {@link #send} is never called concurrently for the same sink and may block; it runs
+ * on a virtual thread, so a slow client only delays its own updates.
+ * </p>
+ */
+public interface PriceSink {
+
+    /**
+     * Delivers the latest prices of the symbols that changed since the previous send.
+     *
+     * @param prices the latest prices, in symbol id order.
+     * @throws IOException if the client can no longer be written to.
+     */
+    void send(List<StockPrice> prices) throws IOException;
+
+    /**
+     * Closes the transport after the subscription was removed.
+     */
+    void close();
+
+}
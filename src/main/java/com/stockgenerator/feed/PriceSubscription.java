@@ -0,0 +1,244 @@
+package com.stockgenerator.feed;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One feed subscriber: the symbols it is interested in and the symbols changed since
+ * its last send.
+ * <p>
+ * Pending changes are a bitset rather than a queue, so a slow subscriber holds at most
+ * one bit per symbol and always receives the latest value when it catches up.
+ * </p>
+ * <p>
+ * A subscription to no more symbols than the universe bitset has words keeps its
+ * interest sparse, as a sorted array of symbol ids with one pending bit per entry, so
+ * its memory and the cost of each dispatch grow with its symbols rather than with the
+ * universe. Larger subscriptions switch to universe-sized bitsets, whose dispatch walks
+ * every word.
+ * </p>
+ */
+public final class PriceSubscription {
+
+    /** Transport of the subscriber. */
+    private final PriceSink sink;
+
+    /** Length of a universe bitset in words, and the most symbols kept sparse. */
+    private final int words;
+
+    /** Sorted symbol ids the subscriber wants while sparse, else {@code null}; guarded by {@code this}. */
+    private int[] interestIds;
+
+    /** Symbol ids the subscriber wants, one bit each, while dense, else {@code null}; guarded by {@code this}. */
+    private long[] interestBits;
+
+    /**
+     * Changes not yet sent, one bit per entry of {@link #interestIds} while sparse and per
+     * symbol id while dense; guarded by {@code this}.
+     */
+    private long[] pending;
+
+    /** Number of bits set in {@link #pending}; guarded by {@code this}. */
+    private int pendingCount;
+
+    /** Whether a send is scheduled or running; at most one per subscriber. */
+    final AtomicBoolean sending = new AtomicBoolean();
+
+    /** Set once the subscription is removed. */
+    volatile boolean closed;
+
+    /**
+     * Creates a subscription with no symbols.
+     *
+     * @param sink  the transport.
+     * @param words the universe bitset length in words.
+     */
+    PriceSubscription(PriceSink sink, int words) {
+        this.sink = sink;
+        this.words = words;
+        this.interestIds = new int[0];
+        this.pending = new long[0];
+    }
+
+    /**
+     * Returns the transport of the subscriber.
+     *
+     * @return the sink.
+     */
+    public PriceSink sink() {
+        return sink;
+    }
+
+    /**
+     * Adds symbols and marks them pending so their current price is sent.
+     *
+     * @param symbols the symbol ids, one bit each.
+     */
+    synchronized void add(long[] symbols) {
+        long[] interest = interestMask();
+        long[] changes = pendingMask();
+        for (int word = 0; word < words; word++) {
+            interest[word] |= symbols[word];
+            changes[word] |= symbols[word];
+        }
+        rebuild(interest, changes);
+    }
+
+    /**
+     * Removes symbols, including any of their pending changes.
+     *
+     * @param symbols the symbol ids, one bit each.
+     */
+    synchronized void remove(long[] symbols) {
+        long[] interest = interestMask();
+        long[] changes = pendingMask();
+        for (int word = 0; word < words; word++) {
+            interest[word] &= ~symbols[word];
+            changes[word] &= ~symbols[word];
+        }
+        rebuild(interest, changes);
+    }
+
+    /**
+     * Marks the changed symbols this subscriber wants as pending.
+     *
+     * @param changed the changed symbol ids, one bit each.
+     * @return the number of changes merged into a change that was still pending.
+     */
+    synchronized int offer(long[] changed) {
+        int conflated = 0;
+        if (interestIds != null) {
+            for (int i = 0; i < interestIds.length; i++) {
+                int symbolId = interestIds[i];
+                if ((changed[symbolId >>> 6] & 1L << symbolId) != 0) {
+                    if ((pending[i >>> 6] & 1L << i) != 0) {
+                        conflated++;
+                    } else {
+                        pending[i >>> 6] |= 1L << i;
+                        pendingCount++;
+                    }
+                }
+            }
+            return conflated;
+        }
+        for (int word = 0; word < words; word++) {
+            long wanted = changed[word] & interestBits[word];
+            if (wanted != 0) {
+                int merged = Long.bitCount(pending[word] & wanted);
+                conflated += merged;
+                pendingCount += Long.bitCount(wanted) - merged;
+                pending[word] |= wanted;
+            }
+        }
+        return conflated;
+    }
+
+    /**
+     * Returns whether any change is waiting to be sent.
+     *
+     * @return {@code true} if a change is pending.
+     */
+    synchronized boolean hasPending() {
+        return pendingCount > 0;
+    }
+
+    /**
+     * Takes the pending changes, leaving none pending. Only called by the single running send.
+     *
+     * @return the changed symbol ids, in ascending order.
+     */
+    synchronized int[] takePending() {
+        int[] taken = new int[pendingCount];
+        int count = 0;
+        for (int word = 0; word < pending.length; word++) {
+            long bits = pending[word];
+            while (bits != 0) {
+                int bit = (word << 6) + Long.numberOfTrailingZeros(bits);
+                taken[count++] = interestIds != null ? interestIds[bit] : bit;
+                bits &= bits - 1;
+            }
+            pending[word] = 0;
+        }
+        pendingCount = 0;
+        return taken;
+    }
+
+    /**
+     * Returns whether the interest is held as a sorted id array rather than a bitset.
+     *
+     * @return {@code true} if sparse.
+     */
+    synchronized boolean isSparse() {
+        return interestIds != null;
+    }
+
+    /**
+     * Returns a universe bitset copy of the interest.
+     */
+    private long[] interestMask() {
+        if (interestBits != null) {
+            return interestBits.clone();
+        }
+        long[] mask = new long[words];
+        for (int symbolId : interestIds) {
+            mask[symbolId >>> 6] |= 1L << symbolId;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns a universe bitset copy of the pending changes.
+     */
+    private long[] pendingMask() {
+        if (interestIds == null) {
+            return pending.clone();
+        }
+        long[] mask = new long[words];
+        for (int i = 0; i < interestIds.length; i++) {
+            if ((pending[i >>> 6] & 1L << i) != 0) {
+                mask[interestIds[i] >>> 6] |= 1L << interestIds[i];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Replaces interest and pending changes, choosing the sparse form when the interest
+     * holds no more symbols than a bitset has words.
+     *
+     * @param interest the wanted symbol ids, one bit each.
+     * @param changes  the pending symbol ids, one bit each; a subset of {@code interest}.
+     */
+    private void rebuild(long[] interest, long[] changes) {
+        int size = 0;
+        int changeCount = 0;
+        for (int word = 0; word < words; word++) {
+            size += Long.bitCount(interest[word]);
+            changeCount += Long.bitCount(changes[word]);
+        }
+        pendingCount = changeCount;
+        if (size > words) {
+            interestIds = null;
+            interestBits = interest;
+            pending = changes;
+            return;
+        }
+        int[] ids = new int[size];
+        long[] sparsePending = new long[(size + 63) >>> 6];
+        int i = 0;
+        for (int word = 0; word < words; word++) {
+            long bits = interest[word];
+            while (bits != 0) {
+                int symbolId = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if ((changes[word] & 1L << symbolId) != 0) {
+                    sparsePending[i >>> 6] |= 1L << i;
+                }
+                ids[i++] = symbolId;
+                bits &= bits - 1;
+            }
+        }
+        interestIds = ids;
+        interestBits = null;
+        pending = sparsePending;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.stockgenerator.feed;
+
+import com.stockgenerator.model.StockPrice;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Feed transport writing each batch of prices as one {@code prices} Server-Sent Event
+ * whose data is a JSON array.
+ */
+public class SsePriceSink implements PriceSink {
+
+    /** Name of the events carrying prices. */
+    static final String EVENT_NAME = "prices";
+
+    /** The emitter of the client's response. */
+    private final SseEmitter emitter;
+
+    /**
+     * Creates a sink writing to an emitter.
+     *
+     * @param emitter the emitter.
+     */
+    public SsePriceSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(List<StockPrice> prices) throws IOException {
+        emitter.send(SseEmitter.event().name(EVENT_NAME).data(prices, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.stockgenerator.journal;
+
+import com.stockgenerator.codec.TickCodec;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One preallocated, memory-mapped journal segment of fixed-size tick records.
+ * <p>
+ * Writers claim record slots with an atomic increment and write them with absolute puts,
+ * so any number of threads append concurrently without a lock. Sealing adds
+ * {@link #SEALED} to the claim counter, which makes every later claim fail and fixes the
+ * number of records the segment holds. Once its appends complete, a sealed segment is
+ * truncated to those records and its mapping released.
+ * </p>
+ */
+final class JournalSegment {
+
+    /** Added to the claim counter on sealing; far beyond any capacity. */
+    private static final long SEALED = 1L << 62;
+
+    /** The segment file. */
+    private final Path path;
+
+    /** Record slots in the segment. */
+    private final int capacity;
+
+    /** The mapped file; {@code null} once released by {@link #truncate(long)}. */
+    private MappedByteBuffer buffer;
+
+    /** {@link System#nanoTime()} when the segment was created. */
+    private final long createdNanos;
+
+    /** Slots claimed so far, plus {@link #SEALED} once sealed. */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Records completely written. */
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * Creates and maps a new segment file.
+     *
+     * @param path     the file, which must not exist.
+     * @param capacity the number of record slots.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    JournalSegment(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.capacity = capacity;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end extends the file; the unwritten tail stays sparse and zeroed
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * TickCodec.V1_SIZE);
+        }
+        this.createdNanos = System.nanoTime();
+    }
+
+    /**
+     * Appends a tick if the segment has room.
+     *
+     * @return {@code false} if the segment is full or sealed.
+     */
+    boolean append(int symbolId, double price, long epochNanos, long sequence) {
+        long slot = claimed.getAndIncrement();
+        if (slot >= capacity) {
+            return false;
+        }
+        TickCodec.put(buffer, (int) slot * TickCodec.V1_SIZE, symbolId, price, epochNanos, sequence);
+        written.increment();
+        return true;
+    }
+
+    /**
+     * Stops further appends.
+     *
+     * @return the number of records the segment holds once in-flight appends complete.
+     */
+    long seal() {
+        return Math.min(claimed.getAndAdd(SEALED), capacity);
+    }
+
+    /**
+     * Waits until a sealed segment's in-flight appends complete.
+     *
+     * @param records the value returned by {@link #seal()}.
+     */
+    void awaitWritten(long records) {
+        while (written.sum() < records) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Forces the written records to disk.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Cuts a sealed segment's file after its records and releases the mapping, which is
+     * unmapped once the buffer is garbage collected. Only call after
+     * {@link #awaitWritten(long)}; the segment cannot be appended to or forced afterwards.
+     *
+     * @param records the value returned by {@link #seal()}.
+     * @throws IOException if the file cannot be truncated.
+     */
+    void truncate(long records) throws IOException {
+        buffer = null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(records * TickCodec.V1_SIZE);
+        }
+    }
+
+    /**
+     * Returns the number of records appended so far.
+     *
+     * @return the record count.
+     */
+    long records() {
+        return Math.min(claimed.get() & (SEALED - 1), capacity);
+    }
+
+    /**
+     * Returns how long the segment has existed.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}.
+     * @return the age in nanoseconds.
+     */
+    long ageNanos(long nowNanos) {
+        return nowNanos - createdNanos;
+    }
+
+    /**
+     * Returns the segment file.
+     *
+     * @return the path.
+     */
+    Path path() {
+        return path;
+    }
+
+}
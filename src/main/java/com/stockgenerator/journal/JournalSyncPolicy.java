@@ -0,0 +1,16 @@
+package com.stockgenerator.journal;
+
+/**
+ * When journal segments are forced to disk.
+ */
+public enum JournalSyncPolicy {
+
+    /** Never explicitly; the operating system writes dirty pages back on its own schedule. */
+    NONE,
+
+    /** When a segment is sealed, on roll and shutdown. */
+    ROLL,
+
+    /** Every {@code stock.journal.sync-interval}, and when a segment is sealed. */
+    INTERVAL
+}
@@ -0,0 +1,335 @@
+package com.stockgenerator.journal;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.JournalProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of every generated tick, in memory-mapped segment files.
+ * <p>
+ * Each segment is a preallocated file of fixed-size {@link TickCodec} version 1 records,
+ * the format of the replay's {@link com.stockgenerator.replay.TickFile}, so a segment can
+ * be replayed as it is. Generation threads append by claiming a slot and writing it
+ * straight into the mapping: no lock, no copy and no system call per tick. A segment
+ * rolls when it is full or older than {@code stock.journal.segment-duration}; rolled
+ * segments are sealed, forced to disk, truncated to their records so no unwritten tail
+ * remains, and pruned to {@code stock.journal.max-segments}
+ * on a background thread, which also forces the open segment under the
+ * {@link JournalSyncPolicy#INTERVAL} policy.
+ * </p>
+ */
+@Component
+@Slf4j
+public class TickJournal {
+
+    /** Suffix of segment files. */
+    static final String SEGMENT_SUFFIX = ".ticks";
+
+    /** Pause before retrying to open a segment after a failure, in nanoseconds. */
+    private static final long ROLL_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Journal configuration. */
+    private final JournalProperties properties;
+
+    /** Directory of the segment files. */
+    private final Path directory;
+
+    /** Record slots per segment. */
+    private final int segmentCapacity;
+
+    /** Seals, syncs and prunes segments; {@code null} when the journal is disabled. */
+    private final ScheduledExecutorService background;
+
+    /** Guards rolling. */
+    private final Object rollLock = new Object();
+
+    /** The segment being appended to; {@code null} when disabled or after a failed roll. */
+    private volatile JournalSegment current;
+
+    /** Number of the next segment file. */
+    private long nextSegment;
+
+    /** {@link System#nanoTime()} before which no new segment is attempted after a failure. */
+    private volatile long rollRetryNanos;
+
+    /** Set on shutdown; no segment is opened afterwards. */
+    private volatile boolean closed;
+
+    /** Ticks that could not be journaled. */
+    private final Counter droppedTicks;
+
+    /** Segments sealed. */
+    private final Counter rolledSegments;
+
+    /** Time to force a segment to disk. */
+    private final Timer syncTimer;
+
+    /** Number of the segment being appended to, for the gauge. */
+    private final AtomicLong currentSegment = new AtomicLong(-1);
+
+    /**
+     * Creates the journal and, when {@code stock.journal.enabled} is set, opens its first segment.
+     *
+     * @param properties    the journal configuration.
+     * @param meterRegistry registry for journal metrics.
+     * @throws IllegalArgumentException if the segment size holds no record or exceeds 2 GB.
+     * @throws UncheckedIOException     if the directory or the first segment cannot be created.
+     */
+    public TickJournal(JournalProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        long capacity = properties.getSegmentSize().toBytes() / TickCodec.V1_SIZE;
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / TickCodec.V1_SIZE) {
+            throw new IllegalArgumentException("stock.journal.segment-size must hold 1 record and at most 2 GB: "
+                    + properties.getSegmentSize());
+        }
+        this.segmentCapacity = (int) capacity;
+
+        this.droppedTicks = meterRegistry.counter("stock.journal.dropped");
+        this.rolledSegments = meterRegistry.counter("stock.journal.segments");
+        this.syncTimer = Timer.builder("stock.journal.sync")
+                .description("Time to force a journal segment to disk")
+                .register(meterRegistry);
+        Gauge.builder("stock.journal.segment", currentSegment, AtomicLong::get)
+                .description("Number of the journal segment being written")
+                .register(meterRegistry);
+        Gauge.builder("stock.journal.records", this, journal -> {
+                    JournalSegment segment = journal.current;
+                    return segment == null ? 0 : segment.records();
+                })
+                .description("Records in the journal segment being written")
+                .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            this.background = null;
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            this.nextSegment = segmentFiles().stream()
+                    .mapToLong(TickJournal::segmentNumber)
+                    .max()
+                    .orElse(-1) + 1;
+            this.current = openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open tick journal in " + directory + ": " + e.getMessage(), e);
+        }
+        this.background = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("tick-journal").daemon(true).factory());
+        long intervalMs = properties.getSyncInterval().toMillis();
+        background.scheduleWithFixedDelay(this::maintain, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Journaling ticks to {} in segments of {} records, sync {}", directory, segmentCapacity,
+                properties.getSync());
+    }
+
+    /**
+     * Appends a generated tick. Safe to call from any number of threads.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the tick timestamp in epoch milliseconds.
+     * @param sequence    the tick sequence number.
+     */
+    public void append(int symbolId, double price, long epochMillis, long sequence) {
+        if (background == null) {
+            return;
+        }
+        long epochNanos = TimeUnit.MILLISECONDS.toNanos(epochMillis);
+        while (true) {
+            JournalSegment segment = current;
+            if (segment != null && segment.append(symbolId, price, epochNanos, sequence)) {
+                return;
+            }
+            if (!roll(segment)) {
+                droppedTicks.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Seals the open segment and stops the background thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (background == null) {
+            return;
+        }
+        JournalSegment last;
+        synchronized (rollLock) {
+            last = current;
+            current = null;
+            closed = true;
+        }
+        if (last != null) {
+            background.execute(() -> seal(last));
+        }
+        background.shutdown();
+        background.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Replaces a full or expired segment with a new one, unless another thread already did.
+     *
+     * @return {@code false} if no segment could be opened.
+     */
+    private boolean roll(JournalSegment expected) {
+        synchronized (rollLock) {
+            JournalSegment segment = current;
+            if (segment != expected) {
+                return segment != null;
+            }
+            long now = System.nanoTime();
+            if (closed || (expected == null && now - rollRetryNanos < 0)) {
+                return false;
+            }
+            try {
+                current = openSegment();
+            } catch (IOException | RuntimeException e) {
+                current = null;
+                rollRetryNanos = now + ROLL_RETRY_NANOS;
+                log.error("Failed to open a tick journal segment in {}: {}", directory, e.getMessage(), e);
+                return false;
+            } finally {
+                if (segment != null) {
+                    background.execute(() -> seal(segment));
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Creates the next segment file. Must hold {@link #rollLock} or run in the constructor.
+     */
+    private JournalSegment openSegment() throws IOException {
+        long number = nextSegment++;
+        JournalSegment segment = new JournalSegment(directory.resolve(segmentName(number)), segmentCapacity);
+        currentSegment.set(number);
+        return segment;
+    }
+
+    /**
+     * Seals a rolled segment, forces it to disk, truncates it to its records and prunes old
+     * segments; empty segments are deleted. Runs on the background thread.
+     */
+    private void seal(JournalSegment segment) {
+        long records = segment.seal();
+        segment.awaitWritten(records);
+        if (records == 0) {
+            // An idle period leaves nothing worth keeping
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete empty tick journal segment {}: {}", segment.path(), e.getMessage());
+            }
+            return;
+        }
+        if (properties.getSync() != JournalSyncPolicy.NONE) {
+            syncTimer.record(segment::force);
+        }
+        try {
+            segment.truncate(records);
+        } catch (IOException e) {
+            // Replay still ends the segment at its last written record
+            log.warn("Failed to truncate tick journal segment {}: {}", segment.path(), e.getMessage());
+        }
+        rolledSegments.increment();
+        prune();
+    }
+
+    /**
+     * Rolls the open segment when it has expired and forces it under the interval policy.
+     * Runs on the background thread.
+     */
+    private void maintain() {
+        try {
+            JournalSegment segment = current;
+            if (segment == null) {
+                roll(null);
+                return;
+            }
+            long age = segment.ageNanos(System.nanoTime());
+            if (segment.records() > 0 && age >= properties.getSegmentDuration().toNanos()) {
+                roll(segment);
+            } else if (properties.getSync() == JournalSyncPolicy.INTERVAL) {
+                syncTimer.record(segment::force);
+            }
+        } catch (Exception e) {
+            log.error("Tick journal maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the oldest sealed segments beyond {@code stock.journal.max-segments}.
+     */
+    private void prune() {
+        if (properties.getMaxSegments() <= 0) {
+            return;
+        }
+        try {
+            JournalSegment open = current;
+            List<Path> sealed = segmentFiles().stream()
+                    .filter(path -> open == null || !path.equals(open.path()))
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+            for (int i = 0; i < sealed.size() - properties.getMaxSegments(); i++) {
+                Files.deleteIfExists(sealed.get(i));
+            }
+        } catch (IOException e) {
+            log.error("Failed to prune tick journal segments in {}: {}", directory, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lists the segment files of the directory.
+     */
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> segmentNumber(path) >= 0).toList();
+        }
+    }
+
+    /**
+     * Returns the file name of a segment.
+     *
+     * @param number the segment number.
+     * @return the file name, ordered by number.
+     */
+    static String segmentName(long number) {
+        return String.format("%012d%s", number, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the number of a segment file, or -1 for other files.
+     */
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
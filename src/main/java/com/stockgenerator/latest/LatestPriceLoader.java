@@ -0,0 +1,166 @@
+package com.stockgenerator.latest;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.KafkaConfig;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.config.LatestTopicProperties;
+import com.stockgenerator.model.StockTick;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads the compacted latest-price topic from its beginning to its current end, so the
+ * latest price of every symbol is known on startup without querying the database.
+ * <p>
+ * The consumer is assigned every partition directly, joins no group and commits no
+ * offsets; it is closed as soon as the end offsets seen at the start are reached. Records
+ * of a symbol arrive in the order they were written, so the last one handed over is its
+ * latest price.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LatestPriceLoader {
+
+    /** Longest wait of a single poll. */
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    /** Latest-price topic configuration. */
+    private final LatestTopicProperties properties;
+
+    /** Creates the consumer of each load. */
+    private final Supplier<Consumer<String, byte[]>> consumers;
+
+    /**
+     * Creates the loader, connecting to the brokers the producers use.
+     *
+     * @param properties      the latest-price topic configuration.
+     * @param kafkaProperties the producer settings, for the bootstrap servers and connection security.
+     */
+    @Autowired
+    public LatestPriceLoader(LatestTopicProperties properties, KafkaProducerProperties kafkaProperties) {
+        this(properties, () -> new KafkaConsumer<>(consumerConfigs(properties, kafkaProperties),
+                new StringDeserializer(), new ByteArrayDeserializer()));
+    }
+
+    /**
+     * Creates the loader with its own consumers.
+     *
+     * @param properties the latest-price topic configuration.
+     * @param consumers  creates the consumer of each load.
+     */
+    LatestPriceLoader(LatestTopicProperties properties, Supplier<Consumer<String, byte[]>> consumers) {
+        this.properties = properties;
+        this.consumers = consumers;
+    }
+
+    /**
+     * Returns whether the latest-price topic is enabled.
+     *
+     * @return {@code true} if the cache should be warmed from the topic.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Hands every record of the topic to a consumer, up to the end offsets at the time of the call.
+     * Tombstones and undecodable records are skipped.
+     *
+     * @param consumer receives the record key, the symbol, and the decoded tick.
+     * @return {@code true} if the topic was read to its end within {@code stock.latest-topic.bootstrap-timeout};
+     *         {@code false} if it does not exist, the brokers cannot be reached or time ran out.
+     */
+    public boolean load(BiConsumer<String, StockTick> consumer) {
+        Duration timeout = properties.getBootstrapTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long records = 0;
+        try (Consumer<String, byte[]> kafka = consumers.get()) {
+            List<PartitionInfo> partitions = kafka.partitionsFor(KafkaConfig.LATEST_TOPIC, timeout);
+            if (partitions == null || partitions.isEmpty()) {
+                log.info("Latest-price topic {} does not exist yet", KafkaConfig.LATEST_TOPIC);
+                return false;
+            }
+            List<TopicPartition> assigned = partitions.stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            kafka.assign(assigned);
+            kafka.seekToBeginning(assigned);
+            Map<TopicPartition, Long> endOffsets = kafka.endOffsets(assigned, timeout);
+            while (!reachedEnd(kafka, endOffsets)) {
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("Latest-price topic not read to its end within {} after {} records", timeout, records);
+                    return false;
+                }
+                for (ConsumerRecord<String, byte[]> record : kafka.poll(POLL_TIMEOUT)) {
+                    if (record.key() != null && record.value() != null) {
+                        try {
+                            consumer.accept(record.key(), TickCodec.decode(record.value(), null));
+                            records++;
+                        } catch (KafkaException e) {
+                            log.debug("Skipping latest-price record {} of {}: {}", record.offset(), record.key(),
+                                    e.getMessage());
+                        }
+                    }
+                }
+            }
+            return true;
+        } catch (KafkaException e) {
+            log.warn("Cannot read latest-price topic {}: {}", KafkaConfig.LATEST_TOPIC, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether every partition's position has reached its end offset.
+     */
+    private static boolean reachedEnd(Consumer<String, byte[]> kafka, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            if (kafka.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the settings of a consumer that reads without a group. Of the producer's
+     * pass-through settings only the {@code security.*}, {@code sasl.*} and {@code ssl.*}
+     * ones apply, so the consumer reaches the brokers the same way; producer-only settings
+     * would be ignored by the consumer with a warning.
+     */
+    static Map<String, Object> consumerConfigs(LatestTopicProperties properties,
+                                               KafkaProducerProperties kafkaProperties) {
+        Map<String, Object> configs = new HashMap<>();
+        kafkaProperties.getProperties().forEach((key, value) -> {
+            if (key.startsWith("security.") || key.startsWith("sasl.") || key.startsWith("ssl.")) {
+                configs.put(key, value);
+            }
+        });
+        configs.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
+        configs.put(ConsumerConfig.CLIENT_ID_CONFIG, "latest-price-loader");
+        configs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configs.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        configs.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+        configs.put(ConsumerConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) properties.getBootstrapTimeout().toMillis());
+        return configs;
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.stockgenerator.latest;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.LatestTopicProperties;
+import com.stockgenerator.producer.MarketDataProducer;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the compacted latest-price topic current with the last-value cache.
+ * <p>
+ * Every {@code stock.latest-topic.publish-interval} a single thread scans the cache's
+ * slot versions and publishes the latest price of each symbol whose version changed since
+ * it was last published, keyed by symbol, as a {@link TickCodec} record with sequence
+ * number 0. Updates within an interval are conflated, so the topic's write rate depends
+ * on the universe size and the interval rather than on the tick rate, and the generation
+ * path is not involved. A record lost to a failed send is replaced by the symbol's next
+ * change.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LatestPricePublisher {
+
+    /** Source of the latest prices. */
+    private final LatestPriceCache latestPriceCache;
+
+    /** Table of the simulated symbols. */
+    private final SymbolUniverse universe;
+
+    /** Sends the records. */
+    private final MarketDataProducer producer;
+
+    /** Slot version last published per symbol id; {@code null} when disabled. */
+    private final long[] publishedVersions;
+
+    /** Encoding buffer, reused by every record. */
+    private final ByteBuffer payload = ByteBuffer.allocate(TickCodec.V1_SIZE);
+
+    /** Single thread publishing the changes; {@code null} when disabled. */
+    private final ScheduledExecutorService publisher;
+
+    /** Latest prices handed to the producer. */
+    private final Counter published;
+
+    /**
+     * Creates the publisher and, when the topic is enabled, starts its thread.
+     *
+     * @param latestPriceCache the last-value cache.
+     * @param universe         the symbol universe.
+     * @param producer         the producer sending the records.
+     * @param properties       the latest-price topic configuration.
+     * @param meterRegistry    registry for the published record count.
+     */
+    public LatestPricePublisher(LatestPriceCache latestPriceCache,
+                                SymbolUniverse universe,
+                                MarketDataProducer producer,
+                                LatestTopicProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.latestPriceCache = latestPriceCache;
+        this.universe = universe;
+        this.producer = producer;
+        this.published = meterRegistry.counter("stock.latest.published");
+        if (!properties.isEnabled()) {
+            this.publishedVersions = null;
+            this.publisher = null;
+            return;
+        }
+        this.publishedVersions = new long[universe.size()];
+        this.publisher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("latest-price-publisher").daemon(true).factory());
+        long intervalMs = properties.getPublishInterval().toMillis();
+        publisher.scheduleWithFixedDelay(this::publishChanges, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the latest price of every symbol updated since its last publication. Price
+     * and timestamp are read from the cache as primitives, so nothing is allocated per
+     * symbol. A symbol whose send fails stays unpublished and is retried next time; the
+     * others are published regardless.
+     *
+     * @return the number of records published.
+     */
+    int publishChanges() {
+        if (publishedVersions == null) {
+            return 0;
+        }
+        int count = 0;
+        int failed = 0;
+        RuntimeException failure = null;
+        for (int id = 0; id < universe.size(); id++) {
+            long version = latestPriceCache.version(id);
+            if (version == 0 || version == publishedVersions[id]) {
+                continue;
+            }
+            try {
+                TickCodec.put(payload, 0, id, latestPriceCache.price(id),
+                        TimeUnit.MILLISECONDS.toNanos(latestPriceCache.epochMillis(id)), 0);
+                producer.latestPrice(id, payload);
+                // An update during the reads leaves the version odd or newer: republished next time
+                publishedVersions[id] = version;
+                count++;
+            } catch (RuntimeException e) {
+                failed++;
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            log.error("Failed to publish the latest prices of {} symbols: {}", failed, failure.getMessage(), failure);
+        }
+        published.increment(count);
+        return count;
+    }
+
+    /**
+     * Publishes the remaining changes and stops the publisher thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (publisher == null) {
+            return;
+        }
+        publisher.execute(this::publishChanges);
+        publisher.shutdown();
+        publisher.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.stockgenerator.marketdata;
+
+import com.stockgenerator.clock.TickClock;
+import com.stockgenerator.config.MarketDataProperties;
+import com.stockgenerator.config.PriceEngineProperties;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates L2 order book updates and trades alongside the last-price ticks.
+ * <p>
+ * The universe is split into shards, each stepped by its own {@link TickClock} every
+ * {@code stock.market-data.interval}. A step moves every book of the shard to the symbol's
+ * latest generated price, read from the {@link LatestPriceCache}, and hands the encoded
+ * events to the {@link MarketDataSink}. Each shard owns its symbols' books, random stream
+ * and scratch buffer, so shards share no mutable state.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MarketDataGenerator {
+
+    /** Latest generated prices the books follow. */
+    private final LatestPriceCache latestPriceCache;
+
+    /** Receives the encoded events. */
+    private final MarketDataSink sink;
+
+    /** The books of every symbol. */
+    private final OrderBookSimulator simulator;
+
+    /** One clock per shard; empty while market data is disabled. */
+    private final List<TickClock> clocks = new ArrayList<>();
+
+    /** Book deltas and trades emitted. */
+    private final Counter events;
+
+    /**
+     * Creates the generator and, when {@code stock.market-data.enabled} is set, its shard clocks.
+     *
+     * @param universe          the symbol universe.
+     * @param latestPriceCache  the latest generated prices.
+     * @param engineProperties  the engine configuration, for the tick size.
+     * @param properties        the market data configuration.
+     * @param sink              receives the encoded events.
+     * @param meterRegistry     registry for event and clock metrics.
+     */
+    public MarketDataGenerator(SymbolUniverse universe,
+                               LatestPriceCache latestPriceCache,
+                               PriceEngineProperties engineProperties,
+                               MarketDataProperties properties,
+                               MarketDataSink sink,
+                               MeterRegistry meterRegistry) {
+        this.latestPriceCache = latestPriceCache;
+        this.sink = sink;
+        this.simulator = new OrderBookSimulator(universe.size(), properties, engineProperties.getTickSize());
+        this.events = Counter.builder("stock.marketdata.events")
+                .description("Order book deltas and trades generated")
+                .register(meterRegistry);
+        if (!properties.isEnabled() || universe.size() == 0) {
+            return;
+        }
+
+        int size = universe.size();
+        int shardCount = Math.max(1, Math.min(size, properties.getShards() > 0
+                ? properties.getShards()
+                : Runtime.getRuntime().availableProcessors()));
+        SplittableRandom seeds = new SplittableRandom(properties.getSeed());
+        for (int i = 0; i < shardCount; i++) {
+            int from = (int) ((long) size * i / shardCount);
+            int to = (int) ((long) size * (i + 1) / shardCount);
+            SplittableRandom random = seeds.split();
+            ByteBuffer scratch = ByteBuffer.allocate(simulator.scratchSize());
+            clocks.add(new TickClock("market-data-" + i, properties.getInterval(), properties.getOverrunPolicy(),
+                    properties.getSpinThreshold(), 0, periods -> step(from, to, random, scratch), meterRegistry));
+        }
+        log.info("Generating order books of {} levels for {} symbols in {} shards",
+                simulator.levels(), size, shardCount);
+    }
+
+    /**
+     * Starts the shard clocks once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        clocks.forEach(TickClock::start);
+    }
+
+    /**
+     * Stops the shard clocks on shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        clocks.forEach(TickClock::close);
+    }
+
+    /**
+     * Steps the books of one shard.
+     */
+    private void step(int from, int to, SplittableRandom random, ByteBuffer scratch) {
+        long epochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        events.increment(simulator.step(from, to, latestPriceCache::price, epochNanos, random, scratch, sink));
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.stockgenerator.marketdata;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives encoded market data events from the {@link OrderBookSimulator}.
+ * <p>
+ * Payloads are encoded by {@link com.stockgenerator.codec.MarketDataCodec} into a buffer
+ * the simulator reuses, so a sink must copy what it keeps before returning.
+ * </p>
+ */
+public interface MarketDataSink {
+
+    /**
+     * Receives the book deltas of one symbol and step.
+     *
+     * @param symbolId the symbol id.
+     * @param payload  the encoded book update, from position to limit.
+     */
+    void bookUpdate(int symbolId, ByteBuffer payload);
+
+    /**
+     * Receives a trade.
+     *
+     * @param symbolId the symbol id.
+     * @param payload  the encoded trade, from position to limit.
+     */
+    void trade(int symbolId, ByteBuffer payload);
+
+}
@@ -0,0 +1,262 @@
+package com.stockgenerator.marketdata;
+
+import com.stockgenerator.codec.MarketDataCodec;
+import com.stockgenerator.config.MarketDataProperties;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Synthetic L2 order books of a universe of symbols, kept in primitive arrays.
+ * <p>
+ * Each book holds a fixed number of price levels per side, one price tick apart, around
+ * the symbol's last price. A step re-centres the book on the current price, emitting
+ * removals for the levels that moved out of the book and sizes for those that moved in,
+ * changes a few random level sizes, biased toward the top of the book, and may execute
+ * a trade against the best level. The deltas of a step are encoded into one book update
+ * and each trade into its own payload; nothing is allocated per event.
+ * </p>
+ * <p>
+ * Disjoint symbol id ranges may be stepped concurrently, each with its own random stream
+ * and scratch buffer.
+ * </p>
+ */
+public final class OrderBookSimulator {
+
+    /** {@link #bestBids} value of a book that has not been built yet. */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    /** Price levels per side. */
+    private final int levels;
+
+    /** Distance between best bid and best ask, in ticks. */
+    private final int spreadTicks;
+
+    /** Minimum price increment. */
+    private final double tickSize;
+
+    /** Random level size changes per symbol and step. */
+    private final int updatesPerStep;
+
+    /** Probability that a symbol trades in a step. */
+    private final double tradeProbability;
+
+    /** Size unit of orders and trades. */
+    private final int lotSize;
+
+    /** Mean level size in lots. */
+    private final int meanLots;
+
+    /** Best bid per symbol, in ticks. */
+    private final long[] bestBids;
+
+    /** Bid sizes, {@code levels} per symbol, best first. */
+    private final int[] bidSizes;
+
+    /** Ask sizes, {@code levels} per symbol, best first. */
+    private final int[] askSizes;
+
+    /** Market data sequence number per symbol, shared by book updates and trades. */
+    private final long[] sequences;
+
+    /**
+     * Creates empty books; each is built on the first step of its symbol.
+     *
+     * @param symbolCount the number of symbols, addressed by ids {@code 0..symbolCount-1}.
+     * @param properties  the market data configuration.
+     * @param tickSize    the minimum price increment.
+     */
+    public OrderBookSimulator(int symbolCount, MarketDataProperties properties, double tickSize) {
+        this.levels = Math.max(1, properties.getLevels());
+        this.spreadTicks = Math.max(1, properties.getSpreadTicks());
+        this.tickSize = tickSize;
+        this.updatesPerStep = Math.max(0, properties.getUpdatesPerStep());
+        this.tradeProbability = properties.getTradeProbability();
+        this.lotSize = Math.max(1, properties.getLotSize());
+        this.meanLots = Math.max(1, properties.getMeanLots());
+        this.bestBids = new long[symbolCount];
+        this.bidSizes = new int[symbolCount * levels];
+        this.askSizes = new int[symbolCount * levels];
+        this.sequences = new long[symbolCount];
+        Arrays.fill(bestBids, UNSET);
+    }
+
+    /**
+     * Returns the size of the scratch buffer a step needs.
+     *
+     * @return the buffer capacity in bytes.
+     */
+    public int scratchSize() {
+        // A jump rebuilds both sides (remove and add 2 * levels), then random updates and a fill
+        int maxDeltas = 4 * levels + updatesPerStep + 1;
+        return Math.max(MarketDataCodec.bookUpdateSize(maxDeltas), MarketDataCodec.TRADE_SIZE);
+    }
+
+    /**
+     * Steps the books of symbols {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param from       the first symbol id.
+     * @param to         the end of the id range, exclusive.
+     * @param prices     the current price of each symbol; {@link Double#NaN} skips the symbol.
+     * @param epochNanos the event time in epoch nanoseconds.
+     * @param random     the calling thread's random stream.
+     * @param scratch    the calling thread's buffer of at least {@link #scratchSize()} bytes.
+     * @param sink       receives the encoded events.
+     * @return the number of deltas and trades emitted.
+     */
+    public long step(int from, int to, IntToDoubleFunction prices, long epochNanos,
+                     SplittableRandom random, ByteBuffer scratch, MarketDataSink sink) {
+        long events = 0;
+        for (int id = from; id < to; id++) {
+            double price = prices.applyAsDouble(id);
+            if (!(price > 0)) {
+                continue;
+            }
+            long bid = Math.max(levels, Math.round(price / tickSize) - (spreadTicks + 1) / 2);
+            int base = id * levels;
+
+            MarketDataCodec.beginBookUpdate(scratch, id, epochNanos, sequences[id] + 1);
+            recentre(id, base, bid, random, scratch);
+            for (int i = 0; i < updatesPerStep; i++) {
+                boolean bidSide = random.nextBoolean();
+                // Geometric level choice: half of the changes hit the best level
+                int level = Math.min(levels - 1, Integer.numberOfTrailingZeros(random.nextInt() | Integer.MIN_VALUE));
+                int size = randomSize(random);
+                (bidSide ? bidSizes : askSizes)[base + level] = size;
+                MarketDataCodec.putDelta(scratch, bidSide, levelPrice(bid, level, bidSide), size);
+            }
+
+            boolean trades = random.nextDouble() < tradeProbability;
+            boolean buyer = trades && random.nextBoolean();
+            int tradeSize = 0;
+            if (trades) {
+                // A buyer lifts the best ask, a seller hits the best bid
+                int[] sizes = buyer ? askSizes : bidSizes;
+                int resting = sizes[base];
+                tradeSize = Math.min(resting, lotSize * (1 + random.nextInt(Math.max(1, resting / lotSize))));
+                int remaining = resting - tradeSize;
+                // An emptied level is refilled by a new order at the same price
+                sizes[base] = remaining > 0 ? remaining : randomSize(random);
+                MarketDataCodec.putDelta(scratch, !buyer, levelPrice(bid, 0, !buyer), sizes[base]);
+            }
+
+            int deltas = MarketDataCodec.endBookUpdate(scratch);
+            if (deltas > 0) {
+                sequences[id]++;
+                sink.bookUpdate(id, scratch);
+                events += deltas;
+            }
+            if (trades) {
+                MarketDataCodec.encodeTrade(scratch, id, epochNanos, ++sequences[id],
+                        levelPrice(bid, 0, !buyer), tradeSize, buyer);
+                sink.trade(id, scratch);
+                events++;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Returns a symbol's best bid, or {@link Double#NaN} before its book is built.
+     *
+     * @param symbolId the symbol id.
+     * @return the best bid price.
+     */
+    public double bestBid(int symbolId) {
+        long bid = bestBids[symbolId];
+        return bid == UNSET ? Double.NaN : bid * tickSize;
+    }
+
+    /**
+     * Returns the size resting at a level of a symbol's book.
+     *
+     * @param symbolId the symbol id.
+     * @param bid      {@code true} for the bid side.
+     * @param level    the level, 0 being the best.
+     * @return the level size.
+     */
+    public int size(int symbolId, boolean bid, int level) {
+        return (bid ? bidSizes : askSizes)[symbolId * levels + level];
+    }
+
+    /**
+     * Returns the number of price levels per side.
+     *
+     * @return the book depth.
+     */
+    public int levels() {
+        return levels;
+    }
+
+    /**
+     * Moves a book to a new best bid, writing the deltas of the levels that left and entered it.
+     */
+    private void recentre(int id, int base, long bid, SplittableRandom random, ByteBuffer scratch) {
+        long oldBid = bestBids[id];
+        bestBids[id] = bid;
+        if (oldBid == bid) {
+            return;
+        }
+        if (oldBid == UNSET || Math.abs(bid - oldBid) >= levels) {
+            if (oldBid != UNSET) {
+                for (int level = 0; level < levels; level++) {
+                    MarketDataCodec.putDelta(scratch, true, levelPrice(oldBid, level, true), 0);
+                    MarketDataCodec.putDelta(scratch, false, levelPrice(oldBid, level, false), 0);
+                }
+            }
+            for (int level = 0; level < levels; level++) {
+                bidSizes[base + level] = randomSize(random);
+                askSizes[base + level] = randomSize(random);
+                MarketDataCodec.putDelta(scratch, true, levelPrice(bid, level, true), bidSizes[base + level]);
+                MarketDataCodec.putDelta(scratch, false, levelPrice(bid, level, false), askSizes[base + level]);
+            }
+            return;
+        }
+        // A rising bid pushes bid levels deeper; the ask side moves the other way
+        int shift = (int) (bid - oldBid);
+        shiftSide(bidSizes, base, shift, true, oldBid, bid, random, scratch);
+        shiftSide(askSizes, base, -shift, false, oldBid, bid, random, scratch);
+    }
+
+    /**
+     * Shifts one side's levels {@code by} positions deeper (negative: toward the top), removing the
+     * levels pushed out and filling the ones that opened up.
+     */
+    private void shiftSide(int[] sizes, int base, int by, boolean bidSide, long oldBid, long bid,
+                           SplittableRandom random, ByteBuffer scratch) {
+        int count = Math.abs(by);
+        int keep = levels - count;
+        int removedFrom = by > 0 ? keep : 0;
+        int addedFrom = by > 0 ? 0 : keep;
+        for (int level = removedFrom; level < removedFrom + count; level++) {
+            MarketDataCodec.putDelta(scratch, bidSide, levelPrice(oldBid, level, bidSide), 0);
+        }
+        if (by > 0) {
+            System.arraycopy(sizes, base, sizes, base + count, keep);
+        } else {
+            System.arraycopy(sizes, base + count, sizes, base, keep);
+        }
+        for (int level = addedFrom; level < addedFrom + count; level++) {
+            sizes[base + level] = randomSize(random);
+            MarketDataCodec.putDelta(scratch, bidSide, levelPrice(bid, level, bidSide), sizes[base + level]);
+        }
+    }
+
+    /**
+     * Returns the price of a level of a book with the given best bid.
+     */
+    private double levelPrice(long bid, int level, boolean bidSide) {
+        long ticks = bidSide ? bid - level : bid + spreadTicks + level;
+        return ticks * tickSize;
+    }
+
+    /**
+     * Returns a random level size of 1 to {@code 2 * meanLots - 1} lots.
+     */
+    private int randomSize(SplittableRandom random) {
+        return lotSize * (1 + random.nextInt(2 * meanLots - 1));
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.stockgenerator.model;
+
+/**
+ * One changed price level of an L2 order book.
+ *
+ * @param bid   {@code true} for the bid side, {@code false} for the ask side.
+ * @param price the price of the level.
+ * @param size  the new total size resting at the level; 0 removes the level.
+ */
+public record BookDelta(boolean bid, double price, int size) {
+}
@@ -0,0 +1,14 @@
+package com.stockgenerator.model;
+
+import java.util.List;
+
+/**
+ * The incremental changes of one symbol's order book in one generation step.
+ *
+ * @param symbolId   the dense id of the symbol in the universe.
+ * @param epochNanos when the update was generated, in nanoseconds since the epoch.
+ * @param sequence   the symbol's market data sequence number, shared with its trades.
+ * @param deltas     the changed levels, applied in order.
+ */
+public record BookUpdate(int symbolId, long epochNanos, long sequence, List<BookDelta> deltas) {
+}
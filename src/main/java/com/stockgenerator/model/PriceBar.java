@@ -0,0 +1,19 @@
+package com.stockgenerator.model;
+
+import java.time.Instant;
+
+/**
+ * Open, high, low, close and volume of a symbol over one interval.
+ *
+ * @param symbol          the stock symbol.
+ * @param intervalSeconds the bar interval in seconds.
+ * @param start           the start of the interval, inclusive.
+ * @param open            the first price of the interval.
+ * @param high            the highest price of the interval.
+ * @param low             the lowest price of the interval.
+ * @param close           the last price of the interval.
+ * @param volume          the number of ticks in the interval.
+ */
+public record PriceBar(String symbol, long intervalSeconds, Instant start,
+                       double open, double high, double low, double close, long volume) {
+}
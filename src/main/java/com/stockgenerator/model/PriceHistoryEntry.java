@@ -0,0 +1,14 @@
+package com.stockgenerator.model;
+
+import java.time.Instant;
+
+/**
+ * One row of the append-only tick history.
+ *
+ * @param symbol    the stock symbol.
+ * @param timestamp when the price was generated.
+ * @param sequence  the tick sequence number, breaking ties between equal timestamps.
+ * @param price     the price.
+ */
+public record PriceHistoryEntry(String symbol, Instant timestamp, long sequence, double price) {
+}
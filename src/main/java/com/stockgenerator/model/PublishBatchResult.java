@@ -0,0 +1,22 @@
+package com.stockgenerator.model;
+
+/**
+ * Outcome of a bulk publish request.
+ *
+ * @param accepted  the number of ticks handed to Kafka.
+ * @param rejected  the number of records skipped as invalid.
+ * @param resumeAt  the index of the first record, counted from 0 in body order, that was not
+ *                  processed because Kafka applied backpressure; -1 if the whole body was processed.
+ * @param error     why reading the body stopped early, or {@code null}.
+ */
+public record PublishBatchResult(long accepted, long rejected, long resumeAt, String error) {
+
+    /**
+     * Returns whether publishing stopped because of backpressure.
+     *
+     * @return {@code true} if records from {@link #resumeAt()} on must be sent again.
+     */
+    public boolean throttled() {
+        return resumeAt >= 0;
+    }
+}
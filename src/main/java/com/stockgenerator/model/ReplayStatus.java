@@ -0,0 +1,19 @@
+package com.stockgenerator.model;
+
+import com.stockgenerator.replay.ReplayState;
+
+import java.time.Instant;
+
+/**
+ * Progress of the tick replay.
+ *
+ * @param file         the replayed file name, or {@code null} when idle.
+ * @param state        the replay state.
+ * @param position     the index of the next tick to publish.
+ * @param total        the number of ticks in the file.
+ * @param speed        the speed multiplier; 0 publishes as fast as possible.
+ * @param recordedTime the recorded time of the next tick, or {@code null} at the end of the file.
+ */
+public record ReplayStatus(String file, ReplayState state, long position, long total, double speed,
+                           Instant recordedTime) {
+}
@@ -13,7 +13,8 @@ import lombok.*;
  * Entity representing a stock price record.
  */
 @Entity
-@Table(name = "stock_prices")
+@Table(name = "stock_prices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_prices_symbol", columnNames = "symbol"))
 @Data
 @Builder
 @NoArgsConstructor
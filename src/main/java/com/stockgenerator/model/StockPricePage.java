@@ -0,0 +1,12 @@
+package com.stockgenerator.model;
+
+import java.util.List;
+
+/**
+ * One page of latest stock prices.
+ *
+ * @param prices     the prices of the page, in symbol id order.
+ * @param nextCursor the cursor of the next page, or {@code null} if this is the last page.
+ */
+public record StockPricePage(List<StockPrice> prices, Integer nextCursor) {
+}
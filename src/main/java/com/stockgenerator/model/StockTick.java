@@ -0,0 +1,13 @@
+package com.stockgenerator.model;
+
+/**
+ * One generated price as published to Kafka.
+ *
+ * @param symbolId   the dense id of the symbol in the universe, or -1 for symbols outside it.
+ * @param symbol     the stock symbol; also the Kafka record key.
+ * @param price      the price.
+ * @param epochNanos when the price was generated, in nanoseconds since the epoch.
+ * @param sequence   the tick sequence number, increasing across all symbols.
+ */
+public record StockTick(int symbolId, String symbol, double price, long epochNanos, long sequence) {
+}
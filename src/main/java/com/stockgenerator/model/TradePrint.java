@@ -0,0 +1,14 @@
+package com.stockgenerator.model;
+
+/**
+ * A trade executed against the best level of a symbol's order book.
+ *
+ * @param symbolId       the dense id of the symbol in the universe.
+ * @param epochNanos     when the trade was generated, in nanoseconds since the epoch.
+ * @param sequence       the symbol's market data sequence number, shared with its book updates.
+ * @param price          the execution price.
+ * @param size           the executed size.
+ * @param buyerInitiated {@code true} if a buyer lifted the ask, {@code false} if a seller hit the bid.
+ */
+public record TradePrint(int symbolId, long epochNanos, long sequence, double price, int size, boolean buyerInitiated) {
+}
@@ -0,0 +1,204 @@
+package com.stockgenerator.producer;
+
+import com.stockgenerator.config.KafkaConfig;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.marketdata.MarketDataSink;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kafka producer publishing encoded order book updates, trades, bars and latest prices, keyed by symbol.
+ * <p>
+ * Sends are asynchronous and bounded by a window of {@code stock.kafka.max-pending-sends}
+ * unacknowledged records, like {@link StockPriceProducer}; a record that finds the window
+ * full for {@code stock.kafka.pending-send-timeout}, or on which the producer blocks for
+ * {@code stock.kafka.max-block}, is dropped and counted as rejected.
+ * </p>
+ */
+@Service
+@Slf4j
+public class MarketDataProducer implements MarketDataSink {
+
+    /** Minimum pause between two logged send failures, in nanoseconds. */
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Template sending the records. */
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    /** Table of the simulated symbols, for the record keys. */
+    private final SymbolUniverse universe;
+
+    /** Producer configuration. */
+    private final KafkaProducerProperties properties;
+
+    /** Free slots of the send window. */
+    private final Semaphore window;
+
+    /** Book updates acknowledged by the brokers. */
+    private final Counter sentBookUpdates;
+
+    /** Trades acknowledged by the brokers. */
+    private final Counter sentTrades;
+
+    /** Bars acknowledged by the brokers. */
+    private final Counter sentBars;
+
+    /** Latest prices acknowledged by the brokers. */
+    private final Counter sentLatestPrices;
+
+    /** Records the producer failed to deliver. */
+    private final Counter failedRecords;
+
+    /** Records dropped because the send window stayed full. */
+    private final Counter rejectedRecords;
+
+    /** {@link System#nanoTime()} of the last logged failure. */
+    private final AtomicLong lastFailureLog = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS);
+
+    /**
+     * Creates the producer.
+     *
+     * @param kafkaTemplate the template sending the records.
+     * @param universe      the symbol universe.
+     * @param properties    the producer configuration.
+     * @param meterRegistry registry for send metrics.
+     */
+    public MarketDataProducer(@Qualifier("marketDataKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate,
+                              SymbolUniverse universe,
+                              KafkaProducerProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.universe = universe;
+        this.properties = properties;
+        this.window = new Semaphore(properties.getMaxPendingSends());
+
+        Gauge.builder("stock.marketdata.pending", this, MarketDataProducer::pendingSends)
+                .description("Market data records sent and not yet acknowledged")
+                .register(meterRegistry);
+        this.sentBookUpdates = meterRegistry.counter("stock.marketdata.sent", "topic", KafkaConfig.BOOK_TOPIC);
+        this.sentTrades = meterRegistry.counter("stock.marketdata.sent", "topic", KafkaConfig.TRADE_TOPIC);
+        this.sentBars = meterRegistry.counter("stock.marketdata.sent", "topic", KafkaConfig.BAR_TOPIC);
+        this.sentLatestPrices = meterRegistry.counter("stock.marketdata.sent", "topic", KafkaConfig.LATEST_TOPIC);
+        this.failedRecords = meterRegistry.counter("stock.marketdata.failed");
+        this.rejectedRecords = meterRegistry.counter("stock.marketdata.rejected");
+    }
+
+    @Override
+    public void bookUpdate(int symbolId, ByteBuffer payload) {
+        send(KafkaConfig.BOOK_TOPIC, symbolId, payload, sentBookUpdates);
+    }
+
+    @Override
+    public void trade(int symbolId, ByteBuffer payload) {
+        send(KafkaConfig.TRADE_TOPIC, symbolId, payload, sentTrades);
+    }
+
+    /**
+     * Publishes an encoded OHLCV bar.
+     *
+     * @param symbolId the symbol id, for the record key.
+     * @param payload  the bar encoded by {@link com.stockgenerator.codec.MarketDataCodec#encodeBar}.
+     */
+    public void bar(int symbolId, ByteBuffer payload) {
+        send(KafkaConfig.BAR_TOPIC, symbolId, payload, sentBars);
+    }
+
+    /**
+     * Publishes the latest price of a symbol to the compacted latest-price topic.
+     *
+     * @param symbolId the symbol id, for the record key.
+     * @param payload  the price encoded as a {@link com.stockgenerator.codec.TickCodec} record.
+     */
+    public void latestPrice(int symbolId, ByteBuffer payload) {
+        send(KafkaConfig.LATEST_TOPIC, symbolId, payload, sentLatestPrices);
+    }
+
+    /**
+     * Returns the number of records sent and not yet acknowledged.
+     *
+     * @return the pending send count.
+     */
+    public int pendingSends() {
+        return properties.getMaxPendingSends() - window.availablePermits();
+    }
+
+    /**
+     * Copies the payload out of the caller's buffer and sends it without waiting for the acknowledgement.
+     */
+    private void send(String topic, int symbolId, ByteBuffer payload, Counter sent) {
+        if (!acquireSlot()) {
+            rejectedRecords.increment();
+            return;
+        }
+        byte[] value = Arrays.copyOfRange(payload.array(), payload.arrayOffset() + payload.position(),
+                payload.arrayOffset() + payload.limit());
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(topic, universe.symbol(symbolId), value);
+        } catch (RuntimeException e) {
+            window.release();
+            if (StockPriceProducer.isBlockTimeout(e)) {
+                rejectedRecords.increment();
+            } else {
+                failedRecords.increment();
+                logFailure(topic, e);
+            }
+            return;
+        }
+        if (future.isCompletedExceptionally() && StockPriceProducer.isBlockTimeout(future.exceptionNow())) {
+            window.release();
+            rejectedRecords.increment();
+            return;
+        }
+        future.whenComplete((result, failure) -> {
+            window.release();
+            if (failure == null) {
+                sent.increment();
+            } else {
+                failedRecords.increment();
+                logFailure(topic, failure);
+            }
+        });
+    }
+
+    /**
+     * Takes a slot of the send window, waiting up to the configured timeout.
+     */
+    private boolean acquireSlot() {
+        if (window.tryAcquire()) {
+            return true;
+        }
+        try {
+            return window.tryAcquire(properties.getPendingSendTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Logs a failed send at most once per second.
+     */
+    private void logFailure(String topic, Throwable failure) {
+        long now = System.nanoTime();
+        long last = lastFailureLog.get();
+        if (now - last >= FAILURE_LOG_INTERVAL_NANOS && lastFailureLog.compareAndSet(last, now)) {
+            log.error("Failed to publish market data to {}: {}", topic, failure.getMessage(), failure);
+        }
+    }
+
+}
@@ -1,30 +1,251 @@
 package com.stockgenerator.producer;
 
-import com.stockgenerator.model.StockPrice;
-import lombok.RequiredArgsConstructor;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.model.StockTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Kafka producer service for sending stock price updates to the "stock-price-topic" topic.
+ * <p>
+ * Sends are asynchronous: the caller returns as soon as the record is handed to the
+ * producer's batch buffer and the completion callback records the outcome. At most
+ * {@code stock.kafka.max-pending-sends} records may await acknowledgement; beyond that
+ * {@link #send} waits for a free slot, which slows generation down to the rate
+ * the brokers accept instead of growing the producer buffer without bound. A send that
+ * cannot get topic metadata or buffer memory within {@code stock.kafka.max-block} is
+ * rejected as well, so unreachable brokers do not stall the caller.
+ * </p>
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class StockPriceProducer {
 
-    private final KafkaTemplate<String, StockPrice> kafkaTemplate;
+    /** Topic the prices are published to. */
     private static final String TOPIC = "stock-price-topic";
 
+    /** Minimum pause between two logged send failures, in nanoseconds. */
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Template sending the records. */
+    private final KafkaTemplate<String, StockTick> kafkaTemplate;
+
+    /** Producer configuration. */
+    private final KafkaProducerProperties properties;
+
+    /** Free slots of the send window. */
+    private final Semaphore window;
+
+    /** Records acknowledged by the brokers. */
+    private final Counter sentRecords;
+
+    /** Records the producer failed to deliver. */
+    private final Counter failedRecords;
+
+    /** Records rejected because the send window stayed full or the producer blocked too long. */
+    private final Counter rejectedRecords;
+
+    /** Time from send to acknowledgement or failure. */
+    private final Timer sendLatency;
+
+    /** {@link System#nanoTime()} of the last logged failure. */
+    private final AtomicLong lastFailureLog = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS);
+
+    /** Failures not logged since the last logged one. */
+    private final AtomicLong suppressedFailures = new AtomicLong();
+
+    /**
+     * Creates the producer.
+     *
+     * @param kafkaTemplate the template sending the records.
+     * @param properties    the producer configuration.
+     * @param meterRegistry registry for send metrics.
+     */
+    public StockPriceProducer(@Qualifier("stockPriceKafkaTemplate") KafkaTemplate<String, StockTick> kafkaTemplate,
+                              KafkaProducerProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.window = new Semaphore(properties.getMaxPendingSends());
+
+        Gauge.builder("stock.kafka.pending", this, StockPriceProducer::pendingSends)
+                .description("Records sent and not yet acknowledged")
+                .register(meterRegistry);
+        this.sentRecords = meterRegistry.counter("stock.kafka.sent");
+        this.failedRecords = meterRegistry.counter("stock.kafka.failed");
+        this.rejectedRecords = meterRegistry.counter("stock.kafka.rejected");
+        this.sendLatency = Timer.builder("stock.kafka.send")
+                .description("Time from send to broker acknowledgement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends a tick to the Kafka topic, keyed by symbol, without waiting for the acknowledgement.
+     *
+     * @param tick the tick to send.
+     * @return {@code false} if the send window stayed full for
+     *         {@code stock.kafka.pending-send-timeout}, or the producer blocked for
+     *         {@code stock.kafka.max-block}, and the record was not sent.
+     */
+    public boolean send(StockTick tick) {
+        if (!acquireSlot()) {
+            rejectedRecords.increment();
+            return false;
+        }
+        return dispatch(tick);
+    }
+
+    /**
+     * Sends the leading ticks of an array for which the send window has room, without
+     * waiting for a slot or for the acknowledgements. The window is taken in one step when
+     * it can hold the whole batch. Sending stops at the first record the producer blocked on.
+     *
+     * @param ticks the ticks to send, in order.
+     * @param count the number of ticks to send from the start of the array.
+     * @return the number of leading ticks sent; the rest were rejected.
+     */
+    public int trySend(StockTick[] ticks, int count) {
+        int permits = count;
+        if (!window.tryAcquire(count)) {
+            permits = 0;
+            while (permits < count && window.tryAcquire()) {
+                permits++;
+            }
+        }
+        for (int i = 0; i < permits; i++) {
+            boolean dispatched;
+            try {
+                dispatched = dispatch(ticks[i]);
+            } catch (RuntimeException e) {
+                window.release(permits - i - 1);
+                rejectedRecords.increment(count - i - 1);
+                throw e;
+            }
+            if (!dispatched) {
+                window.release(permits - i - 1);
+                rejectedRecords.increment(count - i - 1);
+                return i;
+            }
+        }
+        if (permits < count) {
+            rejectedRecords.increment(count - permits);
+        }
+        return permits;
+    }
+
+    /**
+     * Returns the number of records sent and not yet acknowledged.
+     *
+     * @return the pending send count.
+     */
+    public int pendingSends() {
+        return properties.getMaxPendingSends() - window.availablePermits();
+    }
+
     /**
-     * Sends a stock price update to the Kafka topic.
+     * Returns whether the send window is full, so further sends would block.
      *
-     * @param stockPrice the stock price information to send.
+     * @return {@code true} while no slot is free.
+     */
+    public boolean isBackpressured() {
+        return window.availablePermits() == 0;
+    }
+
+    /**
+     * Hands a tick to the template under a slot already taken from the window.
+     *
+     * @return {@code false} if the producer blocked for {@code stock.kafka.max-block} and
+     *         the record was rejected.
+     */
+    private boolean dispatch(StockTick tick) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, StockTick>> future;
+        try {
+            future = kafkaTemplate.send(TOPIC, tick.symbol(), tick);
+        } catch (RuntimeException e) {
+            window.release();
+            if (isBlockTimeout(e)) {
+                rejectedRecords.increment();
+                return false;
+            }
+            failedRecords.increment();
+            throw e;
+        }
+        if (future.isCompletedExceptionally() && isBlockTimeout(future.exceptionNow())) {
+            window.release();
+            rejectedRecords.increment();
+            return false;
+        }
+        future.whenComplete((result, failure) -> {
+            window.release();
+            sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (failure == null) {
+                sentRecords.increment();
+            } else {
+                failedRecords.increment();
+                logFailure(tick, failure);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Returns whether a send failed because the producer blocked for {@code max.block.ms},
+     * waiting for topic metadata or buffer memory, before the record was accepted.
+     *
+     * @param failure the exception thrown by the send or completing its future.
+     * @return {@code true} if a producer timeout is among its causes.
+     */
+    static boolean isBlockTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes a slot of the send window, waiting up to the configured timeout.
+     */
+    private boolean acquireSlot() {
+        if (window.tryAcquire()) {
+            return true;
+        }
+        try {
+            return window.tryAcquire(properties.getPendingSendTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Logs a failed send, at most once per second, with the number of failures suppressed since.
      */
-    public void sendStockPrice(StockPrice stockPrice) {
-        kafkaTemplate.send(TOPIC, stockPrice.getSymbol(), stockPrice);
-        log.info("Sent stock price: {}", stockPrice);
+    private void logFailure(StockTick tick, Throwable failure) {
+        long now = System.nanoTime();
+        long last = lastFailureLog.get();
+        if (now - last >= FAILURE_LOG_INTERVAL_NANOS && lastFailureLog.compareAndSet(last, now)) {
+            log.error("Failed to publish stock price of {} ({} more failures suppressed): {}",
+                    tick.symbol(), suppressedFailures.getAndSet(0), failure.getMessage(), failure);
+        } else {
+            suppressedFailures.incrementAndGet();
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.stockgenerator.replay;
+
+/**
+ * Lifecycle of a tick replay.
+ */
+public enum ReplayState {
+
+    /** No file is loaded. */
+    IDLE,
+
+    /** Ticks are being published. */
+    RUNNING,
+
+    /** Publishing is suspended at the current position. */
+    PAUSED,
+
+    /** Every tick up to the end of the file was published. */
+    FINISHED
+}
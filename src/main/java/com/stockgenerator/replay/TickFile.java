@@ -0,0 +1,182 @@
+package com.stockgenerator.replay;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.model.StockTick;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only, memory-mapped file of recorded ticks.
+ * <p>
+ * The file is a plain sequence of {@link TickCodec} version 1 payloads of
+ * {@value TickCodec#V1_SIZE} bytes in recording order, so tick {@code i} starts at byte
+ * {@code i * 29} and seeking is a multiplication. A mapped buffer addresses at most 2 GB,
+ * so larger files are mapped in chunks holding a whole number of ticks. Reads go straight
+ * to the page cache; nothing is copied onto the heap.
+ * </p>
+ * <p>
+ * Sealed journal segments are truncated after their last record, but the open segment is
+ * preallocated and ends in zeroed, unwritten records. Since journal appends claim their
+ * slots concurrently, a record may also still be unwritten while later ones are written.
+ * Such a file ends after the written records found by a binary search of the zeroed
+ * tail; unwritten records before that end are holes, reported by {@link #isWritten} and
+ * skipped by readers.
+ * </p>
+ */
+public final class TickFile {
+
+    /** Ticks per mapped chunk. */
+    private static final int TICKS_PER_CHUNK = Integer.MAX_VALUE / TickCodec.V1_SIZE;
+
+    /** Offset of the epoch nanos within a tick. */
+    private static final int EPOCH_NANOS_OFFSET = 1 + Integer.BYTES + Long.BYTES;
+
+    /** The mapped file. */
+    private final Path path;
+
+    /** Mapped chunks of {@link #TICKS_PER_CHUNK} ticks, the last one possibly shorter. */
+    private final MappedByteBuffer[] chunks;
+
+    /** Number of ticks in the file. */
+    private final long size;
+
+    private TickFile(Path path, MappedByteBuffer[] chunks, long capacity) {
+        this.path = path;
+        this.chunks = chunks;
+        this.size = writtenRecords(capacity);
+    }
+
+    /**
+     * Maps a tick file.
+     *
+     * @param path the file.
+     * @return the mapped file.
+     * @throws IOException if the file cannot be read or is not a whole number of ticks.
+     */
+    public static TickFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % TickCodec.V1_SIZE != 0) {
+                throw new IOException(path + " is not a tick file: " + bytes + " bytes is not a multiple of "
+                        + TickCodec.V1_SIZE);
+            }
+            long size = bytes / TickCodec.V1_SIZE;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + TICKS_PER_CHUNK - 1) / TICKS_PER_CHUNK)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = (long) i * TICKS_PER_CHUNK;
+                long ticks = Math.min(TICKS_PER_CHUNK, size - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * TickCodec.V1_SIZE,
+                        ticks * TickCodec.V1_SIZE);
+            }
+            return new TickFile(path, chunks, size);
+        }
+    }
+
+    /**
+     * Returns the mapped file.
+     *
+     * @return the path.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Returns the number of ticks in the file.
+     *
+     * @return the tick count.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns whether a record holds a tick, rather than being a hole left by an append
+     * that had claimed its slot but not written it.
+     *
+     * @param index the tick index.
+     * @return {@code false} if the record's version byte is 0.
+     */
+    public boolean isWritten(long index) {
+        return chunk(index).get(offset(index)) != 0;
+    }
+
+    /**
+     * Returns the recorded time of a tick without decoding it; 0 for a hole.
+     *
+     * @param index the tick index.
+     * @return the tick time in epoch nanoseconds.
+     */
+    public long epochNanos(long index) {
+        return chunk(index).getLong(offset(index) + EPOCH_NANOS_OFFSET);
+    }
+
+    /**
+     * Decodes a tick.
+     *
+     * @param index   the tick index.
+     * @param symbols resolves symbol ids to symbols.
+     * @return the tick.
+     */
+    public StockTick read(long index, IntFunction<String> symbols) {
+        return TickCodec.decode(chunk(index).slice(offset(index), TickCodec.V1_SIZE), symbols);
+    }
+
+    /**
+     * Returns the index of the first tick, in file order, recorded at or after a time.
+     * <p>
+     * Journal segments are only roughly in time order, as shards append concurrently, so
+     * the file is scanned from its start rather than binary-searched; holes are skipped.
+     * The scan reads 8 bytes per tick straight from the mapping, but still takes time
+     * proportional to the ticks before the match.
+     * </p>
+     *
+     * @param epochNanos the time in epoch nanoseconds.
+     * @return the tick index, or {@link #size()} if every tick is earlier.
+     */
+    public long indexAt(long epochNanos) {
+        for (long index = 0; index < size; index++) {
+            if (isWritten(index) && epochNanos(index) >= epochNanos) {
+                return index;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Finds the end of the written records. A file whose last record is written, such as a
+     * sealed segment, ends there; otherwise the start of the zeroed tail is binary-searched,
+     * which may end the file at a hole left by an append still in flight.
+     */
+    private long writtenRecords(long capacity) {
+        if (capacity == 0 || isWritten(capacity - 1)) {
+            return capacity;
+        }
+        long low = 0;
+        long high = capacity - 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (isWritten(mid)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer chunk(long index) {
+        return chunks[(int) (index / TICKS_PER_CHUNK)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % TICKS_PER_CHUNK) * TickCodec.V1_SIZE;
+    }
+
+}
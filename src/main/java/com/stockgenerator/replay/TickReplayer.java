@@ -0,0 +1,400 @@
+package com.stockgenerator.replay;
+
+import com.stockgenerator.config.ReplayProperties;
+import com.stockgenerator.model.ReplayStatus;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded {@link TickFile} to Kafka through the {@link StockPriceProducer}.
+ * <p>
+ * A dedicated thread publishes the ticks in file order, unchanged, so the same file
+ * always produces the same records. Ticks are paced by their recorded times divided by
+ * the speed multiplier: 1 keeps the original timing, 10 plays ten times faster and 0
+ * publishes as fast as the producer's send window allows. Pausing, seeking and changing
+ * the speed re-anchor the pacing at the current tick, so playback continues without a
+ * burst to catch up.
+ * </p>
+ */
+@Service
+@Slf4j
+public class TickReplayer {
+
+    /** Longest single park while waiting for a tick's due time, so control changes are noticed. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Minimum pause between two logged send failures, in nanoseconds. */
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Longest wait for a stopped replay thread to exit. */
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    /** Table of the simulated symbols, resolving recorded symbol ids. */
+    private final SymbolUniverse universe;
+
+    /** Publishes the replayed ticks. */
+    private final StockPriceProducer producer;
+
+    /** Replay configuration. */
+    private final ReplayProperties properties;
+
+    /** Guards the control state and wakes the replay thread; control calls are also serialized on {@code this}. */
+    private final Object lock = new Object();
+
+    /** Index of the next tick to publish. */
+    private final AtomicLong position = new AtomicLong();
+
+    /** Ticks published. */
+    private final Counter replayedTicks;
+
+    /** Ticks skipped because they cannot be decoded, their symbol id is outside the universe or the send failed. */
+    private final Counter skippedTicks;
+
+    /** The loaded file; {@code null} while idle. */
+    private volatile TickFile file;
+
+    /** The replay thread; {@code null} while idle. */
+    private volatile Thread thread;
+
+    /** Current state. */
+    private volatile ReplayState state = ReplayState.IDLE;
+
+    /** Speed multiplier; 0 for as fast as possible. */
+    private volatile double speed;
+
+    /** Bumped whenever the pacing must be re-anchored. */
+    private volatile long generation;
+
+    /** {@link System#nanoTime()} of the last logged failure. */
+    private final AtomicLong lastFailureLog = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS);
+
+    /**
+     * Creates the replayer.
+     *
+     * @param universe      the symbol universe.
+     * @param producer      publishes the replayed ticks.
+     * @param properties    the replay configuration.
+     * @param meterRegistry registry for replay metrics.
+     */
+    public TickReplayer(SymbolUniverse universe,
+                        StockPriceProducer producer,
+                        ReplayProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.universe = universe;
+        this.producer = producer;
+        this.properties = properties;
+        this.speed = properties.getSpeed();
+        this.replayedTicks = meterRegistry.counter("stock.replay.ticks");
+        this.skippedTicks = meterRegistry.counter("stock.replay.skipped");
+        Gauge.builder("stock.replay.position", position, AtomicLong::get)
+                .description("Index of the next tick to replay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads a tick file from {@code stock.replay.directory} and starts replaying it from the
+     * beginning, stopping any running replay first.
+     *
+     * @param fileName the file name, relative to the replay directory.
+     * @param speed    the speed multiplier, or {@code null} for {@code stock.replay.speed}.
+     * @return the replay status.
+     * @throws IllegalArgumentException if the file lies outside the replay directory or the speed is negative.
+     * @throws UncheckedIOException     if the file cannot be mapped.
+     */
+    public synchronized ReplayStatus start(String fileName, Double speed) {
+        double pace = speed != null ? speed : properties.getSpeed();
+        if (!(pace >= 0)) {
+            throw new IllegalArgumentException("Replay speed must not be negative: " + speed);
+        }
+        Path directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        Path path = directory.resolve(fileName).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("Replay file must be inside " + directory + ": " + fileName);
+        }
+        TickFile tickFile;
+        try {
+            tickFile = TickFile.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map tick file " + path + ": " + e.getMessage(), e);
+        }
+
+        stop();
+        synchronized (lock) {
+            this.file = tickFile;
+            this.speed = pace;
+            this.position.set(0);
+            this.state = ReplayState.RUNNING;
+            this.generation++;
+            Thread replay = Thread.ofPlatform().name("tick-replay").daemon(true).unstarted(() -> run(tickFile));
+            this.thread = replay;
+            replay.start();
+        }
+        log.info("Replaying {} ticks from {} at speed {}", tickFile.size(), path, pace == 0 ? "max" : pace);
+        return status();
+    }
+
+    /**
+     * Suspends publishing at the current position.
+     *
+     * @return the replay status.
+     */
+    public synchronized ReplayStatus pause() {
+        synchronized (lock) {
+            if (state == ReplayState.RUNNING) {
+                state = ReplayState.PAUSED;
+            }
+        }
+        return status();
+    }
+
+    /**
+     * Resumes a paused replay, optionally at a new speed.
+     *
+     * @param speed the new speed multiplier, or {@code null} to keep the current one.
+     * @return the replay status.
+     * @throws IllegalArgumentException if the speed is negative.
+     */
+    public synchronized ReplayStatus resume(Double speed) {
+        if (speed != null && !(speed >= 0)) {
+            throw new IllegalArgumentException("Replay speed must not be negative: " + speed);
+        }
+        synchronized (lock) {
+            if (speed != null) {
+                this.speed = speed;
+            }
+            if (state == ReplayState.PAUSED) {
+                state = ReplayState.RUNNING;
+            }
+            generation++;
+            lock.notifyAll();
+        }
+        return status();
+    }
+
+    /**
+     * Moves the replay to a tick index; a finished replay becomes paused there.
+     *
+     * @param index the index of the next tick to publish, clamped to the file.
+     * @return the replay status.
+     * @throws IllegalStateException if no file is loaded.
+     */
+    public synchronized ReplayStatus seek(long index) {
+        synchronized (lock) {
+            TickFile current = requireFile();
+            position.set(Math.max(0, Math.min(index, current.size())));
+            if (state == ReplayState.FINISHED) {
+                state = ReplayState.PAUSED;
+            }
+            generation++;
+            lock.notifyAll();
+        }
+        return status();
+    }
+
+    /**
+     * Moves the replay to the first tick recorded at or after a time.
+     *
+     * @param time the recorded time.
+     * @return the replay status.
+     * @throws IllegalStateException if no file is loaded.
+     */
+    public synchronized ReplayStatus seek(Instant time) {
+        TickFile current = requireFile();
+        return seek(current.indexAt(TimeUnit.SECONDS.toNanos(time.getEpochSecond()) + time.getNano()));
+    }
+
+    /**
+     * Stops the replay, waits for its thread to exit and unloads the file.
+     *
+     * @return the replay status.
+     */
+    public synchronized ReplayStatus stop() {
+        Thread running;
+        synchronized (lock) {
+            running = thread;
+            thread = null;
+            file = null;
+            state = ReplayState.IDLE;
+            position.set(0);
+            lock.notifyAll();
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return status();
+    }
+
+    /**
+     * Returns the progress of the replay.
+     *
+     * @return the replay status.
+     */
+    public ReplayStatus status() {
+        TickFile current = file;
+        if (current == null) {
+            return new ReplayStatus(null, ReplayState.IDLE, 0, 0, speed, null);
+        }
+        long next = position.get();
+        Instant recordedTime = null;
+        if (next < current.size() && current.isWritten(next)) {
+            long nanos = current.epochNanos(next);
+            recordedTime = Instant.ofEpochSecond(0, nanos);
+        }
+        return new ReplayStatus(current.path().getFileName().toString(), state, next, current.size(), speed,
+                recordedTime);
+    }
+
+    /**
+     * Stops the replay thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    /**
+     * Publishes the ticks of a file until the replay is stopped. Runs on the replay thread.
+     */
+    private void run(TickFile tickFile) {
+        Thread self = Thread.currentThread();
+        long anchorGeneration = -1;
+        long anchorWallNanos = 0;
+        long anchorRecordedNanos = 0;
+        while (thread == self) {
+            if (state != ReplayState.RUNNING && !awaitRunning(self)) {
+                return;
+            }
+            long currentGeneration = generation;
+            long index = position.get();
+            if (index >= tickFile.size()) {
+                finish(currentGeneration);
+                continue;
+            }
+            if (!tickFile.isWritten(index)) {
+                // A hole left by an unfinished journal append: nothing to pace or publish
+                position.compareAndSet(index, index + 1);
+                continue;
+            }
+            long recorded = tickFile.epochNanos(index);
+            double pace = speed;
+            if (currentGeneration != anchorGeneration) {
+                anchorGeneration = currentGeneration;
+                anchorWallNanos = System.nanoTime();
+                anchorRecordedNanos = recorded;
+            }
+            if (pace > 0) {
+                long due = anchorWallNanos + (long) ((recorded - anchorRecordedNanos) / pace);
+                if (!awaitDue(due, currentGeneration)) {
+                    continue;
+                }
+            }
+            // A seek during the wait moved the position; publish from there instead
+            if (position.compareAndSet(index, index + 1)) {
+                publish(tickFile, index);
+            }
+        }
+    }
+
+    /**
+     * Waits while the replay is paused or finished.
+     *
+     * @return {@code false} if the replay was stopped.
+     */
+    private boolean awaitRunning(Thread self) {
+        synchronized (lock) {
+            try {
+                while (thread == self && state != ReplayState.RUNNING) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                return false;
+            }
+            return thread == self;
+        }
+    }
+
+    /**
+     * Parks until a tick is due.
+     *
+     * @return {@code false} if the replay was paused, sought or re-paced meanwhile.
+     */
+    private boolean awaitDue(long dueNanos, long expectedGeneration) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            if (generation != expectedGeneration || state != ReplayState.RUNNING) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+        }
+        return generation == expectedGeneration && state == ReplayState.RUNNING;
+    }
+
+    /**
+     * Marks the replay finished unless it was sought meanwhile.
+     */
+    private void finish(long expectedGeneration) {
+        synchronized (lock) {
+            if (generation == expectedGeneration && state == ReplayState.RUNNING) {
+                state = ReplayState.FINISHED;
+                log.info("Replay of {} finished", file.path());
+            }
+        }
+    }
+
+    /**
+     * Publishes one tick; undecodable ticks, ticks of unknown symbols and failed sends are skipped.
+     */
+    private void publish(TickFile tickFile, long index) {
+        try {
+            StockTick tick = tickFile.read(index, id -> id < universe.size() ? universe.symbol(id) : null);
+            if (tick.symbol() == null) {
+                skippedTicks.increment();
+                return;
+            }
+            if (producer.send(tick)) {
+                replayedTicks.increment();
+            } else {
+                skippedTicks.increment();
+            }
+        } catch (RuntimeException e) {
+            skippedTicks.increment();
+            long now = System.nanoTime();
+            long last = lastFailureLog.get();
+            if (now - last >= FAILURE_LOG_INTERVAL_NANOS && lastFailureLog.compareAndSet(last, now)) {
+                log.error("Failed to replay tick {}: {}", index, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the loaded file.
+     */
+    private TickFile requireFile() {
+        TickFile current = file;
+        if (current == null) {
+            throw new IllegalStateException("No replay is loaded");
+        }
+        return current;
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.stockgenerator.repository;
+
+import com.stockgenerator.model.PriceBar;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC repository for completed bars in the {@code stock_price_bars} table.
+ * <p>
+ * Bars are upserted so that a bar completed again after a restart replaces the stored one:
+ * PostgreSQL uses {@code INSERT ... ON CONFLICT DO UPDATE}, H2 (used by tests) {@code MERGE}.
+ * </p>
+ */
+@Repository
+public class PriceBarRepository {
+
+    /** PostgreSQL upsert statement. */
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO stock_price_bars (symbol, interval_seconds, bucket_start, open, high, low, close, volume) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (symbol, interval_seconds, bucket_start) DO UPDATE SET open = EXCLUDED.open, "
+                    + "high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close, volume = EXCLUDED.volume";
+
+    /** H2 upsert statement. */
+    private static final String H2_UPSERT =
+            "MERGE INTO stock_price_bars (symbol, interval_seconds, bucket_start, open, high, low, close, volume) "
+                    + "KEY (symbol, interval_seconds, bucket_start) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Range query of one symbol and interval. */
+    private static final String RANGE =
+            "SELECT symbol, interval_seconds, bucket_start, open, high, low, close, volume FROM stock_price_bars "
+                    + "WHERE symbol = ? AND interval_seconds = ? AND bucket_start >= ? AND bucket_start < ? "
+                    + "ORDER BY bucket_start LIMIT ?";
+
+    /**
+     * Source of one batch of rows, read by index while the batch is bound.
+     */
+    public interface Rows {
+
+        /** @return the number of rows in the batch. */
+        int size();
+
+        /** @return the symbol of row {@code i}. */
+        String symbol(int i);
+
+        /** @return the interval of row {@code i} in seconds. */
+        long intervalSeconds(int i);
+
+        /** @return the interval start of row {@code i} in epoch milliseconds. */
+        long startMillis(int i);
+
+        /** @return the open price of row {@code i}. */
+        double open(int i);
+
+        /** @return the high price of row {@code i}. */
+        double high(int i);
+
+        /** @return the low price of row {@code i}. */
+        double low(int i);
+
+        /** @return the close price of row {@code i}. */
+        double close(int i);
+
+        /** @return the tick count of row {@code i}. */
+        long volume(int i);
+    }
+
+    /** Template used for all statements. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Upsert statement for the connected database, resolved on first use. */
+    private volatile String upsertSql;
+
+    /**
+     * Creates the repository.
+     *
+     * @param jdbcTemplate the JDBC template.
+     */
+    public PriceBarRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts a batch of bars in a single JDBC batch.
+     *
+     * @param rows the bars to write.
+     */
+    public void upsert(Rows rows) {
+        jdbcTemplate.batchUpdate(upsertSql(), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, rows.symbol(i));
+                ps.setLong(2, rows.intervalSeconds(i));
+                ps.setTimestamp(3, new Timestamp(rows.startMillis(i)));
+                ps.setDouble(4, rows.open(i));
+                ps.setDouble(5, rows.high(i));
+                ps.setDouble(6, rows.low(i));
+                ps.setDouble(7, rows.close(i));
+                ps.setLong(8, rows.volume(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Returns the stored bars of a symbol and interval in start order.
+     *
+     * @param symbol          the stock symbol.
+     * @param intervalSeconds the bar interval in seconds.
+     * @param from            the first interval start, inclusive.
+     * @param to              the last interval start, exclusive.
+     * @param limit           the maximum number of bars.
+     * @return the bars.
+     */
+    public List<PriceBar> findRange(String symbol, long intervalSeconds, Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(RANGE, (rs, row) -> new PriceBar(rs.getString(1), rs.getLong(2),
+                        rs.getTimestamp(3).toInstant(), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6),
+                        rs.getDouble(7), rs.getLong(8)),
+                symbol, intervalSeconds, Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    /**
+     * Picks the upsert dialect from the database product name.
+     */
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "H2".equalsIgnoreCase(product) ? H2_UPSERT : POSTGRES_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+}
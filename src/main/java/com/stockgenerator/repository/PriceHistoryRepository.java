@@ -0,0 +1,136 @@
+package com.stockgenerator.repository;
+
+import com.stockgenerator.model.PriceHistoryEntry;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for the append-only, day-partitioned {@code stock_price_ticks} table.
+ */
+@Repository
+public class PriceHistoryRepository {
+
+    /** Append statement. */
+    private static final String INSERT =
+            "INSERT INTO stock_price_ticks (symbol, ts, seq, price) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Keyset range query: rows strictly after {@code (ts, seq)} and before {@code to}.
+     * The redundant {@code ts >= ?} lets the planner prune partitions.
+     */
+    private static final String RANGE =
+            "SELECT symbol, ts, seq, price FROM stock_price_ticks "
+                    + "WHERE symbol = ? AND ts >= ? AND (ts, seq) > (?, ?) AND ts < ? "
+                    + "ORDER BY ts, seq LIMIT ?";
+
+    /**
+     * Source of one batch of rows, read by index while the batch is bound.
+     */
+    public interface Rows {
+
+        /** @return the number of rows in the batch. */
+        int size();
+
+        /** @return the symbol of row {@code i}. */
+        String symbol(int i);
+
+        /** @return the timestamp of row {@code i} in epoch milliseconds. */
+        long epochMillis(int i);
+
+        /** @return the sequence number of row {@code i}. */
+        long sequence(int i);
+
+        /** @return the price of row {@code i}. */
+        double price(int i);
+    }
+
+    /** Template used for all statements. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Read-only transactions, required by PostgreSQL for cursor-based fetching. */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Creates the repository.
+     *
+     * @param jdbcTemplate       the JDBC template.
+     * @param transactionManager the transaction manager.
+     */
+    public PriceHistoryRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Appends a batch of ticks in a single JDBC batch.
+     *
+     * @param rows the ticks to append.
+     */
+    public void append(Rows rows) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, rows.symbol(i));
+                ps.setTimestamp(2, new Timestamp(rows.epochMillis(i)));
+                ps.setLong(3, rows.sequence(i));
+                ps.setDouble(4, rows.price(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Streams the ticks of a symbol ordered by {@code (timestamp, sequence)}, fetching
+     * {@code fetchSize} rows at a time so memory stays constant regardless of the range.
+     *
+     * @param symbol    the stock symbol.
+     * @param from      the start of the range, inclusive.
+     * @param afterSeq  only ticks at {@code from} with a greater sequence are returned; -1 for all.
+     * @param to        the end of the range, exclusive.
+     * @param limit     the maximum number of rows.
+     * @param fetchSize the JDBC fetch size.
+     * @param consumer  receives each row as it is read.
+     */
+    public void streamRange(String symbol, Instant from, long afterSeq, Instant to, int limit, int fetchSize,
+                            Consumer<PriceHistoryEntry> consumer) {
+        Timestamp fromTs = Timestamp.from(from);
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RANGE);
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, symbol);
+            ps.setTimestamp(2, fromTs);
+            ps.setTimestamp(3, fromTs);
+            ps.setLong(4, afterSeq);
+            ps.setTimestamp(5, Timestamp.from(to));
+            ps.setInt(6, limit);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new PriceHistoryEntry(
+                rs.getString(1), rs.getTimestamp(2).toInstant(), rs.getLong(3), rs.getDouble(4)))));
+    }
+
+    /**
+     * Creates the partition for one UTC day if it does not exist.
+     *
+     * @param day the day.
+     */
+    public void createPartition(LocalDate day) {
+        jdbcTemplate.queryForList("SELECT create_stock_price_ticks_partition(?)", day);
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.stockgenerator.repository;
 
 import com.stockgenerator.model.StockPrice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for performing CRUD operations on {@link StockPrice} entities.
@@ -24,4 +28,17 @@ public interface StockPriceRepository extends JpaRepository<StockPrice, Long> {
      */
     Optional<StockPrice> findBySymbol(String symbol);
 
+    /**
+     * Streams all stock price records ordered by symbol, fetching rows from the database
+     * in chunks instead of loading the whole table.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return A {@link Stream} of read-only {@link StockPrice} entities.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StockPrice> streamAllByOrderBySymbol();
+
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.stockgenerator.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * JDBC repository writing the latest price per symbol with batched upserts.
+ * <p>
+ * One batch replaces the find-then-save round trips of {@link StockPriceRepository}:
+ * PostgreSQL uses {@code INSERT ... ON CONFLICT (symbol) DO UPDATE}, H2 (used by tests)
+ * the equivalent {@code MERGE ... KEY (symbol)}.
+ * </p>
+ */
+@Repository
+public class StockPriceUpsertRepository {
+
+    /** PostgreSQL upsert statement. */
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO stock_prices (symbol, price, timestamp) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (symbol) DO UPDATE SET price = EXCLUDED.price, timestamp = EXCLUDED.timestamp";
+
+    /** H2 upsert statement. */
+    private static final String H2_UPSERT =
+            "MERGE INTO stock_prices (symbol, price, timestamp) KEY (symbol) VALUES (?, ?, ?)";
+
+    /**
+     * Source of one batch of rows, read by index while the batch is bound.
+     */
+    public interface Rows {
+
+        /** @return the number of rows in the batch. */
+        int size();
+
+        /** @return the symbol of row {@code i}. */
+        String symbol(int i);
+
+        /** @return the price of row {@code i}. */
+        double price(int i);
+
+        /** @return the timestamp of row {@code i} in epoch milliseconds. */
+        long epochMillis(int i);
+    }
+
+    /** Template used for all statements. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Upsert statement for the connected database, resolved on first use. */
+    private volatile String upsertSql;
+
+    /**
+     * Creates the repository.
+     *
+     * @param jdbcTemplate the JDBC template.
+     */
+    public StockPriceUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts a batch of rows in a single JDBC batch.
+     *
+     * @param rows the rows to write.
+     */
+    public void upsert(Rows rows) {
+        jdbcTemplate.batchUpdate(upsertSql(), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, rows.symbol(i));
+                ps.setDouble(2, rows.price(i));
+                ps.setTimestamp(3, new Timestamp(rows.epochMillis(i)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Picks the upsert dialect from the database product name.
+     */
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "H2".equalsIgnoreCase(product) ? H2_UPSERT : POSTGRES_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.model.PriceBar;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Incremental OHLCV bars of every symbol for a fixed set of intervals, in primitive arrays.
+ * <p>
+ * Each tick updates the open bar of its symbol in every interval in O(1): the high, low,
+ * close and volume are folded in, and when the tick falls into a later interval the open
+ * bar is completed into a per-symbol ring of the most recent bars and handed to a
+ * {@link BarHandler}. History is never rescanned. Ticks older than the open bar are
+ * ignored. Like the {@link LatestPriceCache}, every symbol has a sequence lock so readers
+ * never block writers; writers of the same symbol, such as a shard and a manual update,
+ * take turns on it.
+ * </p>
+ */
+public final class BarAggregator {
+
+    /** Open bar start of a symbol that has no bar yet. */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    /** Bars per interval, in the configured order. */
+    private final Series[] series;
+
+    /** Completed bars kept per symbol and interval. */
+    private final int retention;
+
+    /** Sequence lock per symbol: odd while a tick is being applied. */
+    private final AtomicLongArray versions;
+
+    /**
+     * Creates empty bars.
+     *
+     * @param symbolCount    the number of symbols, addressed by ids {@code 0..symbolCount-1}.
+     * @param intervalMillis the bar intervals in milliseconds.
+     * @param retention      the number of completed bars kept per symbol and interval.
+     */
+    public BarAggregator(int symbolCount, long[] intervalMillis, int retention) {
+        this.retention = Math.max(1, retention);
+        this.versions = new AtomicLongArray(symbolCount);
+        this.series = new Series[intervalMillis.length];
+        for (int i = 0; i < intervalMillis.length; i++) {
+            series[i] = new Series(intervalMillis[i], symbolCount, this.retention);
+        }
+    }
+
+    /**
+     * Folds a tick into the open bar of its symbol in every interval.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the tick time in epoch milliseconds.
+     * @param completed   receives each bar the tick completes.
+     */
+    public void onTick(int symbolId, double price, long epochMillis, BarHandler completed) {
+        long version = versions.get(symbolId);
+        while ((version & 1) != 0 || !versions.weakCompareAndSetAcquire(symbolId, version, version + 1)) {
+            Thread.onSpinWait();
+            version = versions.get(symbolId);
+        }
+        VarHandle.storeStoreFence();
+        try {
+            for (int i = 0; i < series.length; i++) {
+                series[i].onTick(symbolId, i, price, epochMillis, completed);
+            }
+        } finally {
+            versions.setRelease(symbolId, version + 2);
+        }
+    }
+
+    /**
+     * Returns the most recent bars of a symbol in one interval, oldest first.
+     *
+     * @param symbolId       the symbol id.
+     * @param symbol         the symbol, for the returned bars.
+     * @param interval       the interval index.
+     * @param limit          the maximum number of bars.
+     * @param includeCurrent whether the open, incomplete bar is returned last.
+     * @return up to {@code limit} bars.
+     */
+    public List<PriceBar> recent(int symbolId, String symbol, int interval, int limit, boolean includeCurrent) {
+        Series s = series[interval];
+        while (true) {
+            long before = versions.getAcquire(symbolId);
+            if ((before & 1) == 0) {
+                List<PriceBar> bars = s.read(symbolId, symbol, limit, includeCurrent);
+                VarHandle.loadLoadFence();
+                if (versions.getPlain(symbolId) == before) {
+                    return bars;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the index of an interval.
+     *
+     * @param intervalMillis the interval in milliseconds.
+     * @return the index, or -1 if the interval is not aggregated.
+     */
+    public int indexOf(long intervalMillis) {
+        for (int i = 0; i < series.length; i++) {
+            if (series[i].millis == intervalMillis) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of an interval in seconds.
+     *
+     * @param interval the interval index.
+     * @return the interval in seconds.
+     */
+    public long intervalSeconds(int interval) {
+        return series[interval].millis / 1000;
+    }
+
+    /**
+     * Receives completed bars.
+     */
+    @FunctionalInterface
+    public interface BarHandler {
+
+        /**
+         * Accepts one bar.
+         *
+         * @param symbolId    the symbol id.
+         * @param interval    the interval index.
+         * @param startMillis the interval start in epoch milliseconds.
+         * @param open        the first price.
+         * @param high        the highest price.
+         * @param low         the lowest price.
+         * @param close       the last price.
+         * @param volume      the number of ticks.
+         */
+        void accept(int symbolId, int interval, long startMillis,
+                    double open, double high, double low, double close, long volume);
+    }
+
+    /**
+     * Open bars and rings of completed bars of one interval.
+     */
+    private static final class Series {
+
+        private final long millis;
+        private final int retention;
+
+        private final long[] openStarts;
+        private final double[] openOpens;
+        private final double[] openHighs;
+        private final double[] openLows;
+        private final double[] openCloses;
+        private final long[] openVolumes;
+
+        /** Completed bars per symbol ever; the newest is at ring slot {@code (completed - 1) % retention}. */
+        private final long[] completed;
+        private final long[] starts;
+        private final double[] opens;
+        private final double[] highs;
+        private final double[] lows;
+        private final double[] closes;
+        private final long[] volumes;
+
+        Series(long millis, int symbolCount, int retention) {
+            this.millis = millis;
+            this.retention = retention;
+            this.openStarts = new long[symbolCount];
+            this.openOpens = new double[symbolCount];
+            this.openHighs = new double[symbolCount];
+            this.openLows = new double[symbolCount];
+            this.openCloses = new double[symbolCount];
+            this.openVolumes = new long[symbolCount];
+            this.completed = new long[symbolCount];
+            int slots = symbolCount * retention;
+            this.starts = new long[slots];
+            this.opens = new double[slots];
+            this.highs = new double[slots];
+            this.lows = new double[slots];
+            this.closes = new double[slots];
+            this.volumes = new long[slots];
+            Arrays.fill(openStarts, UNSET);
+        }
+
+        void onTick(int id, int index, double price, long epochMillis, BarHandler handler) {
+            long start = epochMillis - Math.floorMod(epochMillis, millis);
+            long open = openStarts[id];
+            if (start == open) {
+                openHighs[id] = Math.max(openHighs[id], price);
+                openLows[id] = Math.min(openLows[id], price);
+                openCloses[id] = price;
+                openVolumes[id]++;
+                return;
+            }
+            if (start < open) {
+                return;
+            }
+            if (open != UNSET) {
+                int slot = id * retention + (int) (completed[id] % retention);
+                starts[slot] = open;
+                opens[slot] = openOpens[id];
+                highs[slot] = openHighs[id];
+                lows[slot] = openLows[id];
+                closes[slot] = openCloses[id];
+                volumes[slot] = openVolumes[id];
+                completed[id]++;
+                handler.accept(id, index, open, opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]);
+            }
+            openStarts[id] = start;
+            openOpens[id] = price;
+            openHighs[id] = price;
+            openLows[id] = price;
+            openCloses[id] = price;
+            openVolumes[id] = 1;
+        }
+
+        List<PriceBar> read(int id, String symbol, int limit, boolean includeCurrent) {
+            long seconds = millis / 1000;
+            boolean current = includeCurrent && openStarts[id] != UNSET && limit > 0;
+            int count = (int) Math.min(Math.min(completed[id], retention), Math.max(0, limit - (current ? 1 : 0)));
+            List<PriceBar> bars = new ArrayList<>(count + 1);
+            if (current) {
+                bars.add(new PriceBar(symbol, seconds, Instant.ofEpochMilli(openStarts[id]), openOpens[id],
+                        openHighs[id], openLows[id], openCloses[id], openVolumes[id]));
+            }
+            for (int k = 0; k < count; k++) {
+                int slot = id * retention + (int) ((completed[id] - 1 - k) % retention);
+                bars.add(new PriceBar(symbol, seconds, Instant.ofEpochMilli(starts[slot]), opens[slot],
+                        highs[slot], lows[slot], closes[slot], volumes[slot]));
+            }
+            Collections.reverse(bars);
+            return bars;
+        }
+    }
+
+}
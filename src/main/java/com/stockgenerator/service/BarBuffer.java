@@ -0,0 +1,144 @@
+package com.stockgenerator.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of completed bars stored in primitive arrays.
+ * <p>
+ * Works like the {@link TickBuffer}: producers claim a slot with a CAS on the tail, write
+ * the bar fields and then publish the slot; the consumer reads published slots in order.
+ * When the ring is full {@link #offer} returns {@code false}.
+ * </p>
+ */
+public final class BarBuffer {
+
+    /** Number of slots, a power of two. */
+    private final int capacity;
+
+    /** {@code capacity - 1}, for index masking. */
+    private final int mask;
+
+    /** Symbol id per slot. */
+    private final int[] symbolIds;
+
+    /** Interval index per slot. */
+    private final int[] intervals;
+
+    /** Interval start per slot, in epoch milliseconds. */
+    private final long[] starts;
+
+    /** Open price per slot. */
+    private final double[] opens;
+
+    /** High price per slot. */
+    private final double[] highs;
+
+    /** Low price per slot. */
+    private final double[] lows;
+
+    /** Close price per slot. */
+    private final double[] closes;
+
+    /** Tick count per slot. */
+    private final long[] volumes;
+
+    /** Position + 1 of the bar published in each slot; 0 when never written. */
+    private final AtomicLongArray published;
+
+    /** Next position to claim. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next position to consume; written by the consumer only. */
+    private volatile long head;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param requestedCapacity the minimum number of slots; rounded up to a power of two.
+     */
+    public BarBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.symbolIds = new int[capacity];
+        this.intervals = new int[capacity];
+        this.starts = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Appends a bar.
+     *
+     * @param symbolId    the symbol id.
+     * @param interval    the interval index.
+     * @param startMillis the interval start in epoch milliseconds.
+     * @param open        the first price.
+     * @param high        the highest price.
+     * @param low         the lowest price.
+     * @param close       the last price.
+     * @param volume      the number of ticks.
+     * @return {@code false} if the buffer is full and the bar was dropped.
+     */
+    public boolean offer(int symbolId, int interval, long startMillis,
+                         double open, double high, double low, double close, long volume) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+
+        int slot = (int) position & mask;
+        symbolIds[slot] = symbolId;
+        intervals[slot] = interval;
+        starts[slot] = startMillis;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        published.setRelease(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published bars, in order, to the handler and releases their slots.
+     * Must only be called from the single consumer thread.
+     *
+     * @param max     the maximum number of bars to drain.
+     * @param handler receives each bar.
+     * @return the number of bars drained.
+     */
+    public int drain(int max, BarAggregator.BarHandler handler) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) position & mask;
+            if (published.getAcquire(slot) != position + 1) {
+                break;
+            }
+            handler.accept(symbolIds[slot], intervals[slot], starts[slot],
+                    opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * Returns the number of claimed but not yet drained bars.
+     *
+     * @return the buffer depth.
+     */
+    public int size() {
+        return (int) Math.min(capacity, tail.get() - head);
+    }
+
+}
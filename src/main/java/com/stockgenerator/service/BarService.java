@@ -0,0 +1,349 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.codec.MarketDataCodec;
+import com.stockgenerator.config.BarProperties;
+import com.stockgenerator.model.PriceBar;
+import com.stockgenerator.producer.MarketDataProducer;
+import com.stockgenerator.repository.PriceBarRepository;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service aggregating generated ticks into OHLCV bars of the configured intervals.
+ * <p>
+ * Every tick is folded into the open bars of its symbol by the {@link BarAggregator} in
+ * O(1) per interval. Completed bars stay in memory for the most recent queries and are
+ * handed through a lock-free {@link BarBuffer} to a single writer thread, which upserts
+ * them into {@code stock_price_bars} in JDBC batches and publishes them to the bars
+ * topic, so the generation path never waits on the database or the brokers. The volume
+ * of a bar is its number of ticks, as generated ticks carry no size.
+ * </p>
+ */
+@Service
+@Slf4j
+public class BarService {
+
+    /** Table of the simulated symbols. */
+    private final SymbolUniverse universe;
+
+    /** Bars table repository. */
+    private final PriceBarRepository barRepository;
+
+    /** Publishes completed bars. */
+    private final MarketDataProducer producer;
+
+    /** Bar configuration. */
+    private final BarProperties properties;
+
+    /** Open and recent bars of every symbol. */
+    private final BarAggregator aggregator;
+
+    /** Completed bars waiting for the writer. */
+    private final BarBuffer buffer;
+
+    /** Hands completed bars to the buffer; kept in a field so ticks allocate nothing. */
+    private final BarAggregator.BarHandler completion;
+
+    /** Bound on concurrent reads of stored bars from request threads. */
+    private final DatabaseConcurrencyLimiter databaseLimiter;
+
+    /** Writer thread; {@code null} when completed bars are neither persisted nor published. */
+    private final ScheduledExecutorService writer;
+
+    /** The batch being assembled by the writer thread. */
+    private final Batch batch;
+
+    /** Encoding buffer of the writer thread. */
+    private final ByteBuffer scratch = ByteBuffer.allocate(MarketDataCodec.BAR_SIZE);
+
+    /** Bars completed. */
+    private final Counter completedBars;
+
+    /** Bars dropped because the buffer was full or the batch failed. */
+    private final Counter droppedBars;
+
+    /**
+     * Creates the service and, when bars are persisted or published, starts its writer thread.
+     *
+     * @param universe        the symbol universe.
+     * @param barRepository   the bars table repository.
+     * @param producer        publishes completed bars.
+     * @param properties      the bar configuration.
+     * @param databaseLimiter bound on concurrent stored bar reads.
+     * @param meterRegistry   registry for bar metrics.
+     * @throws IllegalArgumentException if an interval is not a positive whole number of seconds.
+     */
+    public BarService(SymbolUniverse universe,
+                      PriceBarRepository barRepository,
+                      MarketDataProducer producer,
+                      BarProperties properties,
+                      DatabaseConcurrencyLimiter databaseLimiter,
+                      MeterRegistry meterRegistry) {
+        this.universe = universe;
+        this.barRepository = barRepository;
+        this.producer = producer;
+        this.properties = properties;
+        this.databaseLimiter = databaseLimiter;
+
+        List<Duration> intervals = properties.isEnabled() ? properties.getIntervals() : List.of();
+        long[] intervalMillis = new long[intervals.size()];
+        for (int i = 0; i < intervalMillis.length; i++) {
+            Duration interval = intervals.get(i);
+            if (interval.isNegative() || interval.isZero() || interval.toMillis() % 1000 != 0) {
+                throw new IllegalArgumentException("stock.bars.intervals must be whole seconds: " + interval);
+            }
+            intervalMillis[i] = interval.toMillis();
+        }
+        this.aggregator = new BarAggregator(universe.size(), intervalMillis, properties.getRetention());
+        this.buffer = new BarBuffer(properties.getBufferSize());
+        this.batch = new Batch(properties.getBatchSize());
+
+        Gauge.builder("stock.bars.buffered", buffer, BarBuffer::size)
+                .description("Completed bars waiting to be persisted and published")
+                .register(meterRegistry);
+        this.completedBars = meterRegistry.counter("stock.bars.completed");
+        this.droppedBars = meterRegistry.counter("stock.bars.dropped");
+
+        if (properties.isEnabled() && (properties.isPersist() || properties.isPublish())) {
+            this.completion = (symbolId, interval, start, open, high, low, close, volume) -> {
+                completedBars.increment();
+                if (!buffer.offer(symbolId, interval, start, open, high, low, close, volume)) {
+                    droppedBars.increment();
+                }
+            };
+            this.writer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("price-bar-writer").daemon(true).factory());
+            long intervalMs = properties.getDrainInterval().toMillis();
+            writer.scheduleWithFixedDelay(this::drain, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.completion = (symbolId, interval, start, open, high, low, close, volume) -> completedBars.increment();
+            this.writer = null;
+        }
+        if (intervalMillis.length > 0) {
+            log.info("Aggregating {} bars for {} symbols, keeping {} per interval in memory",
+                    intervals, universe.size(), properties.getRetention());
+        }
+    }
+
+    /**
+     * Folds a generated tick into the open bars of its symbol.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the tick timestamp in epoch milliseconds.
+     */
+    public void onTick(int symbolId, double price, long epochMillis) {
+        aggregator.onTick(symbolId, price, epochMillis, completion);
+    }
+
+    /**
+     * Returns whether bars of an interval are aggregated.
+     *
+     * @param interval the bar interval.
+     * @return {@code true} if the interval is configured.
+     */
+    public boolean supports(Duration interval) {
+        return aggregator.indexOf(interval.toMillis()) >= 0;
+    }
+
+    /**
+     * Returns the most recent bars of a symbol from memory, oldest first, ending with the
+     * open bar.
+     *
+     * @param symbol   the stock symbol.
+     * @param interval the bar interval.
+     * @param limit    the maximum number of bars, capped by {@code stock.bars.max-page-size}.
+     * @return the bars; empty for a symbol outside the universe.
+     * @throws IllegalArgumentException if the interval is not aggregated.
+     */
+    public List<PriceBar> recentBars(String symbol, Duration interval, int limit) {
+        int index = intervalIndex(interval);
+        int symbolId = universe.id(symbol);
+        if (symbolId < 0) {
+            return List.of();
+        }
+        return aggregator.recent(symbolId, symbol, index, pageSize(limit), true);
+    }
+
+    /**
+     * Returns the stored bars of a symbol starting in {@code [from, to)}, oldest first.
+     *
+     * @param symbol   the stock symbol.
+     * @param interval the bar interval.
+     * @param from     the first interval start, inclusive.
+     * @param to       the last interval start, exclusive.
+     * @param limit    the maximum number of bars, capped by {@code stock.bars.max-page-size}.
+     * @return the bars.
+     * @throws IllegalArgumentException if the interval is not aggregated.
+     * @throws DatabaseBusyException    if no database slot became free in time.
+     */
+    public List<PriceBar> storedBars(String symbol, Duration interval, Instant from, Instant to, int limit) {
+        int index = intervalIndex(interval);
+        return databaseLimiter.call(() ->
+                barRepository.findRange(symbol, aggregator.intervalSeconds(index), from, to, pageSize(limit)));
+    }
+
+    /**
+     * Persists and publishes buffered bars until the buffer is empty. Runs on the writer thread only.
+     */
+    void drain() {
+        int drained;
+        do {
+            batch.size = 0;
+            drained = buffer.drain(batch.capacity(), batch);
+            if (drained == 0) {
+                break;
+            }
+            if (properties.isPersist()) {
+                try {
+                    barRepository.upsert(batch);
+                } catch (Exception e) {
+                    droppedBars.increment(drained);
+                    log.error("Failed to persist {} bars: {}", drained, e.getMessage(), e);
+                }
+            }
+            if (properties.isPublish()) {
+                for (int i = 0; i < drained; i++) {
+                    MarketDataCodec.encodeBar(scratch, batch.symbolIds[i], (int) batch.intervalSeconds(i),
+                            batch.starts[i], batch.opens[i], batch.highs[i], batch.lows[i], batch.closes[i],
+                            batch.volumes[i]);
+                    producer.bar(batch.symbolIds[i], scratch);
+                }
+            }
+        } while (drained == batch.capacity());
+    }
+
+    /**
+     * Writes the remaining bars and stops the writer on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer != null) {
+            writer.execute(this::drain);
+            writer.shutdown();
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Resolves a configured interval to its aggregator index.
+     */
+    private int intervalIndex(Duration interval) {
+        int index = aggregator.indexOf(interval.toMillis());
+        if (index < 0) {
+            throw new IllegalArgumentException("Bars of " + interval + " are not aggregated");
+        }
+        return index;
+    }
+
+    /**
+     * Caps a requested number of bars.
+     */
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, properties.getMaxPageSize()));
+    }
+
+    /**
+     * Reusable batch filled from the buffer and bound as upsert rows.
+     */
+    private final class Batch implements BarAggregator.BarHandler, PriceBarRepository.Rows {
+
+        private final int[] symbolIds;
+        private final int[] intervals;
+        private final long[] starts;
+        private final double[] opens;
+        private final double[] highs;
+        private final double[] lows;
+        private final double[] closes;
+        private final long[] volumes;
+        private int size;
+
+        Batch(int capacity) {
+            this.symbolIds = new int[capacity];
+            this.intervals = new int[capacity];
+            this.starts = new long[capacity];
+            this.opens = new double[capacity];
+            this.highs = new double[capacity];
+            this.lows = new double[capacity];
+            this.closes = new double[capacity];
+            this.volumes = new long[capacity];
+        }
+
+        int capacity() {
+            return symbolIds.length;
+        }
+
+        @Override
+        public void accept(int symbolId, int interval, long startMillis,
+                           double open, double high, double low, double close, long volume) {
+            symbolIds[size] = symbolId;
+            intervals[size] = interval;
+            starts[size] = startMillis;
+            opens[size] = open;
+            highs[size] = high;
+            lows[size] = low;
+            closes[size] = close;
+            volumes[size] = volume;
+            size++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String symbol(int i) {
+            return universe.symbol(symbolIds[i]);
+        }
+
+        @Override
+        public long intervalSeconds(int i) {
+            return aggregator.intervalSeconds(intervals[i]);
+        }
+
+        @Override
+        public long startMillis(int i) {
+            return starts[i];
+        }
+
+        @Override
+        public double open(int i) {
+            return opens[i];
+        }
+
+        @Override
+        public double high(int i) {
+            return highs[i];
+        }
+
+        @Override
+        public double low(int i) {
+            return lows[i];
+        }
+
+        @Override
+        public double close(int i) {
+            return closes[i];
+        }
+
+        @Override
+        public long volume(int i) {
+            return volumes[i];
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.stockgenerator.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a blocking database call finds no free slot in the {@link DatabaseConcurrencyLimiter}
+ * within {@code stock.database.acquire-timeout}.
+ */
+public class DatabaseBusyException extends IllegalStateException {
+
+    /** Suggested wait before the call is retried. */
+    private final transient Duration retryAfter;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message    the detail message.
+     * @param retryAfter the suggested wait before retrying.
+     * @param cause      the interruption that ended the wait, or {@code null}.
+     */
+    public DatabaseBusyException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns the suggested wait before the call is retried.
+     *
+     * @return the wait.
+     */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+}
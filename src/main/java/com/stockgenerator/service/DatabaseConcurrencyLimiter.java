@@ -0,0 +1,126 @@
+package com.stockgenerator.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of blocking database calls in flight.
+ * <p>
+ * Platform request threads are few enough that the connection pool rarely runs dry, but
+ * with virtual threads every request gets its own thread and thousands of them can queue
+ * inside the pool at once, each holding its caller until the pool's connection timeout.
+ * Callers wait here instead, for at most {@code stock.database.acquire-timeout}, so a
+ * database slowdown shows up as fast, countable rejections rather than piled-up threads.
+ * </p>
+ */
+public class DatabaseConcurrencyLimiter {
+
+    /** Free call slots. */
+    private final Semaphore permits;
+
+    /** Number of slots. */
+    private final int maxConcurrency;
+
+    /** Maximum wait for a slot, in nanoseconds. */
+    private final long acquireTimeoutNanos;
+
+    /** Time spent waiting for a slot. */
+    private final Timer waitTimer;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param maxConcurrency the maximum number of concurrent calls.
+     * @param acquireTimeout the maximum wait for a slot.
+     * @param meterRegistry  registry for in-flight and wait metrics.
+     */
+    public DatabaseConcurrencyLimiter(int maxConcurrency, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+
+        Gauge.builder("stock.database.inflight", this, DatabaseConcurrencyLimiter::inFlight)
+                .description("Blocking database calls in flight")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("stock.database.wait")
+                .description("Time a blocking database call waited for a free slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a blocking database call once a slot is free.
+     *
+     * @param call the call.
+     * @param <T>  the result type.
+     * @return the call's result.
+     * @throws DatabaseBusyException if no slot became free within the acquire timeout.
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a blocking database call without a result once a slot is free.
+     *
+     * @param call the call.
+     * @throws DatabaseBusyException if no slot became free within the acquire timeout.
+     */
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of calls currently holding a slot.
+     *
+     * @return the in-flight call count.
+     */
+    public int inFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Returns the acquire timeout, the wait suggested to rejected callers.
+     */
+    private Duration acquireTimeout() {
+        return Duration.ofNanos(acquireTimeoutNanos);
+    }
+
+    /**
+     * Takes a slot, waiting up to the acquire timeout.
+     */
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database slot", acquireTimeout(), e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new DatabaseBusyException("All " + maxConcurrency + " database slots are busy", acquireTimeout(),
+                    null);
+        }
+    }
+
+}
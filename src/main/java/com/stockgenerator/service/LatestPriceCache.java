@@ -0,0 +1,367 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.latest.LatestPriceLoader;
+import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockPricePage;
+import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.state.SymbolStateStore;
+import com.stockgenerator.universe.SymbolUniverse;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Last-value cache of the latest price of every symbol in the universe.
+ * <p>
+ * The generation path writes each new price into the slot of its symbol id; readers
+ * never take a lock. Every slot is guarded by a sequence lock: the writer makes the
+ * slot's version odd, writes price and timestamp, then makes it even again, and a
+ * reader retries if the version changed while it was reading. Slots are the last-value
+ * fields of the {@link SymbolStateStore} records, off the heap. On a cold start the slots
+ * are warmed before the first generation cycle from the compacted latest-price topic when
+ * it is enabled, and from the database otherwise or if the topic cannot be read.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LatestPriceCache {
+
+    /** Table of the simulated symbols; slot {@code i} belongs to symbol id {@code i}. */
+    private final SymbolUniverse universe;
+
+    /** Repository used to warm the cache on startup. */
+    private final StockPriceRepository stockPriceRepository;
+
+    /** Reads the compacted latest-price topic on startup; {@code null} to warm from the database only. */
+    private final LatestPriceLoader loader;
+
+    /** Detaches rows streamed during warm-up; {@code null} to leave them managed. */
+    private final EntityManager entityManager;
+
+    /** Read-only transaction around the warm-up stream; {@code null} to stream without one. */
+    private final TransactionTemplate warmUpTransaction;
+
+    /** Latest price, its timestamp and the slot's sequence lock per symbol id. */
+    private final SymbolStateStore store;
+
+    /** Bitset of symbol ids updated since the last {@link #drainChanged(long[])}. */
+    private final AtomicLongArray changed;
+
+    /**
+     * Creates an empty cache covering the universe, in its own direct memory.
+     *
+     * @param universe             the symbol universe.
+     * @param stockPriceRepository the repository used to warm the cache.
+     */
+    public LatestPriceCache(SymbolUniverse universe, StockPriceRepository stockPriceRepository) {
+        this(universe, SymbolStateStore.allocate(universe.size()), stockPriceRepository);
+    }
+
+    /**
+     * Creates an empty cache covering the universe in the last-value fields of a state store.
+     *
+     * @param universe             the symbol universe.
+     * @param store                the store holding one record per symbol.
+     * @param stockPriceRepository the repository used to warm the cache.
+     * @throws IllegalArgumentException if the store does not match the universe.
+     */
+    public LatestPriceCache(SymbolUniverse universe, SymbolStateStore store,
+                            StockPriceRepository stockPriceRepository) {
+        this(universe, store, stockPriceRepository, null, null, null);
+    }
+
+    /**
+     * Creates an empty cache covering the universe in the last-value fields of a state
+     * store, warmed from the latest-price topic when the loader is enabled.
+     *
+     * @param universe             the symbol universe.
+     * @param store                the store holding one record per symbol.
+     * @param stockPriceRepository the repository used to warm the cache.
+     * @param loader               reads the latest-price topic, or {@code null}.
+     * @param entityManager        detaches rows streamed from the database, or {@code null}.
+     * @param transactionManager   runs the database warm-up in a read-only transaction, or {@code null}.
+     * @throws IllegalArgumentException if the store does not match the universe.
+     */
+    @Autowired
+    public LatestPriceCache(SymbolUniverse universe, SymbolStateStore store,
+                            StockPriceRepository stockPriceRepository, LatestPriceLoader loader,
+                            EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        if (store.size() != universe.size()) {
+            throw new IllegalArgumentException("State store holds " + store.size() + " symbols, not "
+                    + universe.size());
+        }
+        this.universe = universe;
+        this.stockPriceRepository = stockPriceRepository;
+        this.loader = loader;
+        this.entityManager = entityManager;
+        if (transactionManager != null) {
+            this.warmUpTransaction = new TransactionTemplate(transactionManager);
+            this.warmUpTransaction.setReadOnly(true);
+        } else {
+            this.warmUpTransaction = null;
+        }
+        this.store = store;
+        this.changed = new AtomicLongArray(changedWords());
+    }
+
+    /**
+     * Loads the latest prices of the universe's symbols on cold start, from the latest-price
+     * topic if it can be read to its end and from the database otherwise. After a warm
+     * start the slots already hold the snapshot's last values and neither is read.
+     * <p>
+     * The database is streamed in symbol order within a read-only transaction, and each
+     * row is detached once copied into its slot, so warming takes constant memory
+     * however large the table is.
+     * </p>
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (store.restored()) {
+            log.info("Latest price cache restored from the state snapshot");
+            return;
+        }
+        if (loader != null && loader.isEnabled()) {
+            int[] updates = new int[1];
+            boolean complete = loader.load((symbol, tick) -> {
+                int symbolId = universe.id(symbol);
+                if (symbolId >= 0) {
+                    update(symbolId, tick.price(), TimeUnit.NANOSECONDS.toMillis(tick.epochNanos()));
+                    updates[0]++;
+                }
+            });
+            if (complete) {
+                log.info("Warmed latest price cache from {} latest-price records", updates[0]);
+                return;
+            }
+        }
+        int[] loaded = new int[1];
+        if (warmUpTransaction != null) {
+            warmUpTransaction.executeWithoutResult(status -> warmUpFromDatabase(loaded));
+        } else {
+            warmUpFromDatabase(loaded);
+        }
+        log.info("Warmed latest price cache with {} of {} symbols", loaded[0], universe.size());
+    }
+
+    /**
+     * Copies the persisted price of every universe symbol that has none yet into its slot.
+     *
+     * @param loaded counts the slots filled, in its only element.
+     */
+    private void warmUpFromDatabase(int[] loaded) {
+        try (Stream<StockPrice> stockPrices = stockPriceRepository.streamAllByOrderBySymbol()) {
+            stockPrices.forEach(stockPrice -> {
+                int symbolId = universe.id(stockPrice.getSymbol());
+                if (symbolId >= 0 && store.versionAcquire(symbolId) == 0) {
+                    long epochMillis = stockPrice.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    update(symbolId, stockPrice.getPrice(), epochMillis);
+                    loaded[0]++;
+                }
+                if (entityManager != null) {
+                    entityManager.detach(stockPrice);
+                }
+            });
+        }
+    }
+
+    /**
+     * Publishes the latest price of a symbol. Each symbol must have a single writer at a time.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the price timestamp in epoch milliseconds.
+     */
+    public void update(int symbolId, double price, long epochMillis) {
+        long version = store.version(symbolId);
+        store.setVersionOpaque(symbolId, version | 1);
+        VarHandle.storeStoreFence();
+        store.setLast(symbolId, price, epochMillis);
+        store.setVersionRelease(symbolId, (version | 1) + 1);
+
+        int word = symbolId >>> 6;
+        long bit = 1L << symbolId;
+        if ((changed.get(word) & bit) == 0) {
+            changed.getAndAccumulate(word, bit, (bits, b) -> bits | b);
+        }
+    }
+
+    /**
+     * Returns the version of a symbol's slot, which grows with every update.
+     *
+     * @param symbolId the symbol id.
+     * @return the version: 0 if the symbol has no price yet, odd while it is being updated.
+     */
+    public long version(int symbolId) {
+        return store.versionAcquire(symbolId);
+    }
+
+    /**
+     * Moves the set of symbol ids updated since the previous call into {@code into} and
+     * clears it, so each update is reported once however often the symbol changed.
+     *
+     * @param into receives one bit per symbol id; must hold {@link #changedWords()} words.
+     * @return {@code true} if any symbol changed.
+     */
+    public boolean drainChanged(long[] into) {
+        boolean any = false;
+        for (int word = 0; word < into.length; word++) {
+            into[word] = changed.get(word) == 0 ? 0 : changed.getAndSet(word, 0);
+            any |= into[word] != 0;
+        }
+        return any;
+    }
+
+    /**
+     * Returns the number of 64-bit words of a bitset covering the universe.
+     *
+     * @return the bitset length in words.
+     */
+    public int changedWords() {
+        return (universe.size() + 63) >>> 6;
+    }
+
+    /**
+     * Returns the latest price of a universe symbol.
+     *
+     * @param symbol the stock symbol.
+     * @return the latest price, or empty if the symbol is outside the universe or has no price yet.
+     */
+    public Optional<StockPrice> get(String symbol) {
+        int symbolId = universe.id(symbol);
+        return symbolId < 0 ? Optional.empty() : Optional.ofNullable(read(symbolId));
+    }
+
+    /**
+     * Returns the latest price of a symbol, or {@code null} if it has none yet.
+     *
+     * @param symbolId the symbol id.
+     * @return a {@link StockPrice} copy of the slot, or {@code null}.
+     */
+    public StockPrice read(int symbolId) {
+        while (true) {
+            long before = store.versionAcquire(symbolId);
+            if (before == 0) {
+                return null;
+            }
+            double price = store.lastPrice(symbolId);
+            long epochMillis = store.lastTimestamp(symbolId);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && store.version(symbolId) == before) {
+                return new StockPrice(null, universe.symbol(symbolId), price, toLocalDateTime(epochMillis));
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the latest price of a symbol as a primitive, without creating a {@link StockPrice}.
+     *
+     * @param symbolId the symbol id.
+     * @return the price, or {@link Double#NaN} if the symbol has none yet.
+     */
+    public double price(int symbolId) {
+        while (true) {
+            long before = store.versionAcquire(symbolId);
+            if (before == 0) {
+                return Double.NaN;
+            }
+            double price = store.lastPrice(symbolId);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && store.version(symbolId) == before) {
+                return price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the timestamp of a symbol's latest price as a primitive, without creating a
+     * {@link StockPrice}.
+     *
+     * @param symbolId the symbol id.
+     * @return the timestamp in epoch milliseconds, or 0 if the symbol has no price yet.
+     */
+    public long epochMillis(int symbolId) {
+        while (true) {
+            long before = store.versionAcquire(symbolId);
+            if (before == 0) {
+                return 0;
+            }
+            long epochMillis = store.lastTimestamp(symbolId);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && store.version(symbolId) == before) {
+                return epochMillis;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the latest price of every symbol that has one, in symbol id order.
+     *
+     * @return the latest prices.
+     */
+    public List<StockPrice> getAll() {
+        List<StockPrice> all = new ArrayList<>(universe.size());
+        forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Returns up to {@code limit} latest prices starting at symbol id {@code cursor}.
+     *
+     * @param cursor the first symbol id of the page.
+     * @param limit  the maximum number of prices.
+     * @return the page and the cursor of the next one.
+     */
+    public StockPricePage page(int cursor, int limit) {
+        List<StockPrice> prices = new ArrayList<>(Math.min(limit, universe.size()));
+        int id = Math.max(0, cursor);
+        for (; id < universe.size() && prices.size() < limit; id++) {
+            StockPrice stockPrice = read(id);
+            if (stockPrice != null) {
+                prices.add(stockPrice);
+            }
+        }
+        return new StockPricePage(prices, id < universe.size() ? id : null);
+    }
+
+    /**
+     * Hands the latest price of every symbol that has one, in symbol id order, to the consumer
+     * without collecting them, so callers can stream the universe in constant memory.
+     *
+     * @param consumer receives each latest price.
+     */
+    public void forEach(Consumer<StockPrice> consumer) {
+        for (int id = 0; id < universe.size(); id++) {
+            StockPrice stockPrice = read(id);
+            if (stockPrice != null) {
+                consumer.accept(stockPrice);
+            }
+        }
+    }
+
+    /**
+     * Converts epoch milliseconds to the local date-time stored by {@link StockPrice}.
+     */
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+}
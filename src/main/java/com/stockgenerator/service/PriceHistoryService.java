@@ -0,0 +1,256 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.config.HistoryProperties;
+import com.stockgenerator.model.PriceHistoryEntry;
+import com.stockgenerator.repository.PriceHistoryRepository;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Service maintaining the append-only tick history.
+ * <p>
+ * Generated ticks are buffered in a lock-free {@link TickBuffer} and appended to the
+ * day-partitioned {@code stock_price_ticks} table in JDBC batches by a single writer
+ * thread, so the generation path never waits on the database. When the buffer is full
+ * ticks are dropped and counted rather than blocking generation.
+ * </p>
+ */
+@Service
+@Slf4j
+public class PriceHistoryService {
+
+    /** Table of the simulated symbols. */
+    private final SymbolUniverse universe;
+
+    /** History table repository. */
+    private final PriceHistoryRepository historyRepository;
+
+    /** History configuration. */
+    private final HistoryProperties properties;
+
+    /** Bound on concurrent history reads from request threads. */
+    private final DatabaseConcurrencyLimiter databaseLimiter;
+
+    /** Ticks waiting to be appended. */
+    private final TickBuffer buffer;
+
+    /** Writer thread; {@code null} when history is disabled. */
+    private final ScheduledExecutorService writer;
+
+    /** The batch being assembled by the writer thread. */
+    private final Batch batch;
+
+    /** Ticks dropped because the buffer was full. */
+    private final Counter droppedTicks;
+
+    /** Ticks appended to the table. */
+    private final Counter appendedTicks;
+
+    /** Latency of each JDBC insert batch. */
+    private final Timer batchTimer;
+
+    /**
+     * Creates the service and, when history is enabled, starts its writer thread.
+     *
+     * @param universe          the symbol universe.
+     * @param historyRepository the history table repository.
+     * @param properties        the history configuration.
+     * @param databaseLimiter   bound on concurrent history reads.
+     * @param meterRegistry     registry for buffer and append metrics.
+     */
+    public PriceHistoryService(SymbolUniverse universe,
+                               PriceHistoryRepository historyRepository,
+                               HistoryProperties properties,
+                               DatabaseConcurrencyLimiter databaseLimiter,
+                               MeterRegistry meterRegistry) {
+        this.universe = universe;
+        this.historyRepository = historyRepository;
+        this.properties = properties;
+        this.databaseLimiter = databaseLimiter;
+        this.buffer = new TickBuffer(properties.getBufferSize());
+        this.batch = new Batch(properties.getBatchSize());
+
+        Gauge.builder("stock.history.buffered", buffer, TickBuffer::size)
+                .description("Ticks waiting to be appended to the history table")
+                .register(meterRegistry);
+        this.droppedTicks = meterRegistry.counter("stock.history.dropped");
+        this.appendedTicks = meterRegistry.counter("stock.history.appended");
+        this.batchTimer = Timer.builder("stock.history.batch")
+                .description("Latency of one JDBC insert batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            this.writer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("price-history-writer").daemon(true).factory());
+            long intervalMs = properties.getDrainInterval().toMillis();
+            writer.scheduleWithFixedDelay(this::drain, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Buffers a generated tick for appending to the history table.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the tick timestamp in epoch milliseconds.
+     * @param sequence    the tick sequence number.
+     */
+    public void append(int symbolId, double price, long epochMillis, long sequence) {
+        if (writer != null && !buffer.offer(symbolId, price, epochMillis, sequence)) {
+            droppedTicks.increment();
+        }
+    }
+
+    /**
+     * Streams a page of a symbol's history in {@code (timestamp, sequence)} order.
+     * <p>
+     * Pages are addressed by keyset: the next page starts at the last row's timestamp
+     * with {@code afterSeq} set to its sequence.
+     * </p>
+     *
+     * @param symbol   the stock symbol.
+     * @param from     the start of the range, inclusive.
+     * @param to       the end of the range, exclusive.
+     * @param afterSeq skip rows at {@code from} with a sequence up to this value; -1 for none.
+     * @param limit    the requested page size, capped by {@code stock.history.max-page-size}.
+     * @param consumer receives each row as it is read.
+     * @throws DatabaseBusyException if no database slot became free in time.
+     */
+    public void streamHistory(String symbol, Instant from, Instant to, long afterSeq, int limit,
+                              Consumer<PriceHistoryEntry> consumer) {
+        int pageSize = Math.max(1, Math.min(limit, properties.getMaxPageSize()));
+        int fetchSize = properties.getFetchSize();
+        databaseLimiter.run(() ->
+                historyRepository.streamRange(symbol, from, afterSeq, to, pageSize, fetchSize, consumer));
+    }
+
+    /**
+     * Creates the daily partitions from today up to {@code stock.history.partition-days-ahead};
+     * runs on startup and every hour.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 * * * *")
+    public void createPartitions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            for (int day = 0; day <= properties.getPartitionDaysAhead(); day++) {
+                historyRepository.createPartition(today.plusDays(day));
+            }
+        } catch (Exception e) {
+            log.error("Failed to create tick history partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Appends buffered ticks until the buffer is empty. Runs on the writer thread only.
+     */
+    void drain() {
+        int drained;
+        do {
+            batch.size = 0;
+            drained = buffer.drain(batch.capacity(), batch);
+            if (drained > 0) {
+                try {
+                    batchTimer.record(() -> historyRepository.append(batch));
+                    appendedTicks.increment(drained);
+                } catch (Exception e) {
+                    droppedTicks.increment(drained);
+                    log.error("Failed to append {} ticks to history: {}", drained, e.getMessage(), e);
+                }
+            }
+        } while (drained == batch.capacity());
+    }
+
+    /**
+     * Appends the remaining ticks and stops the writer on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer != null) {
+            writer.execute(this::drain);
+            writer.shutdown();
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reusable batch filled from the buffer and bound as insert rows.
+     */
+    private final class Batch implements TickBuffer.TickHandler, PriceHistoryRepository.Rows {
+
+        private final int[] symbolIds;
+        private final double[] prices;
+        private final long[] timestamps;
+        private final long[] sequences;
+        private int size;
+
+        Batch(int capacity) {
+            this.symbolIds = new int[capacity];
+            this.prices = new double[capacity];
+            this.timestamps = new long[capacity];
+            this.sequences = new long[capacity];
+        }
+
+        int capacity() {
+            return symbolIds.length;
+        }
+
+        @Override
+        public void accept(int symbolId, double price, long epochMillis, long sequence) {
+            symbolIds[size] = symbolId;
+            prices[size] = price;
+            timestamps[size] = epochMillis;
+            sequences[size] = sequence;
+            size++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String symbol(int i) {
+            return universe.symbol(symbolIds[i]);
+        }
+
+        @Override
+        public long epochMillis(int i) {
+            return timestamps[i];
+        }
+
+        @Override
+        public long sequence(int i) {
+            return sequences[i];
+        }
+
+        @Override
+        public double price(int i) {
+            return prices[i];
+        }
+    }
+
+}
@@ -1,17 +1,39 @@
 package com.stockgenerator.service;
 
 
-import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.clock.TickClock;
+import com.stockgenerator.config.SchedulerProperties;
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.universe.SymbolShard;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Scheduler responsible for generating and publishing stock price updates at regular intervals.
+ * <p>
+ * The symbol universe is split into {@link SymbolShard shards}; every shard owns its symbols,
+ * so shards advance concurrently without locking. In {@code scheduled} mode Spring's scheduler
+ * runs a cycle every {@code stock.scheduler.fixed-rate} milliseconds that advances all shards in
+ * parallel on the generation executor. In {@code clock} mode each shard is driven by its own
+ * {@link TickClock} at {@code stock.scheduler.tick-interval} (or a per-shard override), down to
+ * microseconds, with an explicit overrun policy.
+ * </p>
  */
 @Slf4j
 @Component
@@ -23,41 +45,246 @@ public class StockPriceScheduler {
     private final StockPriceService stockPriceService;
 
     /**
-     * Random number generator for simulating stock price changes.
+     * Table of the simulated symbols.
      */
-    private final Random random = new Random();
+    private final SymbolUniverse universe;
 
     /**
-     * Array of predefined stock symbols to simulate.
+     * Engine advancing the price path of every symbol.
      */
-    private static final String[] STOCK_SYMBOLS = {"AAPL", "GOOG", "MSFT", "AMZN", "TSLA"};
+    private final PricePathEngine engine;
 
     /**
-     * Constructor to inject the stock price service dependency.
+     * Executor running the shard tasks of a cycle.
+     */
+    private final ExecutorService generationExecutor;
+
+    /**
+     * One task per shard, reused by every cycle.
+     */
+    private final List<Callable<Void>> shardTasks;
+
+    /**
+     * One clock per shard in clock mode; empty in scheduled mode.
+     */
+    private final List<TickClock> clocks;
+
+    /**
+     * Aggregates tick logging per interval instead of logging every tick.
+     */
+    private final TickLogAggregator tickLog;
+
+    /**
+     * Requests the shards' state for periodic snapshots.
+     */
+    private final StateSnapshotService snapshots;
+
+    /**
+     * Configured interval between cycles, in nanoseconds.
+     */
+    private final long fixedRateNanos;
+
+    /**
+     * Duration of each generation cycle, all shards included.
+     */
+    private final Timer cycleTimer;
+
+    /**
+     * Actual interval between the starts of consecutive cycles.
+     */
+    private final Timer intervalTimer;
+
+    /**
+     * Difference between the last actual and the configured interval, in nanoseconds.
+     */
+    private final AtomicLong lastDriftNanos = new AtomicLong();
+
+    /**
+     * {@link System#nanoTime()} at the start of the previous cycle, 0 before the first.
+     */
+    private long lastCycleStart;
+
+    /**
+     * Constructor to inject the stock price service and generation pipeline dependencies.
      *
-     * @param stockPriceService The service handling stock price operations.
+     * @param stockPriceService  The service handling stock price operations.
+     * @param universe           The symbol universe.
+     * @param engine             The price engine covering the universe.
+     * @param generationExecutor The executor running the shards.
+     * @param properties         The scheduler configuration.
+     * @param meterRegistry      Registry for cycle, drift and per-shard tick metrics.
+     * @param tickLog            The tick log aggregator.
+     * @param snapshots          The state snapshot service.
      */
-    public StockPriceScheduler(StockPriceService stockPriceService) {
+    public StockPriceScheduler(StockPriceService stockPriceService,
+                               SymbolUniverse universe,
+                               PricePathEngine engine,
+                               @Qualifier("generationExecutor") ExecutorService generationExecutor,
+                               SchedulerProperties properties,
+                               MeterRegistry meterRegistry,
+                               TickLogAggregator tickLog,
+                               StateSnapshotService snapshots) {
         this.stockPriceService = stockPriceService;
+        this.tickLog = tickLog;
+        this.snapshots = snapshots;
+        this.universe = universe;
+        this.engine = engine;
+        this.generationExecutor = generationExecutor;
+        this.fixedRateNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFixedRate());
+        this.cycleTimer = Timer.builder("stock.generation.cycle")
+                .description("Time to generate and hand off one tick of every symbol")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.intervalTimer = Timer.builder("stock.scheduler.interval")
+                .description("Actual interval between the starts of generation cycles")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("stock.scheduler.drift", lastDriftNanos,
+                drift -> drift.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        int shardCount = properties.getShards() > 0
+                ? properties.getShards()
+                : Runtime.getRuntime().availableProcessors();
+        List<ShardRunner> runners = SymbolShard.split(engine, shardCount).stream()
+                .map(shard -> new ShardRunner(shard, meterRegistry))
+                .toList();
+        this.shardTasks = runners.stream()
+                .map(runner -> (Callable<Void>) () -> {
+                    runner.run(1);
+                    return null;
+                })
+                .toList();
+        this.clocks = properties.getMode() == SchedulerProperties.Mode.CLOCK
+                ? runners.stream()
+                        .map(runner -> new TickClock("shard-" + runner.shard.index(),
+                                properties.intervalOf(runner.shard.index()), properties.getOverrunPolicy(),
+                                properties.getSpinThreshold(), properties.getMaxCatchUp(), runner::run, meterRegistry))
+                        .toList()
+                : List.of();
+        log.info("Generating {} symbols in {} shards", universe.size(), shardTasks.size());
+    }
+
+    /**
+     * Starts the shard clocks once the application is ready; does nothing in scheduled mode.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startClocks() {
+        clocks.forEach(TickClock::start);
+    }
+
+    /**
+     * Stops the shard clocks on shutdown.
+     */
+    @PreDestroy
+    public void stopClocks() {
+        clocks.forEach(TickClock::close);
     }
 
     /**
-     * Generates and publishes stock prices every 5 seconds.
+     * Advances every symbol's price path by one step and publishes the new prices,
+     * at the rate configured by {@code stock.scheduler.fixed-rate}.
      * Automatically updates the database and publishes to Kafka.
+     * Does nothing in clock mode, where the shard clocks drive generation.
      */
     @Scheduled(fixedRateString = "${stock.scheduler.fixed-rate:5000}")
     public void generateStockPrices() {
+        if (!clocks.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (lastCycleStart != 0) {
+            long interval = start - lastCycleStart;
+            intervalTimer.record(interval, TimeUnit.NANOSECONDS);
+            lastDriftNanos.set(interval - fixedRateNanos);
+        }
+        lastCycleStart = start;
         try {
-            for (String symbol : STOCK_SYMBOLS) {
-                double price = 100 + random.nextDouble() * 200; // Random price between 100 and 300
-                StockPrice stockPrice = new StockPrice(null, symbol, price, LocalDateTime.now());
+            generationExecutor.invokeAll(shardTasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Stock price generation interrupted");
+        } finally {
+            cycleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
+    /**
+     * Advances one shard and hands its new prices to the service as primitives.
+     *
+     * @param shard  the shard to generate.
+     * @param steps  the number of engine time steps the tick covers.
+     * @param ticks  counts the shard's generated ticks.
+     * @param errors counts the shard's failed ticks.
+     */
+    private void generateShard(SymbolShard shard, int steps, Counter ticks, Counter errors) {
+        shard.advance(engine, steps);
+        long now = System.currentTimeMillis();
+        long sequence = stockPriceService.reserveSequences(shard.size());
+        boolean debug = log.isDebugEnabled();
+        double minPrice = Double.POSITIVE_INFINITY;
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        int failed = 0;
+        for (int id = shard.from(); id < shard.to(); id++, sequence++) {
+            double price = engine.price(id);
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            try {
                 // Save and publish stock price
-                stockPriceService.updateStockPriceAndPublish(symbol, price);
-                log.info("Generated stock price: {}", stockPrice);
+                stockPriceService.recordTick(id, price, now, sequence);
+                if (debug) {
+                    log.debug("Generated stock price: {} {}", universe.symbol(id), price);
+                }
+            } catch (Exception e) {
+                failed++;
+                tickLog.error(universe.symbol(id), e);
+            }
+        }
+        ticks.increment(shard.size());
+        if (failed > 0) {
+            errors.increment(failed);
+        }
+        tickLog.record(shard.size(), minPrice, maxPrice, failed);
+        if (shard.size() > 0) {
+            tickLog.sample(universe.symbol(shard.from()), engine.price(shard.from()));
+        }
+    }
+
+    /**
+     * A shard with its meters, run by a cycle of the scheduled mode or by its own clock.
+     * After a tick it copies its state for a pending snapshot capture, at a point where
+     * none of its symbols is half-advanced.
+     */
+    private final class ShardRunner {
+
+        private final SymbolShard shard;
+        private final Timer timer;
+        private final Counter ticks;
+        private final Counter errors;
+        private long captured;
+
+        ShardRunner(SymbolShard shard, MeterRegistry meterRegistry) {
+            String index = String.valueOf(shard.index());
+            this.shard = shard;
+            this.timer = Timer.builder("stock.generation.shard")
+                    .description("Time to generate and hand off the ticks of one shard")
+                    .tag("shard", index)
+                    .register(meterRegistry);
+            this.ticks = Counter.builder("stock.generation.ticks")
+                    .description("Ticks generated")
+                    .tag("shard", index)
+                    .register(meterRegistry);
+            this.errors = Counter.builder("stock.generation.errors")
+                    .description("Ticks that could not be recorded or published")
+                    .tag("shard", index)
+                    .register(meterRegistry);
+        }
+
+        void run(int steps) {
+            timer.record(() -> generateShard(shard, steps, ticks, errors));
+            long capture = snapshots.requestedCapture();
+            if (capture != captured) {
+                captured = capture;
+                snapshots.capture(shard.from(), shard.to());
             }
-        } catch (Exception e) {
-            log.error("Error occurred while generating stock prices: {}", e.getMessage(), e);
         }
     }
 
@@ -1,16 +1,28 @@
 package com.stockgenerator.service;
 
+import com.stockgenerator.journal.TickJournal;
 import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockPricePage;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
 import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.universe.SymbolUniverse;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class to manage stock price operations.
@@ -26,49 +38,164 @@ public class StockPriceService {
     private final StockPriceRepository stockPriceRepository;
 
     /**
-     * Kafka Template to send stock price updates to Kafka topic.
+     * Asynchronous producer sending stock price updates to the Kafka topic.
      */
-    private final KafkaTemplate<String, StockPrice> kafkaTemplate;
+    private final StockPriceProducer stockPriceProducer;
 
     /**
-     * The Kafka topic where stock price updates are published.
+     * Write-behind persister coalescing generated prices into batched upserts.
      */
-    private static final String STOCK_PRICE_TOPIC = "stock-price-topic";
+    private final StockPriceWriteBehind writeBehind;
+
+    /**
+     * Last-value cache serving reads without touching the database.
+     */
+    private final LatestPriceCache latestPriceCache;
+
+    /**
+     * Append-only tick history.
+     */
+    private final PriceHistoryService historyService;
+
+    /**
+     * Incremental OHLCV bars.
+     */
+    private final BarService barService;
+
+    /**
+     * Memory-mapped journal of every generated tick.
+     */
+    private final TickJournal tickJournal;
+
+    /**
+     * Table of the simulated symbols, used to address write-behind slots.
+     */
+    private final SymbolUniverse universe;
+
+    /**
+     * Entity manager used to detach streamed entities during exports.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Bound on concurrent blocking JPA calls, so virtual request threads queue here rather than in the pool.
+     */
+    private final DatabaseConcurrencyLimiter databaseLimiter;
+
+    /**
+     * Read-only transaction wrapping streaming exports.
+     */
+    private final TransactionTemplate exportTransaction;
+
+    /**
+     * Source of tick sequence numbers, shared by the tick history and Kafka.
+     */
+    private final AtomicLong tickSequence = new AtomicLong();
 
     /**
      * Constructor for StockPriceService.
-     * Initializes the service with the provided repository and KafkaTemplate.
+     * Initializes the service with the provided repository and Kafka producer.
      *
      * @param stockPriceRepository Repository to manage stock price data.
-     * @param kafkaTemplate KafkaTemplate to send messages to Kafka.
+     * @param stockPriceProducer Producer sending messages to Kafka.
+     * @param writeBehind Write-behind persister for generated prices.
+     * @param latestPriceCache Last-value cache of the universe's prices.
+     * @param historyService Append-only tick history.
+     * @param barService Incremental OHLCV bars.
+     * @param tickJournal Memory-mapped journal of every generated tick.
+     * @param universe Table of the simulated symbols.
+     * @param entityManager Entity manager used by streaming exports.
+     * @param databaseLimiter Bound on concurrent blocking JPA calls.
+     * @param transactionManager Transaction manager of the streaming exports.
      */
     @Autowired
     public StockPriceService(
             StockPriceRepository stockPriceRepository,
-            @Qualifier("stockPriceKafkaTemplate")
-                    KafkaTemplate<String, StockPrice> kafkaTemplate
+            StockPriceProducer stockPriceProducer,
+            StockPriceWriteBehind writeBehind,
+            LatestPriceCache latestPriceCache,
+            PriceHistoryService historyService,
+            BarService barService,
+            TickJournal tickJournal,
+            SymbolUniverse universe,
+            EntityManager entityManager,
+            DatabaseConcurrencyLimiter databaseLimiter,
+            PlatformTransactionManager transactionManager
     ) {
         this.stockPriceRepository = stockPriceRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.stockPriceProducer = stockPriceProducer;
+        this.writeBehind = writeBehind;
+        this.latestPriceCache = latestPriceCache;
+        this.historyService = historyService;
+        this.barService = barService;
+        this.tickJournal = tickJournal;
+        this.universe = universe;
+        this.entityManager = entityManager;
+        this.databaseLimiter = databaseLimiter;
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
     }
 
     /**
-     * Retrieves all stock prices from the database.
+     * Retrieves the latest price of every symbol in the universe from the last-value cache.
      *
      * @return A list of all StockPrice objects.
      */
     public List<StockPrice> getAllStockPrices() {
-        return stockPriceRepository.findAll();
+        return latestPriceCache.getAll();
+    }
+
+    /**
+     * Retrieves one page of latest prices from the last-value cache.
+     *
+     * @param cursor The cursor returned with the previous page, or 0 for the first page.
+     * @param limit The maximum number of prices in the page.
+     * @return The page and the cursor of the next one.
+     */
+    public StockPricePage getStockPricePage(int cursor, int limit) {
+        return latestPriceCache.page(cursor, limit);
+    }
+
+    /**
+     * Hands the latest price of every symbol to the consumer one at a time, from the last-value cache.
+     *
+     * @param consumer Receives each latest price.
+     */
+    public void forEachStockPrice(Consumer<StockPrice> consumer) {
+        latestPriceCache.forEach(consumer);
+    }
+
+    /**
+     * Streams every persisted stock price record to the consumer in symbol order.
+     * Rows are fetched in chunks and detached once consumed, so memory stays constant
+     * however large the table is. The export holds a database slot until it completes.
+     *
+     * @param consumer Receives each persisted stock price.
+     */
+    public void exportStockPrices(Consumer<StockPrice> consumer) {
+        databaseLimiter.run(() -> exportTransaction.executeWithoutResult(status -> {
+            try (Stream<StockPrice> stockPrices = stockPriceRepository.streamAllByOrderBySymbol()) {
+                stockPrices.forEach(stockPrice -> {
+                    consumer.accept(stockPrice);
+                    entityManager.detach(stockPrice);
+                });
+            }
+        }));
     }
 
     /**
-     * Retrieves a stock price by its symbol.
+     * Retrieves the latest price of a symbol, from the last-value cache for symbols of the
+     * universe and from the database for the others, such as those recorded through
+     * {@link #updateStockPriceAndPublish(String, double)}.
      *
      * @param symbol The stock symbol (e.g., "AAPL", "GOOG").
      * @return An Optional containing the StockPrice if found, or an empty Optional if not found.
      */
     public Optional<StockPrice> getStockPriceBySymbol(String symbol) {
-        return stockPriceRepository.findBySymbol(symbol);
+        if (universe.id(symbol) < 0) {
+            return databaseLimiter.call(() -> stockPriceRepository.findBySymbol(symbol));
+        }
+        return latestPriceCache.get(symbol);
     }
 
     /**
@@ -78,30 +205,60 @@ public class StockPriceService {
      * @return The updated or newly created StockPrice object.
      */
     public StockPrice updateStockPrice(StockPrice stockPrice) {
-        // Check if the stock already exists in the database
-        Optional<StockPrice> existingStockPrice = stockPriceRepository.findBySymbol(stockPrice.getSymbol());
-
-        if (existingStockPrice.isPresent()) {
-            // Update the existing stock price
-            StockPrice existing = existingStockPrice.get();
-            existing.setPrice(stockPrice.getPrice());
-            existing.setTimestamp(stockPrice.getTimestamp());
-            return stockPriceRepository.save(existing);
-        } else {
-            // Create a new stock price
-            return stockPriceRepository.save(stockPrice);
-        }
+        return databaseLimiter.call(() -> {
+            // Check if the stock already exists in the database
+            Optional<StockPrice> existingStockPrice = stockPriceRepository.findBySymbol(stockPrice.getSymbol());
+
+            if (existingStockPrice.isPresent()) {
+                // Update the existing stock price
+                StockPrice existing = existingStockPrice.get();
+                existing.setPrice(stockPrice.getPrice());
+                existing.setTimestamp(stockPrice.getTimestamp());
+                return stockPriceRepository.save(existing);
+            } else {
+                // Create a new stock price
+                return stockPriceRepository.save(stockPrice);
+            }
+        });
     }
 
     /**
-     * Publishes a stock price to the Kafka topic.
+     * Publishes a stock price to the Kafka topic as a new tick.
      *
-     * @param stockPrice The stock price to publish.
+     * @param stockPrice The stock price to publish; the current time is used if it has no timestamp.
+     * @throws IllegalArgumentException if the symbol is missing or the price is not a positive finite number.
      */
     public void publishStockPrice(StockPrice stockPrice) {
+        String symbol = stockPrice.getSymbol();
+        Double price = stockPrice.getPrice();
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Stock price has no symbol");
+        }
+        if (price == null || !(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("Invalid price " + price + " for " + symbol);
+        }
+        Instant timestamp = stockPrice.getTimestamp() != null
+                ? stockPrice.getTimestamp().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now();
+        long epochNanos = TimeUnit.SECONDS.toNanos(timestamp.getEpochSecond()) + timestamp.getNano();
+        publishTick(new StockTick(universe.id(symbol), symbol, price, epochNanos, reserveSequences(1)));
+    }
+
+    /**
+     * Publishes a tick to the Kafka topic.
+     * <p>
+     * The send is asynchronous; delivery failures are counted and logged by the
+     * {@link StockPriceProducer} callback. Records rejected because too many sends are
+     * awaiting acknowledgement are counted by the producer as well.
+     * </p>
+     *
+     * @param tick The tick to publish.
+     */
+    private void publishTick(StockTick tick) {
         try {
-            kafkaTemplate.send(STOCK_PRICE_TOPIC, stockPrice.getSymbol(), stockPrice);
-            log.info("Published stock price to topic {}: {}", STOCK_PRICE_TOPIC, stockPrice);
+            if (stockPriceProducer.send(tick) && log.isDebugEnabled()) {
+                log.debug("Published stock price: {}", tick);
+            }
         } catch (Exception e) {
             log.error("Failed to publish stock price: {}", e.getMessage(), e);
             throw new RuntimeException("Error publishing stock price", e);
@@ -109,33 +266,88 @@ public class StockPriceService {
     }
 
     /**
-     * Retrieves the latest stock price by symbol and publishes an update to Kafka.
-     * If no stock price is found for the given symbol, it creates a new entry.
+     * Reserves a block of consecutive tick sequence numbers, so a generation shard pays
+     * for one atomic update per cycle rather than one per tick.
+     *
+     * @param count The number of sequence numbers to reserve.
+     * @return The first reserved sequence number.
+     */
+    public long reserveSequences(int count) {
+        return tickSequence.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Returns the sequence number the next reservation starts at, without reserving it.
+     *
+     * @return the next tick sequence number.
+     */
+    public long nextSequence() {
+        return tickSequence.get() + 1;
+    }
+
+    /**
+     * Moves the tick sequence forward so the next reservation starts at {@code next} or later,
+     * when resuming from a state snapshot.
+     *
+     * @param next the first sequence number to hand out.
+     */
+    public void resumeSequences(long next) {
+        tickSequence.accumulateAndGet(next - 1, Math::max);
+    }
+
+    /**
+     * Records a generated price of a universe symbol and publishes it to Kafka.
+     * <p>
+     * This is the generation hot path: the price travels as primitives into the last-value
+     * cache, the write-behind persister, the tick history buffer, the bar aggregator and
+     * the tick journal. The only object created is the {@link StockTick} sent to Kafka;
+     * {@link StockPrice} entities are built only when prices are read over REST or by JPA.
+     * </p>
+     *
+     * @param symbolId The symbol id in the universe.
+     * @param price The generated price.
+     * @param epochMillis The generation time in epoch milliseconds.
+     * @param sequence The tick sequence number, from {@link #reserveSequences(int)}.
+     */
+    public void recordTick(int symbolId, double price, long epochMillis, long sequence) {
+        latestPriceCache.update(symbolId, price, epochMillis);
+        writeBehind.record(symbolId, price, epochMillis);
+        historyService.append(symbolId, price, epochMillis, sequence);
+        barService.onTick(symbolId, price, epochMillis);
+        tickJournal.append(symbolId, price, epochMillis, sequence);
+        publishTick(new StockTick(symbolId, universe.symbol(symbolId), price,
+                TimeUnit.MILLISECONDS.toNanos(epochMillis), sequence));
+    }
+
+    /**
+     * Records the latest price of a symbol and publishes the update to Kafka.
+     * <p>
+     * This is the legacy entity path, from before generation moved to symbol ids: it
+     * builds a {@link StockPrice} per call, and the generator no longer uses it. It remains
+     * for callers that hold only a symbol, and for the tests and benchmarks comparing it
+     * with {@link #recordTick(int, double, long, long)}. Symbols of the universe go through
+     * {@code recordTick}; symbols outside it fall back to a synchronous
+     * {@link #updateStockPrice(StockPrice)}.
+     * </p>
      *
      * @param symbol The stock symbol (e.g., "AAPL", "GOOG").
      * @param price The latest stock price to be updated.
      * @return StockPrice value
      */
     public StockPrice updateStockPriceAndPublish(String symbol, double price) {
-        Optional<StockPrice> stockPriceOptional = stockPriceRepository.findBySymbol(symbol);
-
-        StockPrice stockPrice;
+        long now = System.currentTimeMillis();
+        StockPrice stockPrice = new StockPrice(null, symbol, price,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
 
-        if (stockPriceOptional.isPresent()) {
-            // Stock exists, update the price
-            stockPrice = stockPriceOptional.get();
-            stockPrice.setPrice(price);
-            stockPrice.setTimestamp(LocalDateTime.now());
+        int symbolId = universe.id(symbol);
+        if (symbolId >= 0) {
+            recordTick(symbolId, price, now, reserveSequences(1));
         } else {
-            // Stock doesn't exist, create a new record
-            stockPrice = new StockPrice(null, symbol, price, LocalDateTime.now());
+            updateStockPrice(stockPrice);
+            publishTick(new StockTick(symbolId, symbol, price, TimeUnit.MILLISECONDS.toNanos(now),
+                    reserveSequences(1)));
         }
-
-        // Save the updated or newly created stock price
-        stockPriceRepository.save(stockPrice);
-
-        // Publish the stock price update to Kafka
-        return updateStockPrice(stockPrice);
+        return stockPrice;
     }
 
     /**
@@ -145,12 +357,14 @@ public class StockPriceService {
      * @throws IllegalArgumentException if the stock symbol does not exist.
      */
     public void deleteStockPrice(String symbol) {
-        Optional<StockPrice> stockPrice = stockPriceRepository.findBySymbol(symbol);
-        if (stockPrice.isPresent()) {
-            stockPriceRepository.delete(stockPrice.get());
-        } else {
-            throw new IllegalArgumentException("Stock with symbol " + symbol + " does not exist.");
-        }
+        databaseLimiter.run(() -> {
+            Optional<StockPrice> stockPrice = stockPriceRepository.findBySymbol(symbol);
+            if (stockPrice.isPresent()) {
+                stockPriceRepository.delete(stockPrice.get());
+            } else {
+                throw new IllegalArgumentException("Stock with symbol " + symbol + " does not exist.");
+            }
+        });
     }
 
     /**
@@ -158,6 +372,6 @@ public class StockPriceService {
      * This method removes all entries in the stock price repository.
      */
     public void clearAllStockPrices() {
-        stockPriceRepository.deleteAll();
+        databaseLimiter.run(stockPriceRepository::deleteAll);
     }
 }
@@ -0,0 +1,248 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.config.PersistenceProperties;
+import com.stockgenerator.repository.StockPriceUpsertRepository;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Write-behind persister keeping the {@code stock_prices} table up to date without
+ * touching the database on the generation path.
+ * <p>
+ * {@link #record} only stores the latest price of a symbol in a slot indexed by its id
+ * and marks it dirty; repeated updates before a flush are coalesced into one row.
+ * A single flusher thread upserts the dirty slots in JDBC batches every
+ * {@code stock.persistence.flush-interval}, or earlier once
+ * {@code stock.persistence.flush-threshold} symbols are pending, so database load
+ * depends on the universe size and flush rate rather than the tick rate.
+ * </p>
+ */
+@Component
+@Slf4j
+public class StockPriceWriteBehind {
+
+    /** Table of the simulated symbols; slot {@code i} belongs to symbol id {@code i}. */
+    private final SymbolUniverse universe;
+
+    /** Batched upsert repository. */
+    private final StockPriceUpsertRepository upsertRepository;
+
+    /** Persister configuration. */
+    private final PersistenceProperties properties;
+
+    /** Latest pending price per symbol id. */
+    private final double[] prices;
+
+    /** Timestamp of the latest pending price per symbol id, in epoch milliseconds. */
+    private final long[] timestamps;
+
+    /** 1 when a symbol's slot holds a price not yet flushed. */
+    private final AtomicIntegerArray dirty;
+
+    /** Number of dirty slots. */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /** Set while a threshold-triggered flush is queued, to avoid queuing more than one. */
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /** Single thread running every flush. */
+    private final ScheduledExecutorService flusher;
+
+    /** Symbol ids of the batch being written, reused by every flush. */
+    private final int[] batchIds;
+
+    /** Row view over {@link #batchIds}, reused by every flush. */
+    private final BatchRows batchRows = new BatchRows();
+
+    /** Updates that replaced a still-pending price. */
+    private final Counter coalesced;
+
+    /** Rows written to the database. */
+    private final Counter flushedRows;
+
+    /** Batches that failed and were re-queued. */
+    private final Counter failedBatches;
+
+    /** Updates recorded while the persister was over its high watermark. */
+    private final Counter backpressureEvents;
+
+    /** Latency of each JDBC batch. */
+    private final Timer batchTimer;
+
+    /**
+     * Creates the persister and starts its flusher thread.
+     *
+     * @param universe         the symbol universe.
+     * @param upsertRepository the batched upsert repository.
+     * @param properties       the persister configuration.
+     * @param meterRegistry    registry for queue depth and flush metrics.
+     */
+    public StockPriceWriteBehind(SymbolUniverse universe,
+                                 StockPriceUpsertRepository upsertRepository,
+                                 PersistenceProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.universe = universe;
+        this.upsertRepository = upsertRepository;
+        this.properties = properties;
+        this.prices = new double[universe.size()];
+        this.timestamps = new long[universe.size()];
+        this.dirty = new AtomicIntegerArray(universe.size());
+        this.batchIds = new int[Math.max(1, properties.getBatchSize())];
+
+        Gauge.builder("stock.persistence.pending", pending, AtomicInteger::get)
+                .description("Symbols with a price waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("stock.persistence.backpressure", this, p -> p.isBackpressured() ? 1 : 0)
+                .description("1 while pending symbols exceed the high watermark")
+                .register(meterRegistry);
+        this.coalesced = meterRegistry.counter("stock.persistence.coalesced");
+        this.flushedRows = meterRegistry.counter("stock.persistence.rows.flushed");
+        this.failedBatches = meterRegistry.counter("stock.persistence.batches.failed");
+        this.backpressureEvents = meterRegistry.counter("stock.persistence.backpressure.events");
+        this.batchTimer = Timer.builder("stock.persistence.batch")
+                .description("Latency of one JDBC upsert batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("stock-price-flusher").daemon(true).factory());
+        long intervalMs = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the latest price of a symbol for the next flush.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the price timestamp in epoch milliseconds.
+     */
+    public void record(int symbolId, double price, long epochMillis) {
+        prices[symbolId] = price;
+        timestamps[symbolId] = epochMillis;
+        if (dirty.getAndSet(symbolId, 1) == 1) {
+            coalesced.increment();
+            return;
+        }
+        int depth = pending.incrementAndGet();
+        if (depth > properties.getHighWatermark()) {
+            backpressureEvents.increment();
+        }
+        if (depth >= properties.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Returns whether more symbols are pending than the high watermark allows,
+     * i.e. flushing is not keeping up with generation.
+     *
+     * @return {@code true} under backpressure.
+     */
+    public boolean isBackpressured() {
+        return pending.get() > properties.getHighWatermark();
+    }
+
+    /**
+     * Returns the number of symbols waiting to be flushed.
+     *
+     * @return the queue depth.
+     */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Flushes every dirty slot in batches of {@code stock.persistence.batch-size}.
+     * Runs on the flusher thread only.
+     */
+    void flush() {
+        flushRequested.set(false);
+        int count = 0;
+        for (int id = 0; id < prices.length; id++) {
+            if (dirty.get(id) == 1 && dirty.getAndSet(id, 0) == 1) {
+                pending.decrementAndGet();
+                batchIds[count++] = id;
+                if (count == batchIds.length) {
+                    writeBatch(count);
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) {
+            writeBatch(count);
+        }
+    }
+
+    /**
+     * Writes the first {@code count} ids of {@link #batchIds}; on failure marks them dirty again.
+     */
+    private void writeBatch(int count) {
+        batchRows.size = count;
+        try {
+            batchTimer.record(() -> upsertRepository.upsert(batchRows));
+            flushedRows.increment(count);
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.error("Failed to flush {} stock prices: {}", count, e.getMessage(), e);
+            for (int i = 0; i < count; i++) {
+                if (dirty.getAndSet(batchIds[i], 1) == 0) {
+                    pending.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes pending prices and stops the flusher on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.execute(this::flush);
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Row view over the current batch.
+     */
+    private final class BatchRows implements StockPriceUpsertRepository.Rows {
+
+        /** Number of ids of {@link #batchIds} in the current batch. */
+        private int size;
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String symbol(int i) {
+            return universe.symbol(batchIds[i]);
+        }
+
+        @Override
+        public double price(int i) {
+            return prices[batchIds[i]];
+        }
+
+        @Override
+        public long epochMillis(int i) {
+            return timestamps[batchIds[i]];
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.stockgenerator.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of ticks stored in primitive arrays.
+ * <p>
+ * Producers claim a slot with a CAS on the tail, write the tick fields and then publish
+ * the slot; the consumer reads published slots in order. Nothing is allocated per tick
+ * and producers never block: when the ring is full {@link #offer} returns {@code false}.
+ * </p>
+ */
+public final class TickBuffer {
+
+    /** Number of slots, a power of two. */
+    private final int capacity;
+
+    /** {@code capacity - 1}, for index masking. */
+    private final int mask;
+
+    /** Symbol id per slot. */
+    private final int[] symbolIds;
+
+    /** Price per slot. */
+    private final double[] prices;
+
+    /** Timestamp per slot, in epoch milliseconds. */
+    private final long[] timestamps;
+
+    /** Sequence number per slot. */
+    private final long[] sequences;
+
+    /** Position + 1 of the tick published in each slot; 0 when never written. */
+    private final AtomicLongArray published;
+
+    /** Next position to claim. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next position to consume; written by the consumer only. */
+    private volatile long head;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param requestedCapacity the minimum number of slots; rounded up to a power of two.
+     */
+    public TickBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.symbolIds = new int[capacity];
+        this.prices = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.sequences = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @param symbolId    the symbol id.
+     * @param price       the price.
+     * @param epochMillis the tick timestamp in epoch milliseconds.
+     * @param sequence    the tick sequence number.
+     * @return {@code false} if the buffer is full and the tick was dropped.
+     */
+    public boolean offer(int symbolId, double price, long epochMillis, long sequence) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+
+        int slot = (int) position & mask;
+        symbolIds[slot] = symbolId;
+        prices[slot] = price;
+        timestamps[slot] = epochMillis;
+        sequences[slot] = sequence;
+        published.setRelease(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published ticks, in order, to the handler and releases their slots.
+     * Must only be called from the single consumer thread.
+     *
+     * @param max      the maximum number of ticks to drain.
+     * @param handler  receives each tick.
+     * @return the number of ticks drained.
+     */
+    public int drain(int max, TickHandler handler) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) position & mask;
+            if (published.getAcquire(slot) != position + 1) {
+                break;
+            }
+            handler.accept(symbolIds[slot], prices[slot], timestamps[slot], sequences[slot]);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * Returns the number of claimed but not yet drained ticks.
+     *
+     * @return the buffer depth.
+     */
+    public int size() {
+        return (int) Math.min(capacity, tail.get() - head);
+    }
+
+    /**
+     * Receives drained ticks.
+     */
+    @FunctionalInterface
+    public interface TickHandler {
+
+        /**
+         * Accepts one tick.
+         *
+         * @param symbolId    the symbol id.
+         * @param price       the price.
+         * @param epochMillis the tick timestamp in epoch milliseconds.
+         * @param sequence    the tick sequence number.
+         */
+        void accept(int symbolId, double price, long epochMillis, long sequence);
+    }
+
+}
@@ -0,0 +1,327 @@
+package com.stockgenerator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.IngestProperties;
+import com.stockgenerator.model.PublishBatchResult;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service publishing externally fed prices in bulk.
+ * <p>
+ * Request bodies are parsed as streams, a record at a time, so a body is never held in
+ * memory. Valid records are collected into batches of {@code stock.ingest.batch-size}
+ * ticks, which take their slots of the {@link StockPriceProducer}'s send window in one
+ * step and never wait for it: when the window is full, publishing stops and the index of
+ * the first unsent record is reported so the client can resend from there.
+ * </p>
+ */
+@Service
+@Slf4j
+public class TickIngestService {
+
+    /** Source of the tick sequence numbers. */
+    private final StockPriceService stockPriceService;
+
+    /** Publishes the ticks. */
+    private final StockPriceProducer producer;
+
+    /** Table of the simulated symbols. */
+    private final SymbolUniverse universe;
+
+    /** Bulk publish configuration. */
+    private final IngestProperties properties;
+
+    /** Creates the streaming JSON parsers. */
+    private final JsonFactory jsonFactory;
+
+    /** Ticks handed to the producer. */
+    private final Counter acceptedTicks;
+
+    /** Records skipped as invalid. */
+    private final Counter rejectedTicks;
+
+    /** Ticks not published because of backpressure. */
+    private final Counter throttledTicks;
+
+    /**
+     * Creates the service.
+     *
+     * @param stockPriceService source of the tick sequence numbers.
+     * @param producer          publishes the ticks.
+     * @param universe          the symbol universe.
+     * @param properties        the bulk publish configuration.
+     * @param objectMapper      the JSON mapper, for its parser factory.
+     * @param meterRegistry     registry for ingest metrics.
+     */
+    public TickIngestService(StockPriceService stockPriceService,
+                             StockPriceProducer producer,
+                             SymbolUniverse universe,
+                             IngestProperties properties,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.stockPriceService = stockPriceService;
+        this.producer = producer;
+        this.universe = universe;
+        this.properties = properties;
+        this.jsonFactory = objectMapper.getFactory();
+        this.acceptedTicks = meterRegistry.counter("stock.ingest.accepted");
+        this.rejectedTicks = meterRegistry.counter("stock.ingest.rejected");
+        this.throttledTicks = meterRegistry.counter("stock.ingest.throttled");
+    }
+
+    /**
+     * Returns whether the producer's send window is full, so a request would be throttled at once.
+     *
+     * @return {@code true} under backpressure.
+     */
+    public boolean isBackpressured() {
+        return producer.isBackpressured();
+    }
+
+    /**
+     * Publishes prices read from a JSON array of objects or from newline-delimited objects.
+     * <p>
+     * Each object needs a {@code symbol} and a positive {@code price}; an optional
+     * {@code timestamp} is epoch milliseconds, an ISO-8601 instant or a local date-time in
+     * the server's zone, as accepted by {@code /publish}. Other fields are ignored.
+     * </p>
+     *
+     * @param body the request body.
+     * @return the counts of accepted and rejected records.
+     * @throws IOException if the body cannot be read.
+     */
+    public PublishBatchResult publishJson(InputStream body) throws IOException {
+        Batch batch = new Batch(properties.getBatchSize());
+        long index = 0;
+        boolean inArray = false;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (!inArray && token == JsonToken.START_ARRAY && index == 0) {
+                    inArray = true;
+                    continue;
+                }
+                if (inArray && token == JsonToken.END_ARRAY) {
+                    inArray = false;
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    batch.rejected++;
+                } else if (!readObject(parser, batch, index)) {
+                    batch.rejected++;
+                }
+                index++;
+                if (batch.isFull() && !batch.flush()) {
+                    return batch.result(null);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return batch.flush() ? batch.result("Malformed JSON at record " + index + ": " + e.getOriginalMessage())
+                    : batch.result(null);
+        }
+        batch.flush();
+        return batch.result(null);
+    }
+
+    /**
+     * Publishes ticks read from a sequence of {@link TickCodec} version 1 records.
+     * <p>
+     * Symbol ids must belong to the universe. Prices and timestamps are kept; sequence
+     * numbers are assigned anew.
+     * </p>
+     *
+     * @param body the request body.
+     * @return the counts of accepted and rejected records.
+     * @throws IOException if the body cannot be read.
+     */
+    public PublishBatchResult publishBinary(InputStream body) throws IOException {
+        Batch batch = new Batch(properties.getBatchSize());
+        byte[] chunk = new byte[TickCodec.V1_SIZE * 1024];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        long index = 0;
+        int read;
+        while ((read = body.readNBytes(chunk, 0, chunk.length)) > 0) {
+            int records = read / TickCodec.V1_SIZE;
+            for (int i = 0; i < records; i++, index++) {
+                buffer.limit((i + 1) * TickCodec.V1_SIZE).position(i * TickCodec.V1_SIZE);
+                try {
+                    StockTick tick = TickCodec.decode(buffer, null);
+                    int symbolId = tick.symbolId();
+                    if (symbolId >= 0 && symbolId < universe.size() && tick.price() > 0) {
+                        batch.add(symbolId, universe.symbol(symbolId), tick.price(), tick.epochNanos(), index);
+                    } else {
+                        batch.rejected++;
+                    }
+                } catch (SerializationException e) {
+                    batch.rejected++;
+                }
+                if (batch.isFull() && !batch.flush()) {
+                    return batch.result(null);
+                }
+            }
+            if (read % TickCodec.V1_SIZE != 0) {
+                return batch.flush() ? batch.result("Truncated record " + index + ": " + read % TickCodec.V1_SIZE
+                        + " of " + TickCodec.V1_SIZE + " bytes") : batch.result(null);
+            }
+        }
+        batch.flush();
+        return batch.result(null);
+    }
+
+    /**
+     * Reads one price object, positioned at its start, into the batch.
+     *
+     * @return {@code false} if the record is invalid.
+     */
+    private boolean readObject(JsonParser parser, Batch batch, long index) throws IOException {
+        String symbol = null;
+        double price = Double.NaN;
+        long epochNanos = -1;
+        boolean valid = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "symbol" -> symbol = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "price" -> price = value.isNumeric() ? parser.getDoubleValue() : Double.NaN;
+                case "timestamp" -> {
+                    epochNanos = parseTimestamp(parser, value);
+                    valid &= epochNanos != Long.MIN_VALUE;
+                }
+                default -> {
+                    // Ignored
+                }
+            }
+            parser.skipChildren();
+        }
+        if (!valid || symbol == null || symbol.isEmpty() || !(price > 0) || Double.isInfinite(price)) {
+            return false;
+        }
+        if (epochNanos == -1) {
+            epochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        }
+        batch.add(universe.id(symbol), symbol, price, epochNanos, index);
+        return true;
+    }
+
+    /**
+     * Parses a timestamp value.
+     *
+     * @return the epoch nanos, -1 for {@code null}, or {@link Long#MIN_VALUE} if invalid.
+     */
+    private static long parseTimestamp(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return -1;
+        }
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return TimeUnit.MILLISECONDS.toNanos(parser.getLongValue());
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            return Long.MIN_VALUE;
+        }
+        String text = parser.getText();
+        try {
+            Instant instant = text.endsWith("Z") || text.matches(".*[+-]\\d\\d:\\d\\d$")
+                    ? Instant.parse(text)
+                    : LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant();
+            return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Ticks of one request collected between producer hand-offs, and the request's counts.
+     */
+    private final class Batch {
+
+        private final int[] symbolIds;
+        private final String[] symbols;
+        private final double[] prices;
+        private final long[] epochNanos;
+        private final long[] indices;
+        private final StockTick[] ticks;
+        private int size;
+        private long accepted;
+        private long rejected;
+        private long resumeAt = -1;
+
+        Batch(int capacity) {
+            int slots = Math.max(1, capacity);
+            this.symbolIds = new int[slots];
+            this.symbols = new String[slots];
+            this.prices = new double[slots];
+            this.epochNanos = new long[slots];
+            this.indices = new long[slots];
+            this.ticks = new StockTick[slots];
+        }
+
+        void add(int symbolId, String symbol, double price, long nanos, long index) {
+            symbolIds[size] = symbolId;
+            symbols[size] = symbol;
+            prices[size] = price;
+            epochNanos[size] = nanos;
+            indices[size] = index;
+            size++;
+        }
+
+        boolean isFull() {
+            return size == ticks.length;
+        }
+
+        /**
+         * Hands the collected ticks to the producer.
+         *
+         * @return {@code false} if the producer took only part of them.
+         */
+        boolean flush() {
+            if (size == 0) {
+                return true;
+            }
+            long sequence = stockPriceService.reserveSequences(size);
+            for (int i = 0; i < size; i++) {
+                ticks[i] = new StockTick(symbolIds[i], symbols[i], prices[i], epochNanos[i], sequence + i);
+            }
+            int sent = producer.trySend(ticks, size);
+            accepted += sent;
+            if (sent < size) {
+                resumeAt = indices[sent];
+                throttledTicks.increment(size - sent);
+            }
+            Arrays.fill(ticks, 0, size, null);
+            Arrays.fill(symbols, 0, size, null);
+            size = 0;
+            return resumeAt < 0;
+        }
+
+        PublishBatchResult result(String error) {
+            acceptedTicks.increment(accepted);
+            rejectedTicks.increment(rejected);
+            return new PublishBatchResult(accepted, rejected, resumeAt, error);
+        }
+    }
+
+}
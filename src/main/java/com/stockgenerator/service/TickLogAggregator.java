@@ -0,0 +1,142 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.config.TickLoggingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replaces per-tick INFO logging with one summary per interval.
+ * <p>
+ * Generation shards report their tick count, price range and failures once per cycle;
+ * every {@code stock.logging.summary-interval} the totals are logged in a single line
+ * and reset. A few ticks and failures per interval are logged individually as samples,
+ * so the log volume no longer grows with the tick rate.
+ * </p>
+ */
+@Component
+@Slf4j
+public class TickLogAggregator {
+
+    /** Logging configuration. */
+    private final TickLoggingProperties properties;
+
+    /** Ticks generated in the current interval. */
+    private final LongAdder ticks = new LongAdder();
+
+    /** Ticks that failed in the current interval. */
+    private final LongAdder errors = new LongAdder();
+
+    /** Raw bits of the lowest price of the current interval. */
+    private final AtomicLong minPriceBits = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+
+    /** Raw bits of the highest price of the current interval. */
+    private final AtomicLong maxPriceBits = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+    /** Tick samples still allowed in the current interval. */
+    private final AtomicInteger samplesLeft = new AtomicInteger();
+
+    /** Failure logs still allowed in the current interval. */
+    private final AtomicInteger errorsLeft = new AtomicInteger();
+
+    /** {@link System#nanoTime()} at the start of the current interval. */
+    private volatile long intervalStart = System.nanoTime();
+
+    /**
+     * Creates the aggregator.
+     *
+     * @param properties the logging configuration.
+     */
+    public TickLogAggregator(TickLoggingProperties properties) {
+        this.properties = properties;
+        samplesLeft.set(properties.getSamplesPerInterval());
+        errorsLeft.set(properties.getErrorsPerInterval());
+    }
+
+    /**
+     * Adds the outcome of one shard's cycle to the current interval.
+     *
+     * @param count    the number of ticks generated.
+     * @param minPrice the lowest generated price.
+     * @param maxPrice the highest generated price.
+     * @param failed   the number of ticks that failed.
+     */
+    public void record(int count, double minPrice, double maxPrice, int failed) {
+        if (count == 0) {
+            return;
+        }
+        ticks.add(count);
+        if (failed > 0) {
+            errors.add(failed);
+        }
+        minPriceBits.accumulateAndGet(Double.doubleToRawLongBits(minPrice),
+                (current, candidate) -> Double.longBitsToDouble(candidate) < Double.longBitsToDouble(current) ? candidate : current);
+        maxPriceBits.accumulateAndGet(Double.doubleToRawLongBits(maxPrice),
+                (current, candidate) -> Double.longBitsToDouble(candidate) > Double.longBitsToDouble(current) ? candidate : current);
+    }
+
+    /**
+     * Logs a tick if the sample budget of the current interval allows it.
+     *
+     * @param symbol the stock symbol.
+     * @param price  the generated price.
+     */
+    public void sample(String symbol, double price) {
+        if (samplesLeft.get() > 0 && samplesLeft.getAndDecrement() > 0 && log.isInfoEnabled()) {
+            log.info("Sampled stock price: {} {}", symbol, price);
+        }
+    }
+
+    /**
+     * Logs a failed tick with its stack trace if the error budget of the current interval allows it.
+     * The failure must also be counted through {@link #record}.
+     *
+     * @param symbol the stock symbol.
+     * @param error  the failure.
+     */
+    public void error(String symbol, Exception error) {
+        if (errorsLeft.get() > 0 && errorsLeft.getAndDecrement() > 0) {
+            log.error("Error occurred while generating stock price for {}: {}", symbol, error.getMessage(), error);
+        }
+    }
+
+    /**
+     * Logs the totals of the interval that just ended and starts a new one.
+     */
+    @Scheduled(fixedRateString = "${stock.logging.summary-interval:10000}",
+            initialDelayString = "${stock.logging.summary-interval:10000}")
+    public void logSummary() {
+        long now = System.nanoTime();
+        long elapsedMs = (now - intervalStart) / 1_000_000;
+        intervalStart = now;
+        long count = ticks.sumThenReset();
+        long failed = errors.sumThenReset();
+        double min = Double.longBitsToDouble(minPriceBits.getAndSet(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY)));
+        double max = Double.longBitsToDouble(maxPriceBits.getAndSet(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY)));
+        int errorsLogged = properties.getErrorsPerInterval() - Math.max(0, errorsLeft.getAndSet(properties.getErrorsPerInterval()));
+        long suppressed = Math.max(0, failed - errorsLogged);
+        samplesLeft.set(properties.getSamplesPerInterval());
+        if (count == 0) {
+            return;
+        }
+        if (failed > 0) {
+            log.warn("Generated {} ticks in {} ms ({} ticks/s), prices {} - {}, {} failed ({} not logged)",
+                    count, elapsedMs, ratePerSecond(count, elapsedMs), min, max, failed, suppressed);
+        } else {
+            log.info("Generated {} ticks in {} ms ({} ticks/s), prices {} - {}",
+                    count, elapsedMs, ratePerSecond(count, elapsedMs), min, max);
+        }
+    }
+
+    /**
+     * Returns {@code count} per second over {@code elapsedMs}.
+     */
+    private static long ratePerSecond(long count, long elapsedMs) {
+        return elapsedMs > 0 ? count * 1000 / elapsedMs : count;
+    }
+
+}
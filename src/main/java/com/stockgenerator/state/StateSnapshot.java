@@ -0,0 +1,223 @@
+package com.stockgenerator.state;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot file of the records of a {@link SymbolStateStore}.
+ * <p>
+ * A snapshot is a {@value #HEADER_SIZE}-byte header followed by the store's records
+ * byte for byte, in native order:
+ * </p>
+ * <pre>
+ *  0 magic           long    "SPGSNAP1"
+ *  8 format version  int
+ * 12 stride          int     bytes per record
+ * 16 symbol count    int
+ * 20 (reserved)
+ * 24 fingerprint     long    {@code SymbolUniverse.fingerprint()} of the universe
+ * 32 next sequence   long    next tick sequence number when the snapshot was taken
+ * 40 created         long    epoch milliseconds
+ * 48 checksum        long    CRC-32C of the records
+ * 56 resume sequence long    first tick sequence number to hand out after a restore
+ * </pre>
+ * <p>
+ * Snapshots are written to a temporary file and moved over the previous one, so the file
+ * always holds a complete snapshot. Restoring maps the file and copies the records into
+ * the store in one bulk read. A snapshot is a single buffer, so it covers at most
+ * {@value #MAX_SYMBOLS} symbols.
+ * </p>
+ */
+@Slf4j
+public final class StateSnapshot {
+
+    /** Size of the header. */
+    public static final int HEADER_SIZE = 64;
+
+    /** Largest universe a snapshot holds: 2 GB of records. */
+    public static final int MAX_SYMBOLS = (Integer.MAX_VALUE - HEADER_SIZE) / SymbolStateStore.STRIDE;
+
+    /** "SPGSNAP1" in ASCII. */
+    static final long MAGIC = 0x5350_4753_4E41_5031L;
+
+    /** Current format version. */
+    static final int FORMAT_VERSION = 1;
+
+    private static final int VERSION_OFFSET = 8;
+    private static final int STRIDE_OFFSET = 12;
+    private static final int SYMBOLS_OFFSET = 16;
+    private static final int FINGERPRINT_OFFSET = 24;
+    private static final int SEQUENCE_OFFSET = 32;
+    private static final int CREATED_OFFSET = 40;
+    private static final int CHECKSUM_OFFSET = 48;
+    private static final int RESUME_SEQUENCE_OFFSET = 56;
+
+    /** The snapshot file. */
+    private final Path file;
+
+    /** Fingerprint of the universe the snapshot belongs to. */
+    private final long fingerprint;
+
+    /** First tick sequence number to hand out after the restored snapshot, -1 before a restore. */
+    private long restoredSequence = -1;
+
+    /**
+     * Creates the snapshot file handle of a universe.
+     *
+     * @param file        the snapshot file.
+     * @param fingerprint the universe's fingerprint; snapshots of other universes are not restored.
+     */
+    public StateSnapshot(Path file, long fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the snapshot file.
+     *
+     * @return the file.
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Returns the first tick sequence number to hand out after the restored snapshot: its
+     * resume sequence, and never less than the next sequence number when it was taken.
+     *
+     * @return the sequence, or -1 if nothing was restored.
+     */
+    public long restoredSequence() {
+        return restoredSequence;
+    }
+
+    /**
+     * Loads the snapshot into a store if the file exists and matches it. A missing,
+     * foreign or damaged file leaves the store untouched, for a cold start.
+     *
+     * @param store the store to restore.
+     * @return {@code true} if the store was restored.
+     */
+    public boolean restore(SymbolStateStore store) {
+        if (!Files.isRegularFile(file)) {
+            log.info("No state snapshot at {}, starting cold", file);
+            return false;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return reject("size " + size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.nativeOrder());
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(VERSION_OFFSET) != FORMAT_VERSION
+                    || buffer.getInt(STRIDE_OFFSET) != SymbolStateStore.STRIDE) {
+                return reject("unknown format");
+            }
+            int symbols = buffer.getInt(SYMBOLS_OFFSET);
+            if (symbols != store.size() || buffer.getLong(FINGERPRINT_OFFSET) != fingerprint) {
+                return reject("taken of another universe of " + symbols + " symbols");
+            }
+            if (size != HEADER_SIZE + store.bytes()) {
+                return reject("size " + size);
+            }
+            ByteBuffer records = buffer.slice(HEADER_SIZE, (int) store.bytes()).order(ByteOrder.nativeOrder());
+            if (checksum(records) != buffer.getLong(CHECKSUM_OFFSET)) {
+                return reject("checksum mismatch");
+            }
+            store.load(records);
+            restoredSequence = Math.max(buffer.getLong(SEQUENCE_OFFSET), buffer.getLong(RESUME_SEQUENCE_OFFSET));
+            log.info("Restored state of {} symbols from {} taken at {} in {} ms", symbols, file,
+                    Instant.ofEpochMilli(buffer.getLong(CREATED_OFFSET)),
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            return reject(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a snapshot that resumes at its next tick sequence number, replacing the previous one atomically.
+     *
+     * @param records      the records of every symbol, from position 0 to the buffer's limit.
+     * @param nextSequence the next tick sequence number.
+     * @param sync         whether to force the file to disk before it replaces the previous one.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(ByteBuffer records, long nextSequence, boolean sync) throws IOException {
+        write(records, nextSequence, nextSequence, sync);
+    }
+
+    /**
+     * Writes a snapshot, replacing the previous one atomically.
+     *
+     * @param records        the records of every symbol, from position 0 to the buffer's limit.
+     * @param nextSequence   the next tick sequence number.
+     * @param resumeSequence the first tick sequence number to hand out after a restore, above
+     *                       any number that may be handed out before the next snapshot.
+     * @param sync           whether to force the file to disk before it replaces the previous one.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(ByteBuffer records, long nextSequence, long resumeSequence, boolean sync) throws IOException {
+        ByteBuffer body = records.duplicate().position(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder())
+                .putLong(0, MAGIC)
+                .putInt(VERSION_OFFSET, FORMAT_VERSION)
+                .putInt(STRIDE_OFFSET, SymbolStateStore.STRIDE)
+                .putInt(SYMBOLS_OFFSET, body.remaining() / SymbolStateStore.STRIDE)
+                .putLong(FINGERPRINT_OFFSET, fingerprint)
+                .putLong(SEQUENCE_OFFSET, nextSequence)
+                .putLong(CREATED_OFFSET, System.currentTimeMillis())
+                .putLong(CHECKSUM_OFFSET, checksum(body))
+                .putLong(RESUME_SEQUENCE_OFFSET, resumeSequence);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, body};
+            while (body.hasRemaining() || header.hasRemaining()) {
+                channel.write(parts);
+            }
+            if (sync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Logs why a snapshot is not restored.
+     *
+     * @return {@code false}.
+     */
+    private boolean reject(String reason) {
+        log.warn("Ignoring state snapshot {}: {}; starting cold", file, reason);
+        return false;
+    }
+
+    /**
+     * Returns the CRC-32C of a buffer's remaining bytes, without moving its position.
+     */
+    private static long checksum(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.duplicate());
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,375 @@
+package com.stockgenerator.state;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap store of the per-symbol state of a universe, in fixed-stride records.
+ * <p>
+ * Symbol {@code i} owns the {@value #STRIDE}-byte record at byte {@code i * 64}, one cache
+ * line holding its price path state and its last published value:
+ * </p>
+ * <pre>
+ *  0 price           double  engine price
+ *  8 anchor          double  engine reference price
+ * 16 sequence        long    engine steps taken
+ * 24 random state    long    SplitMix64 stream state
+ * 32 version         long    sequence lock of the last value: 0 empty, odd while written
+ * 40 last price      double  last published price
+ * 48 last timestamp  long    epoch milliseconds of the last published price
+ * 56 (reserved)
+ * </pre>
+ * <p>
+ * Records live in direct or memory-mapped buffers of at most {@value #RECORDS_PER_CHUNK}
+ * records each, so the heap holds a handful of buffer objects whatever the universe size
+ * and the state costs the garbage collector nothing. A mapped store writes through to its
+ * file and the page cache. Accessors take no lock; as with the heap arrays they replace,
+ * callers ensure a single writer per field and order reads through the version field.
+ * </p>
+ */
+public final class SymbolStateStore {
+
+    /** Bytes per symbol record. */
+    public static final int STRIDE = 64;
+
+    /** Records per buffer: 1 GB chunks, a power of two so addressing is a shift and a mask. */
+    static final int RECORDS_PER_CHUNK = 1 << 24;
+
+    private static final int CHUNK_SHIFT = 24;
+
+    private static final int CHUNK_MASK = RECORDS_PER_CHUNK - 1;
+
+    private static final int PRICE = 0;
+    private static final int ANCHOR = 8;
+    private static final int SEQUENCE = 16;
+    private static final int RANDOM_STATE = 24;
+    private static final int VERSION = 32;
+    private static final int LAST_PRICE = 40;
+    private static final int LAST_TIMESTAMP = 48;
+
+    /** 8-byte long view of the buffers, supporting atomic access modes on aligned offsets. */
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** 8-byte double view of the buffers. */
+    private static final VarHandle DOUBLES =
+            MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.nativeOrder());
+
+    /** Record buffers, each but the last holding {@link #RECORDS_PER_CHUNK} records. */
+    private final ByteBuffer[] chunks;
+
+    /** Number of records. */
+    private final int size;
+
+    /** Backing file, or {@code null} for anonymous memory. */
+    private final Path file;
+
+    /** Whether the records were loaded from a snapshot rather than initialized. */
+    private boolean restored;
+
+    private SymbolStateStore(ByteBuffer[] chunks, int size, Path file) {
+        this.chunks = chunks;
+        this.size = size;
+        this.file = file;
+    }
+
+    /**
+     * Allocates a zeroed store in direct memory.
+     *
+     * @param symbolCount the number of symbols.
+     * @return the store.
+     */
+    public static SymbolStateStore allocate(int symbolCount) {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(symbolCount)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkRecords(symbolCount, i) * STRIDE);
+        }
+        return new SymbolStateStore(chunks, symbolCount, null);
+    }
+
+    /**
+     * Creates a zeroed store mapped to a file, replacing the file's content.
+     *
+     * @param file        the backing file; its directory is created if needed.
+     * @param symbolCount the number of symbols.
+     * @return the store.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public static SymbolStateStore map(Path file, int symbolCount) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount(symbolCount)];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * RECORDS_PER_CHUNK * STRIDE,
+                        (long) chunkRecords(symbolCount, i) * STRIDE);
+            }
+            return new SymbolStateStore(chunks, symbolCount, file);
+        }
+    }
+
+    /**
+     * Returns the number of symbol records.
+     *
+     * @return the symbol count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the off-heap bytes held by the store.
+     *
+     * @return the record bytes.
+     */
+    public long bytes() {
+        return (long) size * STRIDE;
+    }
+
+    /**
+     * Returns the backing file.
+     *
+     * @return the file, or {@code null} for anonymous memory.
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Returns whether the records were loaded by {@link #load(ByteBuffer)}, so their
+     * owners resume from them instead of initializing them.
+     *
+     * @return {@code true} after a restore.
+     */
+    public boolean restored() {
+        return restored;
+    }
+
+    /**
+     * Copies the records of a range of symbols into a buffer holding the records of the
+     * whole universe, at their own byte offsets. Concurrent copies of disjoint ranges are safe.
+     *
+     * @param from   the first symbol id.
+     * @param to     the end of the id range, exclusive.
+     * @param target the buffer; record {@code i} goes to byte {@code i * 64} whatever its position.
+     */
+    public void copyTo(int from, int to, ByteBuffer target) {
+        int id = from;
+        while (id < to) {
+            int end = (int) Math.min(to, ((long) (id >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT);
+            target.put(Math.toIntExact((long) id * STRIDE), chunk(id), offset(id), (end - id) * STRIDE);
+            id = end;
+        }
+    }
+
+    /**
+     * Replaces every record with the records of a buffer, as written by {@link #copyTo},
+     * and marks the store {@link #restored()}. Last values caught mid-write keep their
+     * fields and have their version made even, so readers do not wait on them.
+     *
+     * @param source the records of all {@link #size()} symbols, from its position on.
+     * @throws IllegalArgumentException if the buffer holds fewer bytes than the store.
+     */
+    public void load(ByteBuffer source) {
+        if (source.remaining() < bytes()) {
+            throw new IllegalArgumentException("Snapshot holds " + source.remaining() + " bytes, not " + bytes());
+        }
+        for (int i = 0; i < chunks.length; i++) {
+            int position = Math.toIntExact(source.position() + (long) i * RECORDS_PER_CHUNK * STRIDE);
+            chunks[i].put(0, source, position, chunks[i].capacity());
+        }
+        for (int id = 0; id < size; id++) {
+            long version = version(id);
+            if ((version & 1) != 0) {
+                LONGS.set(chunk(id), offset(id) + VERSION, version + 1);
+            }
+        }
+        restored = true;
+    }
+
+    /**
+     * Returns the engine price of a symbol.
+     *
+     * @param id the symbol id.
+     * @return the price.
+     */
+    public double price(int id) {
+        return (double) DOUBLES.get(chunk(id), offset(id) + PRICE);
+    }
+
+    /**
+     * Sets the engine price of a symbol.
+     *
+     * @param id    the symbol id.
+     * @param price the price.
+     */
+    public void setPrice(int id, double price) {
+        DOUBLES.set(chunk(id), offset(id) + PRICE, price);
+    }
+
+    /**
+     * Returns the reference price of a symbol.
+     *
+     * @param id the symbol id.
+     * @return the anchor.
+     */
+    public double anchor(int id) {
+        return (double) DOUBLES.get(chunk(id), offset(id) + ANCHOR);
+    }
+
+    /**
+     * Sets the reference price of a symbol.
+     *
+     * @param id     the symbol id.
+     * @param anchor the anchor.
+     */
+    public void setAnchor(int id, double anchor) {
+        DOUBLES.set(chunk(id), offset(id) + ANCHOR, anchor);
+    }
+
+    /**
+     * Returns the number of engine steps a symbol has taken.
+     *
+     * @param id the symbol id.
+     * @return the sequence.
+     */
+    public long sequence(int id) {
+        return (long) LONGS.get(chunk(id), offset(id) + SEQUENCE);
+    }
+
+    /**
+     * Sets the number of engine steps a symbol has taken.
+     *
+     * @param id       the symbol id.
+     * @param sequence the sequence.
+     */
+    public void setSequence(int id, long sequence) {
+        LONGS.set(chunk(id), offset(id) + SEQUENCE, sequence);
+    }
+
+    /**
+     * Returns the random stream state of a symbol.
+     *
+     * @param id the symbol id.
+     * @return the state.
+     */
+    public long randomState(int id) {
+        return (long) LONGS.get(chunk(id), offset(id) + RANDOM_STATE);
+    }
+
+    /**
+     * Sets the random stream state of a symbol.
+     *
+     * @param id    the symbol id.
+     * @param state the state.
+     */
+    public void setRandomState(int id, long state) {
+        LONGS.set(chunk(id), offset(id) + RANDOM_STATE, state);
+    }
+
+    /**
+     * Reads the last-value version of a symbol with acquire semantics.
+     *
+     * @param id the symbol id.
+     * @return the version.
+     */
+    public long versionAcquire(int id) {
+        return (long) LONGS.getAcquire(chunk(id), offset(id) + VERSION);
+    }
+
+    /**
+     * Reads the last-value version of a symbol without ordering, to validate a read or as its writer.
+     *
+     * @param id the symbol id.
+     * @return the version.
+     */
+    public long version(int id) {
+        return (long) LONGS.get(chunk(id), offset(id) + VERSION);
+    }
+
+    /**
+     * Writes the last-value version of a symbol with opaque semantics, to open a write.
+     *
+     * @param id      the symbol id.
+     * @param version the odd version.
+     */
+    public void setVersionOpaque(int id, long version) {
+        LONGS.setOpaque(chunk(id), offset(id) + VERSION, version);
+    }
+
+    /**
+     * Writes the last-value version of a symbol with release semantics, to publish a write.
+     *
+     * @param id      the symbol id.
+     * @param version the even version.
+     */
+    public void setVersionRelease(int id, long version) {
+        LONGS.setRelease(chunk(id), offset(id) + VERSION, version);
+    }
+
+    /**
+     * Returns the last published price of a symbol.
+     *
+     * @param id the symbol id.
+     * @return the price.
+     */
+    public double lastPrice(int id) {
+        return (double) DOUBLES.get(chunk(id), offset(id) + LAST_PRICE);
+    }
+
+    /**
+     * Returns the timestamp of the last published price of a symbol.
+     *
+     * @param id the symbol id.
+     * @return the epoch milliseconds.
+     */
+    public long lastTimestamp(int id) {
+        return (long) LONGS.get(chunk(id), offset(id) + LAST_TIMESTAMP);
+    }
+
+    /**
+     * Sets the last published price of a symbol, inside a write opened on its version.
+     *
+     * @param id          the symbol id.
+     * @param price       the price.
+     * @param epochMillis the timestamp in epoch milliseconds.
+     */
+    public void setLast(int id, double price, long epochMillis) {
+        ByteBuffer chunk = chunk(id);
+        int offset = offset(id);
+        DOUBLES.set(chunk, offset + LAST_PRICE, price);
+        LONGS.set(chunk, offset + LAST_TIMESTAMP, epochMillis);
+    }
+
+    /**
+     * Returns the buffer holding a symbol's record.
+     */
+    private ByteBuffer chunk(int id) {
+        return chunks[id >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * Returns the byte offset of a symbol's record in its buffer.
+     */
+    private static int offset(int id) {
+        return (id & CHUNK_MASK) * STRIDE;
+    }
+
+    private static int chunkCount(int symbolCount) {
+        return Math.max(1, (symbolCount + RECORDS_PER_CHUNK - 1) >>> CHUNK_SHIFT);
+    }
+
+    private static int chunkRecords(int symbolCount, int chunk) {
+        return Math.min(RECORDS_PER_CHUNK, symbolCount - chunk * RECORDS_PER_CHUNK);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.stockgenerator.universe;
+
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.engine.SymbolRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous range of symbol ids owned by one generation task.
+ * <p>
+ * A shard is the only writer of its symbols' engine state and has its own random
+ * cursor, so shards run concurrently without sharing locks or mutable state.
+ * </p>
+ *
+ * @param index  the shard index.
+ * @param from   the first symbol id, inclusive.
+ * @param to     the last symbol id, exclusive.
+ * @param random the shard's random cursor over the engine's per-symbol streams.
+ */
+public record SymbolShard(int index, int from, int to, SymbolRandom random) {
+
+    /**
+     * Splits the engine's id range into at most {@code shardCount} shards of near-equal size.
+     *
+     * @param engine     the engine whose symbols are split.
+     * @param shardCount the requested number of shards.
+     * @return the shards, in id order; never more shards than symbols.
+     */
+    public static List<SymbolShard> split(PricePathEngine engine, int shardCount) {
+        int size = engine.size();
+        int count = Math.max(1, Math.min(shardCount, size));
+        List<SymbolShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = (int) ((long) size * i / count);
+            int to = (int) ((long) size * (i + 1) / count);
+            shards.add(new SymbolShard(i, from, to, engine.newRandom()));
+        }
+        return shards;
+    }
+
+    /**
+     * Advances every symbol in this shard by one step.
+     *
+     * @param engine the engine owning the symbols' state.
+     */
+    public void advance(PricePathEngine engine) {
+        engine.advance(from, to, random);
+    }
+
+    /**
+     * Advances every symbol in this shard by one step covering {@code steps} default steps,
+     * so a late tick keeps simulated time in line with wall-clock time.
+     *
+     * @param engine the engine owning the symbols' state.
+     * @param steps  the number of default steps the step covers.
+     */
+    public void advance(PricePathEngine engine, int steps) {
+        if (steps == 1) {
+            advance(engine);
+        } else {
+            engine.advance(from, to, random, engine.timeStep() * steps);
+        }
+    }
+
+    /**
+     * Returns the number of symbols in this shard.
+     *
+     * @return the shard size.
+     */
+    public int size() {
+        return to - from;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.stockgenerator.universe;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Immutable table of the simulated symbols, interned into dense ids {@code 0..size()-1}.
+ * <p>
+ * Ids index every per-symbol array in the generation path, so lookups by id are a plain
+ * array access; lookups by name go through a single hash map built once at startup.
+ * </p>
+ */
+public final class SymbolUniverse {
+
+    /** Symbols indexed by id. */
+    private final String[] symbols;
+
+    /** Ids keyed by symbol. */
+    private final Map<String, Integer> ids;
+
+    /**
+     * Creates a universe from the given symbols; duplicates keep their first id.
+     *
+     * @param symbols the symbols, in id order.
+     */
+    public SymbolUniverse(Collection<String> symbols) {
+        this.symbols = new LinkedHashSet<>(symbols).toArray(String[]::new);
+        this.ids = new HashMap<>(this.symbols.length * 2);
+        for (int i = 0; i < this.symbols.length; i++) {
+            this.symbols[i] = this.symbols[i].intern();
+            ids.put(this.symbols[i], i);
+        }
+    }
+
+    /**
+     * Returns the id of a symbol.
+     *
+     * @param symbol the symbol (e.g. "AAPL").
+     * @return the id, or {@code -1} if the symbol is not part of the universe.
+     */
+    public int id(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the symbol with the given id.
+     *
+     * @param id the symbol id.
+     * @return the symbol.
+     */
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    /**
+     * Returns the number of symbols.
+     *
+     * @return the universe size.
+     */
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * Returns a 64-bit hash of the symbols in id order, identifying the id assignment.
+     *
+     * @return the fingerprint; equal universes have equal fingerprints.
+     */
+    public long fingerprint() {
+        long hash = 0xCBF29CE484222325L;
+        for (String symbol : symbols) {
+            for (int i = 0; i < symbol.length(); i++) {
+                hash = (hash ^ symbol.charAt(i)) * 0x100000001B3L;
+            }
+            // Separator, so "AB","C" and "A","BC" differ
+            hash = (hash ^ 0xFFFF) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,24 @@
+-- Append-only history of every generated tick, partitioned by UTC day.
+CREATE TABLE IF NOT EXISTS stock_price_ticks (
+    symbol VARCHAR(32)      NOT NULL,
+    ts     TIMESTAMPTZ      NOT NULL,
+    seq    BIGINT           NOT NULL,
+    price  DOUBLE PRECISION NOT NULL
+) PARTITION BY RANGE (ts);
+
+-- Serves symbol/time-range scans and (ts, seq) keyset pagination; created on every partition.
+CREATE INDEX IF NOT EXISTS idx_stock_price_ticks_symbol_ts ON stock_price_ticks (symbol, ts, seq);
+
+-- Creates the partition holding one UTC day, if it does not exist yet.
+CREATE OR REPLACE FUNCTION create_stock_price_ticks_partition(day DATE) RETURNS VOID AS
+$$
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_price_ticks FOR VALUES FROM (%L) TO (%L)',
+                   'stock_price_ticks_' || to_char(day, 'YYYYMMDD'),
+                   day::timestamp AT TIME ZONE 'UTC',
+                   (day + 1)::timestamp AT TIME ZONE 'UTC');
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_stock_price_ticks_partition((now() AT TIME ZONE 'UTC')::date + d)
+FROM generate_series(0, 2) AS d;
@@ -0,0 +1,12 @@
+-- Completed OHLCV bars per symbol and interval; volume is the number of ticks in the bar.
+CREATE TABLE IF NOT EXISTS stock_price_bars (
+    symbol           VARCHAR(32)      NOT NULL,
+    interval_seconds INTEGER          NOT NULL,
+    bucket_start     TIMESTAMPTZ      NOT NULL,
+    open             DOUBLE PRECISION NOT NULL,
+    high             DOUBLE PRECISION NOT NULL,
+    low              DOUBLE PRECISION NOT NULL,
+    close            DOUBLE PRECISION NOT NULL,
+    volume           BIGINT           NOT NULL,
+    PRIMARY KEY (symbol, interval_seconds, bucket_start)
+);
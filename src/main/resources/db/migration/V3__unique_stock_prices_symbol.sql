@@ -0,0 +1,15 @@
+-- The latest-price upsert (ON CONFLICT (symbol)) needs a unique key on stock_prices.symbol.
+-- stock_prices is created by Hibernate, so on a fresh database it does not exist yet and gets
+-- the constraint from the entity. An existing table keeps the latest row per symbol and gains
+-- the constraint, unless a constraint or index of that name is already there.
+DO
+$$
+BEGIN
+    IF to_regclass('stock_prices') IS NOT NULL AND to_regclass('uk_stock_prices_symbol') IS NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_stock_prices_symbol') THEN
+        DELETE FROM stock_prices older USING stock_prices newer
+        WHERE older.symbol = newer.symbol AND older.id < newer.id;
+        ALTER TABLE stock_prices ADD CONSTRAINT uk_stock_prices_symbol UNIQUE (symbol);
+    END IF;
+END;
+$$;
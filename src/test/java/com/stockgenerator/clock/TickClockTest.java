@@ -0,0 +1,114 @@
+package com.stockgenerator.clock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TickClock}: sub-millisecond rates and the handling of overruns.
+ */
+class TickClockTest {
+
+    private static final Duration PERIOD = Duration.ofMillis(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * A clock ticks at sub-millisecond periods and records its lateness.
+     */
+    @Test
+    void testSubMillisecondPeriod() throws InterruptedException {
+        CountDownLatch ticked = new CountDownLatch(200);
+        try (TickClock clock = new TickClock("test", Duration.ofNanos(100_000), OverrunPolicy.SKIP,
+                Duration.ofNanos(50_000), 0, periods -> ticked.countDown(), meterRegistry)) {
+            clock.start();
+            assertTrue(ticked.await(5, TimeUnit.SECONDS));
+        }
+        assertTrue(meterRegistry.get("stock.clock.lateness").tag("clock", "test").timer().count() >= 200);
+    }
+
+    /**
+     * Periods below a microsecond are rejected.
+     */
+    @Test
+    void testRejectsNanosecondPeriod() {
+        assertThrows(IllegalArgumentException.class, () -> new TickClock("test", Duration.ofNanos(500),
+                OverrunPolicy.SKIP, Duration.ZERO, 0, periods -> { }, meterRegistry));
+    }
+
+    /**
+     * SKIP drops the deadlines missed by a long tick; every tick covers a single period.
+     */
+    @Test
+    void testSkipDropsMissedDeadlines() throws InterruptedException {
+        List<Integer> periods = runWithOverrun(OverrunPolicy.SKIP, 0);
+
+        assertTrue(periods.stream().allMatch(p -> p == 1));
+        assertTrue(count("stock.clock.skipped") >= 10);
+        assertEquals(0, count("stock.clock.coalesced"));
+    }
+
+    /**
+     * COALESCE runs one tick covering all periods missed by a long tick.
+     */
+    @Test
+    void testCoalesceFoldsMissedDeadlines() throws InterruptedException {
+        List<Integer> periods = runWithOverrun(OverrunPolicy.COALESCE, 0);
+
+        assertTrue(periods.get(1) >= 10, "second tick covers the overrun: " + periods);
+        assertTrue(count("stock.clock.coalesced") >= 10);
+        assertEquals(0, count("stock.clock.skipped"));
+    }
+
+    /**
+     * CATCH_UP runs missed ticks back to back, up to the limit, and skips the rest.
+     */
+    @Test
+    void testCatchUpReplaysMissedDeadlinesUpToLimit() throws InterruptedException {
+        List<Integer> periods = runWithOverrun(OverrunPolicy.CATCH_UP, 5);
+
+        assertTrue(periods.stream().allMatch(p -> p == 1));
+        assertTrue(count("stock.clock.skipped") >= 5);
+        assertEquals(0, count("stock.clock.coalesced"));
+    }
+
+    /**
+     * Runs a 1 ms clock whose first tick takes 20 ms and returns the periods of the first ticks.
+     */
+    private List<Integer> runWithOverrun(OverrunPolicy policy, int maxCatchUp) throws InterruptedException {
+        List<Integer> periods = new CopyOnWriteArrayList<>();
+        CountDownLatch ticked = new CountDownLatch(10);
+        try (TickClock clock = new TickClock("test", PERIOD, policy, Duration.ofNanos(50_000), maxCatchUp,
+                p -> {
+                    periods.add(p);
+                    if (periods.size() == 1) {
+                        sleep(20);
+                    }
+                    ticked.countDown();
+                }, meterRegistry)) {
+            clock.start();
+            assertTrue(ticked.await(5, TimeUnit.SECONDS));
+        }
+        return periods;
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag("clock", "test").counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
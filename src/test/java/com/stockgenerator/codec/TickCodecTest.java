@@ -0,0 +1,47 @@
+package com.stockgenerator.codec;
+
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.universe.SymbolUniverse;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify the binary tick format round-trips and rejects payloads it cannot read.
+ */
+class TickCodecTest {
+
+    /**
+     * Tests that a tick survives serialization with its symbol resolved from the universe.
+     */
+    @Test
+    void testRoundTrip() {
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG"));
+        StockTick tick = new StockTick(1, "GOOG", 2801.37, 1_739_786_405_123_456_789L, 42L);
+
+        byte[] payload = new StockTickSerializer().serialize("stock-price-topic", tick);
+
+        assertEquals(TickCodec.V1_SIZE, payload.length);
+        assertEquals(TickCodec.VERSION_1, payload[0]);
+        assertEquals(tick, new StockTickDeserializer(universe::symbol).deserialize("stock-price-topic", payload));
+        assertNull(new StockTickDeserializer().deserialize("stock-price-topic", payload).symbol());
+    }
+
+    /**
+     * Tests that unknown versions and truncated payloads are refused.
+     */
+    @Test
+    void testRejectsUnreadablePayloads() {
+        byte[] payload = TickCodec.encode(new StockTick(0, "AAPL", 150.0, 1L, 1L));
+
+        byte[] future = payload.clone();
+        future[0] = 2;
+        assertThrows(SerializationException.class, () -> TickCodec.decode(future, null));
+        assertThrows(SerializationException.class, () -> TickCodec.decode(Arrays.copyOf(payload, 20), null));
+    }
+
+}
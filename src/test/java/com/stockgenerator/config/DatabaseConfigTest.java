@@ -0,0 +1,30 @@
+package com.stockgenerator.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that the connections of every enabled background writer are kept from request threads.
+ */
+class DatabaseConfigTest {
+
+    /**
+     * Tests that the write-behind flusher always counts, and the history and bar writers when enabled.
+     */
+    @Test
+    void testBackgroundConnectionsFollowEnabledWriters() {
+        HistoryProperties history = new HistoryProperties();
+        BarProperties bars = new BarProperties();
+        assertEquals(3, DatabaseConfig.backgroundConnections(history, bars));
+
+        bars.setPersist(false);
+        assertEquals(2, DatabaseConfig.backgroundConnections(history, bars));
+
+        bars.setPersist(true);
+        bars.setEnabled(false);
+        history.setEnabled(false);
+        assertEquals(1, DatabaseConfig.backgroundConnections(history, bars));
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.stockgenerator.config;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.model.StockTick;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that producer settings are derived from the selected profile and its overrides.
+ */
+class KafkaConfigTest {
+
+    /**
+     * Tests that explicit settings override the profile and pass-through settings are applied.
+     */
+    @Test
+    void testProfileAndOverrides() {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setProfile(KafkaProducerProperties.Profile.THROUGHPUT);
+        properties.setCompressionType("zstd");
+        properties.getProperties().put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, "60000");
+
+        Map<String, Object> configs = new KafkaConfig(properties).producerConfigs();
+
+        assertEquals(10, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(256 * 1024, configs.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals("60000", configs.get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG));
+        assertEquals(100L, configs.get(ProducerConfig.MAX_BLOCK_MS_CONFIG));
+    }
+
+    /**
+     * Tests that idempotence is refused with more in-flight requests than it can keep ordered.
+     */
+    @Test
+    void testIdempotenceLimitsInFlightRequests() {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setMaxInFlightRequestsPerConnection(6);
+
+        assertThrows(IllegalStateException.class, () -> new KafkaConfig(properties).producerConfigs());
+    }
+
+    /**
+     * Tests that the idempotence check applies to pass-through settings too.
+     */
+    @Test
+    void testIdempotenceCheckedAfterPassThrough() {
+        KafkaProducerProperties inFlight = new KafkaProducerProperties();
+        inFlight.getProperties().put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "10");
+        assertThrows(IllegalStateException.class, () -> new KafkaConfig(inFlight).producerConfigs());
+
+        KafkaProducerProperties idempotence = new KafkaProducerProperties();
+        idempotence.setIdempotence(false);
+        idempotence.setMaxInFlightRequestsPerConnection(10);
+        idempotence.getProperties().put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+        assertThrows(IllegalStateException.class, () -> new KafkaConfig(idempotence).producerConfigs());
+
+        idempotence.getProperties().put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "false");
+        assertEquals(10, new KafkaConfig(idempotence).producerConfigs()
+                .get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+
+    /**
+     * Tests that the payload format is chosen per topic.
+     */
+    @Test
+    void testPayloadFormatPerTopic() {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.getTopicPayloadFormats().put("legacy-topic", KafkaProducerProperties.PayloadFormat.JSON);
+        StockTick tick = new StockTick(0, "AAPL", 150.25, 1_000L, 7L);
+
+        try (Serializer<StockTick> serializer = new KafkaConfig(properties).valueSerializer()) {
+            assertEquals(TickCodec.V1_SIZE, serializer.serialize("stock-price-topic", new RecordHeaders(), tick).length);
+            assertEquals("{\"symbolId\":0,\"symbol\":\"AAPL\",\"price\":150.25,\"epochNanos\":1000,\"sequence\":7}",
+                    new String(serializer.serialize("legacy-topic", new RecordHeaders(), tick)));
+        }
+    }
+
+    /**
+     * Tests that the latest-price topic is compacted.
+     */
+    @Test
+    void testLatestPricesTopicIsCompacted() {
+        NewTopic topic = new KafkaConfig(new KafkaProducerProperties()).latestPricesTopic();
+
+        assertEquals(KafkaConfig.LATEST_TOPIC, topic.name());
+        assertEquals(TopicConfig.CLEANUP_POLICY_COMPACT, topic.configs().get(TopicConfig.CLEANUP_POLICY_CONFIG));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.stockgenerator.controller;
+
+import com.stockgenerator.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verify that the tick pipeline metrics are scraped from {@code /actuator/prometheus}.
+ */
+@SpringBootTest
+@ContextConfiguration(classes = TestConfig.class)
+@AutoConfigureMockMvc(addFilters = false)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Tests that the generation and Kafka send timers are exported with histogram buckets.
+     */
+    @Test
+    void testPipelineMetricsExported() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("stock_generation_cycle_seconds_bucket")))
+                .andExpect(content().string(containsString("stock_generation_ticks_total{")))
+                .andExpect(content().string(containsString("stock_kafka_send_seconds_bucket")))
+                .andExpect(content().string(containsString("stock_scheduler_drift")));
+    }
+
+}
@@ -4,8 +4,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.stockgenerator.config.TestConfig;
 import com.stockgenerator.controller.StockPriceController;
+import com.stockgenerator.feed.PriceFeedDispatcher;
+import com.stockgenerator.feed.PriceSink;
+import com.stockgenerator.model.PriceBar;
+import com.stockgenerator.model.PriceHistoryEntry;
+import com.stockgenerator.model.PublishBatchResult;
 import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockPricePage;
+import com.stockgenerator.service.BarService;
+import com.stockgenerator.service.DatabaseBusyException;
+import com.stockgenerator.service.PriceHistoryService;
 import com.stockgenerator.service.StockPriceService;
+import com.stockgenerator.service.TickIngestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,19 +26,34 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for {@link StockPriceController}.
@@ -39,6 +64,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @ContextConfiguration(classes = TestConfig.class)
 @AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
 class StockPriceControllerTest {
 
     @Autowired
@@ -50,6 +76,18 @@ class StockPriceControllerTest {
     @MockitoBean
     private StockPriceService stockPriceService;
 
+    @MockitoBean
+    private PriceHistoryService priceHistoryService;
+
+    @MockitoBean
+    private BarService barService;
+
+    @MockitoBean
+    private TickIngestService tickIngestService;
+
+    @MockitoBean
+    private PriceFeedDispatcher priceFeedDispatcher;
+
     @Autowired
     @Qualifier("requestMappingHandlerMapping")
     private RequestMappingHandlerMapping handlerMapping;
@@ -84,6 +122,22 @@ class StockPriceControllerTest {
                 .andExpect(content().string("Stock price published successfully"));
     }
 
+    /**
+     * Tests that a stock price the service rejects as invalid is answered with 400.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testPublishInvalidStockPrice() throws Exception {
+        doThrow(new IllegalArgumentException("Invalid price null for AAPL"))
+                .when(stockPriceService).publishStockPrice(any(StockPrice.class));
+
+        mockMvc.perform(post("/api/stocks/publish")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"symbol\":\"AAPL\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid price null for AAPL"));
+    }
+
     /**
      * Tests the endpoint for retrieving a stock price by symbol.
      */
@@ -100,4 +154,214 @@ class StockPriceControllerTest {
                 .andExpect(jsonPath("$.symbol").value("AAPL"));
     }
 
+    /**
+     * Tests that the history endpoint streams rows in the order the service provides them.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    @SuppressWarnings("unchecked")
+    void testGetStockPriceHistory() throws Exception {
+        Instant from = Instant.parse("2025-02-17T10:00:00Z");
+        doAnswer(invocation -> {
+            Consumer<PriceHistoryEntry> consumer = invocation.getArgument(5);
+            consumer.accept(new PriceHistoryEntry("AAPL", from, 1L, 150.75));
+            consumer.accept(new PriceHistoryEntry("AAPL", from.plusSeconds(5), 2L, 151.10));
+            return null;
+        }).when(priceHistoryService).streamHistory(eq("AAPL"), eq(from), any(Instant.class), eq(-1L), anyInt(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/stocks/AAPL/history")
+                        .param("from", from.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].sequence").value(1))
+                .andExpect(jsonPath("$[1].price").value(151.10))
+                .andExpect(jsonPath("$[1].timestamp").value("2025-02-17T10:00:05Z"));
+    }
+
+    /**
+     * Tests that the list endpoint returns one JSON page and the cursor of the next one
+     * when no media type is requested.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testGetAllStockPricesPage() throws Exception {
+        StockPrice stock = new StockPrice(null, "AAPL", 150.75, LocalDateTime.now());
+        when(stockPriceService.getStockPricePage(0, 1)).thenReturn(new StockPricePage(List.of(stock), 1));
+
+        mockMvc.perform(get("/api/stocks").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].symbol").value("AAPL"));
+    }
+
+    /**
+     * Tests that the list endpoint streams one price per line when NDJSON is requested.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    @SuppressWarnings("unchecked")
+    void testStreamAllStockPrices() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<StockPrice> consumer = invocation.getArgument(0);
+            consumer.accept(new StockPrice(null, "AAPL", 150.75, LocalDateTime.now()));
+            consumer.accept(new StockPrice(null, "GOOG", 2800.5, LocalDateTime.now()));
+            return null;
+        }).when(stockPriceService).forEachStockPrice(any());
+
+        MvcResult result = mockMvc.perform(get("/api/stocks").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("GOOG",
+                objectMapper.readTree(lines[1]).get("symbol").asText());
+    }
+
+    /**
+     * Tests that the history endpoint writes one row per line when NDJSON is requested.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testGetStockPriceHistoryNdjson() throws Exception {
+        Instant from = Instant.parse("2025-02-17T10:00:00Z");
+        doAnswer(invocation -> {
+            Consumer<PriceHistoryEntry> consumer = invocation.getArgument(5);
+            consumer.accept(new PriceHistoryEntry("AAPL", from, 1L, 150.75));
+            return null;
+        }).when(priceHistoryService).streamHistory(eq("AAPL"), eq(from), any(Instant.class), eq(-1L), anyInt(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/stocks/AAPL/history")
+                        .param("from", from.toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"symbol\":\"AAPL\",\"timestamp\":\"2025-02-17T10:00:00Z\",\"sequence\":1,\"price\":150.75}\n"));
+    }
+
+    /**
+     * Tests that a busy database is answered with 503 and {@code Retry-After} on the export,
+     * the JSON and NDJSON history and the stored bars.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testDatabaseBusyIsServiceUnavailable() throws Exception {
+        DatabaseBusyException busy = new DatabaseBusyException("All 8 database slots are busy",
+                Duration.ofMillis(1500), null);
+        doThrow(busy).when(stockPriceService).exportStockPrices(any());
+        doThrow(busy).when(priceHistoryService).streamHistory(any(), any(), any(), anyLong(), anyInt(), any());
+        when(barService.supports(Duration.ofMinutes(1))).thenReturn(true);
+        when(barService.storedBars(any(), any(), any(), any(), anyInt())).thenThrow(busy);
+
+        MvcResult export = mockMvc.perform(get("/api/stocks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+
+        for (MediaType accept : List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)) {
+            MvcResult history = mockMvc.perform(get("/api/stocks/AAPL/history")
+                            .param("from", "2025-02-17T10:00:00Z")
+                            .accept(accept))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(history))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"));
+        }
+
+        mockMvc.perform(get("/api/stocks/AAPL/bars").param("from", "2025-02-17T10:00:00Z"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    /**
+     * Tests that the SSE endpoint subscribes the requested symbols and writes prices as events.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testStreamStockPriceUpdates() throws Exception {
+        when(priceFeedDispatcher.subscribe(eq(List.of("AAPL", "GOOG")), any())).thenAnswer(invocation -> {
+            PriceSink sink = invocation.getArgument(1);
+            sink.send(List.of(new StockPrice(null, "AAPL", 150.75, LocalDateTime.now())));
+            return null;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/stocks/stream").param("symbols", "AAPL,GOOG"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.startsWith("event:prices\ndata:[{"), body);
+        assertTrue(body.contains("\"symbol\":\"AAPL\""), body);
+    }
+
+    /**
+     * Tests that recent bars are served from memory and that unknown intervals are rejected.
+     */
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void testGetStockPriceBars() throws Exception {
+        Instant start = Instant.parse("2025-02-17T10:00:00Z");
+        when(barService.supports(Duration.ofMinutes(1))).thenReturn(true);
+        when(barService.recentBars("AAPL", Duration.ofMinutes(1), 2)).thenReturn(List.of(
+                new PriceBar("AAPL", 60, start, 150.0, 151.5, 149.5, 151.0, 42)));
+
+        mockMvc.perform(get("/api/stocks/AAPL/bars").param("interval", "1m").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].intervalSeconds").value(60))
+                .andExpect(jsonPath("$[0].high").value(151.5))
+                .andExpect(jsonPath("$[0].volume").value(42));
+
+        mockMvc.perform(get("/api/stocks/AAPL/bars").param("interval", "7m"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests the bulk publish endpoint, including the 429 returned under backpressure.
+     */
+    @Test
+    void testPublishStockPriceBatch() throws Exception {
+        when(tickIngestService.publishJson(any())).thenReturn(new PublishBatchResult(2, 1, -1, null));
+        when(tickIngestService.publishBinary(any())).thenReturn(new PublishBatchResult(5, 0, 5, null));
+
+        mockMvc.perform(post("/api/stocks/publish/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"symbol\":\"AAPL\",\"price\":1.0}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        mockMvc.perform(post("/api/stocks/publish/batch")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[0]))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.resumeAt").value(5));
+
+        when(tickIngestService.isBackpressured()).thenReturn(true);
+        mockMvc.perform(post("/api/stocks/publish/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.resumeAt").value(0));
+    }
+
 }
@@ -0,0 +1,98 @@
+package com.stockgenerator.engine;
+
+import com.stockgenerator.state.SymbolStateStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FactorModel}.
+ */
+class FactorModelTest {
+
+    /**
+     * Shocks reach the target correlations and keep unit variance.
+     */
+    @Test
+    void testShocksMatchTargetCorrelations() {
+        // Symbols 0 and 1 share sector 0, symbol 2 is in sector 1, symbol 3 in none
+        FactorModel model = new FactorModel(new int[]{0, 0, 1, -1}, 2, 0.3, 0.6, 42L);
+        SymbolStateStore store = SymbolStateStore.allocate(4);
+        SplittableRandom root = new SplittableRandom(7L);
+        for (int i = 0; i < 4; i++) {
+            store.setRandomState(i, root.nextLong());
+        }
+        SymbolRandom random = new SymbolRandom(store);
+        double[] factors = new double[model.factorCount()];
+        double[] common = new double[4];
+        int steps = 200_000;
+        double[][] shocks = new double[4][steps];
+        for (int step = 0; step < steps; step++) {
+            model.draw(step, factors);
+            model.common(0, 4, factors, common);
+            for (int i = 0; i < 4; i++) {
+                shocks[i][step] = model.shock(i, common[i], random.select(i).nextGaussian());
+            }
+        }
+
+        assertEquals(0.6, correlation(shocks[0], shocks[1]), 0.01);
+        assertEquals(0.3, correlation(shocks[0], shocks[2]), 0.01);
+        assertEquals(0.3, correlation(shocks[2], shocks[3]), 0.01);
+        for (double[] symbol : shocks) {
+            assertEquals(1.0, variance(symbol), 0.02);
+        }
+    }
+
+    /**
+     * The same step always yields the same factors.
+     */
+    @Test
+    void testFactorsDependOnlyOnStep() {
+        FactorModel model = new FactorModel(new int[]{0, 1, 2}, 3, 0.2, 0.5, 42L);
+        double[] first = new double[model.factorCount()];
+        double[] second = new double[model.factorCount()];
+        model.draw(17, first);
+        model.draw(18, second);
+        assertFalse(Arrays.equals(first, second));
+        model.draw(17, second);
+        assertArrayEquals(first, second);
+    }
+
+    /**
+     * Correlations outside {@code 0 <= market <= sector < 1} are rejected.
+     */
+    @Test
+    void testRejectsInvalidCorrelations() {
+        assertThrows(IllegalArgumentException.class, () -> new FactorModel(new int[1], 1, 0.5, 0.4, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new FactorModel(new int[1], 1, 0.5, 1.0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new FactorModel(new int[]{3}, 1, 0.1, 0.2, 1L));
+    }
+
+    private static double correlation(double[] x, double[] y) {
+        return covariance(x, y) / Math.sqrt(variance(x) * variance(y));
+    }
+
+    private static double variance(double[] x) {
+        return covariance(x, x);
+    }
+
+    private static double covariance(double[] x, double[] y) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < x.length; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= x.length;
+        meanY /= y.length;
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += (x[i] - meanX) * (y[i] - meanY);
+        }
+        return sum / x.length;
+    }
+
+}
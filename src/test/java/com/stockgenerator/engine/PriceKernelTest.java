@@ -0,0 +1,67 @@
+package com.stockgenerator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the {@link PriceKernel} implementations.
+ */
+class PriceKernelTest {
+
+    /**
+     * The scalar kernel takes the same step as {@link GeometricBrownianMotionModel}.
+     */
+    @Test
+    void testScalarMatchesModel() {
+        double dt = 5.0 / PriceModel.TRADING_SECONDS_PER_YEAR;
+        GeometricBrownianMotionModel model = new GeometricBrownianMotionModel(0.05, 0.3);
+        double[] prices = {100.0, 250.37, 0.01};
+        double[] shocks = {0.5, -1.25, -3.0};
+        double[] expected = new double[3];
+        for (int i = 0; i < 3; i++) {
+            double next = model.next(prices[i], prices[i], shocks[i], dt, null);
+            expected[i] = Math.max(0.01, Math.round(next * 100) / 100.0);
+        }
+
+        PriceKernel.scalar().advance(prices, shocks, 0, 3, (0.05 - 0.5 * 0.3 * 0.3) * dt, 0.3 * Math.sqrt(dt), 0.01);
+
+        assertArrayEquals(expected, prices);
+    }
+
+    /**
+     * The vector kernel agrees with the scalar one to within a tick, for any range, and
+     * leaves prices outside the range untouched.
+     */
+    @Test
+    void testVectorMatchesScalar() {
+        assumeTrue(PriceKernel.vectorAvailable());
+        PriceKernel vector = PriceKernel.best();
+        assertNotSame(PriceKernel.scalar(), vector);
+
+        SplittableRandom random = new SplittableRandom(3L);
+        int size = 1037;
+        double[] scalarPrices = new double[size];
+        double[] shocks = new double[size];
+        for (int i = 0; i < size; i++) {
+            scalarPrices[i] = Math.round((1 + random.nextDouble() * 500) * 100) / 100.0;
+            shocks[i] = random.nextGaussian();
+        }
+        double[] vectorPrices = scalarPrices.clone();
+
+        for (int step = 0; step < 20; step++) {
+            PriceKernel.scalar().advance(scalarPrices, shocks, 3, size - 5, 0.001, 0.02, 0.01);
+            vector.advance(vectorPrices, shocks, 3, size - 5, 0.001, 0.02, 0.01);
+        }
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(scalarPrices[i], vectorPrices[i], 0.0100001, "price " + i);
+        }
+        assertEquals(scalarPrices[0], vectorPrices[0]);
+        assertEquals(scalarPrices[size - 1], vectorPrices[size - 1]);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.stockgenerator.engine;
+
+import com.stockgenerator.config.PriceEngineProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PricePathEngine}.
+ */
+class PricePathEngineTest {
+
+    /**
+     * The same seed must produce the same paths, regardless of how the id range is split.
+     */
+    @ParameterizedTest
+    @EnumSource(PriceModelType.class)
+    void testDeterministicAcrossSplits(PriceModelType type) {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        properties.setModel(type);
+
+        PricePathEngine whole = new PricePathEngine(100, properties);
+        PricePathEngine split = new PricePathEngine(100, properties);
+        SymbolRandom wholeRandom = whole.newRandom();
+        SymbolRandom first = split.newRandom();
+        SymbolRandom second = split.newRandom();
+
+        for (int step = 0; step < 50; step++) {
+            whole.advance(0, 100, wholeRandom);
+            split.advance(60, 100, second);
+            split.advance(0, 60, first);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(whole.price(i), split.price(i));
+            assertEquals(50, split.sequence(i));
+        }
+    }
+
+    /**
+     * Correlated paths are as deterministic across splits as independent ones.
+     */
+    @Test
+    void testCorrelatedDeterministicAcrossSplits() {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        int[] sectors = new int[100];
+        for (int i = 0; i < sectors.length; i++) {
+            sectors[i] = i % 4;
+        }
+
+        PricePathEngine whole = new PricePathEngine(100, properties, new FactorModel(sectors, 4, 0.3, 0.6, 42L));
+        PricePathEngine split = new PricePathEngine(100, properties, new FactorModel(sectors, 4, 0.3, 0.6, 42L));
+        PricePathEngine independent = new PricePathEngine(100, properties);
+        SymbolRandom wholeRandom = whole.newRandom();
+        SymbolRandom first = split.newRandom();
+        SymbolRandom second = split.newRandom();
+        SymbolRandom independentRandom = independent.newRandom();
+
+        for (int step = 0; step < 50; step++) {
+            whole.advance(0, 100, wholeRandom);
+            split.advance(60, 100, second);
+            split.advance(0, 60, first);
+            independent.advance(0, 100, independentRandom);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(whole.price(i), split.price(i));
+            assertEquals(50, split.sequence(i));
+        }
+        assertNotEquals(independent.price(0), whole.price(0));
+    }
+
+    /**
+     * Prices stay positive and on the tick grid.
+     */
+    @Test
+    void testPricesRoundedToTickSize() {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        properties.setVolatility(2.0);
+        properties.setTimeStepSeconds(3600);
+
+        PricePathEngine engine = new PricePathEngine(10, properties);
+        SymbolRandom random = engine.newRandom();
+        for (int step = 0; step < 1000; step++) {
+            engine.advance(0, 10, random);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            double cents = engine.price(i) * 100;
+            assertTrue(engine.price(i) >= 0.01);
+            assertEquals(Math.rint(cents), cents, 1e-6);
+        }
+    }
+
+    /**
+     * A different seed produces different paths.
+     */
+    @Test
+    void testSeedChangesPaths() {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        PricePathEngine first = new PricePathEngine(5, properties);
+        properties.setSeed(7L);
+        PricePathEngine second = new PricePathEngine(5, properties);
+
+        assertNotEquals(first.price(0), second.price(0));
+    }
+
+}
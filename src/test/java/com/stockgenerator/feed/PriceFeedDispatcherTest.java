@@ -0,0 +1,208 @@
+package com.stockgenerator.feed;
+
+import com.stockgenerator.config.FeedProperties;
+import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verify that the dispatcher delivers only subscribed symbols and conflates changes
+ * for subscribers that are still busy sending.
+ */
+class PriceFeedDispatcherTest {
+
+    private LatestPriceCache cache;
+
+    private PriceFeedDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT"));
+        cache = new LatestPriceCache(universe, mock(StockPriceRepository.class));
+        FeedProperties properties = new FeedProperties();
+        properties.setDispatchInterval(Duration.ofHours(1));
+        dispatcher = new PriceFeedDispatcher(universe, cache, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Tests that a new subscriber first receives current prices and then only changes of its symbols.
+     */
+    @Test
+    void testSubscribedSymbolsOnly() throws InterruptedException {
+        cache.update(0, 150.0, 1_000L);
+        dispatcher.dispatch();
+        RecordingSink sink = new RecordingSink(null);
+        dispatcher.subscribe(List.of("AAPL", "MSFT", "NFLX"), sink);
+
+        assertEquals(List.of("AAPL"), symbols(sink.next()));
+
+        cache.update(1, 200.0, 2_000L);
+        cache.update(2, 300.0, 2_000L);
+        dispatcher.dispatch();
+
+        assertEquals(List.of("MSFT"), symbols(sink.next()));
+        assertNull(sink.batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that changes made while a send is blocked collapse to the latest price.
+     */
+    @Test
+    void testSlowSubscriberIsConflated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(release);
+        dispatcher.subscribe(List.of("GOOG"), sink);
+
+        cache.update(1, 200.0, 1_000L);
+        dispatcher.dispatch();
+        assertEquals(200.0, sink.next().get(0).getPrice());
+
+        for (int i = 1; i <= 5; i++) {
+            cache.update(1, 200.0 + i, 1_000L + i);
+            dispatcher.dispatch();
+        }
+        release.countDown();
+
+        List<StockPrice> conflated = sink.next();
+        assertEquals(1, conflated.size());
+        assertEquals(205.0, conflated.get(0).getPrice());
+        assertNull(sink.batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that a failing sink is unsubscribed and closed.
+     */
+    @Test
+    void testFailedSinkIsRemoved() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        dispatcher.subscribe(List.of("AAPL"), new PriceSink() {
+            @Override
+            public void send(List<StockPrice> prices) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        });
+
+        cache.update(0, 150.0, 1_000L);
+        dispatcher.dispatch();
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, dispatcher.subscriberCount());
+    }
+
+    /**
+     * Tests that concurrent subscribers never exceed the limit and that unsubscribing frees a slot.
+     */
+    @Test
+    void testSubscriberLimitUnderConcurrency() throws InterruptedException {
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL"));
+        FeedProperties properties = new FeedProperties();
+        properties.setDispatchInterval(Duration.ofHours(1));
+        properties.setMaxSubscribers(3);
+        PriceFeedDispatcher limited = new PriceFeedDispatcher(universe,
+                new LatestPriceCache(universe, mock(StockPriceRepository.class)), properties, new SimpleMeterRegistry());
+        try {
+            Queue<PriceSubscription> accepted = new ConcurrentLinkedQueue<>();
+            AtomicInteger rejected = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        accepted.add(limited.subscribe(List.of("AAPL"), new RecordingSink(null)));
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(3, accepted.size());
+            assertEquals(13, rejected.get());
+            assertEquals(3, limited.subscriberCount());
+
+            limited.unsubscribe(accepted.peek());
+            limited.unsubscribe(accepted.peek());
+            assertNotNull(limited.subscribe(List.of("AAPL"), new RecordingSink(null)));
+            assertThrows(IllegalStateException.class, () -> limited.subscribe(List.of("AAPL"), new RecordingSink(null)));
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    private static List<String> symbols(List<StockPrice> prices) {
+        return prices.stream().map(StockPrice::getSymbol).toList();
+    }
+
+    /**
+     * Sink recording each batch; after the first batch it waits for {@code release}, if given.
+     */
+    private static final class RecordingSink implements PriceSink {
+
+        private final BlockingQueue<List<StockPrice>> batches = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+
+        RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        List<StockPrice> next() throws InterruptedException {
+            List<StockPrice> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            return batch;
+        }
+
+        @Override
+        public void send(List<StockPrice> prices) throws IOException {
+            boolean first = batches.isEmpty();
+            batches.add(prices);
+            if (release != null && first) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.stockgenerator.feed;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verify that a subscription keeps small interests sparse, switches to bitsets when it
+ * grows, and keeps its pending changes across the switch.
+ */
+class PriceSubscriptionTest {
+
+    /** Universe of 256 symbols: four bitset words. */
+    private static final int WORDS = 4;
+
+    /**
+     * Tests that a sparse subscription only reports changes of its symbols and counts
+     * conflated changes.
+     */
+    @Test
+    void testSparseOffer() {
+        PriceSubscription subscription = new PriceSubscription(mock(PriceSink.class), WORDS);
+        subscription.add(mask(3, 130));
+        assertTrue(subscription.isSparse());
+        assertArrayEquals(new int[] {3, 130}, subscription.takePending());
+        assertFalse(subscription.hasPending());
+
+        assertEquals(0, subscription.offer(mask(3, 4, 200)));
+        assertEquals(1, subscription.offer(mask(3, 130)));
+        assertArrayEquals(new int[] {3, 130}, subscription.takePending());
+        assertArrayEquals(new int[0], subscription.takePending());
+    }
+
+    /**
+     * Tests that pending changes survive switching from sparse to dense and back.
+     */
+    @Test
+    void testSwitchesRepresentation() {
+        PriceSubscription subscription = new PriceSubscription(mock(PriceSink.class), WORDS);
+        subscription.add(mask(1, 2));
+        subscription.takePending();
+        subscription.offer(mask(2));
+
+        subscription.add(mask(64, 65, 66));
+        assertFalse(subscription.isSparse());
+        assertEquals(1, subscription.offer(mask(2, 250)));
+        assertArrayEquals(new int[] {2, 64, 65, 66}, subscription.takePending());
+
+        subscription.offer(mask(1, 65));
+        subscription.remove(mask(2, 65, 66));
+        assertTrue(subscription.isSparse());
+        assertArrayEquals(new int[] {1}, subscription.takePending());
+        subscription.offer(mask(1, 2, 64));
+        assertArrayEquals(new int[] {1, 64}, subscription.takePending());
+    }
+
+    private static long[] mask(int... symbolIds) {
+        long[] mask = new long[WORDS];
+        for (int symbolId : symbolIds) {
+            mask[symbolId >>> 6] |= 1L << symbolId;
+        }
+        return mask;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.stockgenerator.journal;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.JournalProperties;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.replay.TickFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that concurrently appended ticks all land in replayable segments, that segments
+ * roll by size and age, and that old segments are pruned.
+ */
+class TickJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that ticks from several threads are journaled exactly once across rolled segments.
+     */
+    @Test
+    void testConcurrentAppendsRollBySize() throws Exception {
+        TickJournal journal = new TickJournal(properties("1000B", 0), new SimpleMeterRegistry());
+        int threads = 4;
+        int perThread = 500;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    journal.append(i % 7, 100.0 + i, 1_700_000_000_000L + i, i + 1);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        journal.shutdown();
+
+        List<Path> segments = segments();
+        // 1000 bytes hold 34 records
+        assertEquals((threads * perThread + 33) / 34, segments.size());
+        BitSet sequences = new BitSet();
+        for (Path segment : segments) {
+            TickFile file = TickFile.open(segment);
+            assertEquals(file.size() * TickCodec.V1_SIZE, Files.size(segment), "segment not truncated");
+            for (long i = 0; i < file.size(); i++) {
+                StockTick tick = file.read(i, null);
+                int index = (int) tick.sequence() - 1;
+                assertFalse(sequences.get(index), "tick journaled twice");
+                sequences.set(index);
+                assertEquals(index % 7, tick.symbolId());
+                assertEquals(100.0 + index, tick.price());
+                assertEquals(TimeUnit.MILLISECONDS.toNanos(1_700_000_000_000L + index), tick.epochNanos());
+            }
+        }
+        assertEquals(threads * perThread, sequences.cardinality());
+    }
+
+    /**
+     * Tests that an expired segment rolls, that empty segments are dropped, that only the
+     * newest sealed segments are kept and that a restarted journal continues the numbering.
+     */
+    @Test
+    void testRollsByAgeAndPrunes() throws Exception {
+        JournalProperties properties = properties("1MB", 2);
+        properties.setSegmentDuration(Duration.ofMillis(20));
+        properties.setSyncInterval(Duration.ofMillis(10));
+        TickJournal journal = new TickJournal(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 5; i++) {
+            journal.append(0, 10.0, 1_000L * i, i + 1);
+            Thread.sleep(60);
+        }
+        journal.shutdown();
+
+        List<Path> segments = segments();
+        assertEquals(2, segments.size());
+        assertEquals(TickJournal.segmentName(4), segments.get(1).getFileName().toString());
+        assertEquals(1, TickFile.open(segments.get(1)).size());
+        assertEquals(TickCodec.V1_SIZE, Files.size(segments.get(1)));
+
+        TickJournal restarted = new TickJournal(properties("1MB", 0), new SimpleMeterRegistry());
+        restarted.append(0, 10.0, 5_000L, 6);
+        restarted.shutdown();
+        assertEquals(TickJournal.segmentName(5), segments().get(2).getFileName().toString());
+    }
+
+    private JournalProperties properties(String segmentSize, int maxSegments) {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.parse(segmentSize));
+        properties.setMaxSegments(maxSegments);
+        return properties;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.stockgenerator.latest;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.KafkaConfig;
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.config.LatestTopicProperties;
+import com.stockgenerator.model.StockTick;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that the latest-price topic is read from its beginning to its end offsets.
+ */
+class LatestPriceLoaderTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition(KafkaConfig.LATEST_TOPIC, 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition(KafkaConfig.LATEST_TOPIC, 1);
+
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    /**
+     * Tests that every partition is read to its end, later records of a symbol override
+     * earlier ones, tombstones are skipped and the consumer is closed.
+     */
+    @Test
+    void testLoadsToEndOffsets() {
+        consumer.updatePartitions(KafkaConfig.LATEST_TOPIC, List.of(
+                new PartitionInfo(KafkaConfig.LATEST_TOPIC, 0, null, null, null),
+                new PartitionInfo(KafkaConfig.LATEST_TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 3L, PARTITION_1, 1L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, 0, "AAPL", 150.0));
+            consumer.addRecord(record(1, 0, "GOOG", 2800.0));
+        });
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, 1, "AAPL", 151.5));
+            consumer.addRecord(new ConsumerRecord<>(KafkaConfig.LATEST_TOPIC, 0, 2, "MSFT", null));
+        });
+
+        Map<String, Double> prices = new LinkedHashMap<>();
+        boolean complete = loader(Duration.ofSeconds(5)).load((symbol, tick) -> prices.put(symbol, tick.price()));
+
+        assertTrue(complete);
+        assertEquals(Map.of("AAPL", 151.5, "GOOG", 2800.0), prices);
+        assertTrue(consumer.closed());
+    }
+
+    /**
+     * Tests that a missing topic or a topic not read to its end in time is reported as incomplete.
+     */
+    @Test
+    void testIncompleteLoads() {
+        assertFalse(loader(Duration.ofSeconds(5)).load((symbol, tick) -> fail("no records expected")));
+
+        MockConsumer<String, byte[]> stalled = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        stalled.updatePartitions(KafkaConfig.LATEST_TOPIC, List.of(
+                new PartitionInfo(KafkaConfig.LATEST_TOPIC, 0, null, null, null)));
+        stalled.updateBeginningOffsets(Map.of(PARTITION_0, 0L));
+        stalled.updateEndOffsets(Map.of(PARTITION_0, 5L));
+        LatestTopicProperties properties = new LatestTopicProperties();
+        properties.setBootstrapTimeout(Duration.ofMillis(50));
+        assertFalse(new LatestPriceLoader(properties, () -> stalled).load((symbol, tick) -> { }));
+    }
+
+    /**
+     * Tests that the consumer takes the connection security settings of the producers but not their producer settings.
+     */
+    @Test
+    void testConsumerConfigsKeepOnlyConnectionSettings() {
+        KafkaProducerProperties kafkaProperties = new KafkaProducerProperties();
+        kafkaProperties.setBootstrapServers("broker:9092");
+        kafkaProperties.getProperties().putAll(Map.of(
+                "security.protocol", "SASL_SSL",
+                "sasl.mechanism", "PLAIN",
+                "ssl.truststore.location", "/etc/kafka/truststore.jks",
+                "compression.type", "zstd",
+                "linger.ms", "5"));
+
+        Map<String, Object> configs = LatestPriceLoader.consumerConfigs(new LatestTopicProperties(), kafkaProperties);
+
+        assertEquals("SASL_SSL", configs.get("security.protocol"));
+        assertEquals("PLAIN", configs.get("sasl.mechanism"));
+        assertEquals("/etc/kafka/truststore.jks", configs.get("ssl.truststore.location"));
+        assertFalse(configs.containsKey("compression.type"));
+        assertFalse(configs.containsKey("linger.ms"));
+        assertEquals("broker:9092", configs.get(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG));
+    }
+
+    private LatestPriceLoader loader(Duration timeout) {
+        LatestTopicProperties properties = new LatestTopicProperties();
+        properties.setEnabled(true);
+        properties.setBootstrapTimeout(timeout);
+        return new LatestPriceLoader(properties, () -> consumer);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int partition, long offset, String symbol, double price) {
+        byte[] value = TickCodec.encode(new StockTick(0, symbol, price, 1_000_000L, 0));
+        return new ConsumerRecord<>(KafkaConfig.LATEST_TOPIC, partition, offset, symbol, value);
+    }
+
+}
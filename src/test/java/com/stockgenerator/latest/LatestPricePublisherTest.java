@@ -0,0 +1,110 @@
+package com.stockgenerator.latest;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.LatestTopicProperties;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.MarketDataProducer;
+import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.service.LatestPriceCache;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verify that only symbols changed since their last publication are published, conflated.
+ */
+@ExtendWith(MockitoExtension.class)
+class LatestPricePublisherTest {
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    @Mock
+    private MarketDataProducer producer;
+
+    private final SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LatestPriceCache cache;
+
+    private LatestPricePublisher publisher;
+
+    /** Payloads sent, decoded as they are copied by the real producer. */
+    private final List<StockTick> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = new LatestPriceCache(universe, stockPriceRepository);
+        LatestTopicProperties properties = new LatestTopicProperties();
+        properties.setEnabled(true);
+        properties.setPublishInterval(Duration.ofHours(1));
+        publisher = new LatestPricePublisher(cache, universe, producer, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisher.shutdown();
+    }
+
+    /**
+     * Tests that changes are conflated per symbol and unchanged symbols are not republished.
+     */
+    @Test
+    void testPublishesChangedSymbolsOnce() {
+        doAnswer(invocation -> {
+            ByteBuffer payload = invocation.getArgument(1);
+            sent.add(TickCodec.decode(payload.duplicate(), universe::symbol));
+            return null;
+        }).when(producer).latestPrice(anyInt(), any(ByteBuffer.class));
+
+        cache.update(0, 150.0, 1_000L);
+        cache.update(0, 151.0, 2_000L);
+        cache.update(2, 300.0, 3_000L);
+        assertEquals(2, publisher.publishChanges());
+
+        assertEquals(List.of(
+                new StockTick(0, "AAPL", 151.0, TimeUnit.MILLISECONDS.toNanos(2_000L), 0),
+                new StockTick(2, "MSFT", 300.0, TimeUnit.MILLISECONDS.toNanos(3_000L), 0)), sent);
+
+        assertEquals(0, publisher.publishChanges());
+        cache.update(2, 301.0, 4_000L);
+        assertEquals(1, publisher.publishChanges());
+        verify(producer, times(2)).latestPrice(eq(2), any(ByteBuffer.class));
+        assertEquals(3.0, meterRegistry.get("stock.latest.published").counter().count());
+    }
+
+    /**
+     * Tests that a failed send skips only its symbol, which is republished on the next scan.
+     */
+    @Test
+    void testFailedSymbolIsRetried() {
+        doThrow(new IllegalStateException("buffer full")).doNothing()
+                .when(producer).latestPrice(eq(0), any(ByteBuffer.class));
+
+        cache.update(0, 150.0, 1_000L);
+        cache.update(1, 200.0, 1_000L);
+        assertEquals(1, publisher.publishChanges());
+        verify(producer).latestPrice(eq(1), any(ByteBuffer.class));
+
+        assertEquals(1, publisher.publishChanges());
+        verify(producer, times(2)).latestPrice(eq(0), any(ByteBuffer.class));
+        assertEquals(0, publisher.publishChanges());
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.stockgenerator.marketdata;
+
+import com.stockgenerator.codec.MarketDataCodec;
+import com.stockgenerator.config.MarketDataProperties;
+import com.stockgenerator.model.BookDelta;
+import com.stockgenerator.model.BookUpdate;
+import com.stockgenerator.model.TradePrint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that the emitted deltas rebuild the simulated books exactly and that trades
+ * execute at the best level.
+ */
+class OrderBookSimulatorTest {
+
+    private static final int SYMBOLS = 3;
+
+    private static final double TICK_SIZE = 0.01;
+
+    /**
+     * Replays every book update into independent books, through the binary codec, while
+     * prices drift, jump and stand still, and compares them with the simulator's state.
+     */
+    @Test
+    void testDeltasRebuildBooks() {
+        MarketDataProperties properties = new MarketDataProperties();
+        properties.setLevels(5);
+        properties.setSpreadTicks(2);
+        properties.setTradeProbability(0.5);
+        OrderBookSimulator simulator = new OrderBookSimulator(SYMBOLS, properties, TICK_SIZE);
+        ReplayingSink sink = new ReplayingSink();
+        ByteBuffer scratch = ByteBuffer.allocate(simulator.scratchSize());
+        SplittableRandom random = new SplittableRandom(7);
+        double[] prices = {100.0, 50.0, Double.NaN};
+
+        SplittableRandom moves = new SplittableRandom(11);
+        for (int step = 0; step < 500; step++) {
+            simulator.step(0, SYMBOLS, id -> prices[id], step, random, scratch, sink);
+            // Mostly small moves, sometimes a jump beyond the book depth
+            prices[0] = Math.max(1.0, prices[0] + (moves.nextInt(7) - 3) * TICK_SIZE);
+            prices[1] = step % 50 == 0 ? prices[1] * 1.1 : prices[1];
+
+            for (int id = 0; id < 2; id++) {
+                assertBookMatches(simulator, sink, id, properties);
+            }
+        }
+
+        assertNull(sink.bids.get(2), "symbols without a price have no book");
+        assertTrue(sink.trades > 100);
+    }
+
+    /**
+     * Tests that a step without price moves, random updates or trades emits nothing.
+     */
+    @Test
+    void testQuietStepEmitsNothing() {
+        MarketDataProperties properties = new MarketDataProperties();
+        properties.setUpdatesPerStep(0);
+        properties.setTradeProbability(0);
+        OrderBookSimulator simulator = new OrderBookSimulator(1, properties, TICK_SIZE);
+        ReplayingSink sink = new ReplayingSink();
+        ByteBuffer scratch = ByteBuffer.allocate(simulator.scratchSize());
+        SplittableRandom random = new SplittableRandom(7);
+
+        assertEquals(2L * properties.getLevels(), simulator.step(0, 1, id -> 10.0, 0, random, scratch, sink));
+        assertEquals(0, simulator.step(0, 1, id -> 10.0, 1, random, scratch, sink));
+        assertEquals(1, sink.updates);
+    }
+
+    private static void assertBookMatches(OrderBookSimulator simulator, ReplayingSink sink, int id,
+                                          MarketDataProperties properties) {
+        TreeMap<Long, Integer> bids = sink.bids.get(id);
+        TreeMap<Long, Integer> asks = sink.asks.get(id);
+        assertEquals(properties.getLevels(), bids.size());
+        assertEquals(properties.getLevels(), asks.size());
+
+        long bestBid = Math.round(simulator.bestBid(id) / TICK_SIZE);
+        assertEquals(bestBid, bids.lastKey());
+        assertEquals(bestBid + properties.getSpreadTicks(), asks.firstKey());
+        for (int level = 0; level < properties.getLevels(); level++) {
+            assertEquals(simulator.size(id, true, level), bids.get(bestBid - level));
+            assertEquals(simulator.size(id, false, level), asks.get(bestBid + properties.getSpreadTicks() + level));
+        }
+    }
+
+    /**
+     * Decodes every payload and applies it to per-symbol books keyed by price in ticks.
+     */
+    private static final class ReplayingSink implements MarketDataSink {
+
+        private final Map<Integer, TreeMap<Long, Integer>> bids = new HashMap<>();
+        private final Map<Integer, TreeMap<Long, Integer>> asks = new HashMap<>();
+        private final Map<Integer, Long> sequences = new HashMap<>();
+        private int updates;
+        private int trades;
+
+        @Override
+        public void bookUpdate(int symbolId, ByteBuffer payload) {
+            BookUpdate update = MarketDataCodec.decodeBookUpdate(payload);
+            assertEquals(symbolId, update.symbolId());
+            checkSequence(symbolId, update.sequence());
+            for (BookDelta delta : update.deltas()) {
+                TreeMap<Long, Integer> side = (delta.bid() ? bids : asks).computeIfAbsent(symbolId, id -> new TreeMap<>());
+                long price = Math.round(delta.price() / TICK_SIZE);
+                if (delta.size() == 0) {
+                    assertNotNull(side.remove(price), "removed level existed");
+                } else {
+                    side.put(price, delta.size());
+                }
+            }
+            updates++;
+        }
+
+        @Override
+        public void trade(int symbolId, ByteBuffer payload) {
+            TradePrint trade = MarketDataCodec.decodeTrade(payload);
+            assertEquals(symbolId, trade.symbolId());
+            checkSequence(symbolId, trade.sequence());
+            // The book update of the same step already reflects the execution; the price is still the best level
+            TreeMap<Long, Integer> side = (trade.buyerInitiated() ? asks : bids).get(symbolId);
+            long best = trade.buyerInitiated() ? side.firstKey() : side.lastKey();
+            assertEquals(best, Math.round(trade.price() / TICK_SIZE));
+            assertTrue(trade.size() > 0);
+            trades++;
+        }
+
+        private void checkSequence(int symbolId, long sequence) {
+            Long previous = sequences.put(symbolId, sequence);
+            assertEquals(previous == null ? 1L : previous + 1, sequence);
+        }
+    }
+
+}
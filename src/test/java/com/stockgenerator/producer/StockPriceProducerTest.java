@@ -0,0 +1,126 @@
+package com.stockgenerator.producer;
+
+import com.stockgenerator.config.KafkaProducerProperties;
+import com.stockgenerator.model.StockTick;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verify that sends complete asynchronously into metrics and that the send window
+ * bounds the number of unacknowledged records.
+ */
+@ExtendWith(MockitoExtension.class)
+class StockPriceProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, StockTick> kafkaTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StockPriceProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setMaxPendingSends(1);
+        properties.setPendingSendTimeout(Duration.ofMillis(10));
+        producer = new StockPriceProducer(kafkaTemplate, properties, meterRegistry);
+    }
+
+    /**
+     * Tests that acknowledged and failed sends are counted and release their window slot.
+     */
+    @Test
+    void testCallbacksRecordOutcome() {
+        CompletableFuture<SendResult<String, StockTick>> first = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, StockTick>> second = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("stock-price-topic"), anyString(), any(StockTick.class)))
+                .thenReturn(first).thenReturn(second);
+
+        assertTrue(producer.send(tick("AAPL")));
+        assertEquals(1, producer.pendingSends());
+        first.complete(null);
+        assertEquals(0, producer.pendingSends());
+
+        assertTrue(producer.send(tick("GOOG")));
+        second.completeExceptionally(new RuntimeException("Broker unavailable"));
+
+        assertEquals(1.0, meterRegistry.counter("stock.kafka.sent").count());
+        assertEquals(1.0, meterRegistry.counter("stock.kafka.failed").count());
+        assertEquals(2, meterRegistry.timer("stock.kafka.send").count());
+        assertEquals(0, producer.pendingSends());
+    }
+
+    /**
+     * Tests that a send is rejected while the window stays full.
+     */
+    @Test
+    void testFullWindowRejects() {
+        when(kafkaTemplate.send(eq("stock-price-topic"), anyString(), any(StockTick.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        assertTrue(producer.send(tick("AAPL")));
+        assertTrue(producer.isBackpressured());
+        assertFalse(producer.send(tick("GOOG")));
+
+        assertEquals(1.0, meterRegistry.counter("stock.kafka.rejected").count());
+    }
+
+    /**
+     * Tests that a batch sends only the ticks the window has room for.
+     */
+    @Test
+    void testTrySendSendsLeadingTicks() {
+        when(kafkaTemplate.send(eq("stock-price-topic"), anyString(), any(StockTick.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        StockTick[] ticks = {tick("AAPL"), tick("GOOG"), tick("MSFT")};
+        assertEquals(1, producer.trySend(ticks, 3));
+        assertEquals(1, producer.pendingSends());
+        assertEquals(0, producer.trySend(ticks, 1));
+
+        assertEquals(3.0, meterRegistry.counter("stock.kafka.rejected").count());
+    }
+
+    /**
+     * Tests that a send the producer blocked on for {@code max.block.ms} is rejected, whether
+     * the timeout is thrown or completes the returned future, and releases its slot.
+     */
+    @Test
+    void testBlockTimeoutRejects() {
+        when(kafkaTemplate.send(eq("stock-price-topic"), anyString(), any(StockTick.class)))
+                .thenThrow(new KafkaException(new TimeoutException("Topic not present in metadata")))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Topic not present in metadata")));
+
+        assertFalse(producer.send(tick("AAPL")));
+        StockTick[] ticks = {tick("GOOG"), tick("MSFT")};
+        assertEquals(0, producer.trySend(ticks, 1));
+
+        assertEquals(2.0, meterRegistry.counter("stock.kafka.rejected").count());
+        assertEquals(0.0, meterRegistry.counter("stock.kafka.failed").count());
+        assertEquals(0, producer.pendingSends());
+    }
+
+    private static StockTick tick(String symbol) {
+        return new StockTick(0, symbol, 100.0, System.nanoTime(), 1L);
+    }
+
+}
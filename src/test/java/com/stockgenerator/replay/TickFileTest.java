@@ -0,0 +1,84 @@
+package com.stockgenerator.replay;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.model.StockTick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that preallocated tick files end after their last written record and report
+ * the holes before it.
+ */
+class TickFileTest {
+
+    private static final List<String> SYMBOLS = List.of("AAPL", "GOOG");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a segment with an unwritten record between written ones keeps the records
+     * after the hole and ends before the zeroed tail.
+     */
+    @Test
+    void testGappedSegment() throws IOException {
+        ByteBuffer segment = ByteBuffer.allocate(8 * TickCodec.V1_SIZE);
+        for (int i : new int[] {0, 1, 3, 4}) {
+            TickCodec.encode(new StockTick(i % 2, SYMBOLS.get(i % 2), 100.0 + i, 1_000L + i, i + 1),
+                    segment.position(i * TickCodec.V1_SIZE));
+        }
+        Path path = directory.resolve("000000000000.ticks");
+        Files.write(path, segment.array());
+
+        TickFile file = TickFile.open(path);
+
+        assertEquals(5, file.size());
+        assertTrue(file.isWritten(1));
+        assertFalse(file.isWritten(2));
+        assertTrue(file.isWritten(3));
+        assertEquals(0L, file.epochNanos(2));
+        assertEquals(new StockTick(0, "AAPL", 104.0, 1_004L, 5), file.read(4, SYMBOLS::get));
+    }
+
+    /**
+     * Tests that seeking by time finds the first tick in file order recorded at or after it,
+     * in a file that is only roughly in time order.
+     */
+    @Test
+    void testIndexAtInRoughlyOrderedFile() throws IOException {
+        long[] times = {1_000L, 3_000L, 2_000L, 5_000L, 4_000L, 6_000L};
+        ByteBuffer buffer = ByteBuffer.allocate(times.length * TickCodec.V1_SIZE);
+        for (int i = 0; i < times.length; i++) {
+            TickCodec.encode(new StockTick(0, "AAPL", 100.0, times[i], i + 1), buffer);
+        }
+        Path path = directory.resolve("rough.ticks");
+        Files.write(path, buffer.array());
+
+        TickFile file = TickFile.open(path);
+
+        assertEquals(0, file.indexAt(0L));
+        assertEquals(1, file.indexAt(2_000L));
+        assertEquals(3, file.indexAt(4_500L));
+        assertEquals(6, file.indexAt(7_000L));
+    }
+
+    /**
+     * Tests that a segment with nothing written is empty.
+     */
+    @Test
+    void testUnwrittenSegmentIsEmpty() throws IOException {
+        Path path = directory.resolve("000000000001.ticks");
+        Files.write(path, new byte[4 * TickCodec.V1_SIZE]);
+
+        assertEquals(0, TickFile.open(path).size());
+    }
+
+}
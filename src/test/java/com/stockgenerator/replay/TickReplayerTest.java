@@ -0,0 +1,182 @@
+package com.stockgenerator.replay;
+
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.ReplayProperties;
+import com.stockgenerator.model.ReplayStatus;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verify that recorded ticks are replayed unchanged, in order and paced, and that the
+ * replay can be paused and sought.
+ */
+class TickReplayerTest {
+
+    private static final List<String> SYMBOLS = List.of("AAPL", "GOOG");
+
+    private static final long EPOCH_NANOS = TimeUnit.SECONDS.toNanos(1_700_000_000L);
+
+    @TempDir
+    Path directory;
+
+    private final List<StockTick> sent = new CopyOnWriteArrayList<>();
+
+    private TickReplayer replayer;
+
+    @AfterEach
+    void tearDown() {
+        if (replayer != null) {
+            replayer.stop();
+        }
+    }
+
+    /**
+     * Tests that an unthrottled replay publishes every tick exactly as recorded.
+     */
+    @Test
+    void testReplaysFileInOrder() throws Exception {
+        List<StockTick> ticks = writeTicks("ticks.bin", 1_000, TimeUnit.MILLISECONDS.toNanos(1));
+        replayer = replayer();
+
+        replayer.start("ticks.bin", 0.0);
+        ReplayStatus status = awaitState(ReplayState.FINISHED);
+
+        assertEquals(ticks, sent);
+        assertEquals(1_000, status.position());
+        assertEquals(1_000, status.total());
+        assertNull(status.recordedTime());
+    }
+
+    /**
+     * Tests that ticks keep their recorded spacing divided by the speed multiplier.
+     */
+    @Test
+    void testPacesBySpeed() throws Exception {
+        writeTicks("paced.bin", 6, TimeUnit.MILLISECONDS.toNanos(100));
+        replayer = replayer();
+
+        long start = System.nanoTime();
+        replayer.start("paced.bin", 5.0);
+        awaitState(ReplayState.FINISHED);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Five gaps of 100 ms at five times the speed
+        assertTrue(elapsedMillis >= 95, "replay took " + elapsedMillis + " ms");
+        assertEquals(6, sent.size());
+    }
+
+    /**
+     * Tests that a paused replay publishes nothing until resumed and continues from the sought time.
+     */
+    @Test
+    void testPauseSeekResume() throws Exception {
+        List<StockTick> ticks = writeTicks("seek.bin", 10, TimeUnit.SECONDS.toNanos(1));
+        replayer = replayer();
+
+        replayer.start("seek.bin", 1.0);
+        replayer.pause();
+        ReplayStatus status = replayer.seek(Instant.ofEpochSecond(0, EPOCH_NANOS + TimeUnit.SECONDS.toNanos(8)));
+        assertEquals(ReplayState.PAUSED, status.state());
+        assertEquals(8, status.position());
+        Thread.sleep(50);
+        assertTrue(sent.size() <= 1, "only the first tick may precede the pause");
+
+        replayer.resume(0.0);
+        awaitState(ReplayState.FINISHED);
+        assertEquals(ticks.subList(8, 10), sent.subList(sent.size() - 2, sent.size()));
+        assertTrue(sent.size() <= 3);
+    }
+
+    /**
+     * Tests that a tick of an unknown format version is counted as skipped and the replay
+     * continues with the next one.
+     */
+    @Test
+    void testSkipsUndecodableTicks() throws Exception {
+        List<StockTick> ticks = writeTicks("corrupt.bin", 3, 0);
+        Path path = directory.resolve("corrupt.bin");
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[TickCodec.V1_SIZE] = 9;
+        Files.write(path, bytes);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        replayer = replayer(meterRegistry);
+
+        replayer.start("corrupt.bin", 0.0);
+        awaitState(ReplayState.FINISHED);
+
+        assertEquals(List.of(ticks.get(0), ticks.get(2)), sent);
+        assertEquals(1.0, meterRegistry.counter("stock.replay.skipped").count());
+    }
+
+    /**
+     * Tests that files outside the replay directory and partial files are rejected.
+     */
+    @Test
+    void testRejectsInvalidFiles() throws IOException {
+        Files.write(directory.resolve("partial.bin"), new byte[TickCodec.V1_SIZE + 1]);
+        replayer = replayer();
+
+        assertThrows(IllegalArgumentException.class, () -> replayer.start("../outside.bin", 0.0));
+        assertThrows(UncheckedIOException.class, () -> replayer.start("partial.bin", 0.0));
+        assertThrows(IllegalStateException.class, () -> replayer.seek(0));
+        assertEquals(ReplayState.IDLE, replayer.status().state());
+    }
+
+    private TickReplayer replayer() {
+        return replayer(new SimpleMeterRegistry());
+    }
+
+    private TickReplayer replayer(SimpleMeterRegistry meterRegistry) {
+        StockPriceProducer producer = mock(StockPriceProducer.class);
+        when(producer.send(any())).thenAnswer(invocation -> sent.add(invocation.getArgument(0)));
+        ReplayProperties properties = new ReplayProperties();
+        properties.setDirectory(directory.toString());
+        return new TickReplayer(new SymbolUniverse(SYMBOLS), producer, properties, meterRegistry);
+    }
+
+    private List<StockTick> writeTicks(String name, int count, long spacingNanos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count * TickCodec.V1_SIZE);
+        List<StockTick> ticks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StockTick tick = new StockTick(i % 2, SYMBOLS.get(i % 2), 100.0 + i * 0.25,
+                    EPOCH_NANOS + i * spacingNanos, i + 1);
+            TickCodec.encode(tick, buffer);
+            ticks.add(tick);
+        }
+        Files.write(directory.resolve(name), buffer.array());
+        return ticks;
+    }
+
+    private ReplayStatus awaitState(ReplayState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ReplayStatus status = replayer.status();
+        while (status.state() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = replayer.status();
+        }
+        assertEquals(expected, status.state());
+        return status;
+    }
+
+}
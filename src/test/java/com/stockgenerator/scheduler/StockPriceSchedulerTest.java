@@ -1,50 +1,69 @@
 package com.stockgenerator.scheduler;
 
-import com.stockgenerator.StockPriceGeneratorApplication;
+import com.stockgenerator.config.PriceEngineProperties;
+import com.stockgenerator.config.SchedulerProperties;
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.service.StateSnapshotService;
 import com.stockgenerator.service.StockPriceScheduler;
 import com.stockgenerator.service.StockPriceService;
+import com.stockgenerator.service.TickLogAggregator;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
-import org.mockito.MockitoAnnotations;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for {@link StockPriceScheduler}.
  */
-@SpringBootTest(classes = StockPriceGeneratorApplication.class)
-@Transactional
-@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
 @ExtendWith(MockitoExtension.class)
-@ActiveProfiles("test")
-@TestPropertySource(locations = "classpath:application-test.yml")
 class StockPriceSchedulerTest {
 
-    @MockitoBean
+    @Mock
     private StockPriceService stockPriceService;
 
-    @InjectMocks
+    private final SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT", "AMZN", "TSLA"));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private TickLogAggregator tickLog;
+
+    @Mock
+    private StateSnapshotService snapshots;
+
     private StockPriceScheduler stockPriceScheduler;
 
     /**
-     * Initializes mocks before each test.
+     * Creates the scheduler with the mocked service, two shards and default engine settings before each test.
      */
     @BeforeEach
     void setUp() {
-        MockitoAnnotations.openMocks(this);
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setShards(2);
+        PricePathEngine engine = new PricePathEngine(universe.size(), new PriceEngineProperties());
+        stockPriceScheduler = new StockPriceScheduler(stockPriceService, universe, engine, executor, properties, meterRegistry, tickLog, snapshots);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     /**
@@ -57,17 +76,30 @@ class StockPriceSchedulerTest {
 
         // Assert: Verify service was called for each stock symbol
         verify(stockPriceService, times(5))
-                .updateStockPriceAndPublish(anyString(), anyDouble());
+                .recordTick(anyInt(), anyDouble(), anyLong(), anyLong());
 
-        // Capture arguments to check if the symbols are from the predefined list
-        ArgumentCaptor<String> symbolCaptor = ArgumentCaptor.forClass(String.class);
+        // Capture arguments to check that every symbol id of the universe was generated once
+        ArgumentCaptor<Integer> symbolIdCaptor = ArgumentCaptor.forClass(Integer.class);
         verify(stockPriceService, times(5))
-                .updateStockPriceAndPublish(symbolCaptor.capture(), anyDouble());
+                .recordTick(symbolIdCaptor.capture(), anyDouble(), anyLong(), anyLong());
 
-        List<String> symbols = symbolCaptor.getAllValues();
+        List<String> symbols = symbolIdCaptor.getAllValues().stream().map(universe::symbol).toList();
         assertEquals(5, symbols.size());
         List<String> expectedSymbols = List.of("AAPL", "GOOG", "MSFT", "AMZN", "TSLA");
         assertEquals(expectedSymbols.size(), symbols.stream().filter(expectedSymbols::contains).count());
+        assertEquals(expectedSymbols.size(), symbols.stream().distinct().count());
+
+        // Each shard reserves one block of sequence numbers
+        verify(stockPriceService, times(2)).reserveSequences(anyInt());
+
+        // Ticks are counted per shard and the cycle is timed
+        assertEquals(5.0, meterRegistry.find("stock.generation.ticks").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+        assertEquals(2, meterRegistry.find("stock.generation.ticks").counters().size());
+        assertEquals(1, meterRegistry.get("stock.generation.cycle").timer().count());
+
+        // Logging is aggregated once per shard instead of once per tick
+        verify(tickLog, times(2)).record(anyInt(), anyDouble(), anyDouble(), eq(0));
     }
 
     /**
@@ -78,14 +110,74 @@ class StockPriceSchedulerTest {
         // Arrange: Simulate exception on every call
         doAnswer(invocation -> {
             throw new RuntimeException("Kafka publish failed");
-        }).when(stockPriceService).updateStockPriceAndPublish(anyString(), anyDouble());
+        }).when(stockPriceService).recordTick(anyInt(), anyDouble(), anyLong(), anyLong());
 
         // Act
         stockPriceScheduler.generateStockPrices();
 
         // Assert: Ensure service was called 5 times despite exceptions
         verify(stockPriceService, times(5))
-                .updateStockPriceAndPublish(anyString(), anyDouble());
+                .recordTick(anyInt(), anyDouble(), anyLong(), anyLong());
+        assertEquals(5.0, meterRegistry.find("stock.generation.errors").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+        verify(tickLog, times(5)).error(anyString(), any(RuntimeException.class));
+    }
+
+    /**
+     * Tests that every shard copies its state once per requested snapshot capture, after its tick.
+     */
+    @Test
+    void testShardsCaptureRequestedSnapshotOnce() {
+        when(snapshots.requestedCapture()).thenReturn(1L);
+
+        stockPriceScheduler.generateStockPrices();
+        stockPriceScheduler.generateStockPrices();
+
+        verify(snapshots).capture(0, 2);
+        verify(snapshots).capture(2, 5);
+        verify(snapshots, times(2)).capture(anyInt(), anyInt());
+    }
+
+    /**
+     * Tests that the interval between cycles is measured from the second cycle on.
+     */
+    @Test
+    void testSchedulerDrift() {
+        stockPriceScheduler.generateStockPrices();
+        stockPriceScheduler.generateStockPrices();
+
+        assertEquals(1, meterRegistry.get("stock.scheduler.interval").timer().count());
+        // Back-to-back cycles run far earlier than the configured 5 s rate
+        assertTrue(meterRegistry.get("stock.scheduler.drift").gauge().value() < 0);
+    }
+
+    /**
+     * Tests that in clock mode every shard is driven by its own clock and the scheduled cycle does nothing.
+     */
+    @Test
+    void testClockMode() {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setShards(2);
+        properties.setMode(SchedulerProperties.Mode.CLOCK);
+        properties.setTickInterval(Duration.ofMillis(1));
+        properties.setShardIntervals(Map.of(1, Duration.ofMillis(2)));
+        PricePathEngine engine = new PricePathEngine(universe.size(), new PriceEngineProperties());
+        StockPriceScheduler clockScheduler = new StockPriceScheduler(stockPriceService, universe, engine, executor,
+                properties, meterRegistry, tickLog, snapshots);
+
+        clockScheduler.generateStockPrices();
+        verifyNoInteractions(stockPriceService);
+
+        clockScheduler.startClocks();
+        try {
+            // Shard 0 holds 2 symbols ticking every 1 ms, shard 1 holds 3 ticking every 2 ms
+            verify(stockPriceService, timeout(5000).atLeast(100))
+                    .recordTick(anyInt(), anyDouble(), anyLong(), anyLong());
+        } finally {
+            clockScheduler.stopClocks();
+        }
+        assertTrue(meterRegistry.get("stock.clock.ticks").tag("clock", "shard-0").counter().count() > 0);
+        assertTrue(meterRegistry.get("stock.clock.ticks").tag("clock", "shard-1").counter().count() > 0);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.codec.MarketDataCodec;
+import com.stockgenerator.model.PriceBar;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that ticks fold into the bars of every interval and that completed bars are
+ * handed over once, kept in a bounded ring and encoded losslessly.
+ */
+class BarAggregatorTest {
+
+    private static final long SECOND = 1000;
+
+    private static final long MINUTE = 60 * SECOND;
+
+    /**
+     * Tests open, high, low, close and volume across second and minute boundaries.
+     */
+    @Test
+    void testTicksCompleteBars() {
+        BarAggregator aggregator = new BarAggregator(2, new long[]{SECOND, MINUTE}, 10);
+        List<PriceBar> completed = new ArrayList<>();
+        BarAggregator.BarHandler handler = (id, interval, start, open, high, low, close, volume) ->
+                completed.add(new PriceBar(id == 0 ? "AAPL" : "GOOG", aggregator.intervalSeconds(interval),
+                        Instant.ofEpochMilli(start), open, high, low, close, volume));
+
+        aggregator.onTick(0, 10.0, 100, handler);
+        aggregator.onTick(0, 12.0, 400, handler);
+        aggregator.onTick(0, 9.0, 900, handler);
+        aggregator.onTick(1, 50.0, 950, handler);
+        assertTrue(completed.isEmpty());
+
+        aggregator.onTick(0, 11.0, 1_200, handler);
+        assertEquals(List.of(new PriceBar("AAPL", 1, Instant.ofEpochMilli(0), 10.0, 12.0, 9.0, 9.0, 3)), completed);
+
+        completed.clear();
+        aggregator.onTick(0, 13.0, MINUTE + 5, handler);
+        assertEquals(List.of(
+                new PriceBar("AAPL", 1, Instant.ofEpochMilli(SECOND), 11.0, 11.0, 11.0, 11.0, 1),
+                new PriceBar("AAPL", 60, Instant.ofEpochMilli(0), 10.0, 12.0, 9.0, 11.0, 4)), completed);
+
+        List<PriceBar> minutes = aggregator.recent(0, "AAPL", 1, 10, true);
+        assertEquals(2, minutes.size());
+        assertEquals(new PriceBar("AAPL", 60, Instant.ofEpochMilli(MINUTE), 13.0, 13.0, 13.0, 13.0, 1), minutes.get(1));
+        assertEquals(1, aggregator.recent(0, "AAPL", 1, 10, false).size());
+        assertEquals(List.of(new PriceBar("GOOG", 1, Instant.ofEpochMilli(0), 50.0, 50.0, 50.0, 50.0, 1)),
+                aggregator.recent(1, "GOOG", 0, 10, true));
+    }
+
+    /**
+     * Tests that late ticks are ignored and that only the newest bars are retained, oldest first.
+     */
+    @Test
+    void testLateTicksAndRetention() {
+        BarAggregator aggregator = new BarAggregator(1, new long[]{SECOND}, 3);
+        int[] completed = new int[1];
+        BarAggregator.BarHandler handler = (id, interval, start, open, high, low, close, volume) -> completed[0]++;
+
+        for (int s = 0; s < 10; s++) {
+            aggregator.onTick(0, s, s * SECOND, handler);
+        }
+        aggregator.onTick(0, 100.0, 3 * SECOND, handler);
+        assertEquals(9, completed[0]);
+
+        List<PriceBar> bars = aggregator.recent(0, "AAPL", 0, 10, true);
+        assertEquals(4, bars.size());
+        assertEquals(List.of(6.0, 7.0, 8.0, 9.0), bars.stream().map(PriceBar::close).toList());
+        assertEquals(List.of(8.0, 9.0), aggregator.recent(0, "AAPL", 0, 2, true).stream().map(PriceBar::close).toList());
+        assertEquals(-1, aggregator.indexOf(MINUTE));
+    }
+
+    /**
+     * Tests that a bar survives the binary round trip.
+     */
+    @Test
+    void testBarCodecRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(MarketDataCodec.BAR_SIZE);
+        MarketDataCodec.encodeBar(buffer, 1, 60, 120_000, 10.5, 11.25, 9.75, 10.0, 17);
+        assertEquals(MarketDataCodec.BAR_SIZE, buffer.remaining());
+        assertEquals(new PriceBar("GOOG", 60, Instant.ofEpochMilli(120_000), 10.5, 11.25, 9.75, 10.0, 17),
+                MarketDataCodec.decodeBar(buffer, id -> id == 1 ? "GOOG" : "?"));
+    }
+
+}
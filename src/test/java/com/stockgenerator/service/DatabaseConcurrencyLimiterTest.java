@@ -0,0 +1,88 @@
+package com.stockgenerator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DatabaseConcurrencyLimiter}.
+ */
+class DatabaseConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Many virtual threads never run more calls at once than the limit allows.
+     */
+    @Test
+    void testBoundsConcurrentCalls() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(4, Duration.ofSeconds(10), meterRegistry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> limiter.run(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(1);
+                    running.decrementAndGet();
+                }));
+            }
+        }
+
+        assertTrue(maxRunning.get() <= 4, "at most 4 concurrent calls, was " + maxRunning.get());
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0.0, meterRegistry.get("stock.database.inflight").gauge().value());
+    }
+
+    /**
+     * A call fails once it has waited the acquire timeout for a slot.
+     */
+    @Test
+    void testRejectsAfterAcquireTimeout() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> holder = executor.submit(() -> limiter.run(() -> {
+                holding.countDown();
+                await(release);
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> limiter.call(() -> "never"));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals("done", limiter.call(() -> "done"));
+        assertEquals(1, meterRegistry.get("stock.database.wait").timer().count());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
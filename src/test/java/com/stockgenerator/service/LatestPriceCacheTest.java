@@ -0,0 +1,149 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.latest.LatestPriceLoader;
+import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.repository.StockPriceRepository;
+import com.stockgenerator.state.SymbolStateStore;
+import com.stockgenerator.universe.SymbolUniverse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verify that the last-value cache is warmed from the database once and then
+ * serves reads from its own slots.
+ */
+@ExtendWith(MockitoExtension.class)
+class LatestPriceCacheTest {
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    private LatestPriceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LatestPriceCache(new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT")), stockPriceRepository);
+    }
+
+    /**
+     * Tests that warm-up loads universe symbols and ignores rows of unknown symbols.
+     */
+    @Test
+    void testWarmUp() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 2, 17, 10, 0);
+        when(stockPriceRepository.streamAllByOrderBySymbol()).thenReturn(Stream.of(
+                new StockPrice(1L, "AAPL", 150.0, timestamp),
+                new StockPrice(2L, "NFLX", 900.0, timestamp)));
+
+        cache.warmUp();
+
+        StockPrice aapl = cache.get("AAPL").orElseThrow();
+        assertEquals(150.0, aapl.getPrice());
+        assertEquals(timestamp, aapl.getTimestamp());
+        assertTrue(cache.get("NFLX").isEmpty());
+        assertEquals(1, cache.getAll().size());
+    }
+
+    /**
+     * Tests that the database warm-up streams rows in a read-only transaction and detaches every row it reads.
+     */
+    @Test
+    void testWarmUpStreamsInReadOnlyTransaction() {
+        EntityManager entityManager = mock(EntityManager.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        StockPrice aapl = new StockPrice(1L, "AAPL", 150.0, LocalDateTime.of(2025, 2, 17, 10, 0));
+        StockPrice nflx = new StockPrice(2L, "NFLX", 900.0, LocalDateTime.of(2025, 2, 17, 10, 0));
+        when(stockPriceRepository.streamAllByOrderBySymbol()).thenReturn(Stream.of(aapl, nflx));
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT"));
+        LatestPriceCache streamed = new LatestPriceCache(universe, SymbolStateStore.allocate(3),
+                stockPriceRepository, null, entityManager, transactionManager);
+
+        streamed.warmUp();
+
+        assertEquals(150.0, streamed.get("AAPL").orElseThrow().getPrice());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager).commit(any());
+        verify(entityManager).detach(aapl);
+        verify(entityManager).detach(nflx);
+        verify(stockPriceRepository, never()).findAll();
+    }
+
+    /**
+     * Tests that a cold start reads the latest-price topic instead of the database when it is read to its end.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWarmUpFromLatestPriceTopic() {
+        LatestPriceLoader loader = mock(LatestPriceLoader.class);
+        when(loader.isEnabled()).thenReturn(true);
+        when(loader.load(any())).thenAnswer(invocation -> {
+            BiConsumer<String, StockTick> consumer = invocation.getArgument(0);
+            consumer.accept("GOOG", new StockTick(0, null, 2800.0, 5_000_000_000L, 0));
+            consumer.accept("NFLX", new StockTick(0, null, 900.0, 5_000_000_000L, 0));
+            return true;
+        });
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT"));
+        LatestPriceCache topicCache = new LatestPriceCache(universe, SymbolStateStore.allocate(3),
+                stockPriceRepository, loader, null, null);
+
+        topicCache.warmUp();
+
+        assertEquals(2800.0, topicCache.get("GOOG").orElseThrow().getPrice());
+        assertEquals(1, topicCache.getAll().size());
+        verifyNoInteractions(stockPriceRepository);
+    }
+
+    /**
+     * Tests that a cache over a store restored from a snapshot keeps its last values and skips the database.
+     */
+    @Test
+    void testWarmUpSkippedAfterRestore() {
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT"));
+        SymbolStateStore previous = SymbolStateStore.allocate(3);
+        new LatestPriceCache(universe, previous, stockPriceRepository).update(2, 310.0, 1_000L);
+        ByteBuffer snapshot = ByteBuffer.allocateDirect((int) previous.bytes());
+        previous.copyTo(0, 3, snapshot);
+        SymbolStateStore restored = SymbolStateStore.allocate(3);
+        restored.load(snapshot);
+
+        LatestPriceCache warm = new LatestPriceCache(universe, restored, stockPriceRepository);
+        warm.warmUp();
+
+        assertEquals(310.0, warm.get("MSFT").orElseThrow().getPrice());
+        assertTrue(warm.get("AAPL").isEmpty());
+        verifyNoInteractions(stockPriceRepository);
+    }
+
+    /**
+     * Tests that updates replace the cached value and reads never reach the repository.
+     */
+    @Test
+    void testUpdateAndRead() {
+        assertTrue(cache.get("GOOG").isEmpty());
+
+        cache.update(1, 200.0, 1_000L);
+        cache.update(1, 201.5, 2_000L);
+        cache.update(2, 300.0, 1_000L);
+
+        assertEquals(201.5, cache.get("GOOG").orElseThrow().getPrice());
+        assertEquals(List.of("GOOG", "MSFT"), cache.getAll().stream().map(StockPrice::getSymbol).toList());
+        verifyNoInteractions(stockPriceRepository);
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.config.SnapshotProperties;
+import com.stockgenerator.state.StateSnapshot;
+import com.stockgenerator.state.SymbolStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verify that snapshots are assembled from shard captures, written once complete and
+ * restored with their tick sequence.
+ */
+@ExtendWith(MockitoExtension.class)
+class StateSnapshotServiceTest {
+
+    @Mock
+    private StockPriceService stockPriceService;
+
+    /**
+     * Tests that a snapshot is written once every shard has captured its symbols, resuming
+     * the sequence above a gap, and that a final snapshot of the whole store, resuming
+     * exactly, is written on shutdown.
+     */
+    @Test
+    void testSnapshotAfterAllShardsCaptured(@TempDir Path directory) throws Exception {
+        when(stockPriceService.nextSequence()).thenReturn(100L, 200L);
+        SymbolStateStore store = SymbolStateStore.allocate(4);
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("state.snap"), 7L);
+        StateSnapshotService service = new StateSnapshotService(store, snapshot, stockPriceService,
+                properties(), new SimpleMeterRegistry());
+
+        assertEquals(0, service.requestedCapture());
+        service.requestCapture();
+        assertEquals(1, service.requestedCapture());
+        for (int id = 0; id < 4; id++) {
+            store.setPrice(id, 10.0 + id);
+        }
+        service.capture(0, 2);
+        // Shards still running are not asked twice
+        service.requestCapture();
+        assertEquals(1, service.requestedCapture());
+        store.setPrice(0, 99.0);
+        service.capture(2, 4);
+
+        SymbolStateStore restored = restoreWhenWritten(snapshot, 4);
+        // The next capture is requested once the snapshot is written
+        awaitCaptureRequest(service, 2);
+        assertEquals(10.0, restored.price(0));
+        assertEquals(13.0, restored.price(3));
+        assertEquals(1_100L, snapshot.restoredSequence());
+
+        service.shutdown();
+        StateSnapshot last = new StateSnapshot(snapshot.file(), 7L);
+        SymbolStateStore finalStore = SymbolStateStore.allocate(4);
+        assertTrue(last.restore(finalStore));
+        assertEquals(99.0, finalStore.price(0));
+        assertEquals(200L, last.restoredSequence());
+    }
+
+    /**
+     * Tests that the tick sequence resumes after the restored snapshot's.
+     */
+    @Test
+    void testResumesRestoredSequence(@TempDir Path directory) throws IOException {
+        SymbolStateStore store = SymbolStateStore.allocate(1);
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("state.snap"), 7L);
+        snapshot.write(ByteBuffer.allocate((int) store.bytes()), 42L, false);
+        assertTrue(snapshot.restore(store));
+
+        SnapshotProperties disabled = properties();
+        disabled.setEnabled(false);
+        StateSnapshotService service = new StateSnapshotService(store, snapshot, stockPriceService, disabled,
+                new SimpleMeterRegistry());
+        service.capture(0, 1);
+
+        verify(stockPriceService).resumeSequences(42L);
+        verifyNoMoreInteractions(stockPriceService);
+    }
+
+    /**
+     * Waits for the writer thread and restores the snapshot into a new store.
+     */
+    private static SymbolStateStore restoreWhenWritten(StateSnapshot snapshot, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!Files.exists(snapshot.file()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        SymbolStateStore restored = SymbolStateStore.allocate(size);
+        assertTrue(snapshot.restore(restored));
+        return restored;
+    }
+
+    /**
+     * Requests captures until one is accepted, as the writer clears its flag after the file appears.
+     */
+    private static void awaitCaptureRequest(StateSnapshotService service, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        service.requestCapture();
+        while (service.requestedCapture() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            service.requestCapture();
+        }
+        assertEquals(expected, service.requestedCapture());
+    }
+
+    /**
+     * Enabled snapshots whose periodic requests never fire during a test.
+     */
+    private static SnapshotProperties properties() {
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setEnabled(true);
+        properties.setInterval(Duration.ofHours(1));
+        properties.setSync(false);
+        properties.setSequenceGap(1_000L);
+        return properties;
+    }
+
+}
@@ -1,16 +1,23 @@
 package com.stockgenerator.service;
 
+import com.stockgenerator.journal.TickJournal;
 import com.stockgenerator.model.StockPrice;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
 import com.stockgenerator.repository.StockPriceRepository;
-import com.stockgenerator.service.StockPriceService;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,33 +35,47 @@ class StockPriceServiceTest {
     private StockPriceRepository stockPriceRepository;
 
     @Mock
-    private KafkaTemplate<String, StockPrice> kafkaTemplate;
+    private StockPriceProducer stockPriceProducer;
+
+    @Mock
+    private StockPriceWriteBehind writeBehind;
+
+    @Mock
+    private LatestPriceCache latestPriceCache;
+
+    @Mock
+    private PriceHistoryService historyService;
+
+    @Mock
+    private BarService barService;
+
+    @Mock
+    private TickJournal tickJournal;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private StockPriceService stockPriceService;
 
     @BeforeEach
     void setUp() {
-        MockitoAnnotations.openMocks(this);
+        SymbolUniverse universe = new SymbolUniverse(List.of("AAPL", "GOOG"));
+        stockPriceService = new StockPriceService(stockPriceRepository, stockPriceProducer, writeBehind, latestPriceCache, historyService, barService, tickJournal, universe, entityManager,
+                new DatabaseConcurrencyLimiter(1, Duration.ofMillis(100), new SimpleMeterRegistry()), transactionManager);
     }
 
     /**
-     * Tests updating (or creating) a new stock price when no existing record is found.
+     * Tests that a generated price is handed to the write-behind persister without touching the database.
      */
     @Test
-    void testUpdateStockPriceAndPublish_NewStock() {
-        String symbol = "AAPL";
+    void testUpdateStockPriceAndPublish_WriteBehind() {
+        String symbol = "GOOG";
         double price = 150.0;
 
-        // Simulate that no stock exists initially.
-        when(stockPriceRepository.findBySymbol(symbol)).thenReturn(Optional.empty());
-
-        // When saving, return a stock with an assigned ID.
-        StockPrice newStock = new StockPrice(null, symbol, price, LocalDateTime.now());
-        StockPrice savedStock = new StockPrice(1L, symbol, price, LocalDateTime.now());
-        when(stockPriceRepository.save(any(StockPrice.class))).thenReturn(savedStock);
-
-        // Act: Update or create and publish stock price.
+        // Act: Record and publish stock price.
         StockPrice result = stockPriceService.updateStockPriceAndPublish(symbol, price);
 
         // Assert: The result is not null and contains the expected symbol and price.
@@ -63,18 +84,20 @@ class StockPriceServiceTest {
         assertEquals(price, result.getPrice());
 
         // Verify interactions:
-        verify(stockPriceRepository, times(1)).findBySymbol(symbol);
-        verify(stockPriceRepository, times(1)).save(any(StockPrice.class));
-        verify(kafkaTemplate, times(1))
-                .send(eq("stock-price-topic"), eq(symbol), any(StockPrice.class));
+        verify(latestPriceCache, times(1)).update(eq(1), eq(price), anyLong());
+        verify(writeBehind, times(1)).record(eq(1), eq(price), anyLong());
+        verify(historyService, times(1)).append(eq(1), eq(price), anyLong(), eq(1L));
+        verifyNoInteractions(stockPriceRepository);
+        verify(stockPriceProducer, times(1)).send(argThat(tick ->
+                tick.symbolId() == 1 && symbol.equals(tick.symbol()) && tick.sequence() == 1L));
     }
 
     /**
-     * Tests updating an existing stock price.
+     * Tests updating an existing stock price of a symbol outside the universe, which is saved synchronously.
      */
     @Test
-    void testUpdateStockPriceAndPublish_ExistingStock() {
-        String symbol = "AAPL";
+    void testUpdateStockPriceAndPublish_ExistingStockOutsideUniverse() {
+        String symbol = "NFLX";
         double newPrice = 160.0;
         LocalDateTime oldTimestamp = LocalDateTime.now().minusHours(1);
         StockPrice existingStock = new StockPrice(1L, symbol, 150.0, oldTimestamp);
@@ -97,8 +120,8 @@ class StockPriceServiceTest {
         // Verify interactions:
         verify(stockPriceRepository, times(1)).findBySymbol(symbol);
         verify(stockPriceRepository, times(1)).save(any(StockPrice.class));
-        verify(kafkaTemplate, times(1))
-                .send(eq("stock-price-topic"), eq(symbol), any(StockPrice.class));
+        verifyNoInteractions(writeBehind, latestPriceCache, historyService);
+        verify(stockPriceProducer, times(1)).send(argThat(tick -> tick.symbolId() == -1 && symbol.equals(tick.symbol())));
     }
 
     /**
@@ -108,16 +131,62 @@ class StockPriceServiceTest {
     void testPublishStockPrice_Exception() {
         StockPrice stock = new StockPrice(1L, "GOOG", 2750.0, LocalDateTime.now());
         // Simulate an exception when publishing to Kafka.
-        doThrow(new RuntimeException("Kafka error")).when(kafkaTemplate)
-                .send(anyString(), anyString(), any(StockPrice.class));
+        doThrow(new RuntimeException("Kafka error")).when(stockPriceProducer).send(any(StockTick.class));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             stockPriceService.publishStockPrice(stock);
         });
         assertTrue(exception.getMessage().contains("Error publishing stock price"));
 
-        verify(kafkaTemplate, times(1))
-                .send(eq("stock-price-topic"), eq("GOOG"), any(StockPrice.class));
+        verify(stockPriceProducer, times(1)).send(argThat(tick -> "GOOG".equals(tick.symbol()) && tick.price() == 2750.0));
+    }
+
+    /**
+     * Tests that a stock price without a symbol or a positive price is rejected before anything is published.
+     */
+    @Test
+    void testPublishStockPrice_Invalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> stockPriceService.publishStockPrice(new StockPrice(null, "GOOG", null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockPriceService.publishStockPrice(new StockPrice(null, "GOOG", -1.0, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockPriceService.publishStockPrice(new StockPrice(null, null, 10.0, null)));
+        verifyNoInteractions(stockPriceProducer);
+    }
+
+    /**
+     * Tests that a generated tick is recorded from primitives and published with its reserved sequence.
+     */
+    @Test
+    void testRecordTick() {
+        long first = stockPriceService.reserveSequences(10);
+        assertEquals(11L, stockPriceService.reserveSequences(1));
+
+        stockPriceService.recordTick(0, 150.0, 1_000L, first);
+
+        verify(latestPriceCache).update(0, 150.0, 1_000L);
+        verify(writeBehind).record(0, 150.0, 1_000L);
+        verify(historyService).append(0, 150.0, 1_000L, 1L);
+        verify(stockPriceProducer).send(new StockTick(0, "AAPL", 150.0, 1_000_000_000L, 1L));
+        verifyNoInteractions(stockPriceRepository);
+    }
+
+    /**
+     * Tests that reads of universe symbols come from the cache and reads of other symbols from the database.
+     */
+    @Test
+    void testGetStockPriceBySymbol() {
+        StockPrice aapl = new StockPrice(null, "AAPL", 150.0, LocalDateTime.now());
+        StockPrice nflx = new StockPrice(1L, "NFLX", 900.0, LocalDateTime.now());
+        when(latestPriceCache.get("AAPL")).thenReturn(Optional.of(aapl));
+        when(stockPriceRepository.findBySymbol("NFLX")).thenReturn(Optional.of(nflx));
+
+        assertSame(aapl, stockPriceService.getStockPriceBySymbol("AAPL").orElseThrow());
+        assertSame(nflx, stockPriceService.getStockPriceBySymbol("NFLX").orElseThrow());
+
+        verify(latestPriceCache, never()).get("NFLX");
+        verify(stockPriceRepository, never()).findBySymbol("AAPL");
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.stockgenerator.service;
+
+import com.stockgenerator.config.PersistenceProperties;
+import com.stockgenerator.repository.StockPriceUpsertRepository;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verify that the write-behind persister coalesces updates per symbol and
+ * upserts them in batches against an in-memory H2 database.
+ */
+class StockPriceWriteBehindTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private StockPriceWriteBehind writeBehind;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE stock_prices (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL UNIQUE, price DOUBLE NOT NULL, timestamp TIMESTAMP NOT NULL)");
+
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setHighWatermark(2);
+        writeBehind = new StockPriceWriteBehind(new SymbolUniverse(List.of("AAPL", "GOOG", "MSFT")),
+                new StockPriceUpsertRepository(jdbcTemplate), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+        jdbcTemplate.execute("DROP TABLE stock_prices");
+    }
+
+    /**
+     * Tests that repeated updates of a symbol are coalesced and only the latest price is written.
+     */
+    @Test
+    void testFlushCoalescesLatestPrice() {
+        writeBehind.record(0, 100.0, 1_000L);
+        writeBehind.record(0, 101.0, 2_000L);
+        writeBehind.record(1, 200.0, 1_000L);
+        writeBehind.record(2, 300.0, 1_000L);
+
+        assertEquals(3, writeBehind.pendingCount());
+        assertTrue(writeBehind.isBackpressured());
+        assertEquals(1.0, meterRegistry.counter("stock.persistence.coalesced").count());
+
+        writeBehind.flush();
+
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals(101.0, jdbcTemplate.queryForObject(
+                "SELECT price FROM stock_prices WHERE symbol = 'AAPL'", Double.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_prices", Integer.class));
+        assertEquals(3.0, meterRegistry.counter("stock.persistence.rows.flushed").count());
+    }
+
+    /**
+     * Tests that a second flush updates existing rows instead of inserting duplicates.
+     */
+    @Test
+    void testFlushUpsertsExistingRows() {
+        writeBehind.record(1, 200.0, 1_000L);
+        writeBehind.flush();
+        writeBehind.record(1, 210.0, 2_000L);
+        writeBehind.flush();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_prices", Integer.class));
+        assertEquals(210.0, jdbcTemplate.queryForObject(
+                "SELECT price FROM stock_prices WHERE symbol = 'GOOG'", Double.class));
+    }
+
+}
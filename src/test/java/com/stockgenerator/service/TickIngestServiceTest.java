@@ -0,0 +1,166 @@
+package com.stockgenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockgenerator.codec.TickCodec;
+import com.stockgenerator.config.IngestProperties;
+import com.stockgenerator.model.PublishBatchResult;
+import com.stockgenerator.model.StockTick;
+import com.stockgenerator.producer.StockPriceProducer;
+import com.stockgenerator.universe.SymbolUniverse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verify that bulk bodies are parsed in every format, that invalid records are counted
+ * and that backpressure stops publishing at the first unsent record.
+ */
+class TickIngestServiceTest {
+
+    private final StockPriceService stockPriceService = mock(StockPriceService.class);
+
+    private final StockPriceProducer producer = mock(StockPriceProducer.class);
+
+    private final List<StockTick> sent = new ArrayList<>();
+
+    private TickIngestService service;
+
+    /** Ticks the producer accepts before its window is full. */
+    private int room;
+
+    @BeforeEach
+    void setUp() {
+        IngestProperties properties = new IngestProperties();
+        properties.setBatchSize(2);
+        service = new TickIngestService(stockPriceService, producer, new SymbolUniverse(List.of("AAPL", "GOOG")),
+                properties, new ObjectMapper(), new SimpleMeterRegistry());
+        room = Integer.MAX_VALUE;
+        when(stockPriceService.reserveSequences(anyInt())).thenReturn(1L);
+        when(producer.trySend(any(), anyInt())).thenAnswer(invocation -> {
+            StockTick[] ticks = invocation.getArgument(0);
+            int count = Math.min(invocation.getArgument(1), room);
+            for (int i = 0; i < count; i++) {
+                sent.add(ticks[i]);
+            }
+            room -= count;
+            return count;
+        });
+    }
+
+    /**
+     * Tests that a JSON array is published and invalid records are counted.
+     */
+    @Test
+    void testJsonArray() throws IOException {
+        PublishBatchResult result = service.publishJson(body("""
+                [{"symbol":"AAPL","price":150.5,"timestamp":"2025-02-17T10:00:00Z"},
+                 {"symbol":"GOOG","price":-1},
+                 {"symbol":"NEW","price":10.0,"timestamp":1739786400000,"extra":{"a":[1]}},
+                 42]
+                """));
+
+        assertEquals(new PublishBatchResult(2, 2, -1, null), result);
+        assertEquals(0, sent.get(0).symbolId());
+        assertEquals(150.5, sent.get(0).price());
+        assertEquals(nanos(Instant.parse("2025-02-17T10:00:00Z")), sent.get(0).epochNanos());
+        assertEquals(-1, sent.get(1).symbolId());
+        assertEquals("NEW", sent.get(1).symbol());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1739786400000L), sent.get(1).epochNanos());
+    }
+
+    /**
+     * Tests that newline-delimited objects are published and a syntax error stops parsing.
+     */
+    @Test
+    void testNdjsonWithSyntaxError() throws IOException {
+        PublishBatchResult result = service.publishJson(body("""
+                {"symbol":"AAPL","price":1.0}
+                {"symbol":"GOOG","price":2.0}
+                {"symbol":"AAPL","price":3.0}
+                {"symbol":
+                """));
+
+        assertEquals(3, result.accepted());
+        assertEquals(-1, result.resumeAt());
+        assertNotNull(result.error());
+        assertEquals(List.of(1.0, 2.0, 3.0), sent.stream().map(StockTick::price).toList());
+    }
+
+    /**
+     * Tests that binary records are published with their timestamps and unknown ids rejected.
+     */
+    @Test
+    void testBinary() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TickCodec.V1_SIZE * 3);
+        TickCodec.put(buffer, 0, 1, 200.25, 123L, 9);
+        TickCodec.put(buffer, TickCodec.V1_SIZE, 7, 1.0, 456L, 10);
+        TickCodec.put(buffer, TickCodec.V1_SIZE * 2, 0, 99.0, 789L, 11);
+
+        PublishBatchResult result = service.publishBinary(new ByteArrayInputStream(buffer.array()));
+
+        assertEquals(new PublishBatchResult(2, 1, -1, null), result);
+        assertEquals("GOOG", sent.get(0).symbol());
+        assertEquals(123L, sent.get(0).epochNanos());
+        assertEquals("AAPL", sent.get(1).symbol());
+    }
+
+    /**
+     * Tests that a truncated binary record is reported.
+     */
+    @Test
+    void testBinaryTruncated() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TickCodec.V1_SIZE + 5);
+        TickCodec.put(buffer, 0, 0, 10.0, 1L, 1);
+
+        PublishBatchResult result = service.publishBinary(new ByteArrayInputStream(buffer.array()));
+
+        assertEquals(1, result.accepted());
+        assertNotNull(result.error());
+    }
+
+    /**
+     * Tests that a full send window stops publishing at the first unsent record.
+     */
+    @Test
+    void testBackpressureReportsResumePoint() throws IOException {
+        room = 3;
+        PublishBatchResult result = service.publishJson(body("""
+                [{"symbol":"AAPL","price":1.0},
+                 {"symbol":"AAPL","price":0},
+                 {"symbol":"AAPL","price":2.0},
+                 {"symbol":"AAPL","price":3.0},
+                 {"symbol":"AAPL","price":4.0},
+                 {"symbol":"AAPL","price":5.0}]
+                """));
+
+        assertTrue(result.throttled());
+        assertEquals(3, result.accepted());
+        assertEquals(1, result.rejected());
+        assertEquals(4, result.resumeAt());
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long nanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+}
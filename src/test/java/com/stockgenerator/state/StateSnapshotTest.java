@@ -0,0 +1,142 @@
+package com.stockgenerator.state;
+
+import com.stockgenerator.config.PriceEngineProperties;
+import com.stockgenerator.engine.PricePathEngine;
+import com.stockgenerator.engine.SymbolRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StateSnapshot}.
+ */
+class StateSnapshotTest {
+
+    /**
+     * A written snapshot restores every field of every record and the tick sequence.
+     */
+    @Test
+    void testWriteAndRestore(@TempDir Path directory) throws IOException {
+        SymbolStateStore store = SymbolStateStore.allocate(3);
+        for (int id = 0; id < 3; id++) {
+            store.setPrice(id, 100.0 + id);
+            store.setAnchor(id, 50.0 + id);
+            store.setSequence(id, 10L + id);
+            store.setRandomState(id, -1L - id);
+            store.setVersionRelease(id, 2L);
+            store.setLast(id, 200.0 + id, 1_000L + id);
+        }
+        // A last value caught mid-write
+        store.setVersionOpaque(2, 3L);
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("snapshot/state.snap"), 7L);
+        snapshot.write(copy(store), 42L, false);
+
+        SymbolStateStore restored = SymbolStateStore.allocate(3);
+        assertTrue(new StateSnapshot(snapshot.file(), 7L).restore(restored));
+
+        assertTrue(restored.restored());
+        for (int id = 0; id < 3; id++) {
+            assertEquals(100.0 + id, restored.price(id));
+            assertEquals(50.0 + id, restored.anchor(id));
+            assertEquals(10L + id, restored.sequence(id));
+            assertEquals(-1L - id, restored.randomState(id));
+            assertEquals(200.0 + id, restored.lastPrice(id));
+            assertEquals(1_000L + id, restored.lastTimestamp(id));
+        }
+        assertEquals(2L, restored.versionAcquire(0));
+        assertEquals(4L, restored.versionAcquire(2));
+        assertFalse(Files.exists(directory.resolve("snapshot/state.snap.tmp")));
+    }
+
+    /**
+     * A snapshot resumes the tick sequence at its resume sequence, but never below its next sequence.
+     */
+    @Test
+    void testResumeSequence(@TempDir Path directory) throws IOException {
+        SymbolStateStore store = SymbolStateStore.allocate(1);
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("state.snap"), 7L);
+
+        snapshot.write(copy(store), 42L, 1_042L, false);
+        assertTrue(snapshot.restore(SymbolStateStore.allocate(1)));
+        assertEquals(1_042L, snapshot.restoredSequence());
+
+        snapshot.write(copy(store), 42L, 0L, false);
+        assertTrue(snapshot.restore(SymbolStateStore.allocate(1)));
+        assertEquals(42L, snapshot.restoredSequence());
+    }
+
+    /**
+     * Missing, foreign and damaged snapshots are ignored and leave the store untouched.
+     */
+    @Test
+    void testIgnoresMissingForeignAndDamagedSnapshots(@TempDir Path directory) throws IOException {
+        SymbolStateStore store = SymbolStateStore.allocate(2);
+        store.setPrice(1, 12.5);
+        Path file = directory.resolve("state.snap");
+        SymbolStateStore target = SymbolStateStore.allocate(2);
+
+        StateSnapshot snapshot = new StateSnapshot(file, 7L);
+        assertFalse(snapshot.restore(target));
+        snapshot.write(copy(store), 1L, false);
+
+        assertFalse(new StateSnapshot(file, 8L).restore(target));
+        assertFalse(snapshot.restore(SymbolStateStore.allocate(3)));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[StateSnapshot.HEADER_SIZE + SymbolStateStore.STRIDE] ^= 1;
+        Files.write(file, bytes);
+        assertFalse(snapshot.restore(target));
+
+        assertFalse(target.restored());
+        assertEquals(0.0, target.price(1));
+        assertEquals(-1L, snapshot.restoredSequence());
+    }
+
+    /**
+     * An engine over a restored store continues every price path exactly where the snapshot left it.
+     */
+    @Test
+    void testWarmRestartContinuesPricePaths(@TempDir Path directory) throws IOException {
+        PriceEngineProperties properties = new PriceEngineProperties();
+        SymbolStateStore store = SymbolStateStore.allocate(5);
+        PricePathEngine engine = new PricePathEngine(store, properties, null);
+        SymbolRandom random = engine.newRandom();
+        for (int step = 0; step < 3; step++) {
+            engine.advance(0, 5, random);
+        }
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("state.snap"), 7L);
+        snapshot.write(copy(store), 16L, false);
+        for (int step = 0; step < 3; step++) {
+            engine.advance(0, 5, random);
+        }
+
+        SymbolStateStore restoredStore = SymbolStateStore.allocate(5);
+        assertTrue(snapshot.restore(restoredStore));
+        PricePathEngine restarted = new PricePathEngine(restoredStore, properties, null);
+        SymbolRandom restartedRandom = restarted.newRandom();
+        for (int step = 0; step < 3; step++) {
+            restarted.advance(0, 5, restartedRandom);
+        }
+
+        for (int id = 0; id < 5; id++) {
+            assertEquals(engine.price(id), restarted.price(id));
+            assertEquals(6, restarted.sequence(id));
+        }
+        assertEquals(16L, snapshot.restoredSequence());
+    }
+
+    /**
+     * Copies every record of a store into a snapshot buffer.
+     */
+    private static ByteBuffer copy(SymbolStateStore store) {
+        ByteBuffer records = ByteBuffer.allocateDirect((int) store.bytes());
+        store.copyTo(0, store.size(), records);
+        return records;
+    }
+
+}
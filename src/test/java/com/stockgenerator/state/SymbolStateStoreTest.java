@@ -0,0 +1,67 @@
+package com.stockgenerator.state;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SymbolStateStore}.
+ */
+class SymbolStateStoreTest {
+
+    /**
+     * Fields of neighbouring records are independent.
+     */
+    @Test
+    void testRecordsAreIndependent() {
+        SymbolStateStore store = SymbolStateStore.allocate(3);
+        for (int id = 0; id < 3; id++) {
+            store.setPrice(id, 100.0 + id);
+            store.setAnchor(id, 50.0 + id);
+            store.setSequence(id, 10L + id);
+            store.setRandomState(id, -1L - id);
+            store.setVersionRelease(id, 2L * id);
+            store.setLast(id, 200.0 + id, 1_000L + id);
+        }
+
+        for (int id = 0; id < 3; id++) {
+            assertEquals(100.0 + id, store.price(id));
+            assertEquals(50.0 + id, store.anchor(id));
+            assertEquals(10L + id, store.sequence(id));
+            assertEquals(-1L - id, store.randomState(id));
+            assertEquals(2L * id, store.versionAcquire(id));
+            assertEquals(200.0 + id, store.lastPrice(id));
+            assertEquals(1_000L + id, store.lastTimestamp(id));
+        }
+        assertEquals(3L * SymbolStateStore.STRIDE, store.bytes());
+        assertNull(store.file());
+    }
+
+    /**
+     * A mapped store writes fixed-stride records through to its file, which is recreated empty.
+     */
+    @Test
+    void testMappedStoreWritesThroughToFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("state/symbols.bin");
+        SymbolStateStore store = SymbolStateStore.map(file, 2);
+        store.setPrice(1, 123.45);
+        store.setSequence(1, 7);
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.nativeOrder());
+        assertEquals(2L * SymbolStateStore.STRIDE, bytes.capacity());
+        assertEquals(123.45, bytes.getDouble(SymbolStateStore.STRIDE));
+        assertEquals(7, bytes.getLong(SymbolStateStore.STRIDE + 16));
+
+        SymbolStateStore recreated = SymbolStateStore.map(file, 2);
+        assertEquals(0.0, recreated.price(1));
+        assertEquals(file, recreated.file());
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.stockgenerator.engine;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PriceKernel} computing {@link #SPECIES} lanes at a time with the Vector API.
+ * <p>
+ * Only loaded through {@link PriceKernel#best()} when {@code jdk.incubator.vector} is
+ * present. Prices are positive, so rounding to the nearest tick truncates
+ * {@code x + 0.5}, which equals {@link Math#round(double)} there. The vector
+ * exponential may differ from {@link Math#exp(double)} in the last bit, so a price can
+ * occasionally round to the neighbouring tick compared with the scalar kernel; paths
+ * are reproducible for a given kernel.
+ * </p>
+ */
+final class VectorPriceKernel implements PriceKernel {
+
+    /** Widest double vector of the platform. */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void advance(double[] prices, double[] shocks, int from, int to, double drift, double diffusion,
+                        double tickSize) {
+        double ticksPerUnit = 1.0 / tickSize;
+        int length = to - from;
+        for (int j = 0; j < length; j += SPECIES.length()) {
+            // Masked tail, so every price takes the same path whatever the range boundaries
+            VectorMask<Double> lanes = SPECIES.indexInRange(j, length);
+            DoubleVector shock = DoubleVector.fromArray(SPECIES, shocks, j, lanes);
+            DoubleVector price = DoubleVector.fromArray(SPECIES, prices, from + j, lanes);
+            DoubleVector next = price.mul(shock.mul(diffusion).add(drift).lanewise(VectorOperators.EXP));
+            LongVector ticks = (LongVector) next.mul(ticksPerUnit).add(0.5).convert(VectorOperators.D2L, 0);
+            ((DoubleVector) ticks.convert(VectorOperators.L2D, 0))
+                    .div(ticksPerUnit)
+                    .max(tickSize)
+                    .intoArray(prices, from + j, lanes);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+
+}